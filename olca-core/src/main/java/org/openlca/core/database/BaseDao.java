@@ -14,6 +14,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.Table;
 import jakarta.persistence.TypedQuery;
 import org.openlca.core.model.AbstractEntity;
+import org.openlca.core.model.RefEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,6 +72,9 @@ public class BaseDao<T extends AbstractEntity> implements IDao<T> {
 			em.getTransaction().begin();
 			em.remove(em.merge(entity));
 			em.getTransaction().commit();
+			if (entity instanceof RefEntity ref) {
+				db.getListeners().deleted(ref);
+			}
 		} catch (Exception e) {
 			DatabaseException.logAndThrow(log, "Error while deleting "
 					+ entityType.getSimpleName(), e);
@@ -91,6 +95,11 @@ public class BaseDao<T extends AbstractEntity> implements IDao<T> {
 				em.remove(em.merge(entity));
 			}
 			em.getTransaction().commit();
+			for (T entity : entities) {
+				if (entity instanceof RefEntity ref) {
+					db.getListeners().deleted(ref);
+				}
+			}
 		} catch (Exception e) {
 			DatabaseException.logAndThrow(log, "Error while deleting "
 					+ entityType.getSimpleName(), e);
@@ -108,6 +117,9 @@ public class BaseDao<T extends AbstractEntity> implements IDao<T> {
 			em.getTransaction().begin();
 			T retval = em.merge(entity);
 			em.getTransaction().commit();
+			if (retval instanceof RefEntity ref) {
+				db.getListeners().updated(ref);
+			}
 			return retval;
 		} catch (Exception e) {
 			DatabaseException.logAndThrow(log, "Error while updating "
@@ -127,6 +139,9 @@ public class BaseDao<T extends AbstractEntity> implements IDao<T> {
 			em.getTransaction().begin();
 			em.persist(entity);
 			em.getTransaction().commit();
+			if (entity instanceof RefEntity ref) {
+				db.getListeners().inserted(ref);
+			}
 			return entity;
 		} catch (Exception e) {
 			DatabaseException.logAndThrow(log, "Error while inserting "
@@ -0,0 +1,118 @@
+package org.openlca.core.database;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.RefEntity;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The listeners of a database. They are notified when a model is inserted,
+ * updated, or deleted via the DAOs of the database. Bulk writers that bypass
+ * the DAOs, like the batch imports, report their models via
+ * {@link #inserted(RefEntity)} and {@link #updated(RefEntity)} or, when the
+ * single models are not known, the changed model types via
+ * {@link #changed(ModelType...)}. Updates via {@link NativeSql} are reported
+ * as a change of unknown model types. Changes that are made directly in an
+ * entity manager outside of these paths are not reported.
+ */
+public final class DatabaseListeners {
+
+	private final List<IDatabaseListener> listeners =
+		new CopyOnWriteArrayList<>();
+
+	public void add(IDatabaseListener listener) {
+		if (listener != null && !listeners.contains(listener)) {
+			listeners.add(listener);
+		}
+	}
+
+	public void remove(IDatabaseListener listener) {
+		if (listener != null) {
+			listeners.remove(listener);
+		}
+	}
+
+	public boolean isEmpty() {
+		return listeners.isEmpty();
+	}
+
+	/**
+	 * Notifies the listeners that models of the given types were changed
+	 * without reporting the single models. When no types are given, models
+	 * of any type could have been changed, e.g. after native SQL updates.
+	 */
+	public void changed(ModelType... types) {
+		if (listeners.isEmpty())
+			return;
+		Set<ModelType> set = types == null || types.length == 0
+			? Collections.emptySet()
+			: Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(types)));
+		for (var listener : listeners) {
+			notify(listener, l -> l.databaseChanged(set));
+		}
+	}
+
+	/**
+	 * Notifies the listeners that the given entity was inserted. This is
+	 * done by the DAOs; bulk writers that insert models directly should call
+	 * this after a successful commit.
+	 */
+	public void inserted(RefEntity entity) {
+		fire(entity, IDatabaseListener::modelInserted);
+	}
+
+	/**
+	 * Notifies the listeners that the given entity was updated. This is
+	 * done by the DAOs; bulk writers that update models directly should call
+	 * this after a successful commit.
+	 */
+	public void updated(RefEntity entity) {
+		fire(entity, IDatabaseListener::modelUpdated);
+	}
+
+	void deleted(RefEntity entity) {
+		fire(entity, IDatabaseListener::modelDeleted);
+	}
+
+	void updated(Descriptor d) {
+		if (d == null)
+			return;
+		for (var listener : listeners) {
+			notify(listener, l -> l.modelUpdated(d));
+		}
+	}
+
+	private void fire(RefEntity entity, Event event) {
+		if (entity == null || listeners.isEmpty())
+			return;
+		var d = Descriptor.of(entity);
+		if (d == null)
+			return;
+		for (var listener : listeners) {
+			notify(listener, l -> event.fire(l, d));
+		}
+	}
+
+	private void notify(
+		IDatabaseListener listener, Consumer<IDatabaseListener> fn) {
+		try {
+			fn.accept(listener);
+		} catch (Exception e) {
+			var log = LoggerFactory.getLogger(getClass());
+			log.error("database listener " + listener + " failed", e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Event {
+		void fire(IDatabaseListener listener, Descriptor descriptor);
+	}
+}
@@ -40,6 +40,7 @@ public class Derby implements IDatabase {
 	private EntityManagerFactory entityFactory;
 
 	private final String name;
+	private final DatabaseListeners listeners = new DatabaseListeners();
 	private File folder;
 	private File fileStorageLocation;
 	private String url;
@@ -166,6 +167,11 @@ public class Derby implements IDatabase {
 		return folder;
 	}
 
+	@Override
+	public DatabaseListeners getListeners() {
+		return listeners;
+	}
+
 	/**
 	 * Returns the folder '_olca_' within the database directory. If this folder
 	 * does not exist is created when this method is called.
@@ -13,6 +13,7 @@ import java.util.function.Consumer;
 import gnu.trove.set.TLongSet;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import org.eclipse.persistence.jpa.JpaHelper;
 import org.openlca.core.model.ModelType;
 import org.openlca.core.model.RootEntity;
 import org.openlca.core.model.descriptors.RootDescriptor;
@@ -63,6 +64,13 @@ public interface IDatabase extends EntityStore, Closeable {
 	 */
 	File getFileStorageLocation();
 
+	/**
+	 * Returns the listeners of this database that are notified when models
+	 * are inserted, updated, or deleted via the DAOs of this database, or
+	 * when the database was changed by bulk writes or via native SQL.
+	 */
+	DatabaseListeners getListeners();
+
 	/**
 	 * Clears the cache of the entity manager of this database. You should always
 	 * call this method when you modified the database (via native SQL queries)
@@ -281,12 +289,23 @@ public interface IDatabase extends EntityStore, Closeable {
 		}
 		NativeSql.on(this).runUpdate("UPDATE SEQUENCE SET SEQ_COUNT = 0");
 		this.clearCache();
+
+		// drop the IDs that were already pre-allocated from the old sequence
+		// value, otherwise they would collide with the IDs of the new sequence
+		var emf = getEntityFactory();
+		if (emf != null) {
+			JpaHelper.getServerSession(emf)
+					.getSequencingControl()
+					.initializePreallocated();
+		}
 	}
 
 	/**
 	 * Executes the given function in a transaction. It closes the provided entity
 	 * manager when the function is done. When the function fails with an
-	 * exception the transaction is rolled back.
+	 * exception the transaction is rolled back. The listeners of the database
+	 * are not notified about the changes of the transaction; callers that
+	 * write models this way should report them via {@link #getListeners()}.
 	 *
 	 * @param fn the function that should be executed within a transaction
 	 */
@@ -1,5 +1,8 @@
 package org.openlca.core.database;
 
+import java.util.Set;
+
+import org.openlca.core.model.ModelType;
 import org.openlca.core.model.descriptors.Descriptor;
 
 public interface IDatabaseListener {
@@ -10,4 +13,13 @@ public interface IDatabaseListener {
 
 	void modelDeleted(Descriptor descriptor);
 
+	/**
+	 * Called when models of the given types were changed in a way that is not
+	 * reported model by model, e.g. via native SQL statements. An empty set
+	 * means that models of any type could have been changed. Listeners that
+	 * cache data of these types should drop them.
+	 */
+	default void databaseChanged(Set<ModelType> types) {
+	}
+
 }
@@ -15,6 +15,7 @@ import com.zaxxer.hikari.HikariDataSource;
 public class MySQL implements IDatabase {
 
 	private final String name;
+	private final DatabaseListeners listeners = new DatabaseListeners();
 	private final EntityManagerFactory entityFactory;
 	private final HikariDataSource connectionPool;
 	private File fileDir;
@@ -45,6 +46,11 @@ public class MySQL implements IDatabase {
 		connectionPool = new HikariDataSource(poolConfig);
 	}
 
+	@Override
+	public DatabaseListeners getListeners() {
+		return listeners;
+	}
+
 	@Override
 	public File getFileStorageLocation() {
 		return fileDir;
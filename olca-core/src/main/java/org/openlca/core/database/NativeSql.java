@@ -117,6 +117,7 @@ public final class NativeSql {
 			}
 			con.commit();
 			db.clearCache();
+			db.getListeners().changed();
 		} catch (SQLException e) {
 			throw new RuntimeException("update failed: " + query, e);
 		}
@@ -130,6 +131,7 @@ public final class NativeSql {
 			con.commit();
 			log.trace("update done");
 			db.clearCache();
+			db.getListeners().changed();
 		} catch (SQLException e) {
 			throw new RuntimeException("update failed: " + sql, e);
 		}
@@ -142,6 +144,7 @@ public final class NativeSql {
 			stmt.executeUpdate();
 			con.commit();
 			db.clearCache();
+			db.getListeners().changed();
 		} catch (SQLException e) {
 			throw new RuntimeException("updated failed: " + sql, e);
 		}
@@ -159,6 +162,7 @@ public final class NativeSql {
 			con.commit();
 			log.trace("inserts done");
 			db.clearCache();
+			db.getListeners().changed();
 		} catch (SQLException e) {
 			throw new RuntimeException("batch insert failed: " + sql, e);
 		}
@@ -182,6 +186,37 @@ public final class NativeSql {
 		log.trace("executed batch with {} rows", rows.length);
 	}
 
+	/**
+	 * Reserves a range of {@code count} IDs from the entity sequence of the
+	 * database and returns the first ID of that range. The IDs of the range
+	 * are not used by the entity manager, so they can be directly assigned
+	 * to entities that are inserted via SQL statements.
+	 */
+	public long allocateIds(int count) {
+		if (count <= 0)
+			throw new IllegalArgumentException("invalid ID count: " + count);
+		log.trace("allocate {} IDs", count);
+		try (var con = db.createConnection();
+				 var update = con.prepareStatement(
+					 "UPDATE SEQUENCE SET SEQ_COUNT = SEQ_COUNT + ?"
+						 + " WHERE SEQ_NAME = 'entity_seq'");
+				 var query = con.prepareStatement(
+					 "SELECT SEQ_COUNT FROM SEQUENCE WHERE SEQ_NAME = 'entity_seq'")) {
+			update.setLong(1, count);
+			update.executeUpdate();
+			long last;
+			try (var result = query.executeQuery()) {
+				if (!result.next())
+					throw new SQLException("no entity sequence found");
+				last = result.getLong(1);
+			}
+			con.commit();
+			return last - count + 1;
+		} catch (SQLException e) {
+			throw new RuntimeException("failed to allocate IDs", e);
+		}
+	}
+
 	public void batchUpdate(Iterable<String> statements) throws SQLException {
 		log.trace("execute batch update");
 		try (var con = db.createConnection();
@@ -199,6 +234,7 @@ public final class NativeSql {
 			log.trace("{} statements executed", s.length);
 			con.commit();
 			db.clearCache();
+			db.getListeners().changed();
 		}
 	}
 
@@ -0,0 +1,370 @@
+package org.openlca.core.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openlca.core.model.AbstractEntity;
+import org.openlca.core.model.AllocationFactor;
+import org.openlca.core.model.Exchange;
+import org.openlca.core.model.Parameter;
+import org.openlca.core.model.Process;
+import org.openlca.core.model.Uncertainty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Inserts new processes in bulk. The process data sets with their
+ * documentation and social aspects are persisted by the entity manager but
+ * the exchanges, allocation factors, and parameters of the processes, which
+ * are typically the largest part of a data set, are written directly with
+ * batched SQL statements in the same transaction. The IDs of these entities
+ * are reserved in advance via {@link NativeSql#allocateIds(int)} and set on
+ * the given objects, so that they look like they were inserted by the entity
+ * manager after the insert.
+ * <p>
+ * The processes need to be new (with an ID of 0) and all entities that they
+ * reference (flows, units, locations, etc.) need to be already stored in the
+ * database. The written processes are evicted from the entity cache; the
+ * inserted objects are not managed and should not be updated afterwards
+ * but reloaded from the database.
+ */
+public final class ProcessWriter {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final int MAX_BATCH_SIZE = 1000;
+	private final IDatabase db;
+
+	private ProcessWriter(IDatabase db) {
+		this.db = db;
+	}
+
+	public static ProcessWriter on(IDatabase db) {
+		return new ProcessWriter(db);
+	}
+
+	public void insert(Process process) {
+		if (process != null) {
+			insert(List.of(process));
+		}
+	}
+
+	public void insert(List<Process> processes) {
+		if (processes == null || processes.isEmpty())
+			return;
+		var parts = new ArrayList<Parts>(processes.size());
+		for (var p : processes) {
+			if (p == null)
+				continue;
+			if (p.id != 0)
+				throw new IllegalArgumentException(
+					"process " + p.refId + " is not new");
+			parts.add(Parts.detach(p));
+		}
+		if (parts.isEmpty())
+			return;
+		log.trace("insert {} processes", parts.size());
+
+		boolean success = false;
+		try {
+			allocateIds(parts);
+			db.transaction(em -> {
+				for (var part : parts) {
+					em.persist(part.process);
+				}
+				em.flush();
+				var con = em.unwrap(Connection.class);
+				try {
+					insertExchanges(con, parts);
+					insertAllocationFactors(con, parts);
+					insertParameters(con, parts);
+					updateQuantitativeReferences(con, parts);
+				} catch (SQLException e) {
+					throw new RuntimeException("failed to insert processes", e);
+				}
+			});
+			success = true;
+			for (var part : parts) {
+				db.getListeners().inserted(part.process);
+			}
+		} finally {
+			for (var part : parts) {
+				part.attach(success);
+			}
+			var cache = db.getEntityFactory().getCache();
+			for (var part : parts) {
+				if (part.process.id != 0) {
+					cache.evict(Process.class, part.process.id);
+				}
+			}
+		}
+	}
+
+	private void allocateIds(List<Parts> parts) {
+		int count = 0;
+		for (var part : parts) {
+			count += part.exchanges.size()
+				+ part.factors.size()
+				+ part.parameters.size();
+		}
+		if (count == 0)
+			return;
+		long next = NativeSql.on(db).allocateIds(count);
+		for (var part : parts) {
+			for (var e : part.exchanges) {
+				e.id = next++;
+			}
+			for (var f : part.factors) {
+				f.id = next++;
+			}
+			for (var param : part.parameters) {
+				param.id = next++;
+			}
+		}
+	}
+
+	private void insertExchanges(
+		Connection con, List<Parts> parts) throws SQLException {
+		var sql = """
+			INSERT INTO tbl_exchanges (
+				id, f_owner, internal_id, f_flow, f_unit, is_input,
+				f_flow_property_factor, resulting_amount_value,
+				resulting_amount_formula, avoided_product, f_default_provider,
+				f_location, description, cost_value, cost_formula, f_currency,
+				distribution_type, parameter1_value, parameter2_value,
+				parameter3_value, dq_entry, base_uncertainty)
+			VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+			""";
+		try (var stmt = con.prepareStatement(sql)) {
+			var batch = new Batch(stmt);
+			for (var part : parts) {
+				long owner = part.process.id;
+				for (var e : part.exchanges) {
+					stmt.setLong(1, e.id);
+					stmt.setLong(2, owner);
+					stmt.setInt(3, e.internalId);
+					setRef(stmt, 4, e.flow);
+					setRef(stmt, 5, e.unit);
+					stmt.setInt(6, e.isInput ? 1 : 0);
+					setRef(stmt, 7, e.flowPropertyFactor);
+					stmt.setDouble(8, e.amount);
+					stmt.setString(9, e.formula);
+					stmt.setInt(10, e.isAvoided ? 1 : 0);
+					stmt.setLong(11, e.defaultProviderId);
+					setRef(stmt, 12, e.location);
+					stmt.setString(13, e.description);
+					setDouble(stmt, 14, e.costs);
+					stmt.setString(15, e.costFormula);
+					setRef(stmt, 16, e.currency);
+					setUncertainty(stmt, 17, e.uncertainty);
+					stmt.setString(21, e.dqEntry);
+					setDouble(stmt, 22, e.baseUncertainty);
+					batch.add();
+				}
+			}
+			batch.execute();
+		}
+	}
+
+	private void insertAllocationFactors(
+		Connection con, List<Parts> parts) throws SQLException {
+		var sql = """
+			INSERT INTO tbl_allocation_factors (
+				id, allocation_type, value, formula, f_process, f_product,
+				f_exchange)
+			VALUES (?, ?, ?, ?, ?, ?, ?)
+			""";
+		try (var stmt = con.prepareStatement(sql)) {
+			var batch = new Batch(stmt);
+			for (var part : parts) {
+				for (var f : part.factors) {
+					stmt.setLong(1, f.id);
+					stmt.setString(2, f.method != null ? f.method.name() : null);
+					stmt.setDouble(3, f.value);
+					stmt.setString(4, f.formula);
+					stmt.setLong(5, part.process.id);
+					stmt.setLong(6, f.productId);
+					setRef(stmt, 7, f.exchange);
+					batch.add();
+				}
+			}
+			batch.execute();
+		}
+	}
+
+	private void insertParameters(
+		Connection con, List<Parts> parts) throws SQLException {
+		var sql = """
+			INSERT INTO tbl_parameters (
+				id, ref_id, name, version, last_change, f_category, tags,
+				library, description, is_input_param, f_owner, scope, value,
+				formula, distribution_type, parameter1_value, parameter2_value,
+				parameter3_value)
+			VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+			""";
+		try (var stmt = con.prepareStatement(sql)) {
+			var batch = new Batch(stmt);
+			for (var part : parts) {
+				for (var p : part.parameters) {
+					stmt.setLong(1, p.id);
+					stmt.setString(2, p.refId);
+					stmt.setString(3, p.name);
+					stmt.setLong(4, p.version);
+					stmt.setLong(5, p.lastChange);
+					setRef(stmt, 6, p.category);
+					stmt.setString(7, p.tags);
+					stmt.setString(8, p.library);
+					stmt.setString(9, p.description);
+					stmt.setInt(10, p.isInputParameter ? 1 : 0);
+					stmt.setLong(11, part.process.id);
+					stmt.setString(12, p.scope != null ? p.scope.name() : null);
+					stmt.setDouble(13, p.value);
+					stmt.setString(14, p.formula);
+					setUncertainty(stmt, 15, p.uncertainty);
+					batch.add();
+				}
+			}
+			batch.execute();
+		}
+	}
+
+	private void updateQuantitativeReferences(
+		Connection con, List<Parts> parts) throws SQLException {
+		var sql = "UPDATE tbl_processes SET f_quantitative_reference = ?"
+			+ " WHERE id = ?";
+		try (var stmt = con.prepareStatement(sql)) {
+			var batch = new Batch(stmt);
+			for (var part : parts) {
+				var qRef = part.qRef;
+				if (qRef == null || qRef.id == 0)
+					continue;
+				stmt.setLong(1, qRef.id);
+				stmt.setLong(2, part.process.id);
+				batch.add();
+			}
+			batch.execute();
+		}
+	}
+
+	private static void setRef(
+		PreparedStatement stmt, int pos, AbstractEntity ref) throws SQLException {
+		if (ref == null || ref.id == 0) {
+			stmt.setNull(pos, Types.BIGINT);
+		} else {
+			stmt.setLong(pos, ref.id);
+		}
+	}
+
+	private static void setDouble(
+		PreparedStatement stmt, int pos, Double value) throws SQLException {
+		if (value == null) {
+			stmt.setNull(pos, Types.DOUBLE);
+		} else {
+			stmt.setDouble(pos, value);
+		}
+	}
+
+	/**
+	 * Sets the distribution type and the three distribution parameters of the
+	 * given uncertainty, starting at the given position.
+	 */
+	private static void setUncertainty(
+		PreparedStatement stmt, int pos, Uncertainty u) throws SQLException {
+		if (u == null || u.distributionType == null) {
+			stmt.setNull(pos, Types.INTEGER);
+		} else {
+			stmt.setInt(pos, u.distributionType.ordinal());
+		}
+		setDouble(stmt, pos + 1, u != null ? u.parameter1 : null);
+		setDouble(stmt, pos + 2, u != null ? u.parameter2 : null);
+		setDouble(stmt, pos + 3, u != null ? u.parameter3 : null);
+	}
+
+	/**
+	 * Executes the added rows of a statement in batches of a maximum size.
+	 */
+	private class Batch {
+
+		private final PreparedStatement stmt;
+		private int size;
+
+		Batch(PreparedStatement stmt) {
+			this.stmt = stmt;
+		}
+
+		void add() throws SQLException {
+			stmt.addBatch();
+			size++;
+			if (size >= MAX_BATCH_SIZE) {
+				execute();
+			}
+		}
+
+		void execute() throws SQLException {
+			if (size == 0)
+				return;
+			int[] rows = stmt.executeBatch();
+			log.trace("executed batch with {} rows", rows.length);
+			size = 0;
+		}
+	}
+
+	/**
+	 * The parts of a process that are written via SQL. They are removed from
+	 * the process before it is persisted by the entity manager and attached
+	 * again after the insert.
+	 */
+	private static class Parts {
+
+		final Process process;
+		final Exchange qRef;
+		final List<Exchange> exchanges;
+		final List<AllocationFactor> factors;
+		final List<Parameter> parameters;
+
+		private Parts(Process process) {
+			this.process = process;
+			this.qRef = process.quantitativeReference;
+			this.exchanges = new ArrayList<>(process.exchanges);
+			this.factors = new ArrayList<>(process.allocationFactors);
+			this.parameters = new ArrayList<>(process.parameters);
+		}
+
+		static Parts detach(Process process) {
+			var parts = new Parts(process);
+			process.quantitativeReference = null;
+			process.exchanges = new ArrayList<>();
+			process.allocationFactors.clear();
+			process.parameters.clear();
+			return parts;
+		}
+
+		/**
+		 * Attaches the parts to the process again. If the insert failed, the
+		 * reserved IDs are reset.
+		 */
+		void attach(boolean inserted) {
+			if (!inserted) {
+				process.id = 0;
+				resetIds(exchanges);
+				resetIds(factors);
+				resetIds(parameters);
+			}
+			process.quantitativeReference = qRef;
+			process.exchanges = exchanges;
+			process.allocationFactors.clear();
+			process.allocationFactors.addAll(factors);
+			process.parameters.clear();
+			process.parameters.addAll(parameters);
+		}
+
+		private static void resetIds(List<? extends AbstractEntity> entities) {
+			for (var e : entities) {
+				e.id = 0;
+			}
+		}
+	}
+}
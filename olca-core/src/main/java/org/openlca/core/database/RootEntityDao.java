@@ -87,6 +87,7 @@ public class RootEntityDao<T extends RootEntity, V extends RootDescriptor>
 			em.getTransaction().begin();
 			query.executeUpdate();
 			em.getTransaction().commit();
+			db.getListeners().updated(model);
 		} catch (Exception e) {
 			DatabaseException.logAndThrow(log, "failed to update category for "
 					+ entityType.getSimpleName(), e);
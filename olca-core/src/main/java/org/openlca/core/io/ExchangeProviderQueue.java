@@ -8,6 +8,7 @@ import java.util.Objects;
 
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.model.Exchange;
+import org.openlca.core.model.ModelType;
 import org.openlca.core.model.Process;
 
 /**
@@ -85,6 +86,7 @@ public class ExchangeProviderQueue {
 				em.merge(exchange);
 			}
 		});
+		db.getListeners().changed(ModelType.PROCESS);
 	}
 
 }
@@ -15,7 +15,8 @@ import org.openlca.core.model.descriptors.Descriptor;
 import org.slf4j.LoggerFactory;
 
 /**
- * Contains log messages of a data import.
+ * Contains log messages of a data import. Messages can be added from multiple
+ * threads.
  */
 public final class ImportLog {
 
@@ -127,7 +128,7 @@ public final class ImportLog {
 		add(new Message(State.SKIPPED, d));
 	}
 
-	private void add(State state, RootEntity e) {
+	private synchronized void add(State state, RootEntity e) {
 		if (e == null || e.id == 0)
 			return;
 		var current = dataSetLogs.get(e.id);
@@ -168,7 +169,7 @@ public final class ImportLog {
 		error(message + ": " + err.getMessage());
 	}
 
-	private void add(Message message) {
+	private synchronized void add(Message message) {
 		if (size() >= MAX_SIZE)
 			return;
 		if (message.hasDescriptor()) {
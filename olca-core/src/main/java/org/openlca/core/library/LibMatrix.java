@@ -45,29 +45,40 @@ public enum LibMatrix {
 		NpyMatrix.write(library.folder(), name(), matrix);
 	}
 
+	/**
+	 * Maps the matrix of the given library into memory. See
+	 * {@link NpyMatrix#map(File)} for details.
+	 */
 	public Optional<MatrixReader> readFrom(Library library) {
 		return library == null
 			? Optional.empty()
-			: NpyMatrix.read(library.folder(), name());
+			: NpyMatrix.map(library.folder(), name());
 	}
 
+	/**
+	 * Reads a single column of the matrix. For dense matrices, only the column
+	 * is read from the file, independent of the storage order. Sparse matrices
+	 * are mapped into memory when possible; see {@link NpyMatrix#map(File)}.
+	 */
 	public Optional<double[]> readColumnFrom(Library library, int column) {
+		if (library == null)
+			return Optional.empty();
+
+		// dense matrix
+		var npy = new File(library.folder(), name() + ".npy");
+		if (npy.exists()) {
+			var col = Array2d.readColumn(npy, column).asDoubleArray();
+			return Optional.of(col.data());
+		}
 
-			// dense matrix
-			var npy = new File(library.folder(), name() + ".npy");
-			if (npy.exists()) {
-				var col = Array2d.readColumn(npy, column).asDoubleArray();
-				return Optional.of(col.data());
-			}
-
-			// sparse matrix
-			var matrix = readFrom(library).orElse(null);
-			return matrix == null
-				? Optional.empty()
-				: Optional.of(matrix.getColumn(column));
+		// sparse matrix
+		return readFrom(library).map(matrix -> matrix.getColumn(column));
 	}
 
 	public Optional<double[]> readDiagonalFrom(Library library) {
+		if (library == null)
+			return Optional.empty();
+
 		// dense matrix
 		var npy = new File(library.folder(), name() + ".npy");
 		if (npy.exists()) {
@@ -76,10 +87,7 @@ public enum LibMatrix {
 		}
 
 		// sparse matrix
-		var matrix = readFrom(library).orElse(null);
-		return matrix == null
-			? Optional.empty()
-			: Optional.of(matrix.diag());
+		return readFrom(library).map(MatrixReader::diag);
 	}
 
 	public boolean isPresentIn(Library library) {
@@ -10,15 +10,18 @@ import org.openlca.core.database.ImpactCategoryDao;
 import org.openlca.core.matrix.ImpactBuilder;
 import org.openlca.core.matrix.MatrixConfig;
 import org.openlca.core.matrix.MatrixData;
+import org.openlca.core.matrix.format.CSCMatrix;
 import org.openlca.core.matrix.index.EnviIndex;
 import org.openlca.core.matrix.index.ImpactIndex;
 import org.openlca.core.matrix.index.TechIndex;
 import org.openlca.core.matrix.io.MatrixExport;
+import org.openlca.core.matrix.io.NpyColumnWriter;
 import org.openlca.core.matrix.io.NpyMatrix;
 import org.openlca.core.matrix.io.index.IxContext;
 import org.openlca.core.matrix.io.index.IxEnviIndex;
 import org.openlca.core.matrix.io.index.IxImpactIndex;
 import org.openlca.core.matrix.io.index.IxTechIndex;
+import org.openlca.core.matrix.solvers.MatrixSolver;
 import org.openlca.core.matrix.solvers.NativeSolver;
 import org.openlca.core.model.AllocationMethod;
 import org.openlca.nativelib.NativeLib;
@@ -37,6 +40,7 @@ public class LibraryExport implements Runnable {
 	private AllocationMethod allocation;
 	private boolean withUncertainties;
 	private MatrixData data;
+	private int blockSize;
 
 	public LibraryExport(IDatabase db, File folder) {
 		this.db = db;
@@ -77,6 +81,18 @@ public class LibraryExport implements Runnable {
 		return this;
 	}
 
+	/**
+	 * Sets the number of columns of the blocks in which the inverse of the
+	 * technology matrix and the intensity matrix are calculated and written.
+	 * With a value {@code <= 0} (the default), the block size is selected
+	 * based on the available memory and the matrices are only calculated in
+	 * blocks when they do not fit into memory.
+	 */
+	public LibraryExport withBlockSize(int blockSize) {
+		this.blockSize = blockSize;
+		return this;
+	}
+
 	@Override
 	public void run() {
 		log.info("start library export of database {}", db.getName());
@@ -182,27 +198,18 @@ public class LibraryExport implements Runnable {
 		data.enviMatrix = matrixB;
 		int n = matrixA.columns();
 		for (int j = 0; j < n; j++) {
-			double f = Math.abs(matrixA.get(j, j));
-			if (f == 1)
+			double diag = matrixA.get(j, j);
+			double f = Math.abs(diag);
+			if (f == 1 || f == 0)
 				continue;
 
-			// normalize column j in matrix A
-			for (int i = 0; i < n; i++) {
-				double val = matrixA.get(i, j);
-				if (val == 0)
-					continue;
-				matrixA.set(i, j, val / f);
-			}
-
-			// normalize column j in matrix B
-			if (matrixB == null)
-				continue;
-			int m = matrixB.rows();
-			for (int i = 0; i < m; i++) {
-				double val = matrixB.get(i, j);
-				if (val == 0)
-					continue;
-				matrixB.set(i, j, val / f);
+			// normalize column j in the matrices A and B; we only visit the
+			// stored entries of sparse matrices and set the diagonal
+			// exactly to 1 | -1
+			matrixA.scaleColumn(j, 1 / f);
+			matrixA.set(j, j, diag / f);
+			if (matrixB != null) {
+				matrixB.scaleColumn(j, 1 / f);
 			}
 		}
 	}
@@ -212,14 +219,89 @@ public class LibraryExport implements Runnable {
 			log.info("no native libraries loaded; skip matrix inversion");
 			return;
 		}
-		log.info("create matrix INV");
 		var solver = new NativeSolver();
-		var inv = solver.invert(data.techMatrix);
-		NpyMatrix.write(folder, "INV", inv);
-		if (data.enviMatrix == null)
-			return;
-		log.info("create matrix M");
-		var m = solver.multiply(data.enviMatrix, inv);
-		NpyMatrix.write(folder, "M", m);
+		int block = blockSizeOf(data);
+		if (block <= 0) {
+			log.info("create matrix INV");
+			var inv = solver.invert(data.techMatrix);
+			NpyMatrix.write(folder, "INV", inv);
+			if (data.enviMatrix == null)
+				return;
+			log.info("create matrix M");
+			var m = solver.multiply(data.enviMatrix, inv);
+			NpyMatrix.write(folder, "M", m);
+		} else {
+			preCalculate(data, solver, folder, block);
+		}
+	}
+
+	/**
+	 * Returns the block size for calculating the matrices INV and M, or 0 if
+	 * the matrices should be calculated in one go.
+	 */
+	private int blockSizeOf(MatrixData data) {
+		int n = data.techMatrix.rows();
+		if (blockSize > 0)
+			return Math.min(blockSize, n);
+
+		// we need memory for A, INV, M and, when the native solver is used,
+		// the dense copies of the matrices that are passed into native code;
+		// in the blocked calculation, a sparse B is only compressed once
+		long m = data.enviMatrix != null
+			? data.enviMatrix.rows()
+			: 0;
+		long columnBytes = 8L * (2 * n + 2 * m);
+		long available = Runtime.getRuntime().maxMemory() / 4;
+		if (columnBytes * n <= available)
+			return 0;
+		long block = available / columnBytes;
+		return (int) Math.max(1, Math.min(block, n));
+	}
+
+	/**
+	 * Calculates the inverse `INV` of the technology matrix and the intensity
+	 * matrix `M = B * INV` in blocks of columns and streams the blocks
+	 * directly into the respective npy files. The technology matrix is
+	 * factorized only once and the memory that is needed for the results is
+	 * bounded by the block size. A sparse intervention matrix is compressed
+	 * once and multiplied with the blocks in Java, so that it is never
+	 * converted into a dense matrix.
+	 */
+	static void preCalculate(
+		MatrixData data, MatrixSolver solver, File folder, int blockSize) {
+		var log = LoggerFactory.getLogger(LibraryExport.class);
+		int n = data.techMatrix.rows();
+		log.info("create matrices INV and M in blocks of {} columns", blockSize);
+		var lu = solver.factorize(data.techMatrix);
+		var enviMatrix = data.enviMatrix != null && data.enviMatrix.isSparse()
+			? CSCMatrix.of(data.enviMatrix)
+			: data.enviMatrix;
+		var inv = NpyColumnWriter.of(new File(folder, "INV.npy"), n, n);
+		var m = enviMatrix != null
+			? NpyColumnWriter.of(new File(folder, "M.npy"), enviMatrix.rows(), n)
+			: null;
+		try {
+			for (int offset = 0; offset < n; offset += blockSize) {
+				int k = Math.min(blockSize, n - offset);
+				var columns = new int[k];
+				for (int c = 0; c < k; c++) {
+					columns[c] = offset + c;
+				}
+				var invBlock = lu.solve(columns);
+				inv.write(offset, invBlock);
+				if (m != null) {
+					var mBlock = enviMatrix.isSparse()
+						? enviMatrix.multiply(invBlock)
+						: solver.multiply(enviMatrix, invBlock);
+					m.write(offset, mBlock);
+				}
+			}
+		} finally {
+			lu.dispose();
+			inv.close();
+			if (m != null) {
+				m.close();
+			}
+		}
 	}
 }
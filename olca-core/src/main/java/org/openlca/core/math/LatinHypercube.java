@@ -0,0 +1,79 @@
+package org.openlca.core.math;
+
+/**
+ * Latin hypercube sampling for `n` simulation runs. In each dimension, the
+ * unit interval is divided into `n` strata of equal size and each stratum is
+ * sampled exactly once. The assignment of the strata to the runs is a random
+ * permutation per dimension. Instead of storing these permutations (the
+ * number of dimensions is the number of uncertain quantities which can be
+ * large), they are calculated on the fly with the hash based permutation of
+ * Kensler (Correlated Multi-Jittered Sampling, Pixar Technical Memo 13-01,
+ * 2013). Thus, the coordinates of a run only depend on the seed and the index
+ * of the run. Runs beyond `n` start a new Latin hypercube design.
+ */
+final class LatinHypercube {
+
+	private final long seed;
+	private final int n;
+
+	LatinHypercube(long seed, int n) {
+		this.seed = seed;
+		this.n = Math.max(1, n);
+	}
+
+	SamplePoint pointOf(long run) {
+		return new SamplePoint() {
+			@Override
+			double coordinate(int dimension) {
+				return LatinHypercube.this.coordinate(run, dimension);
+			}
+		};
+	}
+
+	double coordinate(long run, int dimension) {
+		long block = run / n;
+		int i = (int) (run % n);
+		long key = RandomStreams.mix64(seed
+			^ RandomStreams.mix64((block << 32 | dimension) + 1));
+		int stratum = permute(i, n, (int) key);
+		long h = RandomStreams.mix64(key ^ (i + 1));
+		double jitter = (h >>> 11) * 0x1p-53;
+		return (stratum + jitter) / n;
+	}
+
+	/**
+	 * Returns the position of `i` in a permutation of `[0, l)` that is
+	 * defined by the key `p`.
+	 */
+	static int permute(int i, int l, int p) {
+		int w = l - 1;
+		w |= w >>> 1;
+		w |= w >>> 2;
+		w |= w >>> 4;
+		w |= w >>> 8;
+		w |= w >>> 16;
+		// the hash is a bijection on the bits of `w`; values outside of
+		// `[0, l)` are hashed again (cycle walking)
+		do {
+			i ^= p;
+			i *= 0xe170893d;
+			i ^= p >>> 16;
+			i ^= (i & w) >>> 4;
+			i ^= p >>> 8;
+			i *= 0x0929eb3f;
+			i ^= p >>> 23;
+			i ^= (i & w) >>> 1;
+			i *= 1 | p >>> 27;
+			i *= 0x6935fa69;
+			i ^= (i & w) >>> 11;
+			i *= 0x74dcb303;
+			i ^= (i & w) >>> 2;
+			i *= 0x9e501cc3;
+			i ^= (i & w) >>> 2;
+			i *= 0xc860a3df;
+			i &= w;
+			i ^= i >>> 5;
+		} while (i >= l);
+		return (int) ((i + Integer.toUnsignedLong(p) % l) % l);
+	}
+}
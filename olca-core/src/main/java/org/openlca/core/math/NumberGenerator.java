@@ -1,10 +1,24 @@
 package org.openlca.core.math;
 
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public abstract class NumberGenerator {
 
-	public abstract double next();
+	/**
+	 * Generates the next value using the random number generator of the
+	 * current thread.
+	 */
+	public double next() {
+		return next(ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Generates the next value using the given source of random numbers. With
+	 * a seeded source (see {@link RandomStreams}), the generated values are
+	 * reproducible.
+	 */
+	public abstract double next(RandomGenerator random);
 
 	public static NumberGenerator normal(double mean, double standardDeviation) {
 		return new Normal(mean, standardDeviation);
@@ -42,9 +56,8 @@ public abstract class NumberGenerator {
 		}
 
 		@Override
-		public double next() {
-			var rand = ThreadLocalRandom.current().nextGaussian();
-			return rand * std + mean;
+		public double next(RandomGenerator random) {
+			return random.nextGaussian() * std + mean;
 		}
 	}
 
@@ -73,8 +86,8 @@ public abstract class NumberGenerator {
 		}
 
 		@Override
-		public double next() {
-			return Math.exp(normal.next()) * factor;
+		public double next(RandomGenerator random) {
+			return Math.exp(normal.next(random)) * factor;
 		}
 	}
 
@@ -89,9 +102,8 @@ public abstract class NumberGenerator {
 		}
 
 		@Override
-		public double next() {
-			var rand = ThreadLocalRandom.current();
-			return min + rand.nextDouble() * range;
+		public double next(RandomGenerator random) {
+			return min + random.nextDouble() * range;
 		}
 	}
 
@@ -111,10 +123,10 @@ public abstract class NumberGenerator {
 		 * see http://en.wikipedia.org/wiki/Triangular_distribution
 		 */
 		@Override
-		public double next() {
+		public double next(RandomGenerator random) {
 			if (max == min)
 				return mode;
-			double u = ThreadLocalRandom.current().nextDouble();
+			double u = random.nextDouble();
 			double fMode = (mode - min) / (max - min);
 			if (u <= fMode)
 				return min + Math.sqrt(u * (max - min) * (mode - min));
@@ -131,7 +143,7 @@ public abstract class NumberGenerator {
 		}
 
 		@Override
-		public double next() {
+		public double next(RandomGenerator random) {
 			return val;
 		}
 	}
@@ -0,0 +1,237 @@
+package org.openlca.core.math;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.library.LibraryDir;
+import org.openlca.core.matrix.Demand;
+import org.openlca.core.matrix.MatrixData;
+import org.openlca.core.matrix.ParameterTable;
+import org.openlca.core.matrix.index.TechIndex;
+import org.openlca.core.matrix.solvers.MatrixSolver;
+import org.openlca.core.model.AllocationMethod;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.Project;
+import org.openlca.core.model.ProjectVariant;
+import org.openlca.core.results.LcaResult;
+import org.openlca.core.results.providers.ResultProviders;
+import org.openlca.core.results.providers.SolverContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calculates the results of the variants of a project. The variants of a
+ * project often share the same product system and only differ in their
+ * parameter values and demand amounts. Thus, the calculator builds the index
+ * and the matrices of a product system only once for all variants of that
+ * system and records the matrix cells that depend on parameters. For each
+ * variant, only these cells are evaluated with the parameter values of the
+ * variant; the other matrix data are shared between the variants. The
+ * variants are then solved concurrently on a thread pool.
+ * <p>
+ * Variants of product systems with sub-systems or linked results are
+ * calculated separately with a {@link SystemCalculator}, as the results of
+ * the sub-systems can depend on the parameters of the variants.
+ */
+public class ProjectCalculator {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final IDatabase db;
+	private LibraryDir libraryDir;
+	private MatrixSolver solver;
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	public ProjectCalculator(IDatabase db) {
+		this.db = db;
+	}
+
+	public ProjectCalculator withLibraryDir(LibraryDir libraryDir) {
+		this.libraryDir = libraryDir;
+		return this;
+	}
+
+	public ProjectCalculator withSolver(MatrixSolver solver) {
+		this.solver = solver;
+		return this;
+	}
+
+	/**
+	 * Sets the number of threads that are used for solving the variants. With
+	 * a value {@code <= 1} the variants are solved in the calling thread.
+	 */
+	public ProjectCalculator withThreads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * Calculates the results of the enabled variants of the given project.
+	 * The returned map contains the results in the order of the variants.
+	 */
+	public Map<ProjectVariant, LcaResult> calculate(Project project) {
+		var results = new LinkedHashMap<ProjectVariant, LcaResult>();
+		if (project == null)
+			return results;
+
+		// group the variants by their matrix structure
+		var groups = new LinkedHashMap<GroupKey, List<ProjectVariant>>();
+		for (var v : project.variants) {
+			if (v.isDisabled || v.productSystem == null)
+				continue;
+			results.put(v, null);
+			groups.computeIfAbsent(GroupKey.of(v), $ -> new ArrayList<>()).add(v);
+		}
+
+		var tasks = new ArrayList<Task>();
+		for (var group : groups.values()) {
+			var setups = new ArrayList<CalculationSetup>(group.size());
+			for (var v : group) {
+				setups.add(setupOf(project, v));
+			}
+			var techIndex = TechIndex.of(db, setups.get(0));
+			if (hasSubSystems(techIndex)) {
+				var calculator = new SystemCalculator(db)
+					.withLibraryDir(libraryDir)
+					.withSolver(solver);
+				for (int i = 0; i < group.size(); i++) {
+					results.put(group.get(i), calculator.calculate(setups.get(i)));
+				}
+				continue;
+			}
+			tasks.addAll(prepare(techIndex, group, setups));
+		}
+
+		solve(tasks);
+		for (var task : tasks) {
+			results.put(task.variant, task.result);
+		}
+		return results;
+	}
+
+	private CalculationSetup setupOf(Project project, ProjectVariant v) {
+		return CalculationSetup.of(v.productSystem)
+			.withUnit(v.unit)
+			.withFlowPropertyFactor(v.flowPropertyFactor)
+			.withAmount(v.amount)
+			.withAllocation(v.allocationMethod)
+			.withImpactMethod(project.impactMethod)
+			.withNwSet(project.nwSet)
+			.withParameters(v.parameterRedefs)
+			.withCosts(project.isWithCosts)
+			.withRegionalization(project.isWithRegionalization);
+	}
+
+	private boolean hasSubSystems(TechIndex techIndex) {
+		for (var techFlow : techIndex) {
+			if (techFlow.provider() != null && !techFlow.isProcess())
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Builds the matrix data of the variants of a group. The data are built
+	 * once with the setup of the first variant and the cells that depend on
+	 * parameters are then evaluated for each variant. Sparse matrices are
+	 * compressed, so that the variants can share their structure.
+	 */
+	private List<Task> prepare(TechIndex techIndex,
+		List<ProjectVariant> variants, List<CalculationSetup> setups) {
+		var data = MatrixData.of(db, techIndex)
+			.withSetup(setups.get(0))
+			.withFormulaCells(true)
+			.build();
+		data.compress();
+		log.trace("built matrix data with {} formula cells for {} variants",
+			data.formulaCells.size(), variants.size());
+
+		// the parameter contexts are the same as in the matrix configuration
+		var contexts = new HashSet<>(techIndex.getProcessIds());
+		if (data.impactIndex != null) {
+			data.impactIndex.each((i, impact) -> contexts.add(impact.id));
+		}
+		var parameters = ParameterTable.of(db, contexts);
+
+		var tasks = new ArrayList<Task>(variants.size());
+		for (int i = 0; i < variants.size(); i++) {
+			var setup = setups.get(i);
+			var interpreter = parameters.interpreter(setup.parameters());
+			var variantData = data.formulaCells.evaluate(data, interpreter);
+			variantData.demand = Demand.of(setup);
+			tasks.add(new Task(variants.get(i), variantData));
+		}
+		return tasks;
+	}
+
+	private void solve(List<Task> tasks) {
+		if (tasks.isEmpty())
+			return;
+		int workerCount = Math.min(threads, tasks.size());
+		if (workerCount <= 1) {
+			for (var task : tasks) {
+				task.run();
+			}
+			return;
+		}
+		var pool = Executors.newFixedThreadPool(workerCount);
+		try {
+			var futures = new ArrayList<Future<?>>(tasks.size());
+			for (var task : tasks) {
+				futures.add(pool.submit(task::run));
+			}
+			for (var future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("project calculation was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(
+				"project calculation failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * The attributes of a variant that determine the structure of its
+	 * matrices. The impact method, costs, and regionalization are the same
+	 * for all variants of a project.
+	 */
+	private record GroupKey(long systemId, AllocationMethod allocation) {
+
+		static GroupKey of(ProjectVariant v) {
+			return new GroupKey(
+				v.productSystem.id,
+				Objects.requireNonNullElse(v.allocationMethod, AllocationMethod.NONE));
+		}
+	}
+
+	private class Task {
+
+		final ProjectVariant variant;
+		final MatrixData data;
+		LcaResult result;
+
+		Task(ProjectVariant variant, MatrixData data) {
+			this.variant = variant;
+			this.data = data;
+		}
+
+		void run() {
+			var context = SolverContext.of(db, data)
+				.libraryDir(libraryDir)
+				.solver(solver);
+			result = new LcaResult(ResultProviders.solve(context));
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package org.openlca.core.math;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.SamplingMethod;
+
+/**
+ * Provides the sources of random numbers for Monte-Carlo simulations. With a
+ * seed, each simulation run gets its own stream of random numbers that only
+ * depends on the seed and the index of the run. Thus, the runs of a simulation
+ * can be executed in any order, on different threads or machines, and still
+ * produce the same values. Without a seed, the random number generator of the
+ * current thread is used.
+ * <p>
+ * With Latin hypercube or Sobol sampling (see {@link SamplingMethod}), the
+ * source of a run returns the coordinates of a point of the respective
+ * sampling design. These designs also need a seed; if none is given, a random
+ * seed is used.
+ */
+public final class RandomStreams {
+
+	/** The increment of the SplitMix64 generator. */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final Long seed;
+	private final LatinHypercube latinHypercube;
+	private final SobolSampling sobol;
+
+	private RandomStreams(Long seed) {
+		this(seed, null, null);
+	}
+
+	private RandomStreams(
+		Long seed, LatinHypercube latinHypercube, SobolSampling sobol) {
+		this.seed = seed;
+		this.latinHypercube = latinHypercube;
+		this.sobol = sobol;
+	}
+
+	/**
+	 * Creates streams that are derived from the given seed.
+	 */
+	public static RandomStreams of(long seed) {
+		return new RandomStreams(seed);
+	}
+
+	/**
+	 * Creates streams that are not reproducible.
+	 */
+	public static RandomStreams unseeded() {
+		return new RandomStreams(null);
+	}
+
+	/**
+	 * Creates the streams for the seed and sampling method of the given
+	 * calculation setup. For Latin hypercube sampling, the number of
+	 * simulation runs of the setup is used as the number of intervals.
+	 */
+	public static RandomStreams of(CalculationSetup setup) {
+		var seed = setup.seed();
+		var method = setup.sampling();
+		if (method == SamplingMethod.RANDOM)
+			return seed.isPresent()
+				? of(seed.getAsLong())
+				: unseeded();
+
+		long s = seed.isPresent()
+			? seed.getAsLong()
+			: ThreadLocalRandom.current().nextLong();
+		int runs = setup.simulationRuns().orElse(1);
+		return method == SamplingMethod.SOBOL
+			? new RandomStreams(s, null, new SobolSampling(s, runs))
+			: new RandomStreams(s, new LatinHypercube(s, runs), null);
+	}
+
+	public boolean isSeeded() {
+		return seed != null;
+	}
+
+	/**
+	 * Returns the source of random numbers for the simulation run with the
+	 * given index. For seeded streams, a new generator is returned on each
+	 * call; the generators of different runs are statistically independent.
+	 */
+	public RandomGenerator forRun(long run) {
+		if (sobol != null)
+			return sobol.pointOf(run);
+		if (latinHypercube != null)
+			return latinHypercube.pointOf(run);
+		if (seed == null)
+			return ThreadLocalRandom.current();
+		long runSeed = mix64(seed ^ mix64((run + 1) * GOLDEN_GAMMA));
+		return new SplittableRandom(runSeed);
+	}
+
+	/**
+	 * The finalizer of the SplitMix64 generator (variant 13 of David Stafford's
+	 * 64-bit mixing functions), as used in {@link SplittableRandom}.
+	 */
+	static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,54 @@
+package org.openlca.core.math;
+
+import java.util.random.RandomGenerator;
+
+import org.apache.commons.math3.special.Erf;
+
+/**
+ * A point of a sampling design in the unit hypercube that is used as the
+ * source of random numbers in a single simulation run. Each call of
+ * `nextDouble` returns the next coordinate of the point. As the uncertain
+ * quantities are sampled in a fixed order in each run, the k-th quantity
+ * always gets the k-th coordinate. The number generators map these uniform
+ * values through the inverse distribution functions: the uniform and
+ * triangular distributions directly, the normal and log-normal distributions
+ * via `nextGaussian` which applies the inverse of the standard normal
+ * distribution function here.
+ */
+abstract class SamplePoint implements RandomGenerator {
+
+	/** The smallest and largest coordinates are `ulp` and `1 - ulp`. */
+	private static final double ULP = 0x1p-53;
+
+	private int dimension;
+
+	/**
+	 * Returns the coordinate of this point in the given dimension, which is a
+	 * value in `[0, 1)`.
+	 */
+	abstract double coordinate(int dimension);
+
+	@Override
+	public double nextDouble() {
+		double u = coordinate(dimension++);
+		return Math.min(Math.max(u, ULP), 1 - ULP);
+	}
+
+	@Override
+	public double nextGaussian() {
+		return inverseNormal(nextDouble());
+	}
+
+	@Override
+	public long nextLong() {
+		return (long) ((nextDouble() - 0.5) * 0x1p64);
+	}
+
+	/**
+	 * The inverse of the distribution function of the standard normal
+	 * distribution.
+	 */
+	static double inverseNormal(double p) {
+		return Math.sqrt(2) * Erf.erfInv(2 * p - 1);
+	}
+}
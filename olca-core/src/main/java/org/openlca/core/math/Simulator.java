@@ -8,6 +8,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
 
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.database.ImpactMethodDao;
@@ -23,9 +28,11 @@ import org.openlca.core.matrix.index.TechIndex;
 import org.openlca.core.matrix.solvers.MatrixSolver;
 import org.openlca.core.model.CalculationSetup;
 import org.openlca.core.model.ModelType;
+import org.openlca.core.model.ParameterRedef;
 import org.openlca.core.model.ProductSystem;
 import org.openlca.core.results.LcaResult;
 import org.openlca.core.results.SimulationResult;
+import org.openlca.core.results.SimulationResult.PinnedContribution;
 import org.openlca.core.results.providers.ResultProvider;
 import org.openlca.core.results.providers.ResultProviders;
 import org.openlca.core.results.providers.SimpleResultProvider;
@@ -101,6 +108,17 @@ public class Simulator {
 	private LibraryDir libraryDir;
 	private MatrixSolver solver;
 
+	/**
+	 * The sources of the random numbers of the simulation runs, according to
+	 * the seed and sampling method of the calculation setup. If the setup has
+	 * a seed, the random numbers of a run only depend on that seed and the
+	 * index of the run.
+	 */
+	private RandomStreams streams = RandomStreams.unseeded();
+
+	/** The index of the next simulation run. */
+	private int runIndex;
+
 	private Simulator(IDatabase db) {
 		this.db = db;
 	}
@@ -108,6 +126,7 @@ public class Simulator {
 	public static Simulator create(CalculationSetup setup, IDatabase db) {
 		var g = new Simulator(db);
 		g.init(db, setup);
+		g.streams = RandomStreams.of(setup);
 		return g;
 	}
 
@@ -152,34 +171,9 @@ public class Simulator {
 	 */
 	public LcaResult nextRun() {
 		try {
-
-			// generate the numbers and calculate the overall result
-			for (var sub : subNodes) {
-				generateData(sub);
-				sub.lastResult = solve(sub.data);
-			}
-			generateData(root);
-			var next = solve(root.data);
-			var provider = next.provider();
+			var next = calculateNext(streams.forRun(runIndex++));
 			var result = getResult();
-			result.append(next);
-
-			// calculate results of possible pinned products
-			for (var product : pinnedProducts) {
-				int idx = next.techIndex().of(product);
-				if (idx < 0)
-					continue;
-				var pin = result.pin(product);
-				if (provider.hasFlows()) {
-					pin.withDirectFlows(next.provider().directFlowsOf(idx));
-					pin.withUpstreamFlows(provider.totalFlowsOf(idx));
-				}
-				if (provider.hasImpacts()) {
-					pin.withDirectImpacts(provider.directImpactsOf(idx));
-					pin.withUpstreamImpacts(provider.totalImpactsOf(idx));
-				}
-				pin.add();
-			}
+			collect(next, result).appendTo(result);
 			return next;
 		} catch (Throwable e) {
 			Logger log = LoggerFactory.getLogger(this.getClass());
@@ -188,6 +182,157 @@ public class Simulator {
 		}
 	}
 
+	/**
+	 * Runs the given number of simulation runs on the given number of threads
+	 * and returns the result of this simulator. Each thread works on its own
+	 * copies of the matrix data, parameter tables, and uncertainty matrices of
+	 * the simulation graph; in each run, the sub-systems are calculated in
+	 * topological order before the host system. The results of the runs are
+	 * appended to the result of the simulator in the order of the runs, so
+	 * that each result stays at the index of its run. When a run fails (e.g.
+	 * when the resulting matrix was singular), only the runs before it are
+	 * appended and an exception with the index of the failed run is thrown;
+	 * a next call starts again with that run. With a seed in the calculation
+	 * setup, the result does not depend on the number of threads.
+	 */
+	public SimulationResult run(int runs, int threads) {
+		var result = getResult();
+		if (runs <= 0)
+			return result;
+		if (threads <= 1 || runs == 1) {
+			for (int i = 0; i < runs; i++) {
+				try {
+					var next = calculateNext(streams.forRun(runIndex));
+					collect(next, result).appendTo(result);
+				} catch (Throwable e) {
+					throw new RuntimeException(
+						"simulation run " + runIndex + " failed", e);
+				}
+				runIndex++;
+			}
+			return result;
+		}
+
+		// this simulator is the first worker, the others work on copies
+		int workerCount = Math.min(threads, runs);
+		var workers = new ArrayList<Simulator>(workerCount);
+		workers.add(this);
+		for (int i = 1; i < workerCount; i++) {
+			workers.add(fork());
+		}
+
+		// the workers stop taking runs after the first failed run; as the
+		// runs are taken in order, all runs before it are finished then
+		var collected = new Run[runs];
+		var errors = new Throwable[runs];
+		var nextIdx = new AtomicInteger(0);
+		var firstFailed = new AtomicInteger(runs);
+		int offset = runIndex;
+		var pool = Executors.newFixedThreadPool(workerCount);
+		try {
+			var futures = new ArrayList<Future<?>>(workerCount);
+			for (var worker : workers) {
+				futures.add(pool.submit(() -> {
+					int i;
+					while ((i = nextIdx.getAndIncrement()) < runs
+						&& i < firstFailed.get()) {
+						try {
+							var random = streams.forRun(offset + i);
+							var next = worker.calculateNext(random);
+							collected[i] = collect(next, result);
+						} catch (Throwable e) {
+							errors[i] = e;
+							firstFailed.accumulateAndGet(i, Math::min);
+						}
+					}
+				}));
+			}
+			for (var future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("simulation was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("simulation failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+
+		int failed = firstFailed.get();
+		for (int i = 0; i < failed; i++) {
+			collected[i].appendTo(result);
+		}
+		runIndex = offset + failed;
+		if (failed < runs)
+			throw new RuntimeException(
+				"simulation run " + runIndex + " failed", errors[failed]);
+		return result;
+	}
+
+	/**
+	 * Generates the numbers and calculates the results of the sub-systems and
+	 * the host system, taking the random numbers from the given generator.
+	 */
+	private LcaResult calculateNext(RandomGenerator random) {
+		for (var sub : subNodes) {
+			generateData(sub, random);
+			sub.lastResult = solve(sub.data);
+		}
+		generateData(root, random);
+		return solve(root.data);
+	}
+
+	/**
+	 * Collects the values of the given result that are appended to the
+	 * simulation result, including the results of possible pinned products.
+	 */
+	private Run collect(LcaResult next, SimulationResult result) {
+		var provider = next.provider();
+		var pins = new ArrayList<PinnedContribution>(pinnedProducts.size());
+		for (var product : pinnedProducts) {
+			int idx = next.techIndex().of(product);
+			if (idx < 0)
+				continue;
+			var pin = result.pin(product);
+			if (provider.hasFlows()) {
+				pin.withDirectFlows(provider.directFlowsOf(idx));
+				pin.withUpstreamFlows(provider.totalFlowsOf(idx));
+			}
+			if (provider.hasImpacts()) {
+				pin.withDirectImpacts(provider.directImpactsOf(idx));
+				pin.withUpstreamImpacts(provider.totalImpactsOf(idx));
+			}
+			pins.add(pin);
+		}
+		return new Run(
+			next.hasEnviFlows() ? provider.totalFlows() : null,
+			next.hasImpacts() ? provider.totalImpacts() : null,
+			pins);
+	}
+
+	/**
+	 * Creates a copy of this simulator with own copies of the simulation
+	 * nodes so that it can run in parallel to this simulator.
+	 */
+	private Simulator fork() {
+		var fork = new Simulator(db);
+		fork.solver = solver;
+		fork.libraryDir = libraryDir;
+		fork.streams = streams;
+		var copies = new HashMap<Node, Node>();
+		for (var e : nodeIndex.entrySet()) {
+			var copy = e.getValue().copy(db);
+			copies.put(e.getValue(), copy);
+			fork.nodeIndex.put(e.getKey(), copy);
+		}
+		fork.root = copies.get(root);
+		for (var sub : subNodes) {
+			fork.subNodes.add(copies.get(sub));
+		}
+		return fork;
+	}
+
 	private LcaResult solve(MatrixData data) {
 		var context = SolverContext.of(db, data)
 				.solver(solver)
@@ -196,9 +341,9 @@ public class Simulator {
 		return new LcaResult(provider);
 	}
 
-	private void generateData(Node node) {
-		FormulaInterpreter fi = node.parameters.simulate();
-		node.data.simulate(fi);
+	private void generateData(Node node, RandomGenerator random) {
+		FormulaInterpreter fi = node.parameters.simulate(random);
+		node.data.simulate(fi, random);
 
 		if (node.subSystems != null) {
 			for (TechFlow subLink : node.subSystems) {
@@ -362,6 +507,23 @@ public class Simulator {
 		}
 	}
 
+	/**
+	 * The values of a simulation run that are appended to the simulation
+	 * result.
+	 */
+	private record Run(
+		double[] totalFlows,
+		double[] totalImpacts,
+		List<PinnedContribution> pins) {
+
+		void appendTo(SimulationResult result) {
+			result.append(totalFlows, totalImpacts);
+			for (var pin : pins) {
+				pin.add();
+			}
+		}
+	}
+
 	/**
 	 * A node contains the data for the simulation of a single product (sub-)
 	 * system.
@@ -371,10 +533,29 @@ public class Simulator {
 		final TechFlow provider;
 		final MatrixData data;
 		final ParameterTable parameters;
+		final Set<Long> paramContexts;
+		final List<ParameterRedef> redefs;
 
 		Set<TechFlow> subSystems;
 		LcaResult lastResult;
 
+		/**
+		 * Creates a copy of the given node with own copies of the matrix data
+		 * and parameter table. The sub-system links and the last result are
+		 * shared with the original node.
+		 */
+		private Node(Node origin, IDatabase db) {
+			providerId = origin.providerId;
+			provider = origin.provider;
+			data = origin.data.copy();
+			paramContexts = origin.paramContexts;
+			redefs = origin.redefs;
+			parameters = ParameterTable.forSimulation(
+					db, paramContexts, redefs);
+			subSystems = origin.subSystems;
+			lastResult = origin.lastResult;
+		}
+
 		Node(CalculationSetup setup, IDatabase db,
 				Map<TechFlow, LcaResult> subResults) {
 
@@ -406,8 +587,14 @@ public class Simulator {
 						.getCategoryDescriptors(impactMethod.id)
 						.forEach(d -> paramContexts.add(d.id));
 			}
+			this.paramContexts = paramContexts;
+			this.redefs = setup.parameters();
 			parameters = ParameterTable.forSimulation(
-					db, paramContexts, setup.parameters());
+					db, paramContexts, redefs);
+		}
+
+		Node copy(IDatabase db) {
+			return new Node(this, db);
 		}
 	}
 
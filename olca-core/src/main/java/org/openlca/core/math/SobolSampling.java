@@ -0,0 +1,49 @@
+package org.openlca.core.math;
+
+import org.apache.commons.math3.random.SobolSequenceGenerator;
+
+/**
+ * Quasi-random sampling with a Sobol sequence (using the direction numbers of
+ * Joe and Kuo for up to 1000 dimensions). The sequence is randomized with a
+ * random shift per dimension (Cranley-Patterson rotation) that is derived
+ * from the seed, so that independent repetitions of a simulation can be used
+ * to estimate the error. Dimensions beyond the supported dimensions of the
+ * sequence are sampled with Latin hypercube sampling.
+ */
+final class SobolSampling {
+
+	private static final int DIMENSIONS = 1000;
+
+	private final SobolSequenceGenerator sequence;
+	private final double[] shifts;
+	private final LatinHypercube fallback;
+
+	SobolSampling(long seed, int runs) {
+		this.sequence = new SobolSequenceGenerator(DIMENSIONS);
+		this.shifts = new double[DIMENSIONS];
+		long h = seed;
+		for (int i = 0; i < DIMENSIONS; i++) {
+			h = RandomStreams.mix64(h + 0x9e3779b97f4a7c15L);
+			shifts[i] = (h >>> 11) * 0x1p-53;
+		}
+		this.fallback = new LatinHypercube(~seed, runs);
+	}
+
+	SamplePoint pointOf(long run) {
+		// the first point of the sequence is the origin, which we skip;
+		// the generator is stateful and shared between the runs
+		double[] x;
+		synchronized (sequence) {
+			x = sequence.skipTo((int) (run + 1));
+		}
+		return new SamplePoint() {
+			@Override
+			double coordinate(int dimension) {
+				if (dimension >= DIMENSIONS)
+					return fallback.coordinate(run, dimension);
+				double u = x[dimension] + shifts[dimension];
+				return u >= 1 ? u - 1 : u;
+			}
+		};
+	}
+}
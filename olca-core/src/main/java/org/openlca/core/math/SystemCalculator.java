@@ -1,17 +1,26 @@
 package org.openlca.core.math;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
 
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.library.LibraryDir;
 import org.openlca.core.matrix.MatrixData;
+import org.openlca.core.matrix.MatrixDataCache;
 import org.openlca.core.matrix.index.TechFlow;
 import org.openlca.core.matrix.index.TechIndex;
+import org.openlca.core.matrix.solvers.FactorizationCache;
 import org.openlca.core.matrix.solvers.MatrixSolver;
 import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.ParameterRedef;
 import org.openlca.core.model.ProductSystem;
 import org.openlca.core.model.Result;
 import org.openlca.core.results.LcaResult;
@@ -23,9 +32,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Calculates the results of a calculation setup. The product systems of the
- * setups may contain sub-systems which are calculated recursively. The
- * calculator does not check if there are obvious errors like sub-system cycles
- * etc.
+ * setups may contain sub-systems which are calculated before the host system.
+ * Each distinct sub-system is calculated only once and independent sub-systems
+ * are calculated in parallel. An exception is thrown when there are cycles in
+ * the sub-system relations.
  */
 public class SystemCalculator {
 
@@ -38,6 +48,9 @@ public class SystemCalculator {
 	private final IDatabase db;
 	private LibraryDir libraryDir;
 	private MatrixSolver solver;
+	private MatrixDataCache cache;
+	private FactorizationCache factorizations;
+	private int threads = Runtime.getRuntime().availableProcessors();
 
 	public SystemCalculator(IDatabase db) {
 		this.db = db;
@@ -53,6 +66,38 @@ public class SystemCalculator {
 		return this;
 	}
 
+	/**
+	 * Sets a cache for the matrix data of calculation setups. When the matrix
+	 * data of a setup are in the cache, they are taken from there instead of
+	 * building them from the database. The data of setups without sub-system
+	 * or result links are put into the cache after they were built.
+	 */
+	public SystemCalculator withCache(MatrixDataCache cache) {
+		this.cache = cache;
+		return this;
+	}
+
+	/**
+	 * Sets a cache from which the factorizations of the technology matrices
+	 * are shared between the calculated results; see
+	 * {@link FactorizationCache}. The results should be disposed when they are
+	 * not needed anymore.
+	 */
+	public SystemCalculator withFactorizations(FactorizationCache cache) {
+		this.factorizations = cache;
+		return this;
+	}
+
+	/**
+	 * Sets the number of threads that are used for calculating independent
+	 * sub-systems in parallel. With a value {@code <= 1}, the sub-systems are
+	 * calculated one after another in the calling thread.
+	 */
+	public SystemCalculator withThreads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+
 	public LcaResult calculate(CalculationSetup setup) {
 		return solve(setup, DEFAULT);
 	}
@@ -67,16 +112,41 @@ public class SystemCalculator {
 
 	private LcaResult solve(CalculationSetup setup, int type) {
 		log.info("calculate result for {}", setup.target());
+		if (cache != null) {
+			var cached = cache.get(setup);
+			if (cached.isPresent())
+				return solve(cached.get(), Collections.emptyMap(), type);
+		}
 		var techIndex = TechIndex.of(db, setup);
-		var subs = solveSubSystems(setup, techIndex);
-		log.trace("solved {} sub-systems", subs.size());
-		var data = MatrixData.of(db, techIndex)
+		var graph = new SubGraph();
+		try {
+			var subs = solveSubSystems(setup, techIndex, graph);
+			log.trace("solved {} sub-systems", subs.size());
+			var data = dataOf(setup, techIndex, subs);
+			if (cache != null && subs.isEmpty()) {
+				cache.put(setup, data);
+			}
+			return solve(data, subs, type);
+		} finally {
+			// the sub-results are now held by their host results
+			graph.release();
+		}
+	}
+
+	private MatrixData dataOf(CalculationSetup setup, TechIndex techIndex,
+		Map<TechFlow, LcaResult> subs) {
+		return MatrixData.of(db, techIndex)
 				.withSetup(setup)
 				.withSubResults(subs)
 				.build();
+	}
+
+	private LcaResult solve(
+		MatrixData data, Map<TechFlow, LcaResult> subs, int type) {
 		var context = SolverContext.of(db, data)
 				.libraryDir(libraryDir)
-				.solver(solver);
+				.solver(solver)
+				.factorizations(factorizations);
 
 		var provider = switch (type) {
 			case LAZY -> ResultProviders.solveLazy(context);
@@ -100,58 +170,210 @@ public class SystemCalculator {
 	}
 
 	/**
-	 * Calculates (recursively) the sub-systems of the product system of the
-	 * given setup. It returns an empty map when there are no subsystems. For
-	 * the sub-results, the same calculation type is performed as defined in
-	 * the original calculation setup.
+	 * Calculates the sub-systems of the product system of the given setup. It
+	 * returns an empty map when there are no subsystems. For the sub-results,
+	 * the default calculation type is performed.
+	 * <p>
+	 * The sub-systems form a directed acyclic graph: a sub-system can be used
+	 * in multiple host systems. Each distinct sub-system, identified by the
+	 * product system and the parameter redefinitions that are applied to it,
+	 * is calculated only once. Its result is then shared by all host systems
+	 * that use it. Sub-systems that do not depend on each other are calculated
+	 * in parallel; a sub-system is calculated when all of its own sub-systems
+	 * are calculated.
 	 */
 	private Map<TechFlow, LcaResult> solveSubSystems(
-			CalculationSetup setup, TechIndex techIndex) {
+			CalculationSetup setup, TechIndex techIndex, SubGraph graph) {
 		if (setup == null || !setup.hasProductSystem())
 			return Collections.emptyMap();
+		var key = SubKey.of(setup.productSystem(), setup.parameters());
+		var root = new SubNode(key, setup, techIndex);
+		graph.visiting.add(key);
+		graph.expand(root);
+		if (graph.order.isEmpty())
+			return root.storedResults;
+		graph.solve();
+		return root.subResultsOf(graph);
+	}
 
-		var subResults = new HashMap<TechFlow, LcaResult>();
-
-		var subSystems = new HashSet<TechFlow>();
-		for (var link : setup.productSystem().processLinks) {
-			if (link.hasProcessProvider())
-				continue;
-			var provider = techIndex.getProvider(link.providerId, link.flowId);
-			if (provider == null || provider.isProcess())
-				continue;
-			if (provider.isProductSystem()) {
-				subSystems.add(provider);
-				continue;
-			}
+	/**
+	 * The key of a sub-system node: the ID of the product system and the
+	 * parameter redefinitions that are applied to it, in the order in which
+	 * they are bound.
+	 */
+	private record SubKey(long systemId, List<String> redefs) {
 
-			// add a result
-			if (provider.isResult()) {
-				var result = db.get(Result.class, provider.providerId());
-				if (result != null) {
-					subResults.put(provider, new LcaResult(ResultModelProvider.of(result)));
-				}
+		static SubKey of(ProductSystem system, List<ParameterRedef> redefs) {
+			var keys = new ArrayList<String>(redefs.size());
+			for (var redef : redefs) {
+				keys.add(redef.name + "@" + redef.contextId + "=" + redef.value);
 			}
+			return new SubKey(system.id, keys);
 		}
-		if (subSystems.isEmpty())
+	}
+
+	private static class SubNode {
+
+		final SubKey key;
+		final CalculationSetup setup;
+		final TechIndex techIndex;
+
+		/** The linked sub-systems of this node. */
+		final Map<TechFlow, SubKey> subSystems = new HashMap<>();
+
+		/** The linked results of this node. */
+		final Map<TechFlow, LcaResult> storedResults = new HashMap<>();
+
+		LcaResult result;
+
+		SubNode(SubKey key, CalculationSetup setup, TechIndex techIndex) {
+			this.key = key;
+			this.setup = setup;
+			this.techIndex = techIndex;
+		}
+
+		Map<TechFlow, LcaResult> subResultsOf(SubGraph graph) {
+			var subResults = new HashMap<>(storedResults);
+			for (var e : subSystems.entrySet()) {
+				var sub = graph.nodes.get(e.getValue());
+				subResults.put(e.getKey(), sub.result);
+			}
 			return subResults;
+		}
+	}
+
+	private class SubGraph {
+
+		final Map<SubKey, SubNode> nodes = new HashMap<>();
+
+		/** The sub-system nodes in topological order, dependencies first. */
+		final List<SubNode> order = new ArrayList<>();
 
-		// calculate the LCI results of the sub-systems
+		/** The nodes that are currently expanded, to detect cycles. */
+		private final Set<SubKey> visiting = new HashSet<>();
+
+		/**
+		 * Collects the sub-systems and linked results of the given node and
+		 * expands the sub-systems recursively (depth-first).
+		 */
+		void expand(SubNode node) {
+			var setup = node.setup;
+			for (var link : setup.productSystem().processLinks) {
+				if (link.hasProcessProvider())
+					continue;
+				var provider = node.techIndex.getProvider(
+					link.providerId, link.flowId);
+				if (provider == null || provider.isProcess())
+					continue;
+
+				// add a result
+				if (provider.isResult()) {
+					if (node.storedResults.containsKey(provider))
+						continue;
+					var result = db.get(Result.class, provider.providerId());
+					if (result != null) {
+						node.storedResults.put(provider,
+							new LcaResult(ResultModelProvider.of(result)));
+					}
+					continue;
+				}
 
-		for (var pp : subSystems) {
-			var subSystem = db.get(ProductSystem.class, pp.providerId());
-			if (subSystem == null)
-				continue;
+				if (!provider.isProductSystem()
+					|| node.subSystems.containsKey(provider))
+					continue;
+				var subSystem = db.get(ProductSystem.class, provider.providerId());
+				if (subSystem == null)
+					continue;
+				var redefs = ParameterRedefs.join(setup, subSystem);
+				var key = SubKey.of(subSystem, redefs);
+				node.subSystems.put(provider, key);
+				if (visiting.contains(key))
+					throw new IllegalStateException(
+						"there are sub-system cycles in the product system "
+							+ subSystem.name);
+				if (nodes.containsKey(key))
+					continue;
 
-			var subSetup = CalculationSetup.of(subSystem)
-					.withParameters(ParameterRedefs.join(setup, subSystem))
+				var subSetup = CalculationSetup.of(subSystem)
+					.withParameters(redefs)
 					.withCosts(setup.hasCosts())
 					.withRegionalization(setup.hasRegionalization())
 					.withAllocation(setup.allocation())
 					.withImpactMethod(setup.impactMethod())
 					.withNwSet(setup.nwSet());
-			var subResult = calculate(subSetup);
-			subResults.put(pp, subResult);
+				var sub = new SubNode(key, subSetup, TechIndex.of(db, subSetup));
+				visiting.add(key);
+				expand(sub);
+				visiting.remove(key);
+				nodes.put(key, sub);
+				order.add(sub);
+			}
+		}
+
+		/**
+		 * Calculates the nodes of the graph. Each node is calculated when the
+		 * nodes of its sub-systems are calculated.
+		 */
+		void solve() {
+			int workerCount = Math.min(threads, order.size());
+			if (workerCount <= 1) {
+				for (var node : order) {
+					solve(node);
+				}
+				return;
+			}
+
+			var pool = Executors.newFixedThreadPool(workerCount);
+			try {
+				var futures = new HashMap<SubKey, CompletableFuture<Void>>();
+				for (var node : order) {
+					var deps = new ArrayList<CompletableFuture<Void>>();
+					for (var subKey : new HashSet<>(node.subSystems.values())) {
+						deps.add(futures.get(subKey));
+					}
+					var future = CompletableFuture
+						.allOf(deps.toArray(CompletableFuture[]::new))
+						.thenRunAsync(() -> solve(node), pool);
+					futures.put(node.key, future);
+				}
+				CompletableFuture
+					.allOf(futures.values().toArray(CompletableFuture[]::new))
+					.join();
+			} catch (CompletionException e) {
+				var cause = e.getCause();
+				if (cause instanceof RuntimeException re)
+					throw re;
+				throw new RuntimeException("sub-system calculation failed", cause);
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		private void solve(SubNode node) {
+			log.trace("calculate sub-system {}", node.setup.target());
+			var subResults = node.subResultsOf(this);
+			var data = dataOf(node.setup, node.techIndex, subResults);
+			var result = SystemCalculator.this.solve(data, subResults, DEFAULT);
+			// calculate the totals before the result is shared with the host
+			// systems, which can run in other threads
+			result.provider().totalFlows();
+			result.provider().totalCosts();
+			node.result = result;
+		}
+
+		/**
+		 * Releases the references of the graph to the results of its nodes.
+		 * Each result is then only held by its host results and is disposed
+		 * together with the last of them. Results of nodes that are not
+		 * used, e.g. when the calculation of a host failed, are disposed here.
+		 */
+		void release() {
+			for (var node : order) {
+				if (node.result != null) {
+					node.result.dispose();
+					node.result = null;
+				}
+			}
 		}
-		return subResults;
 	}
 }
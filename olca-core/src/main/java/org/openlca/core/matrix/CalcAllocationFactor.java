@@ -33,6 +33,14 @@ public class CalcAllocationFactor {
 		return factor;
 	}
 
+	/**
+	 * Returns true if the allocation factor is bound to a formula, thus its
+	 * value can depend on parameters.
+	 */
+	public boolean hasFormula() {
+		return formula != null;
+	}
+
 	/**
 	 * Get the value of the allocation factor. If no formula is bound to the factor,
 	 * simply the value of the factor is returned. Otherwise, the value of the
@@ -61,11 +69,22 @@ public class CalcAllocationFactor {
 	/**
 	 * If the allocation factor is bound to a formula, this formula is always
 	 * evaluated. No cached value is returned in contrast to the `get` method.
+	 * The evaluated value is also not cached, so that this method can be
+	 * called with different interpreters from multiple threads.
 	 */
 	public double force(FormulaInterpreter interpreter) {
-		if (formula == null)
+		if (formula == null || interpreter == null)
+			return amount;
+		try {
+			var scope = interpreter.getScope(processID);
+			return scope.isPresent()
+					? scope.get().eval(formula)
+					: interpreter.eval(formula);
+		} catch (Exception e) {
+			var log = LoggerFactory.getLogger(getClass());
+			log.error("failed to evaluate formula of allocation factor: "
+					+ formula);
 			return amount;
-		evaluated = false;
-		return get(interpreter);
+		}
 	}
 }
@@ -86,6 +86,17 @@ public class CalcExchange {
 
 	public double matrixValue(FormulaInterpreter interpreter,
 		double allocationFactor) {
+		return matrixValue(interpreter, amount, allocationFactor);
+	}
+
+	/**
+	 * Calculates the matrix value with the given amount instead of the amount
+	 * of this exchange. This is used in simulations where the amount is
+	 * generated from an uncertainty distribution. It does not modify the
+	 * state of this exchange and can be called from multiple threads.
+	 */
+	public double matrixValue(FormulaInterpreter interpreter,
+		double amount, double allocationFactor) {
 
 		double a = amount;
 		if (Strings.notEmpty(formula) && interpreter != null) {
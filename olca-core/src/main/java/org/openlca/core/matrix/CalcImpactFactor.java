@@ -37,6 +37,16 @@ public class CalcImpactFactor {
 	}
 
 	public double matrixValue(FormulaInterpreter interpreter) {
+		return matrixValue(interpreter, amount);
+	}
+
+	/**
+	 * Calculates the matrix value with the given amount instead of the amount
+	 * of this factor. This is used in simulations where the amount is
+	 * generated from an uncertainty distribution. It does not modify the
+	 * state of this factor and can be called from multiple threads.
+	 */
+	public double matrixValue(FormulaInterpreter interpreter, double amount) {
 
 		double a = amount;
 		if (Strings.notEmpty(formula) && interpreter != null) {
@@ -0,0 +1,223 @@
+package org.openlca.core.matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.openlca.core.matrix.format.CSCMatrix;
+import org.openlca.core.matrix.format.Matrix;
+import org.openlca.core.matrix.format.MatrixReader;
+import org.openlca.expressions.FormulaInterpreter;
+
+/**
+ * Contains the cells of the matrices of a {@link MatrixData} instance that
+ * depend on parameters, which are the cells with exchange amounts, cost
+ * values, allocation factors, or characterization factors that are bound to
+ * formulas. These cells are recorded when the matrix data are built with
+ * {@link MatrixConfig.Builder#withFormulaCells(boolean)}, so that the matrices
+ * can be evaluated for other parameter values without building them again.
+ */
+public class FormulaCells {
+
+	private final List<ExchangeCell> tech = new ArrayList<>();
+	private final List<ExchangeCell> envi = new ArrayList<>();
+	private final List<ExchangeCell> costs = new ArrayList<>();
+	private final LinkedHashMap<Long, ImpactCell> impacts = new LinkedHashMap<>();
+
+	private interface Cell {
+
+		int row();
+
+		int col();
+	}
+
+	/**
+	 * An exchange that contributes to a matrix cell (or an entry of the cost
+	 * vector, where the row is -1) with the given value.
+	 */
+	private record ExchangeCell(
+		int row, int col, CalcExchange exchange,
+		CalcAllocationFactor factor, double value) implements Cell {
+
+		double next(FormulaInterpreter interpreter) {
+			double af = factor != null
+				? factor.force(interpreter)
+				: 1;
+			return row < 0
+				? exchange.costValue(interpreter, af)
+				: exchange.matrixValue(interpreter, af);
+		}
+	}
+
+	/**
+	 * A characterization factor that is set to a matrix cell. The direction is
+	 * stored with the cell as the same default factor can be set to cells of
+	 * flows with different directions in regionalized calculations.
+	 */
+	private record ImpactCell(
+		int row, int col, CalcImpactFactor factor, boolean isInput)
+		implements Cell {
+
+		double next(FormulaInterpreter interpreter) {
+			double value = factor.matrixValue(interpreter);
+			return factor.isInput == isInput
+				? value
+				: -value;
+		}
+	}
+
+	void addTech(int row, int col, CalcExchange e, CalcAllocationFactor af,
+		double value) {
+		if (isParametrized(e.formula, af)) {
+			tech.add(new ExchangeCell(row, col, e, af, value));
+		}
+	}
+
+	void addEnvi(int row, int col, CalcExchange e, CalcAllocationFactor af,
+		double value) {
+		if (isParametrized(e.formula, af)) {
+			envi.add(new ExchangeCell(row, col, e, af, value));
+		}
+	}
+
+	void addCosts(int col, CalcExchange e, CalcAllocationFactor af,
+		double value) {
+		if (isParametrized(e.costFormula, af)) {
+			costs.add(new ExchangeCell(-1, col, e, af, value));
+		}
+	}
+
+	/**
+	 * Records the characterization factor that is set to the given cell. As
+	 * factors are set and not added to the cells, a previously recorded factor
+	 * of that cell is removed.
+	 */
+	void setImpact(int row, int col, CalcImpactFactor f) {
+		long key = ((long) row << 32) | (col & 0xffffffffL);
+		if (f.formula == null || f.formula.isBlank()) {
+			impacts.remove(key);
+		} else {
+			impacts.put(key, new ImpactCell(row, col, f, f.isInput));
+		}
+	}
+
+	private boolean isParametrized(String formula, CalcAllocationFactor af) {
+		return (formula != null && !formula.isBlank())
+			|| (af != null && af.hasFormula());
+	}
+
+	public boolean isEmpty() {
+		return tech.isEmpty()
+			&& envi.isEmpty()
+			&& costs.isEmpty()
+			&& impacts.isEmpty();
+	}
+
+	/**
+	 * Returns the number of recorded cells.
+	 */
+	public int size() {
+		return tech.size() + envi.size() + costs.size() + impacts.size();
+	}
+
+	/**
+	 * Creates a copy of the given matrix data in which the recorded cells are
+	 * evaluated with the given interpreter; the demand is taken from the given
+	 * data. The indices and the matrices without recorded cells are not copied
+	 * but shared with the given data. For matrices in the CSC format, also the
+	 * structure is shared and only the values are copied. Evaluating the cells
+	 * does not modify the given data, thus, this method can be called from
+	 * multiple threads with different interpreters (but the given data must
+	 * not be modified then).
+	 */
+	public MatrixData evaluate(MatrixData data, FormulaInterpreter interpreter) {
+		var copy = new MatrixData();
+		copy.demand = data.demand;
+		copy.techIndex = data.techIndex;
+		copy.enviIndex = data.enviIndex;
+		copy.impactIndex = data.impactIndex;
+		copy.techMatrix = evaluate(data.techMatrix, tech, interpreter);
+		copy.enviMatrix = evaluate(data.enviMatrix, envi, interpreter);
+		copy.impactMatrix = evaluateImpacts(data.impactMatrix, interpreter);
+		copy.costVector = data.costVector;
+		if (data.costVector != null && !costs.isEmpty()) {
+			var v = Arrays.copyOf(data.costVector, data.costVector.length);
+			for (var cell : costs) {
+				v[cell.col] += cell.next(interpreter) - cell.value;
+			}
+			copy.costVector = v;
+		}
+		return copy;
+	}
+
+	/**
+	 * Adds the differences of the new and old values of the exchanges to the
+	 * cells, as there can be multiple exchanges that are added to the same
+	 * cell.
+	 */
+	private MatrixReader evaluate(MatrixReader matrix, List<ExchangeCell> cells,
+		FormulaInterpreter interpreter) {
+		if (matrix == null || cells.isEmpty())
+			return matrix;
+		if (matrix instanceof CSCMatrix csc && containsAll(csc, cells)) {
+			var values = Arrays.copyOf(csc.values, csc.values.length);
+			for (var cell : cells) {
+				int pos = positionOf(csc, cell.row, cell.col);
+				values[pos] += cell.next(interpreter) - cell.value;
+			}
+			return new CSCMatrix(csc.rows, csc.columns, values,
+				csc.columnPointers, csc.rowIndices);
+		}
+		Matrix m = matrix.asMutableCopy();
+		for (var cell : cells) {
+			double delta = cell.next(interpreter) - cell.value;
+			m.set(cell.row, cell.col, m.get(cell.row, cell.col) + delta);
+		}
+		return m;
+	}
+
+	private MatrixReader evaluateImpacts(
+		MatrixReader matrix, FormulaInterpreter interpreter) {
+		if (matrix == null || impacts.isEmpty())
+			return matrix;
+		var cells = impacts.values();
+		if (matrix instanceof CSCMatrix csc && containsAll(csc, cells)) {
+			var values = Arrays.copyOf(csc.values, csc.values.length);
+			for (var cell : cells) {
+				values[positionOf(csc, cell.row, cell.col)] = cell.next(interpreter);
+			}
+			return new CSCMatrix(csc.rows, csc.columns, values,
+				csc.columnPointers, csc.rowIndices);
+		}
+		Matrix m = matrix.asMutableCopy();
+		for (var cell : cells) {
+			m.set(cell.row, cell.col, cell.next(interpreter));
+		}
+		return m;
+	}
+
+	private boolean containsAll(
+		CSCMatrix csc, Iterable<? extends Cell> cells) {
+		for (var cell : cells) {
+			if (positionOf(csc, cell.row(), cell.col()) < 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the position of the given cell in the values of the given CSC
+	 * matrix or -1 if the cell is not in the structure of the matrix.
+	 */
+	private int positionOf(CSCMatrix csc, int row, int col) {
+		int end = col < csc.columns - 1
+			? csc.columnPointers[col + 1]
+			: csc.values.length;
+		for (int i = csc.columnPointers[col]; i < end; i++) {
+			if (csc.rowIndices[i] == row)
+				return i;
+		}
+		return -1;
+	}
+}
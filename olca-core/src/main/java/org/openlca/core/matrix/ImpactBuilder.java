@@ -34,6 +34,7 @@ public final class ImpactBuilder {
 	private final ImpactIndex impactIndex;
 	private final FormulaInterpreter interpreter;
 	private final boolean withUncertainties;
+	private final FormulaCells formulaCells;
 
 	private final ConversionTable conversions;
 	private MatrixBuilder matrix;
@@ -64,6 +65,7 @@ public final class ImpactBuilder {
 		}
 
 		withUncertainties = config.withUncertainties;
+		formulaCells = config.formulaCells;
 		conversions = ConversionTable.create(db);
 	}
 
@@ -145,6 +147,9 @@ public final class ImpactBuilder {
 				int row = impactIndex.of(impactId);
 				int col = flowIndex.of(flowId);
 				matrix.set(row, col, f.matrixValue(interpreter));
+				if (formulaCells != null) {
+					formulaCells.setImpact(row, col, f);
+				}
 
 				// set possible uncertainties
 				if (uncertainties != null) {
@@ -223,6 +228,9 @@ public final class ImpactBuilder {
 				if (addIt) {
 					int col = flowIndex.of(flowId, locationId);
 					matrix.set(row, col, f.matrixValue(interpreter));
+					if (formulaCells != null) {
+						formulaCells.setImpact(row, col, f);
+					}
 					if (uncertainties != null) {
 						uncertainties.add(row, col, f);
 					}
@@ -254,6 +262,9 @@ public final class ImpactBuilder {
 					? impact.direction == Direction.INPUT
 					: idxFlow.isInput();
 				matrix.set(row, col, factor.matrixValue(interpreter));
+				if (formulaCells != null) {
+					formulaCells.setImpact(row, col, factor);
+				}
 				if (uncertainties != null) {
 					uncertainties.add(row, col, factor);
 				}
@@ -324,6 +335,7 @@ public final class ImpactBuilder {
 		private final EnviIndex flows;
 		private boolean withUncertainties;
 		private FormulaInterpreter interpreter;
+		private FormulaCells formulaCells;
 		private ImpactIndex impacts;
 
 		private Config(IDatabase db, EnviIndex flows) {
@@ -344,6 +356,15 @@ public final class ImpactBuilder {
 			return this;
 		}
 
+		/**
+		 * Records the characterization factors that depend on parameters in
+		 * the given cells.
+		 */
+		public Config withFormulaCells(FormulaCells formulaCells) {
+			this.formulaCells = formulaCells;
+			return this;
+		}
+
 		public Config withInterpreter(FormulaInterpreter interpreter) {
 			this.interpreter = interpreter;
 			return this;
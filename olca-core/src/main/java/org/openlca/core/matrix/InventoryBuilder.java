@@ -29,6 +29,7 @@ public class InventoryBuilder {
 	private UMatrix techUncerts;
 	private UMatrix enviUncerts;
 	private double[] costs;
+	private FormulaCells formulaCells;
 
 	public InventoryBuilder(MatrixConfig conf) {
 		this.conf = conf;
@@ -65,6 +66,9 @@ public class InventoryBuilder {
 		if (conf.withCosts) {
 			costs = new double[conf.techIndex.size()];
 		}
+		if (conf.withFormulaCells) {
+			formulaCells = new FormulaCells();
+		}
 	}
 
 	public MatrixData build() {
@@ -94,6 +98,7 @@ public class InventoryBuilder {
 
 		// optional costs
 		data.costVector = costs;
+		data.formulaCells = formulaCells;
 		return data;
 	}
 
@@ -206,7 +211,20 @@ public class InventoryBuilder {
 		matrix.add(row, col, value);
 
 		if (conf.withCosts) {
-			costs[col] += exchange.costValue(conf.interpreter, af);
+			double cost = exchange.costValue(conf.interpreter, af);
+			costs[col] += cost;
+			if (formulaCells != null) {
+				formulaCells.addCosts(col, exchange, allocationFactor, cost);
+			}
+		}
+
+		if (formulaCells != null) {
+			if (matrix == techBuilder) {
+				formulaCells.addTech(row, col, exchange, allocationFactor, value);
+			}
+			if (matrix == enviBuilder) {
+				formulaCells.addEnvi(row, col, exchange, allocationFactor, value);
+			}
 		}
 
 		if (conf.withUncertainties) {
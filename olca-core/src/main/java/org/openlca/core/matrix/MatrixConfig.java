@@ -25,6 +25,7 @@ public class MatrixConfig {
 	public final Demand demand;
 
 	public final boolean withUncertainties;
+	public final boolean withFormulaCells;
 	public final boolean withCosts;
 	public final boolean withRegionalization;
 	public final AllocationMethod allocationMethod;
@@ -61,6 +62,7 @@ public class MatrixConfig {
 
 		// optional settings
 		withUncertainties = builder.withUncertainties;
+		withFormulaCells = builder.withFormulaCells;
 		withCosts = builder.withCosts;
 		withRegionalization = builder.withRegionalization;
 		allocationMethod = builder.allocationMethod == null
@@ -95,6 +97,7 @@ public class MatrixConfig {
 
 		private AllocationMethod allocationMethod;
 		private boolean withUncertainties;
+		private boolean withFormulaCells;
 		private boolean withCosts;
 		private boolean withRegionalization;
 
@@ -128,6 +131,17 @@ public class MatrixConfig {
 			return this;
 		}
 
+		/**
+		 * If set to true, the matrix cells that depend on parameters are
+		 * recorded in the {@link MatrixData#formulaCells} of the built data,
+		 * so that the matrices can be evaluated for other parameter values
+		 * without building them again.
+		 */
+		public Builder withFormulaCells(boolean b) {
+			withFormulaCells = b;
+			return this;
+		}
+
 		public Builder withCosts(boolean b) {
 			withCosts = b;
 			return this;
@@ -172,6 +186,7 @@ public class MatrixConfig {
 					data.impactIndex = conf.impactIndex;
 				} else {
 					ImpactBuilder.of(conf, data.enviIndex)
+						.withFormulaCells(data.formulaCells)
 						.build()
 						.addTo(data);
 				}
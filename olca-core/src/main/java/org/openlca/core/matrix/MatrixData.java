@@ -2,7 +2,9 @@ package org.openlca.core.matrix;
 
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiFunction;
+import java.util.random.RandomGenerator;
 
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.matrix.format.CSCMatrix;
@@ -90,6 +92,13 @@ public class MatrixData {
 	 */
 	public UMatrix impactUncertainties;
 
+	/**
+	 * Contains the cells of the matrices that depend on parameters. This field
+	 * is only used (not null) when the data are built for evaluating them with
+	 * different parameter values, e.g. for the variants of a project.
+	 */
+	public FormulaCells formulaCells;
+
 	private Boolean _hasLibraryLinks;
 
 	public static MatrixConfig.Builder of(IDatabase db, TechIndex techIndex) {
@@ -101,13 +110,21 @@ public class MatrixData {
 	 * the matrix instances may change so you need to be carefully with aliases.
 	 */
 	public void simulate(FormulaInterpreter interpreter) {
+		simulate(interpreter, ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Same as {@link #simulate(FormulaInterpreter)} but takes the random numbers
+	 * from the given generator.
+	 */
+	public void simulate(FormulaInterpreter interpreter, RandomGenerator random) {
 
 		BiFunction<MatrixReader, UMatrix, Optional<Matrix>> next =
 			(matrix, uncertainties) -> {
 				if (matrix == null || uncertainties == null)
 					return Optional.empty();
 				var m = matrix.asMutable();
-				uncertainties.generate(m, interpreter);
+				uncertainties.generate(m, interpreter, random);
 				return Optional.of(m);
 			};
 
@@ -147,6 +164,23 @@ public class MatrixData {
 		return false;
 	}
 
+	/**
+	 * Returns the estimated number of bytes of the matrices and the cost vector
+	 * of this data set on the heap.
+	 */
+	public long byteSize() {
+		long size = costVector != null
+			? 8L * costVector.length
+			: 0;
+		var matrices = new MatrixReader[]{techMatrix, enviMatrix, impactMatrix};
+		for (var matrix : matrices) {
+			if (matrix != null) {
+				size += matrix.byteSize();
+			}
+		}
+		return size;
+	}
+
 	public void compress() {
 		if (techMatrix instanceof HashPointMatrix) {
 			techMatrix = CSCMatrix.of(techMatrix);
@@ -161,6 +195,7 @@ public class MatrixData {
 
 	public MatrixData copy() {
 		var copy = new MatrixData();
+		copy.demand = demand;
 		copy.techIndex = Copy.of(techIndex);
 		copy.enviIndex = Copy.of(enviIndex);
 		copy.impactIndex = Copy.of(impactIndex);
@@ -0,0 +1,315 @@
+package org.openlca.core.matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.IDatabaseListener;
+import org.openlca.core.matrix.format.CSCMatrix;
+import org.openlca.core.matrix.format.HashPointMatrix;
+import org.openlca.core.matrix.format.Matrix;
+import org.openlca.core.matrix.format.MatrixReader;
+import org.openlca.core.matrix.index.EnviIndex;
+import org.openlca.core.matrix.index.ImpactIndex;
+import org.openlca.core.model.AllocationMethod;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.ImpactMethod;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.openlca.util.Copy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the inventory matrices of calculation setups so that a product
+ * system can be calculated repeatedly, e.g. with other LCIA methods or demand
+ * values, without building its matrices again. The cache key is the
+ * calculation target with its version and last-change date, the allocation
+ * method, the regionalization and cost flags, and the parameter
+ * redefinitions of the setup. The technology and intervention matrices are
+ * stored in compressed column form; the LCIA matrices are stored separately
+ * for each LCIA method and attached to the inventory data on request.
+ * <p>
+ * The cache registers itself as listener of the database and drops its
+ * entries when models of types that are used in the matrices are changed,
+ * also when bulk writers or native SQL updates only report the changed types.
+ * Setups with uncertainty simulations are not cached; also, the matrix data
+ * of setups with sub-system or result links should not be put into the cache
+ * as these depend on the sub-results of a calculation.
+ */
+public final class MatrixDataCache implements IDatabaseListener {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final IDatabase db;
+	private final Cache<Key, Entry> entries;
+
+	private MatrixDataCache(IDatabase db, int maxSize) {
+		this.db = db;
+		this.entries = CacheBuilder.newBuilder()
+			.maximumSize(maxSize)
+			.build();
+	}
+
+	public static MatrixDataCache of(IDatabase db) {
+		return of(db, 10);
+	}
+
+	/**
+	 * Creates a new cache for the given database that holds the matrix data
+	 * of at most {@code maxSize} calculation setups.
+	 */
+	public static MatrixDataCache of(IDatabase db, int maxSize) {
+		var cache = new MatrixDataCache(db, Math.max(1, maxSize));
+		db.getListeners().add(cache);
+		return cache;
+	}
+
+	/**
+	 * Clears the cache and removes it from the listeners of the database.
+	 */
+	public void dispose() {
+		db.getListeners().remove(this);
+		clear();
+	}
+
+	public void clear() {
+		entries.invalidateAll();
+	}
+
+	public long size() {
+		return entries.size();
+	}
+
+	public static boolean isCacheable(CalculationSetup setup) {
+		return setup != null
+			&& setup.target() != null
+			&& setup.simulationRuns().isEmpty();
+	}
+
+	/**
+	 * Returns a view of the cached matrix data of the given setup with the
+	 * demand and the LCIA matrices of the setup, if present. The indices and
+	 * matrices of the view are shared with the cache and are not copied; the
+	 * sparse matrices are stored in the immutable CSC format. Thus, the
+	 * returned data must not be modified. The formula cells and uncertainty
+	 * distributions are not cached, so that the data are never modified in
+	 * place by parameter updates or simulations; use
+	 * {@link MatrixData#copy()} when a mutable copy is needed.
+	 */
+	public Optional<MatrixData> get(CalculationSetup setup) {
+		var key = Key.of(setup);
+		if (key == null)
+			return Optional.empty();
+		var entry = entries.getIfPresent(key);
+		if (entry == null)
+			return Optional.empty();
+		log.trace("take cached matrix data of {}", setup.target());
+		var data = entry.view();
+		data.demand = Demand.of(setup);
+		var method = setup.impactMethod();
+		if (method == null)
+			return Optional.of(data);
+		if (EnviIndex.isEmpty(data.enviIndex)) {
+			data.impactIndex = ImpactIndex.of(method);
+			return Optional.of(data);
+		}
+		var impacts = entry.impactsOf(method, setup);
+		data.impactIndex = impacts.index;
+		data.impactMatrix = impacts.matrix;
+		return Optional.of(data);
+	}
+
+	/**
+	 * Puts the given matrix data of the setup into the cache. The cache keeps
+	 * its own copies of the indices and matrices, thus, the data can be used
+	 * in a calculation afterwards.
+	 */
+	public void put(CalculationSetup setup, MatrixData data) {
+		if (data == null || !isCacheable(setup))
+			return;
+		var key = Key.of(setup);
+		if (key == null)
+			return;
+		var inventory = new MatrixData();
+		inventory.techIndex = Copy.of(data.techIndex);
+		inventory.enviIndex = Copy.of(data.enviIndex);
+		inventory.techMatrix = readOnlyOf(data.techMatrix);
+		inventory.enviMatrix = readOnlyOf(data.enviMatrix);
+		if (data.costVector != null) {
+			inventory.costVector = Arrays.copyOf(
+				data.costVector, data.costVector.length);
+		}
+		var entry = new Entry(inventory);
+
+		var method = setup.impactMethod();
+		if (method != null
+			&& data.impactMatrix != null
+			&& data.impactIndex != null) {
+			var impacts = new Impacts(
+				Copy.of(data.impactIndex), readOnlyOf(data.impactMatrix));
+			entry.impacts.put(method.id, impacts);
+		}
+		entries.put(key, entry);
+	}
+
+	/**
+	 * Returns a matrix that is not modified by the calculation: sparse
+	 * matrices are converted into the CSC format, which is immutable, and
+	 * other mutable matrices are copied.
+	 */
+	private static MatrixReader readOnlyOf(MatrixReader matrix) {
+		if (matrix == null)
+			return null;
+		if (matrix instanceof HashPointMatrix)
+			return CSCMatrix.of(matrix);
+		return matrix instanceof Matrix m
+			? m.copy()
+			: matrix;
+	}
+
+	@Override
+	public void modelInserted(Descriptor d) {
+		onChange(d);
+	}
+
+	@Override
+	public void modelUpdated(Descriptor d) {
+		onChange(d);
+	}
+
+	@Override
+	public void modelDeleted(Descriptor d) {
+		onChange(d);
+	}
+
+	@Override
+	public void databaseChanged(Set<ModelType> types) {
+		if (types == null || types.isEmpty()) {
+			if (entries.size() > 0) {
+				log.trace("clear matrix data cache; database changed");
+				clear();
+			}
+			return;
+		}
+		for (var type : types) {
+			onChange(type);
+		}
+	}
+
+	private void onChange(Descriptor d) {
+		if (d != null) {
+			onChange(d.type);
+		}
+	}
+
+	private void onChange(ModelType type) {
+		if (type == null)
+			return;
+		switch (type) {
+			case IMPACT_METHOD, IMPACT_CATEGORY -> {
+				for (var entry : entries.asMap().values()) {
+					entry.impacts.clear();
+				}
+			}
+			case PROCESS, PRODUCT_SYSTEM, FLOW, FLOW_PROPERTY, UNIT_GROUP,
+				CURRENCY, LOCATION, PARAMETER, RESULT -> {
+				if (entries.size() > 0) {
+					log.trace("clear matrix data cache; {} changed", type);
+					clear();
+				}
+			}
+			default -> {
+			}
+		}
+	}
+
+	/**
+	 * The cached inventory data of a setup and the LCIA matrices of the
+	 * methods that were requested for this setup, by method ID.
+	 */
+	private class Entry {
+
+		final MatrixData inventory;
+		final ConcurrentHashMap<Long, Impacts> impacts =
+			new ConcurrentHashMap<>();
+
+		Entry(MatrixData inventory) {
+			this.inventory = inventory;
+		}
+
+		/**
+		 * Returns a new data object that shares the indices and matrices of
+		 * the cached inventory.
+		 */
+		MatrixData view() {
+			var data = new MatrixData();
+			data.techIndex = inventory.techIndex;
+			data.enviIndex = inventory.enviIndex;
+			data.techMatrix = inventory.techMatrix;
+			data.enviMatrix = inventory.enviMatrix;
+			data.costVector = inventory.costVector;
+			return data;
+		}
+
+		Impacts impactsOf(
+			ImpactMethod method, CalculationSetup setup) {
+			return impacts.computeIfAbsent(method.id, id -> {
+				var impactIndex = ImpactIndex.of(method);
+				var contexts = new HashSet<>(inventory.techIndex.getProcessIds());
+				impactIndex.each((i, impact) -> contexts.add(impact.id));
+				var interpreter = ParameterTable.interpreter(
+					db, contexts, setup.parameters());
+				var data = ImpactBuilder.of(db, inventory.enviIndex)
+					.withImpacts(impactIndex)
+					.withInterpreter(interpreter)
+					.build();
+				return new Impacts(
+					data.impactIndex, readOnlyOf(data.impactMatrix));
+			});
+		}
+	}
+
+	/**
+	 * The cached LCIA matrix of a method and its index.
+	 */
+	private record Impacts(ImpactIndex index, MatrixReader matrix) {
+	}
+
+	private record Key(
+		Class<?> type,
+		long id,
+		long version,
+		long lastChange,
+		AllocationMethod allocation,
+		boolean regionalized,
+		boolean withCosts,
+		List<String> redefs
+	) {
+
+		static Key of(CalculationSetup setup) {
+			if (!isCacheable(setup))
+				return null;
+			var target = setup.target();
+			var redefs = new ArrayList<String>(setup.parameters().size());
+			for (var redef : setup.parameters()) {
+				redefs.add(redef.name + "@" + redef.contextId + "=" + redef.value);
+			}
+			return new Key(
+				target.getClass(),
+				target.id,
+				target.version,
+				target.lastChange,
+				setup.allocation(),
+				setup.hasRegionalization(),
+				setup.hasCosts(),
+				redefs);
+		}
+	}
+}
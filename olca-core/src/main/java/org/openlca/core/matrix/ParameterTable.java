@@ -1,10 +1,14 @@
 package org.openlca.core.matrix;
 
 import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.database.NativeSql;
@@ -33,6 +37,27 @@ public class ParameterTable {
 
 	private final FormulaInterpreter interpreter = new FormulaInterpreter();
 
+	/**
+	 * The scanned parameters in case the table is build for creating multiple
+	 * interpreters with different redefinitions.
+	 */
+	private List<Binding> bindings;
+
+	private record Binding(
+		long owner, String name, boolean isInput, double value, String formula) {
+
+		void bindTo(FormulaInterpreter interpreter) {
+			var scope = owner == 0
+				? interpreter.getGlobalScope()
+				: interpreter.getOrCreate(owner);
+			if (isInput) {
+				scope.bind(name, value);
+			} else {
+				scope.bind(name, formula);
+			}
+		}
+	}
+
 	private ParameterTable() {
 	}
 
@@ -50,7 +75,7 @@ public class ParameterTable {
 			var log = LoggerFactory.getLogger(ParameterTable.class);
 			log.error("Failed to scan parameter table", e);
 		}
-		table.bindRedefs(redefs);
+		table.bindRedefs(table.interpreter, redefs);
 		return table.interpreter;
 	}
 
@@ -71,16 +96,62 @@ public class ParameterTable {
 			var log = LoggerFactory.getLogger(ParameterTable.class);
 			log.error("Failed to scan parameter table", e);
 		}
-		table.bindRedefs(redefs);
+		table.bindRedefs(table.interpreter, redefs);
+		return table;
+	}
+
+	/**
+	 * Builds a parameter table from which multiple formula interpreters with
+	 * different parameter redefinitions can be created, without scanning the
+	 * parameters of the database again; see {@link #interpreter(Collection)}.
+	 */
+	public static ParameterTable of(IDatabase db, Set<Long> contexts) {
+		var table = new ParameterTable();
+		table.bindings = new ArrayList<>();
+		try {
+			table.scan(db, contexts);
+		} catch (Exception e) {
+			var log = LoggerFactory.getLogger(ParameterTable.class);
+			log.error("Failed to scan parameter table", e);
+		}
 		return table;
 	}
 
+	/**
+	 * Creates a new formula interpreter with the parameters of this table and
+	 * applies the given parameter redefinitions. The interpreters are
+	 * independent of each other, so that they can be used in different
+	 * threads. This only works for tables that were created with
+	 * {@link #of(IDatabase, Set)}.
+	 */
+	public FormulaInterpreter interpreter(Collection<ParameterRedef> redefs) {
+		if (bindings == null)
+			throw new IllegalStateException(
+				"the parameter table was not created for multiple interpreters");
+		var interpreter = new FormulaInterpreter();
+		for (var binding : bindings) {
+			binding.bindTo(interpreter);
+		}
+		bindRedefs(interpreter, redefs);
+		return interpreter;
+	}
+
 	/**
 	 * Calculates new random values for the parameters in this table that have an
 	 * uncertainty distribution assigned. It re-binds the values of theses
 	 * parameters in the underlying interpreter with the generated values.
 	 */
 	public FormulaInterpreter simulate() {
+		return simulate(ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Same as {@link #simulate()} but takes the random numbers from the given
+	 * generator. Tables that are created for the same database, contexts, and
+	 * redefinitions consume the random numbers in the same order and thus
+	 * generate the same values for the same sequence of random numbers.
+	 */
+	public FormulaInterpreter simulate(RandomGenerator random) {
 		if (numberGens == null)
 			return interpreter;
 		var it = numberGens.iterator();
@@ -95,14 +166,15 @@ public class ParameterTable {
 				continue;
 			generators.forEach((name, gen) -> {
 				if (gen != null) {
-					scope.bind(name, gen.next());
+					scope.bind(name, gen.next(random));
 				}
 			});
 		}
 		return interpreter;
 	}
 
-	private void bindRedefs(Collection<ParameterRedef> redefs) {
+	private void bindRedefs(
+		FormulaInterpreter interpreter, Collection<ParameterRedef> redefs) {
 		if (redefs == null)
 			return;
 		for (var redef : redefs) {
@@ -165,6 +237,10 @@ public class ParameterTable {
 			} else {
 				scope.bind(name, r.getString(6));
 			}
+			if (bindings != null) {
+				bindings.add(new Binding(owner, name, isInput,
+					r.getDouble(5), r.getString(6)));
+			}
 
 			// bind a possible number generator
 			if (numberGens != null) {
@@ -34,12 +34,14 @@ class ExchangeCache {
 		private final IDatabase database;
 		private final ConversionTable conversionTable;
 		private final FlowTable flowTypes;
+		private final ExchangeSnapshot snapshot;
 
 		public ExchangeLoader(IDatabase database,
 				ConversionTable conversionTable, FlowTable flowTypes) {
 			this.database = database;
 			this.conversionTable = conversionTable;
 			this.flowTypes = flowTypes;
+			this.snapshot = ExchangeSnapshot.of(database).orElse(null);
 		}
 
 		@Override
@@ -47,6 +49,9 @@ class ExchangeCache {
 			if (key == null)
 				return Collections.emptyList();
 			log.trace("fetch exchanges for key {}", key);
+			if (snapshot != null && snapshot.isCurrent(key))
+				return snapshot.exchangesOf(
+						key, conversionTable, flowTypes::type);
 			String query = "select * from tbl_exchanges where f_owner = " + key;
 			try (Connection con = database.createConnection()) {
 				Statement statement = con.createStatement();
@@ -70,11 +75,25 @@ class ExchangeCache {
 		public Map<Long, List<CalcExchange>> loadAll(
 				Iterable<? extends Long> keys) {
 			log.trace("fetch exchanges for multiple keys");
+			HashMap<Long, List<CalcExchange>> map = new HashMap<>();
+			if (snapshot != null) {
+				var changed = new ArrayList<Long>();
+				for (Long key : keys) {
+					if (!snapshot.isCurrent(key)) {
+						changed.add(key);
+						continue;
+					}
+					map.put(key, snapshot.exchangesOf(
+							key, conversionTable, flowTypes::type));
+				}
+				if (changed.isEmpty())
+					return map;
+				keys = changed;
+			}
 			try (Connection con = database.createConnection()) {
 				String query = "select * from tbl_exchanges where f_owner in "
 						+ CacheUtil.asSql(keys);
 				Statement statement = con.createStatement();
-				HashMap<Long, List<CalcExchange>> map = new HashMap<>();
 				ResultSet result = statement.executeQuery(query);
 				while (result.next()) {
 					CalcExchange e = nextExchange(result);
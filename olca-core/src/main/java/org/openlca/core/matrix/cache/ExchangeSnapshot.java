@@ -0,0 +1,926 @@
+package org.openlca.core.matrix.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+import gnu.trove.list.array.TByteArrayList;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.openlca.core.database.DatabaseListeners;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.IDatabaseListener;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.matrix.CalcExchange;
+import org.openlca.core.model.FlowType;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.UncertaintyType;
+import org.openlca.core.model.descriptors.Descriptor;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A columnar snapshot of the calculation relevant data of the exchange table.
+ * The snapshot is stored in a binary file in the file storage location of the
+ * database and mapped into memory when it is used. The rows are sorted by
+ * their owner process so that the exchanges of a process can be read
+ * without scanning the whole table. Flow types and conversion factors are not
+ * stored in the snapshot but are applied when the rows are converted into
+ * {@link CalcExchange} objects.
+ * <p>
+ * A snapshot is only used when it was created explicitly via
+ * {@link #create(IDatabase)}. It listens to the changes of the database (see
+ * {@link DatabaseListeners}). Processes that were changed after the snapshot
+ * was built are not current anymore (see {@link #isCurrent(long)}) and their
+ * exchanges are read from the database, while the snapshot is rebuilt in the
+ * background. When the changed processes are not known, e.g. after native SQL
+ * updates, the snapshot is not used until it was rebuilt. When a snapshot file
+ * is loaded, it is validated against a fingerprint of the IDs, versions, and
+ * last-change dates of the processes. Thus, changes that were made in another
+ * session without updating the version or last-change date of a process are
+ * not detected; {@link #delete(IDatabase)} removes the snapshot in this case.
+ * <p>
+ * Each rebuild writes a new file, {@code exchanges.<generation>.snapshot},
+ * instead of replacing the current file, which cannot be replaced or deleted
+ * on some platforms while it is mapped. The old files are deleted after a
+ * rebuild; files that are still mapped on such platforms are deleted with a
+ * later rebuild.
+ */
+public final class ExchangeSnapshot {
+
+	private static final String FILE_PREFIX = "exchanges.";
+	private static final String FILE_SUFFIX = ".snapshot";
+	private static final long MAGIC = 0x6f6c63612d657873L; // olca-exs
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 40;
+
+	private static final byte IS_INPUT = 1;
+	private static final byte IS_AVOIDED = 2;
+	private static final byte HAS_COSTS = 4;
+	private static final byte HAS_UNCERTAINTY = 8;
+
+	private static final ConcurrentHashMap<File, Holder> holders =
+		new ConcurrentHashMap<>();
+
+	/** Rebuilds the snapshots off the calculation path. */
+	private static final ExecutorService builder =
+		Executors.newSingleThreadExecutor(r -> {
+			var thread = new Thread(r, "exchange-snapshot-builder");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	private final long fingerprint;
+	private final int rows;
+	private final TLongIntHashMap processIndex;
+	private final int[] processOffsets;
+	private final String[] strings;
+
+	/**
+	 * The holder that records the changes of the database and the time of
+	 * its clock when the snapshot was built; changes after that time are not
+	 * contained in the snapshot.
+	 */
+	private final Holder holder;
+	private final long time;
+
+	private final ByteBuffer ids;
+	private final ByteBuffer flows;
+	private final ByteBuffer propertyFactors;
+	private final ByteBuffer units;
+	private final ByteBuffer amounts;
+	private final ByteBuffer formulas;
+	private final ByteBuffer flags;
+	private final ByteBuffer providers;
+	private final ByteBuffer locations;
+	private final ByteBuffer currencies;
+	private final ByteBuffer costValues;
+	private final ByteBuffer costFormulas;
+	private final ByteBuffer uncertaintyTypes;
+	private final ByteBuffer parameters1;
+	private final ByteBuffer parameters2;
+	private final ByteBuffer parameters3;
+
+	private ExchangeSnapshot(
+		FileChannel channel, Holder holder, long time) throws IOException {
+		this.holder = holder;
+		this.time = time;
+		var header = map(channel, 0, HEADER_SIZE);
+		if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION)
+			throw new IOException("not a valid exchange snapshot");
+		fingerprint = header.getLong(12);
+		rows = header.getInt(20);
+		int processCount = header.getInt(24);
+		long pos = HEADER_SIZE;
+
+		// the process index
+		var procIds = map(channel, pos, 8L * processCount);
+		pos += 8L * processCount;
+		var offsets = map(channel, pos, 4L * (processCount + 1));
+		pos += 4L * (processCount + 1);
+		processIndex = new TLongIntHashMap(processCount);
+		processOffsets = new int[processCount + 1];
+		for (int i = 0; i < processCount; i++) {
+			processIndex.put(procIds.getLong(8 * i), i);
+		}
+		for (int i = 0; i <= processCount; i++) {
+			processOffsets[i] = offsets.getInt(4 * i);
+		}
+
+		// the columns
+		ids = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		flows = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		propertyFactors = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		units = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		amounts = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		formulas = map(channel, pos, 4L * rows);
+		pos += 4L * rows;
+		flags = map(channel, pos, rows);
+		pos += rows;
+		providers = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		locations = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		currencies = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		costValues = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		costFormulas = map(channel, pos, 4L * rows);
+		pos += 4L * rows;
+		uncertaintyTypes = map(channel, pos, rows);
+		pos += rows;
+		parameters1 = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		parameters2 = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+		parameters3 = map(channel, pos, 8L * rows);
+		pos += 8L * rows;
+
+		// the string pool
+		int stringCount = header.getInt(28);
+		strings = new String[stringCount];
+		var pool = map(channel, pos, channel.size() - pos);
+		for (int i = 0; i < stringCount; i++) {
+			int length = pool.getInt();
+			var bytes = new byte[length];
+			pool.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+	private static ByteBuffer map(
+		FileChannel channel, long pos, long size) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, pos, size);
+	}
+
+	/**
+	 * Creates or updates the snapshot of the exchange table of the given
+	 * database. After this, the snapshot is used in calculations.
+	 */
+	public static ExchangeSnapshot create(IDatabase db) {
+		var holder = holderOf(db);
+		if (holder == null)
+			throw new IllegalStateException(
+				"database " + db + " has no file storage location");
+		return holder.update(db);
+	}
+
+	/**
+	 * Returns the snapshot of the exchange table of the given database if it
+	 * was created before. If processes were changed in the meantime, an update
+	 * of the snapshot is started in the background and the changed processes
+	 * are not current in the returned snapshot. If there is no snapshot or if
+	 * it is outdated as a whole, an empty option is returned.
+	 */
+	public static Optional<ExchangeSnapshot> of(IDatabase db) {
+		var holder = holderOf(db);
+		if (holder == null)
+			return Optional.empty();
+		try {
+			return Optional.ofNullable(holder.get(db));
+		} catch (Exception e) {
+			var log = LoggerFactory.getLogger(ExchangeSnapshot.class);
+			log.warn("failed to load exchange snapshot of " + db, e);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Deletes the snapshot of the exchange table of the given database, if
+	 * present. The exchanges are then read from the database again. Files
+	 * that are still mapped by snapshots in use cannot be deleted on some
+	 * platforms; these are deleted when the snapshot is updated or deleted the
+	 * next time.
+	 */
+	public static void delete(IDatabase db) {
+		var dir = dirOf(db);
+		if (dir == null)
+			return;
+		var holder = holders.remove(dir);
+		if (holder != null) {
+			db.getListeners().remove(holder);
+			holder.drop();
+		}
+		for (var file : filesOf(dir)) {
+			tryDelete(file);
+		}
+	}
+
+	/**
+	 * Returns true if a snapshot of the exchange table was created for the
+	 * given database.
+	 */
+	public static boolean exists(IDatabase db) {
+		var dir = dirOf(db);
+		return dir != null && latestFileOf(dir) != null;
+	}
+
+	private static File dirOf(IDatabase db) {
+		return db != null
+			? db.getFileStorageLocation()
+			: null;
+	}
+
+	private static Holder holderOf(IDatabase db) {
+		var dir = dirOf(db);
+		if (dir == null)
+			return null;
+		var holder = holders.computeIfAbsent(dir, Holder::new);
+		if (holder.register(db)) {
+			db.getListeners().add(holder);
+		}
+		return holder;
+	}
+
+	/**
+	 * Returns the snapshot files in the given folder. The files are named by
+	 * their generation: {@code exchanges.<generation>.snapshot}.
+	 */
+	private static List<File> filesOf(File dir) {
+		var files = dir.listFiles();
+		if (files == null)
+			return List.of();
+		var list = new ArrayList<File>();
+		for (var file : files) {
+			if (generationOf(file) >= 0
+				|| file.getName().equals(FILE_PREFIX + "tmp")) {
+				list.add(file);
+			}
+		}
+		return list;
+	}
+
+	private static long generationOf(File file) {
+		var name = file.getName();
+		if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_SUFFIX))
+			return -1;
+		var number = name.substring(
+			FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length());
+		try {
+			return Long.parseLong(number);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static File latestFileOf(File dir) {
+		File latest = null;
+		long max = -1;
+		for (var file : filesOf(dir)) {
+			long generation = generationOf(file);
+			if (generation > max) {
+				max = generation;
+				latest = file;
+			}
+		}
+		return latest;
+	}
+
+	private static void tryDelete(File file) {
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			var log = LoggerFactory.getLogger(ExchangeSnapshot.class);
+			log.warn("failed to delete exchange snapshot {}; it is probably"
+				+ " still mapped and deleted later", file);
+		}
+	}
+
+	private static ExchangeSnapshot read(File file, Holder holder, long time) {
+		try (var channel = FileChannel.open(
+			file.toPath(), StandardOpenOption.READ)) {
+			return new ExchangeSnapshot(channel, holder, time);
+		} catch (IOException e) {
+			var log = LoggerFactory.getLogger(ExchangeSnapshot.class);
+			log.warn("failed to read exchange snapshot " + file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Calculates an order independent hash of the IDs, versions, and last
+	 * change dates of the processes in the database.
+	 */
+	private static long fingerprintOf(IDatabase db) {
+		var sql = "select id, version, last_change from tbl_processes";
+		long[] hash = {0L, 0L};
+		NativeSql.on(db).query(sql, r -> {
+			long x = r.getLong(1) * 0x9E3779B97F4A7C15L
+				^ r.getLong(2) * 0xC2B2AE3D27D4EB4FL
+				^ r.getLong(3) * 0x165667B19E3779F9L;
+			x ^= x >>> 33;
+			x *= 0xff51afd7ed558ccdL;
+			x ^= x >>> 33;
+			hash[0] += x;
+			hash[1]++;
+			return true;
+		});
+		return hash[0] * 31 + hash[1];
+	}
+
+	/**
+	 * Holds the current snapshot of a database folder. The holder listens to
+	 * the changes of the database and records the processes that were changed
+	 * with the time of a logical clock. A snapshot contains the changes up to
+	 * the time when it was built, so that also snapshots that are still used
+	 * after a rebuild know which of their processes are outdated. When
+	 * processes are changed that are not known, e.g. via native SQL, the
+	 * snapshots before that time are stale as a whole. Rebuilds that are
+	 * requested from {@link ExchangeSnapshot#of(IDatabase)} run in the
+	 * background. When a snapshot file is loaded for the first time, it is
+	 * validated against the fingerprint of the processes as changes that were
+	 * made before, e.g. in another session, were not observed.
+	 */
+	private static final class Holder implements IDatabaseListener {
+
+		private final File dir;
+		private final Object buildLock = new Object();
+		private final AtomicLong clock = new AtomicLong();
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private final Set<IDatabase> databases =
+			Collections.newSetFromMap(new WeakHashMap<>());
+
+		/** The changed processes with the clock time of their last change. */
+		private final ConcurrentHashMap<Long, Long> changes =
+			new ConcurrentHashMap<>();
+
+		/** The time of the last change of unknown processes. */
+		private volatile long staleSince;
+		private volatile ExchangeSnapshot snapshot;
+
+		/** True when changes are recorded, i.e. when a snapshot is used. */
+		private volatile boolean active;
+		private boolean dropped;
+
+		Holder(File dir) {
+			this.dir = dir;
+		}
+
+		/**
+		 * Returns true if the given database was not registered before, so
+		 * that the holder needs to be added to its listeners.
+		 */
+		synchronized boolean register(IDatabase db) {
+			return databases.add(db);
+		}
+
+		/**
+		 * Returns the current snapshot without rebuilding it. If it is
+		 * outdated, a rebuild is started in the background.
+		 */
+		ExchangeSnapshot get(IDatabase db) {
+			var current = snapshot;
+			if (current == null) {
+				if (latestFileOf(dir) == null)
+					return null;
+				current = load(db);
+			}
+			if (current == null || clock.get() > current.time) {
+				schedule(db);
+			}
+			return current == null || current.isStale()
+				? null
+				: current;
+		}
+
+		/**
+		 * Loads the latest snapshot file if it matches the fingerprint of the
+		 * processes in the database.
+		 */
+		private synchronized ExchangeSnapshot load(IDatabase db) {
+			if (snapshot != null)
+				return snapshot;
+			var file = latestFileOf(dir);
+			if (file == null)
+				return null;
+			long time = clock.get();
+			var loaded = read(file, this, time);
+			if (loaded == null || loaded.fingerprint != fingerprintOf(db))
+				return null;
+			active = true;
+			snapshot = loaded;
+			return loaded;
+		}
+
+		private void schedule(IDatabase db) {
+			if (!scheduled.compareAndSet(false, true))
+				return;
+			builder.execute(() -> {
+				try {
+					update(db);
+				} catch (Exception e) {
+					var log = LoggerFactory.getLogger(ExchangeSnapshot.class);
+					log.warn("failed to update exchange snapshot of " + db, e);
+				} finally {
+					scheduled.set(false);
+				}
+			});
+		}
+
+		/**
+		 * Returns the snapshot after it was rebuilt if it is outdated. When
+		 * the rebuild fails, the current snapshot is kept with its outdated
+		 * processes, which are then still read from the database.
+		 */
+		ExchangeSnapshot update(IDatabase db) {
+			synchronized (buildLock) {
+				if (dropped)
+					return null;
+				var current = load(db);
+				if (current != null && clock.get() <= current.time)
+					return current;
+				active = true;
+				long time = clock.get();
+				var next = rebuild(db, fingerprintOf(db), time);
+				snapshot = next;
+				return next;
+			}
+		}
+
+		boolean isCurrent(long processId, long time) {
+			if (staleSince > time)
+				return false;
+			var changed = changes.get(processId);
+			return changed == null || changed <= time;
+		}
+
+		Set<Long> changedSince(long time) {
+			var ids = new HashSet<Long>();
+			changes.forEach((id, changed) -> {
+				if (changed > time) {
+					ids.add(id);
+				}
+			});
+			return ids;
+		}
+
+		/**
+		 * Writes a new generation of the snapshot and maps it. The mappings of
+		 * the old snapshot are dropped before its file is deleted; readers
+		 * that still hold the old snapshot keep a valid mapping.
+		 */
+		private ExchangeSnapshot rebuild(
+			IDatabase db, long fingerprint, long time) {
+			var log = LoggerFactory.getLogger(ExchangeSnapshot.class);
+			log.info("build exchange snapshot for {}", db);
+			long generation = 0;
+			for (var file : filesOf(dir)) {
+				generation = Math.max(generation, generationOf(file) + 1);
+			}
+			var file = new File(dir, FILE_PREFIX + generation + FILE_SUFFIX);
+			try {
+				var columns = Columns.read(db);
+				var tmp = new File(dir, FILE_PREFIX + "tmp");
+				columns.write(tmp, fingerprint);
+				Files.move(tmp.toPath(), file.toPath());
+			} catch (IOException e) {
+				throw new RuntimeException(
+					"failed to build exchange snapshot " + file, e);
+			}
+			var next = read(file, this, time);
+			if (next == null)
+				throw new RuntimeException("failed to map snapshot " + file);
+			for (var old : filesOf(dir)) {
+				if (!old.equals(file)) {
+					tryDelete(old);
+				}
+			}
+			return next;
+		}
+
+		void drop() {
+			synchronized (buildLock) {
+				dropped = true;
+				active = false;
+				snapshot = null;
+			}
+		}
+
+		@Override
+		public void modelInserted(Descriptor d) {
+			onChange(d);
+		}
+
+		@Override
+		public void modelUpdated(Descriptor d) {
+			onChange(d);
+		}
+
+		@Override
+		public void modelDeleted(Descriptor d) {
+			onChange(d);
+		}
+
+		@Override
+		public void databaseChanged(Set<ModelType> types) {
+			if (!active)
+				return;
+			if (types.isEmpty() || types.contains(ModelType.PROCESS)) {
+				staleSince = clock.incrementAndGet();
+			}
+		}
+
+		private void onChange(Descriptor d) {
+			if (!active || d == null || d.type != ModelType.PROCESS)
+				return;
+			changes.put(d.id, clock.incrementAndGet());
+		}
+	}
+
+	/**
+	 * Returns the number of exchanges in this snapshot.
+	 */
+	public int size() {
+		return rows;
+	}
+
+	/**
+	 * Returns true if the snapshot contains exchanges of the given process.
+	 */
+	public boolean hasProcess(long processId) {
+		return processIndex.containsKey(processId);
+	}
+
+	/**
+	 * Returns false if the given process was inserted, updated, or deleted
+	 * after the snapshot was built, or if the snapshot is stale. The exchanges
+	 * of such a process need to be read from the database.
+	 */
+	public boolean isCurrent(long processId) {
+		return holder.isCurrent(processId, time);
+	}
+
+	/**
+	 * Returns true if processes were changed after the snapshot was built
+	 * that are not known, e.g. via native SQL. No process is current in a
+	 * stale snapshot.
+	 */
+	public boolean isStale() {
+		return holder.staleSince > time;
+	}
+
+	/**
+	 * Returns the IDs of the known processes that were inserted, updated, or
+	 * deleted after the snapshot was built; see {@link #isCurrent(long)}.
+	 */
+	public Set<Long> changedProcesses() {
+		return holder.changedSince(time);
+	}
+
+	/**
+	 * Calls the given function with the row indices of the exchanges of the
+	 * given process. This does not check whether the process is current.
+	 */
+	public void eachRowOf(long processId, IntConsumer fn) {
+		if (!processIndex.containsKey(processId))
+			return;
+		int i = processIndex.get(processId);
+		int end = processOffsets[i + 1];
+		for (int row = processOffsets[i]; row < end; row++) {
+			fn.accept(row);
+		}
+	}
+
+	/**
+	 * Calls the given function with the IDs of all processes that have
+	 * exchanges in this snapshot. This does not check whether the processes
+	 * are current.
+	 */
+	public void eachProcess(LongConsumer fn) {
+		processIndex.forEachKey(processId -> {
+			fn.accept(processId);
+			return true;
+		});
+	}
+
+	/**
+	 * Converts the exchange in the given row into a calculation exchange.
+	 */
+	public CalcExchange exchangeAt(int row, long processId,
+		ConversionTable conversions, LongFunction<FlowType> flowTypes) {
+		var e = new CalcExchange();
+		e.exchangeId = ids.getLong(8 * row);
+		e.processId = processId;
+		e.flowId = flows.getLong(8 * row);
+		e.flowType = flowTypes.apply(e.flowId);
+		double propertyFactor = conversions.getPropertyFactor(
+			propertyFactors.getLong(8 * row));
+		e.conversionFactor = propertyFactor == 0
+			? 0
+			: conversions.getUnitFactor(units.getLong(8 * row)) / propertyFactor;
+		e.amount = amounts.getDouble(8 * row);
+		e.formula = stringOf(formulas.getInt(4 * row));
+		byte flag = flags.get(row);
+		e.isInput = (flag & IS_INPUT) != 0;
+		e.isAvoided = (flag & IS_AVOIDED) != 0;
+		e.defaultProviderId = providers.getLong(8 * row);
+		e.locationId = locations.getLong(8 * row);
+
+		if ((flag & HAS_COSTS) != 0) {
+			e.costValue = costValues.getDouble(8 * row);
+			e.costFormula = stringOf(costFormulas.getInt(4 * row));
+			e.currencyFactor = conversions.getCurrencyFactor(
+				currencies.getLong(8 * row));
+		}
+
+		if ((flag & HAS_UNCERTAINTY) != 0) {
+			e.uncertaintyType = UncertaintyType.values()[uncertaintyTypes.get(row)];
+			e.parameter1 = parameters1.getDouble(8 * row);
+			e.parameter2 = parameters2.getDouble(8 * row);
+			e.parameter3 = parameters3.getDouble(8 * row);
+		}
+		return e;
+	}
+
+	/**
+	 * Returns the exchanges of the given process. This does not check whether
+	 * the process is current.
+	 */
+	public List<CalcExchange> exchangesOf(long processId,
+		ConversionTable conversions, LongFunction<FlowType> flowTypes) {
+		var list = new ArrayList<CalcExchange>();
+		eachRowOf(processId, row -> list.add(
+			exchangeAt(row, processId, conversions, flowTypes)));
+		return list;
+	}
+
+	private String stringOf(int idx) {
+		return idx >= 0 && idx < strings.length
+			? strings[idx]
+			: null;
+	}
+
+	/**
+	 * The columns of the exchange table in the order of the database.
+	 */
+	private static class Columns {
+
+		final TLongArrayList owners = new TLongArrayList();
+		final TLongArrayList ids = new TLongArrayList();
+		final TLongArrayList flows = new TLongArrayList();
+		final TLongArrayList propertyFactors = new TLongArrayList();
+		final TLongArrayList units = new TLongArrayList();
+		final TDoubleArrayList amounts = new TDoubleArrayList();
+		final TIntArrayList formulas = new TIntArrayList();
+		final TByteArrayList flags = new TByteArrayList();
+		final TLongArrayList providers = new TLongArrayList();
+		final TLongArrayList locations = new TLongArrayList();
+		final TLongArrayList currencies = new TLongArrayList();
+		final TDoubleArrayList costValues = new TDoubleArrayList();
+		final TIntArrayList costFormulas = new TIntArrayList();
+		final TByteArrayList uncertaintyTypes = new TByteArrayList();
+		final TDoubleArrayList parameters1 = new TDoubleArrayList();
+		final TDoubleArrayList parameters2 = new TDoubleArrayList();
+		final TDoubleArrayList parameters3 = new TDoubleArrayList();
+
+		final List<String> strings = new ArrayList<>();
+		final HashMap<String, Integer> stringIndex = new HashMap<>();
+
+		static Columns read(IDatabase db) {
+			var sql = "SELECT"
+				+ /* 1 */ " id,"
+				+ /* 2 */ " f_owner,"
+				+ /* 3 */ " f_flow,"
+				+ /* 4 */ " f_flow_property_factor,"
+				+ /* 5 */ " f_unit,"
+				+ /* 6 */ " resulting_amount_value,"
+				+ /* 7 */ " resulting_amount_formula,"
+				+ /* 8 */ " is_input,"
+				+ /* 9 */ " avoided_product,"
+				+ /* 10 */ " f_default_provider,"
+				+ /* 11 */ " cost_value,"
+				+ /* 12 */ " cost_formula,"
+				+ /* 13 */ " f_currency,"
+				+ /* 14 */ " distribution_type,"
+				+ /* 15 */ " parameter1_value,"
+				+ /* 16 */ " parameter2_value,"
+				+ /* 17 */ " parameter3_value,"
+				+ /* 18 */ " f_location"
+				+ " FROM tbl_exchanges";
+			var cols = new Columns();
+			NativeSql.on(db).query(sql, r -> {
+				cols.ids.add(r.getLong(1));
+				cols.owners.add(r.getLong(2));
+				cols.flows.add(r.getLong(3));
+				cols.propertyFactors.add(r.getLong(4));
+				cols.units.add(r.getLong(5));
+				cols.amounts.add(r.getDouble(6));
+				cols.formulas.add(cols.indexOf(r.getString(7)));
+				byte flag = 0;
+				if (r.getBoolean(8)) {
+					flag |= IS_INPUT;
+				}
+				if (r.getBoolean(9)) {
+					flag |= IS_AVOIDED;
+				}
+				cols.providers.add(r.getLong(10));
+
+				long currency = r.getLong(13);
+				if (!r.wasNull()) {
+					flag |= HAS_COSTS;
+					cols.costValues.add(r.getDouble(11));
+					cols.costFormulas.add(cols.indexOf(r.getString(12)));
+				} else {
+					cols.costValues.add(0);
+					cols.costFormulas.add(-1);
+				}
+				cols.currencies.add(currency);
+
+				int uncertaintyType = r.getInt(14);
+				if (!r.wasNull()) {
+					flag |= HAS_UNCERTAINTY;
+					cols.uncertaintyTypes.add((byte) uncertaintyType);
+					cols.parameters1.add(r.getDouble(15));
+					cols.parameters2.add(r.getDouble(16));
+					cols.parameters3.add(r.getDouble(17));
+				} else {
+					cols.uncertaintyTypes.add((byte) 0);
+					cols.parameters1.add(0);
+					cols.parameters2.add(0);
+					cols.parameters3.add(0);
+				}
+				cols.flags.add(flag);
+				cols.locations.add(r.getLong(18));
+				return true;
+			});
+			return cols;
+		}
+
+		private int indexOf(String s) {
+			if (s == null)
+				return -1;
+			var idx = stringIndex.get(s);
+			if (idx != null)
+				return idx;
+			int next = strings.size();
+			strings.add(s);
+			stringIndex.put(s, next);
+			return next;
+		}
+
+		/**
+		 * Writes the columns sorted by their owner into the given file.
+		 */
+		void write(File file, long fingerprint) throws IOException {
+			int rows = ids.size();
+
+			// group the rows by their owners
+			var processIndex = new TLongIntHashMap();
+			var processIds = new TLongArrayList();
+			var counts = new TIntArrayList();
+			for (int i = 0; i < rows; i++) {
+				long owner = owners.get(i);
+				if (!processIndex.containsKey(owner)) {
+					processIndex.put(owner, processIds.size());
+					processIds.add(owner);
+					counts.add(0);
+				}
+				int p = processIndex.get(owner);
+				counts.set(p, counts.get(p) + 1);
+			}
+			int processCount = processIds.size();
+			var offsets = new int[processCount + 1];
+			for (int p = 0; p < processCount; p++) {
+				offsets[p + 1] = offsets[p] + counts.get(p);
+			}
+			var next = offsets.clone();
+			var positions = new int[rows];
+			for (int i = 0; i < rows; i++) {
+				int p = processIndex.get(owners.get(i));
+				positions[i] = next[p]++;
+			}
+
+			try (var out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file), 1 << 16))) {
+				out.writeLong(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(fingerprint);
+				out.writeInt(rows);
+				out.writeInt(processCount);
+				out.writeInt(strings.size());
+				out.write(new byte[HEADER_SIZE - 32]);
+
+				for (int p = 0; p < processCount; p++) {
+					out.writeLong(processIds.get(p));
+				}
+				for (int offset : offsets) {
+					out.writeInt(offset);
+				}
+
+				writeLongs(out, ids, positions);
+				writeLongs(out, flows, positions);
+				writeLongs(out, propertyFactors, positions);
+				writeLongs(out, units, positions);
+				writeDoubles(out, amounts, positions);
+				writeInts(out, formulas, positions);
+				writeBytes(out, flags, positions);
+				writeLongs(out, providers, positions);
+				writeLongs(out, locations, positions);
+				writeLongs(out, currencies, positions);
+				writeDoubles(out, costValues, positions);
+				writeInts(out, costFormulas, positions);
+				writeBytes(out, uncertaintyTypes, positions);
+				writeDoubles(out, parameters1, positions);
+				writeDoubles(out, parameters2, positions);
+				writeDoubles(out, parameters3, positions);
+
+				for (var s : strings) {
+					var bytes = s.getBytes(StandardCharsets.UTF_8);
+					out.writeInt(bytes.length);
+					out.write(bytes);
+				}
+			}
+		}
+
+		private static void writeLongs(DataOutputStream out,
+			TLongArrayList column, int[] positions) throws IOException {
+			var sorted = new long[positions.length];
+			for (int i = 0; i < positions.length; i++) {
+				sorted[positions[i]] = column.get(i);
+			}
+			for (long value : sorted) {
+				out.writeLong(value);
+			}
+		}
+
+		private static void writeDoubles(DataOutputStream out,
+			TDoubleArrayList column, int[] positions) throws IOException {
+			var sorted = new double[positions.length];
+			for (int i = 0; i < positions.length; i++) {
+				sorted[positions[i]] = column.get(i);
+			}
+			for (double value : sorted) {
+				out.writeDouble(value);
+			}
+		}
+
+		private static void writeInts(DataOutputStream out,
+			TIntArrayList column, int[] positions) throws IOException {
+			var sorted = new int[positions.length];
+			for (int i = 0; i < positions.length; i++) {
+				sorted[positions[i]] = column.get(i);
+			}
+			for (int value : sorted) {
+				out.writeInt(value);
+			}
+		}
+
+		private static void writeBytes(DataOutputStream out,
+			TByteArrayList column, int[] positions) throws IOException {
+			var sorted = new byte[positions.length];
+			for (int i = 0; i < positions.length; i++) {
+				sorted[positions[i]] = column.get(i);
+			}
+			out.write(sorted);
+		}
+	}
+}
@@ -7,6 +7,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 import gnu.trove.map.hash.TLongObjectHashMap;
@@ -23,10 +24,19 @@ public class ExchangeTable {
 	private final ConversionTable conversions;
 	private final TLongObjectHashMap<FlowType> flowTypes;
 
+	/**
+	 * The snapshot of the exchange table, if one was created for the database;
+	 * see {@link ExchangeSnapshot}. If present, the exchanges are read from
+	 * the snapshot instead of querying the database, except for the processes
+	 * that were changed after the snapshot was built.
+	 */
+	private final ExchangeSnapshot snapshot;
+
 	public ExchangeTable(IDatabase db) {
 		this.db = db;
 		conversions = ConversionTable.create(db);
 		flowTypes = FlowTable.getTypes(db);
+		snapshot = ExchangeSnapshot.of(db).orElse(null);
 	}
 
 	/**
@@ -34,16 +44,55 @@ public class ExchangeTable {
 	 * index.
 	 */
 	public void each(TechIndex techIndex, Consumer<CalcExchange> fn) {
+		if (snapshot != null && !snapshot.isStale()) {
+			var changed = new ArrayList<Long>();
+			for (long processId : techIndex.getProcessIds()) {
+				if (!snapshot.isCurrent(processId)) {
+					changed.add(processId);
+					continue;
+				}
+				snapshot.eachRowOf(processId, row -> fn.accept(
+					snapshot.exchangeAt(row, processId, conversions, flowTypes::get)));
+			}
+			if (!changed.isEmpty()) {
+				query(query() + " where f_owner in " + CacheUtil.asSql(changed),
+					owner -> true, fn);
+			}
+			return;
+		}
 		String sql = query();
 		if (techIndex.size() < 1000) {
 			// avoid full table scans in LCI databases
 			sql += " where f_owner in " + CacheUtil.asSql(
 				techIndex.getProcessIds());
 		}
+		query(sql, techIndex::isProvider, fn);
+	}
+
+	public void each(Consumer<CalcExchange> fn) {
+		if (snapshot != null && !snapshot.isStale()) {
+			var changed = snapshot.changedProcesses();
+			snapshot.eachProcess(processId -> {
+				if (changed.contains(processId))
+					return;
+				snapshot.eachRowOf(processId, row -> fn.accept(
+					snapshot.exchangeAt(row, processId, conversions, flowTypes::get)));
+			});
+			if (!changed.isEmpty()) {
+				query(query() + " where f_owner in " + CacheUtil.asSql(changed),
+					owner -> true, fn);
+			}
+			return;
+		}
+		query(query(), owner -> true, fn);
+	}
+
+	private void query(
+		String sql, LongPredicate isOwner, Consumer<CalcExchange> fn) {
 		try {
 			NativeSql.on(db).query(sql, r -> {
 				long owner = r.getLong(2);
-				if (techIndex.isProvider(owner)) {
+				if (isOwner.test(owner)) {
 					try {
 						fn.accept(next(owner, r));
 					} catch (Exception e) {
@@ -59,24 +108,6 @@ public class ExchangeTable {
 		}
 	}
 
-	public void each(Consumer<CalcExchange> fn) {
-		try {
-			NativeSql.on(db).query(query(), r -> {
-				long owner = r.getLong(2);
-				try {
-					fn.accept(next(owner, r));
-				} catch (Exception e) {
-					throw new RuntimeException("failed to read exchange row", e);
-				}
-				return true;
-			});
-		} catch (RuntimeException e) {
-			throw e;
-		} catch (Exception e) {
-			throw new RuntimeException("failed to query exchange table", e);
-		}
-	}
-
 	private static String query() {
 		return "SELECT"
 			+ /* 1 */ " id,"
@@ -76,6 +76,7 @@ public final class MatrixCache {
 		if (exchangeCache != null)
 			exchangeCache.invalidateAll();
 		processTable = null;
+		renewSnapshot();
 	}
 
 	public synchronized void evict(ModelType type, long id) {
@@ -118,6 +119,19 @@ public final class MatrixCache {
 		processTable = null;
 		if (exchangeCache != null)
 			exchangeCache.invalidate(id);
+		renewSnapshot();
+	}
+
+	/**
+	 * The exchange cache reads the exchanges from the snapshot of the
+	 * exchange table if one exists. The cache is then created again so that
+	 * the snapshot is checked and updated when it is out of date.
+	 */
+	private void renewSnapshot() {
+		if (exchangeCache == null || !ExchangeSnapshot.exists(database))
+			return;
+		exchangeCache = ExchangeCache.create(database,
+				getConversionTable(), getFlowTypeTable());
 	}
 
 	public synchronized void registerNew(ModelType type, long id) {
@@ -52,6 +52,12 @@ public class CSCMatrix implements MatrixReader {
 		return true;
 	}
 
+	@Override
+	public long byteSize() {
+		return 8L * values.length
+				+ 4L * (columnPointers.length + rowIndices.length);
+	}
+
 	/**
 	 * Constructs a new matrix from the given values.
 	 *
@@ -114,6 +120,31 @@ public class CSCMatrix implements MatrixReader {
 				values.toArray(), columnPointers, rowIndices.toArray());
 	}
 
+	/**
+	 * Returns the transpose of this matrix in compressed-column format.
+	 */
+	public CSCMatrix transpose() {
+		int nnz = columnPointers[columns];
+		var pointers = new int[rows + 1];
+		for (int i = 0; i < nnz; i++) {
+			pointers[rowIndices[i] + 1]++;
+		}
+		for (int row = 0; row < rows; row++) {
+			pointers[row + 1] += pointers[row];
+		}
+		var next = Arrays.copyOf(pointers, rows);
+		var vals = new double[nnz];
+		var indices = new int[nnz];
+		for (int col = 0; col < columns; col++) {
+			for (int i = columnPointers[col]; i < columnPointers[col + 1]; i++) {
+				int pos = next[rowIndices[i]]++;
+				vals[pos] = values[i];
+				indices[pos] = col;
+			}
+		}
+		return new CSCMatrix(columns, rows, vals, pointers, indices);
+	}
+
 	@Override
 	public int columns() {
 		return columns;
@@ -183,6 +214,42 @@ public class CSCMatrix implements MatrixReader {
 		}
 	}
 
+	@Override
+	public void iterateColumn(int col, EntryFunction fn) {
+		if (fn == null)
+			return;
+		for (int i = columnPointers[col]; i < columnPointers[col + 1]; i++) {
+			double val = values[i];
+			if (val != 0) {
+				fn.value(rowIndices[i], col, val);
+			}
+		}
+	}
+
+	@Override
+	public double[] multiply(double[] v) {
+		double[] x = new double[rows];
+		for (int col = 0; col < columns; col++) {
+			double vj = v[col];
+			if (vj == 0)
+				continue;
+			for (int i = columnPointers[col]; i < columnPointers[col + 1]; i++) {
+				x[rowIndices[i]] += values[i] * vj;
+			}
+		}
+		return x;
+	}
+
+	/**
+	 * Scales the given column in place with the given factor. Like
+	 * {@link #scaleColumns(double[])}, this changes the data of this matrix.
+	 */
+	public void scaleColumn(int col, double factor) {
+		for (int i = columnPointers[col]; i < columnPointers[col + 1]; i++) {
+			values[i] *= factor;
+		}
+	}
+
 	/**
 	 * Note that this method changes the data of this matrix in place. This is
 	 * a fast operation of CSC matrices.
@@ -21,6 +21,12 @@ public class CompressedRowMatrix implements Matrix {
 		return true;
 	}
 
+	@Override
+	public long byteSize() {
+		return 8L * values.length
+				+ 4L * (columnIndices.length + rowPointers.length);
+	}
+
 	@Override
 	public double[] getColumn(int col) {
 		double[] column = new double[rows];
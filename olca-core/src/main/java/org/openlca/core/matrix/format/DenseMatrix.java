@@ -111,6 +111,27 @@ public class DenseMatrix implements Matrix {
 		return row + rows * column;
 	}
 
+	@Override
+	public void scaleColumn(int col, double factor) {
+		int offset = col * rows;
+		for (int i = offset; i < offset + rows; i++) {
+			data[i] *= factor;
+		}
+	}
+
+	@Override
+	public void iterateColumn(int col, EntryFunction fn) {
+		if (fn == null)
+			return;
+		int offset = col * rows;
+		for (int row = 0; row < rows; row++) {
+			double val = data[offset + row];
+			if (val != 0) {
+				fn.value(row, col, val);
+			}
+		}
+	}
+
 	@Override
 	public DenseMatrix copy() {
 		DenseMatrix copy = new DenseMatrix(rows, columns);
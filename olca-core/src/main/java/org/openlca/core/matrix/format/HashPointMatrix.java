@@ -200,6 +200,30 @@ public class HashPointMatrix implements Matrix {
 		}
 	}
 
+	@Override
+	public void scaleColumn(int col, double factor) {
+		var column = data.get(col);
+		if (column == null)
+			return;
+		var iter = column.iterator();
+		while (iter.hasNext()) {
+			iter.advance();
+			iter.setValue(iter.value() * factor);
+		}
+	}
+
+	@Override
+	public void iterateColumn(int col, EntryFunction fn) {
+		var column = data.get(col);
+		if (column == null || fn == null)
+			return;
+		var iter = column.iterator();
+		while (iter.hasNext()) {
+			iter.advance();
+			fn.value(iter.key(), col, iter.value());
+		}
+	}
+
 	public CSCMatrix compress() {
 		int[] columnPointers = new int[cols + 1];
 		int nonZeros = getNumberOfEntries();
@@ -249,6 +273,16 @@ public class HashPointMatrix implements Matrix {
 		return entryCount;
 	}
 
+	/**
+	 * Estimates the size of the hash maps of this matrix: an entry takes a
+	 * key, a value, and a state byte and the maps are kept at about half of
+	 * their capacity.
+	 */
+	@Override
+	public long byteSize() {
+		return 64L * data.size() + 26L * getNumberOfEntries();
+	}
+
 	@Override
 	public String toString() {
 		var builder = new StringBuilder("HashPointMatrix = [");
@@ -51,6 +51,20 @@ public interface Matrix extends MatrixReader {
 		}
 	}
 
+	/**
+	 * Scales the given column of this matrix in-place with the given factor.
+	 * Sparse matrices should implement this so that only the stored entries
+	 * of the column are visited.
+	 */
+	default void scaleColumn(int col, double factor) {
+		for (int row = 0; row < this.rows(); row++) {
+			double val = this.get(row, col);
+			if (val != 0) {
+				this.set(row, col, factor * val);
+			}
+		}
+	}
+
 	/**
 	 * Set the values of the given row.
 	 *
@@ -20,11 +20,7 @@ public final class MatrixConverter {
 		}
 
 		// default implementation
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < cols; col++) {
-				d.set(row, col, m.get(row, col));
-			}
-		}
+		m.iterate(d::set);
 		return d;
 	}
 
@@ -2,6 +2,8 @@ package org.openlca.core.matrix.format;
 
 import org.openlca.core.model.Copyable;
 
+import gnu.trove.list.array.TIntArrayList;
+
 public interface MatrixReader extends Copyable<MatrixReader> {
 
 	/**
@@ -56,6 +58,72 @@ public interface MatrixReader extends Copyable<MatrixReader> {
 		}
 	}
 
+	/**
+	 * Iterates over the non-zero values of the given column. The values are
+	 * passed to the given function together with their row and the column
+	 * index. Sparse matrix layouts should overwrite this function so that only
+	 * the stored entries of the column are visited.
+	 */
+	default void iterateColumn(int col, EntryFunction fn) {
+		if (fn == null)
+			return;
+		for (int row = 0; row < rows(); row++) {
+			double val = get(row, col);
+			if (val != 0) {
+				fn.value(row, col, val);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the matrix product $C = A B$ of this matrix $A$ and the given
+	 * matrix $B$. The product is calculated column by column from the non-zero
+	 * entries of the columns of both matrices (see {@link #iterateColumn}):
+	 * $C_{:,j} = \sum_k A_{:,k} B_{k,j}$. Thus, it is fast when at least one of
+	 * the matrices is sparse. The result is a sparse matrix if both matrices
+	 * are sparse, otherwise it is a dense matrix.
+	 */
+	default Matrix multiply(MatrixReader b) {
+		if (columns() != b.rows())
+			throw new IllegalArgumentException("a.columns != b.rows");
+		int rows = rows();
+		int cols = b.columns();
+
+		if (!isSparse() || !b.isSparse()) {
+			var c = new DenseMatrix(rows, cols);
+			for (int j = 0; j < cols; j++) {
+				int offset = j * rows;
+				b.iterateColumn(j, (k, _j, bkj) -> iterateColumn(k,
+					(i, _k, aik) -> c.data[offset + i] += aik * bkj));
+			}
+			return c;
+		}
+
+		// for sparse results, we collect the rows of the non-zero entries
+		// of a column, so that we do not need to scan the full column
+		var c = new HashPointMatrix(rows, cols);
+		var column = new double[rows];
+		var touched = new boolean[rows];
+		var nonZeros = new TIntArrayList();
+		for (int j = 0; j < cols; j++) {
+			b.iterateColumn(j, (k, _j, bkj) -> iterateColumn(k, (i, _k, aik) -> {
+				column[i] += aik * bkj;
+				if (!touched[i]) {
+					touched[i] = true;
+					nonZeros.add(i);
+				}
+			}));
+			for (int p = 0; p < nonZeros.size(); p++) {
+				int i = nonZeros.getQuick(p);
+				c.set(i, j, column[i]);
+				column[i] = 0;
+				touched[i] = false;
+			}
+			nonZeros.resetQuick();
+		}
+		return c;
+	}
+
 	/**
 	 * Performs a matrix-vector multiplication with the given vector v. It uses
 	 * the iterate function which can be fast for sparse matrices. For dense
@@ -118,6 +186,15 @@ public interface MatrixReader extends Copyable<MatrixReader> {
 	 */
 	boolean isSparse();
 
+	/**
+	 * Returns the estimated number of bytes that the storage of this matrix
+	 * occupies on the heap. The default implementation assumes a dense
+	 * storage of the values.
+	 */
+	default long byteSize() {
+		return 8L * rows() * columns();
+	}
+
 	/**
 	 * A matrix is dense if it is not sparse (see `isSparse`)
 	 */
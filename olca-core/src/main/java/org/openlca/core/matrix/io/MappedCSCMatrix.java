@@ -0,0 +1,149 @@
+package org.openlca.core.matrix.io;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import org.openlca.core.matrix.format.CSCMatrix;
+import org.openlca.core.matrix.format.EntryFunction;
+import org.openlca.core.matrix.format.MatrixReader;
+
+/**
+ * A read-only sparse matrix in the compressed sparse column format of which
+ * the arrays are mapped from the uncompressed members of a npz file. Like
+ * the {@link CSCMatrix}, the column pointers contain `columns + 1` entries.
+ */
+final class MappedCSCMatrix implements MatrixReader {
+
+	private final int rows;
+	private final int columns;
+	private final DoubleBuffer values;
+	private final IntBuffer columnPointers;
+	private final IntBuffer rowIndices;
+
+	MappedCSCMatrix(int rows, int columns, DoubleBuffer values,
+		IntBuffer columnPointers, IntBuffer rowIndices) {
+		this.rows = rows;
+		this.columns = columns;
+		this.values = values;
+		this.columnPointers = columnPointers;
+		this.rowIndices = rowIndices;
+	}
+
+	@Override
+	public int rows() {
+		return rows;
+	}
+
+	@Override
+	public int columns() {
+		return columns;
+	}
+
+	@Override
+	public boolean isSparse() {
+		return true;
+	}
+
+	/**
+	 * Returns 0, as the values are read from a memory-mapped file and not
+	 * held on the heap.
+	 */
+	@Override
+	public long byteSize() {
+		return 0;
+	}
+
+	@Override
+	public double get(int row, int col) {
+		int end = columnPointers.get(col + 1);
+		for (int i = columnPointers.get(col); i < end; i++) {
+			if (rowIndices.get(i) == row)
+				return values.get(i);
+		}
+		return 0;
+	}
+
+	@Override
+	public double[] getColumn(int i) {
+		var column = new double[rows];
+		int end = columnPointers.get(i + 1);
+		for (int k = columnPointers.get(i); k < end; k++) {
+			column[rowIndices.get(k)] = values.get(k);
+		}
+		return column;
+	}
+
+	@Override
+	public void readColumn(int column, double[] buffer) {
+		int n = Math.min(rows, buffer.length);
+		Arrays.fill(buffer, 0, n, 0);
+		int end = columnPointers.get(column + 1);
+		for (int k = columnPointers.get(column); k < end; k++) {
+			int row = rowIndices.get(k);
+			if (row < n) {
+				buffer[row] = values.get(k);
+			}
+		}
+	}
+
+	@Override
+	public double[] getRow(int i) {
+		var row = new double[columns];
+		for (int col = 0; col < columns; col++) {
+			row[col] = get(i, col);
+		}
+		return row;
+	}
+
+	@Override
+	public void iterate(EntryFunction fn) {
+		if (fn == null)
+			return;
+		for (int col = 0; col < columns; col++) {
+			iterateColumn(col, fn);
+		}
+	}
+
+	@Override
+	public void iterateColumn(int col, EntryFunction fn) {
+		if (fn == null)
+			return;
+		int end = columnPointers.get(col + 1);
+		for (int k = columnPointers.get(col); k < end; k++) {
+			double val = values.get(k);
+			if (val != 0) {
+				fn.value(rowIndices.get(k), col, val);
+			}
+		}
+	}
+
+	@Override
+	public double[] multiply(double[] v) {
+		var x = new double[rows];
+		for (int col = 0; col < columns; col++) {
+			double vj = v[col];
+			if (vj == 0)
+				continue;
+			int end = columnPointers.get(col + 1);
+			for (int k = columnPointers.get(col); k < end; k++) {
+				x[rowIndices.get(k)] += values.get(k) * vj;
+			}
+		}
+		return x;
+	}
+
+	/**
+	 * Returns a copy of this matrix on the heap.
+	 */
+	@Override
+	public CSCMatrix copy() {
+		var vals = new double[values.capacity()];
+		values.get(0, vals);
+		var pointers = new int[columnPointers.capacity()];
+		columnPointers.get(0, pointers);
+		var indices = new int[rowIndices.capacity()];
+		rowIndices.get(0, indices);
+		return new CSCMatrix(rows, columns, vals, pointers, indices);
+	}
+}
@@ -0,0 +1,172 @@
+package org.openlca.core.matrix.io;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+import org.openlca.core.matrix.format.DenseMatrix;
+import org.openlca.core.matrix.format.EntryFunction;
+import org.openlca.core.matrix.format.MatrixReader;
+
+/**
+ * A read-only dense matrix that is mapped from a npy file with the values
+ * stored in column-major (Fortran) order. The values are read directly from
+ * the mapped file, thus, they are not copied into the heap and the pages of
+ * the file can be shared with other processes that map the same file. As a
+ * single mapping is limited to 2 GB, the matrix is mapped in segments of
+ * full columns.
+ */
+final class MappedDenseMatrix implements MatrixReader {
+
+	private final int rows;
+	private final int columns;
+	private final int segmentColumns;
+	private final DoubleBuffer[] segments;
+
+	private MappedDenseMatrix(
+		int rows, int columns, int segmentColumns, DoubleBuffer[] segments) {
+		this.rows = rows;
+		this.columns = columns;
+		this.segmentColumns = segmentColumns;
+		this.segments = segments;
+	}
+
+	/**
+	 * Maps the matrix data that start at the given offset in the file.
+	 */
+	static MappedDenseMatrix map(FileChannel channel, long offset,
+		int rows, int columns, ByteOrder order) throws IOException {
+		long columnBytes = 8L * Math.max(rows, 1);
+		int segmentColumns = (int) Math.max(1,
+			Math.min(columns, Integer.MAX_VALUE / columnBytes));
+		int count = columns == 0
+			? 0
+			: (columns + segmentColumns - 1) / segmentColumns;
+		var segments = new DoubleBuffer[count];
+		for (int s = 0; s < count; s++) {
+			int cols = Math.min(segmentColumns, columns - s * segmentColumns);
+			long pos = offset + s * segmentColumns * columnBytes;
+			segments[s] = channel
+				.map(FileChannel.MapMode.READ_ONLY, pos, cols * 8L * rows)
+				.order(order)
+				.asDoubleBuffer();
+		}
+		return new MappedDenseMatrix(rows, columns, segmentColumns, segments);
+	}
+
+	@Override
+	public int rows() {
+		return rows;
+	}
+
+	@Override
+	public int columns() {
+		return columns;
+	}
+
+	@Override
+	public boolean isSparse() {
+		return false;
+	}
+
+	/**
+	 * Returns 0, as the values are read from a memory-mapped file and not
+	 * held on the heap.
+	 */
+	@Override
+	public long byteSize() {
+		return 0;
+	}
+
+	@Override
+	public double get(int row, int col) {
+		var segment = segments[col / segmentColumns];
+		return segment.get((col % segmentColumns) * rows + row);
+	}
+
+	@Override
+	public double[] getColumn(int i) {
+		var column = new double[rows];
+		readColumn(i, column);
+		return column;
+	}
+
+	@Override
+	public void readColumn(int column, double[] buffer) {
+		var segment = segments[column / segmentColumns];
+		int n = Math.min(rows, buffer.length);
+		segment.get((column % segmentColumns) * rows, buffer, 0, n);
+	}
+
+	@Override
+	public double[] getRow(int i) {
+		var row = new double[columns];
+		for (int col = 0; col < columns; col++) {
+			row[col] = get(i, col);
+		}
+		return row;
+	}
+
+	@Override
+	public double[] diag() {
+		int n = Math.min(rows, columns);
+		var diag = new double[n];
+		for (int i = 0; i < n; i++) {
+			diag[i] = get(i, i);
+		}
+		return diag;
+	}
+
+	@Override
+	public void iterate(EntryFunction fn) {
+		if (fn == null)
+			return;
+		for (int col = 0; col < columns; col++) {
+			iterateColumn(col, fn);
+		}
+	}
+
+	@Override
+	public void iterateColumn(int col, EntryFunction fn) {
+		if (fn == null)
+			return;
+		var segment = segments[col / segmentColumns];
+		int offset = (col % segmentColumns) * rows;
+		for (int row = 0; row < rows; row++) {
+			double val = segment.get(offset + row);
+			if (val != 0) {
+				fn.value(row, col, val);
+			}
+		}
+	}
+
+	@Override
+	public double[] multiply(double[] v) {
+		var x = new double[rows];
+		for (int col = 0; col < columns; col++) {
+			double vj = v[col];
+			if (vj == 0)
+				continue;
+			var segment = segments[col / segmentColumns];
+			int offset = (col % segmentColumns) * rows;
+			for (int row = 0; row < rows; row++) {
+				x[row] += segment.get(offset + row) * vj;
+			}
+		}
+		return x;
+	}
+
+	/**
+	 * Returns a copy of this matrix on the heap.
+	 */
+	@Override
+	public DenseMatrix copy() {
+		var copy = new DenseMatrix(rows, columns);
+		for (int col = 0; col < columns; col++) {
+			var segment = segments[col / segmentColumns];
+			segment.get((col % segmentColumns) * rows, copy.data, col * rows, rows);
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,118 @@
+package org.openlca.core.matrix.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.openlca.core.matrix.format.MatrixReader;
+import org.openlca.npy.NpyByteOrder;
+import org.openlca.npy.NpyDataType;
+import org.openlca.npy.dict.NpyHeaderDict;
+import org.openlca.util.Dirs;
+
+/**
+ * Writes a dense matrix into a npy file in blocks of columns. The header of
+ * the file is written when the writer is created and the columns are then
+ * written with positional writes at their offsets in the file. As the matrix
+ * is stored in Fortran order, the columns are contiguous in the file, and the
+ * blocks can be written in any order. Thus, a large matrix can be written
+ * without holding it in memory, e.g. when it is calculated block by block.
+ * The file is readable with {@link NpyMatrix#read(File)} when all columns were
+ * written; columns that were not written contain zeros.
+ */
+public class NpyColumnWriter implements AutoCloseable {
+
+	private final FileChannel channel;
+	private final int rows;
+	private final int columns;
+	private final long dataOffset;
+	private final ByteBuffer buffer;
+
+	private NpyColumnWriter(
+		FileChannel channel, int rows, int columns, long dataOffset) {
+		this.channel = channel;
+		this.rows = rows;
+		this.columns = columns;
+		this.dataOffset = dataOffset;
+		this.buffer = ByteBuffer.allocate(rows * 8)
+			.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Creates a writer for a matrix with the given dimensions. An existing
+	 * file is overwritten.
+	 */
+	public static NpyColumnWriter of(File file, int rows, int columns) {
+		Dirs.createIfAbsent(file.getParentFile());
+		var header = NpyHeaderDict.of(NpyDataType.f8)
+			.withShape(new int[]{rows, columns})
+			.withFortranOrder(true)
+			.withByteOrder(NpyByteOrder.LITTLE_ENDIAN)
+			.create()
+			.toNpyHeader();
+		try {
+			var channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+			channel.write(ByteBuffer.wrap(header), 0);
+			// set the full file size, so that unwritten columns are zero
+			long size = header.length + 8L * rows * columns;
+			if (size > header.length) {
+				channel.write(ByteBuffer.allocate(1), size - 1);
+			}
+			return new NpyColumnWriter(channel, rows, columns, header.length);
+		} catch (IOException e) {
+			throw new UncheckedIOException("failed to create npy file " + file, e);
+		}
+	}
+
+	/**
+	 * Writes the columns of the given block into the matrix. The column `k`
+	 * of the block is written to the column `offset + k` of the matrix.
+	 */
+	public void write(int offset, MatrixReader block) {
+		if (block.rows() != rows)
+			throw new IllegalArgumentException(
+				"block has " + block.rows() + " rows but " + rows + " expected");
+		if (offset < 0 || offset + block.columns() > columns)
+			throw new IndexOutOfBoundsException(
+				"block columns are out of range: " + offset + " + "
+					+ block.columns() + " > " + columns);
+		var column = new double[rows];
+		for (int k = 0; k < block.columns(); k++) {
+			block.readColumn(k, column);
+			writeColumn(offset + k, column);
+		}
+	}
+
+	/**
+	 * Writes the given values into the column with the given index.
+	 */
+	public void writeColumn(int col, double[] values) {
+		buffer.clear();
+		buffer.asDoubleBuffer().put(values, 0, rows);
+		buffer.position(0).limit(rows * 8);
+		long pos = dataOffset + 8L * rows * col;
+		try {
+			while (buffer.hasRemaining()) {
+				pos += channel.write(buffer, pos);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("failed to write column " + col, e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("failed to close npy file", e);
+		}
+	}
+}
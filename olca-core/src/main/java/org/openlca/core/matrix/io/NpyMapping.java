@@ -0,0 +1,174 @@
+package org.openlca.core.matrix.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openlca.core.matrix.format.MatrixReader;
+import org.openlca.npy.NpyDataType;
+import org.openlca.npy.NpyHeader;
+
+/**
+ * Maps matrices from npy and npz files into memory. Dense matrices are mapped
+ * when they are stored as 64-bit floating point numbers in column-major order
+ * and sparse matrices when the arrays of the CSC format are stored without
+ * compression in the npz file. Matrices in other layouts are read into the
+ * heap with {@link NpyMatrix#read(File)}.
+ */
+final class NpyMapping {
+
+	private NpyMapping() {
+	}
+
+	static MatrixReader map(File file) {
+		try (var channel = FileChannel.open(
+			file.toPath(), StandardOpenOption.READ)) {
+			var matrix = file.getName().toLowerCase().endsWith(".npz")
+				? mapNpz(channel)
+				: mapNpy(channel);
+			if (matrix != null)
+				return matrix;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("failed to map file " + file, e);
+		}
+		return NpyMatrix.read(file);
+	}
+
+	private static MatrixReader mapNpy(FileChannel channel) throws IOException {
+		channel.position(0);
+		var header = NpyHeader.read(channel);
+		var dict = header.dict();
+		if (dict.dataType() != NpyDataType.f8
+			|| dict.dimensions() != 2
+			|| !dict.hasFortranOrder())
+			return null;
+		return MappedDenseMatrix.map(channel, header.dataOffset(),
+			dict.sizeOfDimension(0), dict.sizeOfDimension(1), header.byteOrder());
+	}
+
+	private static MatrixReader mapNpz(FileChannel channel) throws IOException {
+		var members = storedMembersOf(channel);
+		var shape = members.get("shape.npy");
+		var data = members.get("data.npy");
+		var indptr = members.get("indptr.npy");
+		var indices = members.get("indices.npy");
+		if (shape == null || data == null || indptr == null || indices == null)
+			return null;
+
+		var shapeArray = mapArray(channel, shape, NpyDataType.i4);
+		var values = mapArray(channel, data, NpyDataType.f8);
+		var pointers = mapArray(channel, indptr, NpyDataType.i4);
+		var rowIndices = mapArray(channel, indices, NpyDataType.i4);
+		if (shapeArray == null
+			|| values == null
+			|| pointers == null
+			|| rowIndices == null)
+			return null;
+
+		var dims = shapeArray.asIntBuffer();
+		return new MappedCSCMatrix(dims.get(0), dims.get(1),
+			values.asDoubleBuffer(),
+			pointers.asIntBuffer(),
+			rowIndices.asIntBuffer());
+	}
+
+	/**
+	 * Maps the data of the npy array that is stored in the given zip member.
+	 * Returns null if the array has not the given data type.
+	 */
+	private static ByteBuffer mapArray(
+		FileChannel channel, Member member, NpyDataType type) throws IOException {
+		channel.position(member.offset);
+		var header = NpyHeader.read(channel);
+		if (header.dict().dataType() != type)
+			return null;
+		long size = member.size - header.dataOffset();
+		if (size < 0 || size > Integer.MAX_VALUE)
+			return null;
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+			member.offset + header.dataOffset(), size);
+		return buffer.order(header.byteOrder());
+	}
+
+	/**
+	 * Reads the local file headers of the given zip file and returns the
+	 * positions of the members that are stored without compression. The
+	 * scan stops at a member of which the size is not known in advance.
+	 */
+	private static Map<String, Member> storedMembersOf(
+		FileChannel channel) throws IOException {
+		var members = new HashMap<String, Member>();
+		var header = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+		long pos = 0;
+		long fileSize = channel.size();
+		while (pos + 30 <= fileSize) {
+			readFully(channel, header.clear(), pos);
+			if (header.getInt(0) != 0x04034b50)
+				break;
+			int flags = header.getShort(6) & 0xffff;
+			int method = header.getShort(8) & 0xffff;
+			long size = header.getInt(18) & 0xffffffffL;
+			int nameLength = header.getShort(26) & 0xffff;
+			int extraLength = header.getShort(28) & 0xffff;
+			if ((flags & 0x08) != 0)
+				break;
+
+			var meta = ByteBuffer.allocate(nameLength + extraLength)
+				.order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, meta, pos + 30);
+			var name = new String(
+				meta.array(), 0, nameLength, StandardCharsets.UTF_8);
+			if (size == 0xffffffffL) {
+				size = zip64SizeOf(meta, nameLength, extraLength);
+				if (size < 0)
+					break;
+			}
+
+			long offset = pos + 30 + nameLength + extraLength;
+			if (method == 0) {
+				members.put(name, new Member(offset, size));
+			}
+			pos = offset + size;
+		}
+		return members;
+	}
+
+	/**
+	 * Returns the compressed size from the Zip64 extra field of a local file
+	 * header, or -1 if there is no such field.
+	 */
+	private static long zip64SizeOf(
+		ByteBuffer meta, int nameLength, int extraLength) {
+		int pos = nameLength;
+		int end = nameLength + extraLength;
+		while (pos + 4 <= end) {
+			int id = meta.getShort(pos) & 0xffff;
+			int length = meta.getShort(pos + 2) & 0xffff;
+			if (id == 0x0001 && length >= 16)
+				return meta.getLong(pos + 12);
+			pos += 4 + length;
+		}
+		return -1;
+	}
+
+	private static void readFully(
+		FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+		while (buffer.hasRemaining()) {
+			int n = channel.read(buffer, pos);
+			if (n < 0)
+				throw new EOFException();
+			pos += n;
+		}
+	}
+
+	private record Member(long offset, long size) {
+	}
+}
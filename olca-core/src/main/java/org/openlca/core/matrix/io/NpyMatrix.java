@@ -1,9 +1,15 @@
 package org.openlca.core.matrix.io;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import org.openlca.core.matrix.format.ByteMatrixReader;
 import org.openlca.core.matrix.format.CSCByteMatrix;
@@ -15,6 +21,7 @@ import org.openlca.core.matrix.format.HashPointMatrix;
 import org.openlca.core.matrix.format.MatrixReader;
 import org.openlca.npy.Array2d;
 import org.openlca.npy.Npy;
+import org.openlca.npy.NpyArray;
 import org.openlca.npy.NpyByteArray;
 import org.openlca.npy.NpyCharArray;
 import org.openlca.npy.NpyDoubleArray;
@@ -52,6 +59,33 @@ public class NpyMatrix {
 			: Optional.empty();
 	}
 
+	/**
+	 * Maps the matrix of the given npy or npz file into memory instead of
+	 * reading it into the heap. The values of the matrix are then read from
+	 * the mapped file on demand and the pages of the file can be shared with
+	 * other processes. Matrices in a layout that cannot be mapped (e.g. dense
+	 * matrices in row-major order or compressed npz files) are read into the
+	 * heap as with {@link #read(File)}.
+	 */
+	public static MatrixReader map(File file) {
+		Objects.requireNonNull(file);
+		return NpyMapping.map(file);
+	}
+
+	/**
+	 * Same as {@link #read(File, String)} but maps the matrix into memory
+	 * (see {@link #map(File)}).
+	 */
+	public static Optional<MatrixReader> map(File folder, String name) {
+		var npy = new File(folder, name + ".npy");
+		if (npy.exists())
+			return Optional.of(map(npy));
+		var npz = new File(folder, name + ".npz");
+		return npz.exists()
+			? Optional.of(map(npz))
+			: Optional.empty();
+	}
+
 	private static DenseMatrix readNpy(File file) {
 		var array = Npy.read(file).asDoubleArray();
 		if (!Array2d.isValid(array))
@@ -141,21 +175,46 @@ public class NpyMatrix {
 		return file;
 	}
 
+	/**
+	 * Writes the arrays of the CSC matrix without compression into the npz
+	 * file, so that they can be mapped into memory (see {@link #map(File)}).
+	 */
 	private static void writeNpz(File file, CSCMatrix csc) {
 		Npz.create(file, npz -> {
-			Npz.write(npz, "format.npy",
+			writeStored(npz, "format.npy",
 				NpyCharArray.of("csc"));
-			Npz.write(npz, "shape.npy",
+			writeStored(npz, "shape.npy",
 				NpyIntArray.vectorOf(new int[]{csc.rows, csc.columns}));
-			Npz.write(npz, "data.npy",
+			writeStored(npz, "data.npy",
 				NpyDoubleArray.vectorOf(csc.values));
-			Npz.write(npz, "indptr.npy",
+			writeStored(npz, "indptr.npy",
 				NpyIntArray.vectorOf(csc.columnPointers));
-			Npz.write(npz, "indices.npy",
+			writeStored(npz, "indices.npy",
 				NpyIntArray.vectorOf(csc.rowIndices));
 		});
 	}
 
+	private static void writeStored(
+		ZipOutputStream npz, String name, NpyArray<?> array) {
+		var buffer = new ByteArrayOutputStream();
+		Npy.write(buffer, array);
+		var bytes = buffer.toByteArray();
+		var crc = new CRC32();
+		crc.update(bytes);
+		var entry = new ZipEntry(name);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(bytes.length);
+		entry.setCompressedSize(bytes.length);
+		entry.setCrc(crc.getValue());
+		try {
+			npz.putNextEntry(entry);
+			npz.write(bytes);
+			npz.closeEntry();
+		} catch (IOException e) {
+			throw new UncheckedIOException("failed to write " + name, e);
+		}
+	}
+
 	public static File write(File folder, String name, ByteMatrixReader matrix) {
 		Dirs.createIfAbsent(folder);
 
@@ -10,6 +10,7 @@ public class LinkingConfig {
 	private ProviderLinking providerLinking = ProviderLinking.PREFER_DEFAULTS;
 	private Double cutoff;
 	private LinkingCallback callback;
+	private int threads = Runtime.getRuntime().availableProcessors();
 
 	public ProcessType preferredType() {
 		return preferredType;
@@ -52,4 +53,18 @@ public class LinkingConfig {
 		this.callback = callback;
 		return this;
 	}
+
+	public int threads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the number of threads that are used for searching providers. With
+	 * a value {@code <= 1}, or when a callback is set, the providers are
+	 * searched in the calling thread.
+	 */
+	public LinkingConfig threads(int threads) {
+		this.threads = threads;
+		return this;
+	}
 }
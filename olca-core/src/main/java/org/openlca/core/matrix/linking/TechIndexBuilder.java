@@ -3,9 +3,14 @@ package org.openlca.core.matrix.linking;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.openlca.core.matrix.CalcExchange;
 import org.openlca.core.matrix.cache.MatrixCache;
@@ -16,18 +21,30 @@ import org.openlca.core.model.ProductSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Builds the index of a product system by following the product inputs and
+ * waste outputs of the processes breadth-first, block by block. When no
+ * linking callback is set, the providers of a block are searched in parallel
+ * and the exchanges of the providers that are found are prefetched into the
+ * exchange cache for the next block while the search continues. The links
+ * are always added to the index in the same order as in a sequential search.
+ */
 public class TechIndexBuilder implements ITechIndexBuilder {
 
 	private final Logger log = LoggerFactory.getLogger(getClass());
 	private final ProviderSearch providers;
 	private final MatrixCache cache;
 	private final ProductSystem system;
+	private final int threads;
 
 	public TechIndexBuilder(MatrixCache cache, ProductSystem system,
 			LinkingConfig config) {
 		this.cache = cache;
 		this.system = system;
 		this.providers = new ProviderSearch(cache.getProcessTable(), config);
+		this.threads = config.callback() == null
+				? config.threads()
+				: 1;
 	}
 
 	@Override
@@ -35,35 +52,114 @@ public class TechIndexBuilder implements ITechIndexBuilder {
 		log.trace("build product index for {}", refFlow);
 		var index = new TechIndex(refFlow);
 		addSystemLinks(index);
-		List<TechFlow> block = new ArrayList<>();
-		block.add(refFlow);
-		var handled = new HashSet<TechFlow>();
-		while (!block.isEmpty()) {
-			var nextBlock = new ArrayList<TechFlow>();
-			log.trace("fetch next block with {} entries", block.size());
-			Map<Long, List<CalcExchange>> exchanges = fetchExchanges(block);
-			for (TechFlow recipient : block) {
-				handled.add(recipient);
-				List<CalcExchange> all = exchanges.get(recipient.providerId());
-				List<CalcExchange> candidates = providers
-						.getLinkCandidates(all);
-				for (CalcExchange linkExchange : candidates) {
-					TechFlow provider = providers.find(linkExchange);
-					if (provider == null)
-						continue;
-					LongPair exchange = new LongPair(recipient.providerId(),
-							linkExchange.exchangeId);
-					index.putLink(exchange, provider);
-					if (!handled.contains(provider)
-							&& !nextBlock.contains(provider))
-						nextBlock.add(provider);
+		var pool = threads > 1
+				? Executors.newFixedThreadPool(threads)
+				: null;
+		try {
+			List<TechFlow> block = new ArrayList<>();
+			block.add(refFlow);
+			var handled = new HashSet<TechFlow>();
+			while (!block.isEmpty()) {
+				log.trace("fetch next block with {} entries", block.size());
+				handled.addAll(block);
+				var exchanges = fetchExchanges(block);
+				var links = resolve(block, exchanges, handled, pool);
+				var nextBlock = new LinkedHashSet<TechFlow>();
+				for (int i = 0; i < block.size(); i++) {
+					var recipient = block.get(i);
+					for (var link : links.get(i)) {
+						var exchange = new LongPair(
+								recipient.providerId(), link.exchangeId);
+						index.putLink(exchange, link.provider);
+						if (!handled.contains(link.provider)) {
+							nextBlock.add(link.provider);
+						}
+					}
 				}
+				block = new ArrayList<>(nextBlock);
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
 			}
-			block = nextBlock;
 		}
 		return index;
 	}
 
+	/**
+	 * Searches the providers of the link candidates of the recipients in the
+	 * given block. The links of the recipient at position i are returned at
+	 * the same position in the result. When a pool is given, the recipients
+	 * are processed in parallel.
+	 */
+	private List<List<ExchangeLink>> resolve(
+			List<TechFlow> block, Map<Long, List<CalcExchange>> exchanges,
+			Set<TechFlow> handled, ExecutorService pool) {
+		if (pool == null || block.size() == 1) {
+			var links = new ArrayList<List<ExchangeLink>>(block.size());
+			for (var recipient : block) {
+				links.add(linksOf(recipient, exchanges));
+			}
+			return links;
+		}
+
+		var futures = new ArrayList<CompletableFuture<List<ExchangeLink>>>();
+		for (var recipient : block) {
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				var links = linksOf(recipient, exchanges);
+				prefetch(links, handled);
+				return links;
+			}, pool));
+		}
+		var links = new ArrayList<List<ExchangeLink>>(block.size());
+		try {
+			for (var future : futures) {
+				links.add(future.join());
+			}
+		} catch (CompletionException e) {
+			throw new RuntimeException(
+					"failed to search providers", e.getCause());
+		}
+		return links;
+	}
+
+	private List<ExchangeLink> linksOf(
+			TechFlow recipient, Map<Long, List<CalcExchange>> exchanges) {
+		var all = exchanges.get(recipient.providerId());
+		var candidates = providers.getLinkCandidates(all);
+		if (candidates.isEmpty())
+			return Collections.emptyList();
+		var links = new ArrayList<ExchangeLink>(candidates.size());
+		for (var candidate : candidates) {
+			var provider = providers.find(candidate);
+			if (provider != null) {
+				links.add(new ExchangeLink(candidate.exchangeId, provider));
+			}
+		}
+		return links;
+	}
+
+	/**
+	 * Loads the exchanges of the providers that will be in the next block into
+	 * the exchange cache. The set of handled providers is not modified while
+	 * the providers of a block are searched, so it can be read concurrently.
+	 */
+	private void prefetch(List<ExchangeLink> links, Set<TechFlow> handled) {
+		var processIds = new HashSet<Long>();
+		for (var link : links) {
+			if (!handled.contains(link.provider)) {
+				processIds.add(link.provider.providerId());
+			}
+		}
+		if (processIds.isEmpty())
+			return;
+		try {
+			cache.getExchangeCache().getAll(processIds);
+		} catch (Exception e) {
+			log.warn("failed to prefetch exchanges", e);
+		}
+	}
+
 	private void addSystemLinks(TechIndex index) {
 		if (system == null)
 			return;
@@ -92,4 +188,7 @@ public class TechIndexBuilder implements ITechIndexBuilder {
 		}
 	}
 
+	private record ExchangeLink(long exchangeId, TechFlow provider) {
+	}
+
 }
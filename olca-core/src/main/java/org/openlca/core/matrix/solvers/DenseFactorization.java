@@ -12,11 +12,14 @@ public class DenseFactorization implements Factorization {
 
 	private final int n;
 	private final long pointer;
+	private final MatrixReader matrix;
+	private DenseFactorization transposed;
 	private boolean isDisposed;
 
-	private DenseFactorization(int n, long pointer) {
+	private DenseFactorization(int n, long pointer, MatrixReader matrix) {
 		this.n = n;
 		this.pointer = pointer;
+		this.matrix = matrix;
 	}
 
 	public static DenseFactorization of(MatrixReader matrix) {
@@ -24,7 +27,7 @@ public class DenseFactorization implements Factorization {
 		var n = dense.rows;
 		var pointer = Julia.createDenseFactorization(
 				dense.rows, dense.data);
-		return new DenseFactorization(n, pointer);
+		return new DenseFactorization(n, pointer, matrix);
 	}
 
 	@Override
@@ -60,6 +63,20 @@ public class DenseFactorization implements Factorization {
 		return new DenseMatrix(n, b.columns(), x);
 	}
 
+	/**
+	 * Solves the transposed system with a factorization of the transposed
+	 * matrix, which is created with the first call of this method.
+	 */
+	@Override
+	public synchronized double[] solveTransposed(double[] b) {
+		if (transposed == null) {
+			var t = new DenseMatrix(n, n);
+			matrix.iterate((row, col, val) -> t.set(col, row, val));
+			transposed = DenseFactorization.of(t);
+		}
+		return transposed.solve(b);
+	}
+
 	@Override
 	public boolean isDisposed() {
 		return isDisposed;
@@ -70,6 +87,9 @@ public class DenseFactorization implements Factorization {
 		if (isDisposed)
 			return;
 		Julia.destroyDenseFactorization(pointer);
+		if (transposed != null) {
+			transposed.dispose();
+		}
 		isDisposed = true;
 	}
 }
@@ -2,6 +2,7 @@ package org.openlca.core.matrix.solvers;
 
 import org.openlca.core.matrix.format.DenseMatrix;
 import org.openlca.core.matrix.format.Matrix;
+import org.openlca.core.matrix.format.MatrixReader;
 
 /**
  * Stores the factorization of a square matrix `A` (e.g. a LU decomposition)
@@ -32,6 +33,30 @@ public interface Factorization {
 	 */
 	double[] solve(double[] b);
 
+	/**
+	 * Solves the equations `A * x = e_j` for the unit vectors `e_j` of the
+	 * given column indices `j` in one batch. The solution for `columns[k]`
+	 * is returned in the column `k` of the resulting matrix; these are the
+	 * respective columns of the inverse `A^-1`. By default, this calls
+	 * {@link #solve(Matrix)} with a matrix of the unit vectors. Implementers
+	 * should override this method when they can solve multiple right-hand
+	 * sides more efficiently.
+	 */
+	default Matrix solve(int[] columns) {
+		var b = new DenseMatrix(size(), columns.length);
+		for (int k = 0; k < columns.length; k++) {
+			b.set(columns[k], k, 1.0);
+		}
+		return solve(b);
+	}
+
+	/**
+	 * Calculates the `x` in `A^T * x = b` for the given `b`. With this, a row
+	 * of `A^-1` or of a product `M * A^-1` can be calculated with a single
+	 * solve: `x^T = b^T * A^-1`.
+	 */
+	double[] solveTransposed(double[] b);
+
 	/**
 	 * Calculates the `X` in `A * X = B` for the given matrix `B`. By default
 	 * this calculates `X[:,j]` for each column `j` of `B[:,j]` separately.
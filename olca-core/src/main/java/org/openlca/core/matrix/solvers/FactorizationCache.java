@@ -0,0 +1,230 @@
+package org.openlca.core.matrix.solvers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openlca.core.matrix.format.Matrix;
+import org.openlca.core.matrix.format.MatrixReader;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares the factorizations of equal matrices between calculations, e.g.
+ * when the same product system is calculated with different LCIA methods or
+ * demand values. The factorizations are identified by the type of the solver
+ * that created them and a content hash of the factorized matrix.
+ * <p>
+ * The factorizations are reference counted: the cache holds one reference to
+ * each of its factorizations and each call of
+ * {@link #factorize(MatrixSolver, MatrixReader)} returns a new reference.
+ * Calling {@code dispose} on such a reference releases it; the underlying
+ * factorization is only disposed when the last reference is released. When
+ * more than {@code maxSize} factorizations are in the cache, the least
+ * recently used factorization is removed from it. This releases the
+ * reference of the cache, and the factorization is disposed when it is not
+ * used anymore.
+ */
+public final class FactorizationCache {
+
+	private final int maxSize;
+	private final LinkedHashMap<Key, Entry> entries;
+
+	private FactorizationCache(int maxSize) {
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	public static FactorizationCache of(int maxSize) {
+		return new FactorizationCache(Math.max(1, maxSize));
+	}
+
+	/**
+	 * Returns a shared factorization of the given matrix. If the cache does not
+	 * contain a factorization of an equal matrix of the given solver, the
+	 * matrix is factorized and added to the cache. The returned factorization
+	 * should be disposed when it is not needed anymore.
+	 */
+	public Factorization factorize(MatrixSolver solver, MatrixReader matrix) {
+		var key = Key.of(solver, matrix);
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry == null || entry.isReleased()) {
+				entry = new Entry();
+				entries.put(key, entry);
+				evict();
+			}
+			entry.retain();
+		}
+		// the factorization is computed outside the cache lock
+		try {
+			entry.init(solver, matrix);
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				if (entries.get(key) == entry) {
+					entries.remove(key);
+					entry.release();
+				}
+			}
+			entry.release();
+			throw e;
+		}
+		return new Ref(entry);
+	}
+
+	/**
+	 * Returns the number of factorizations in the cache.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes all factorizations from the cache. Factorizations that are still
+	 * in use are disposed when their last reference is released.
+	 */
+	public synchronized void clear() {
+		for (var entry : entries.values()) {
+			entry.release();
+		}
+		entries.clear();
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+		while (entries.size() > maxSize && it.hasNext()) {
+			var next = it.next();
+			it.remove();
+			next.getValue().release();
+		}
+	}
+
+	/**
+	 * Identifies a factorization by the solver type and the content of the
+	 * matrix. Two independent 64-bit hashes of the non-zero entries are used
+	 * so that collisions of different matrices are practically excluded.
+	 */
+	private record Key(
+		Class<?> solver, int rows, int columns, long nonZeros, long h1, long h2) {
+
+		static Key of(MatrixSolver solver, MatrixReader matrix) {
+			long[] h = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0};
+			matrix.iterate((row, col, value) -> {
+				long bits = Double.doubleToLongBits(value);
+				long pos = ((long) col << 32) | (row & 0xffffffffL);
+				h[0] = mix(h[0] ^ mix(pos + bits));
+				h[1] = h[1] * 31 + mix(bits ^ 0x165667B19E3779F9L) + pos;
+				h[2]++;
+			});
+			return new Key(solver.getClass(),
+				matrix.rows(), matrix.columns(), h[2], h[0], h[1]);
+		}
+
+		private static long mix(long x) {
+			x ^= x >>> 33;
+			x *= 0xff51afd7ed558ccdL;
+			x ^= x >>> 33;
+			x *= 0xc4ceb9fe1a85ec53L;
+			x ^= x >>> 33;
+			return x;
+		}
+	}
+
+	/**
+	 * A shared factorization with its reference count. The count starts with
+	 * the reference of the cache.
+	 */
+	private static class Entry {
+
+		private Factorization factorization;
+		private int refs = 1;
+
+		synchronized void init(MatrixSolver solver, MatrixReader matrix) {
+			if (factorization == null) {
+				factorization = solver.factorize(matrix);
+			}
+		}
+
+		synchronized Factorization get() {
+			return factorization;
+		}
+
+		synchronized boolean isReleased() {
+			return refs <= 0;
+		}
+
+		synchronized void retain() {
+			refs++;
+		}
+
+		synchronized void release() {
+			if (refs <= 0)
+				return;
+			refs--;
+			if (refs == 0 && factorization != null) {
+				var log = LoggerFactory.getLogger(FactorizationCache.class);
+				log.trace("dispose shared factorization");
+				factorization.dispose();
+			}
+		}
+	}
+
+	/**
+	 * A reference to a shared factorization. Disposing it releases the
+	 * reference, only once.
+	 */
+	private static class Ref implements Factorization {
+
+		private final Entry entry;
+		private final Factorization factorization;
+		private final AtomicBoolean disposed = new AtomicBoolean(false);
+
+		Ref(Entry entry) {
+			this.entry = entry;
+			this.factorization = entry.get();
+		}
+
+		@Override
+		public int size() {
+			return factorization.size();
+		}
+
+		@Override
+		public double[] solve(int i, double val) {
+			return factorization.solve(i, val);
+		}
+
+		@Override
+		public double[] solve(double[] b) {
+			return factorization.solve(b);
+		}
+
+		@Override
+		public Matrix solve(int[] columns) {
+			return factorization.solve(columns);
+		}
+
+		@Override
+		public double[] solveTransposed(double[] b) {
+			return factorization.solveTransposed(b);
+		}
+
+		@Override
+		public Matrix solve(Matrix b) {
+			return factorization.solve(b);
+		}
+
+		@Override
+		public void dispose() {
+			if (disposed.compareAndSet(false, true)) {
+				entry.release();
+			}
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return disposed.get();
+		}
+	}
+}
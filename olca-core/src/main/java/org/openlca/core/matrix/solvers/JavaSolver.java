@@ -1,5 +1,7 @@
 package org.openlca.core.matrix.solvers;
 
+import java.util.Arrays;
+
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.LUDecomposition;
@@ -95,6 +97,34 @@ public class JavaSolver implements MatrixSolver {
 			return x.toArray();
 		}
 
+		@Override
+		public double[] solveTransposed(double[] b) {
+			// with P * A = L * U we have A^T = U^T * L^T * P
+			var l = lu.getL();
+			var u = lu.getU();
+			var y = Arrays.copyOf(b, n);
+			for (int j = 0; j < n; j++) {
+				double yj = y[j];
+				for (int i = 0; i < j; i++) {
+					yj -= u.getEntry(i, j) * y[i];
+				}
+				y[j] = yj / u.getEntry(j, j);
+			}
+			for (int j = n - 1; j >= 0; j--) {
+				double yj = y[j];
+				for (int i = j + 1; i < n; i++) {
+					yj -= l.getEntry(i, j) * y[i];
+				}
+				y[j] = yj;
+			}
+			var pivot = lu.getPivot();
+			var x = new double[n];
+			for (int i = 0; i < n; i++) {
+				x[pivot[i]] = y[i];
+			}
+			return x;
+		}
+
 		@Override
 		public Matrix solve(Matrix b) {
 			var _b = unwrap(b);
@@ -0,0 +1,73 @@
+package org.openlca.core.matrix.solvers;
+
+import org.apache.commons.math3.linear.NonSquareMatrixException;
+import org.openlca.core.matrix.format.DenseMatrix;
+import org.openlca.core.matrix.format.Matrix;
+import org.openlca.core.matrix.format.MatrixReader;
+
+/**
+ * A pure Java solver with support for sparse matrices. Sparse systems are
+ * solved with a sparse LU factorization (see {@link SparseLU}) and sparse
+ * matrix products only iterate over the non-zero entries. Dense matrices are
+ * handled like in the {@link JavaSolver}. This is the default solver when the
+ * native libraries are not available.
+ */
+public class JavaSparseSolver extends JavaSolver {
+
+	/** The number of columns that are solved together in an inversion. */
+	private static final int BLOCK_SIZE = 64;
+
+	@Override
+	public boolean hasSparseSupport() {
+		return true;
+	}
+
+	@Override
+	public double[] solve(MatrixReader a, int idx, double d) {
+		if (!a.isSparse())
+			return super.solve(a, idx, d);
+		if (!a.isSquare())
+			throw new NonSquareMatrixException(a.rows(), a.columns());
+		return SparseLU.of(a).solve(idx, d);
+	}
+
+	@Override
+	public Matrix invert(MatrixReader a) {
+		if (!a.isSparse())
+			return super.invert(a);
+		var lu = SparseLU.of(a);
+		int n = lu.size();
+		var inverse = new DenseMatrix(n, n);
+		for (int offset = 0; offset < n; offset += BLOCK_SIZE) {
+			int k = Math.min(BLOCK_SIZE, n - offset);
+			var columns = new int[k];
+			for (int c = 0; c < k; c++) {
+				columns[c] = offset + c;
+			}
+			var block = (DenseMatrix) lu.solve(columns);
+			System.arraycopy(block.data, 0, inverse.data, offset * n, k * n);
+		}
+		return inverse;
+	}
+
+	@Override
+	public double[] multiply(MatrixReader m, double[] v) {
+		return m.isSparse()
+			? m.multiply(v)
+			: super.multiply(m, v);
+	}
+
+	@Override
+	public Matrix multiply(MatrixReader a, MatrixReader b) {
+		return a.isSparse() || b.isSparse()
+			? a.multiply(b)
+			: super.multiply(a, b);
+	}
+
+	@Override
+	public Factorization factorize(MatrixReader matrix) {
+		return matrix.isSparse()
+			? SparseLU.of(matrix)
+			: super.factorize(matrix);
+	}
+}
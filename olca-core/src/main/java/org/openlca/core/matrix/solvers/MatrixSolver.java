@@ -15,14 +15,15 @@ public interface MatrixSolver {
 	/**
 	 * Returns the best available matrix solver. If a native libraries are loaded
 	 * it will create a solver using these libraries, otherwise it will fall back
-	 * to a pure Java implementation which can be very slow for large matrices.
-	 * Thus, you should try to always load native libraries before calling this
-	 * function.
+	 * to a pure Java implementation with a sparse LU factorization. This works
+	 * for large sparse systems but is still much slower than the native
+	 * solvers. Thus, you should try to always load native libraries before
+	 * calling this function.
 	 */
 	static MatrixSolver get() {
 		return NativeLib.isLoaded()
 			? new NativeSolver()
-			: new JavaSolver();
+			: new JavaSparseSolver();
 	}
 
 	/**
@@ -60,19 +61,7 @@ public interface MatrixSolver {
 	default Matrix multiply(MatrixReader a, MatrixReader b) {
 		if (a == null || b == null)
 			return null;
-		if (a.columns() != b.rows())
-			throw new IllegalArgumentException("a.columns != b.rows");
-		Matrix r = matrix(a.rows(), b.columns());
-		for (int row = 0; row < a.rows(); row++) {
-			for (int col = 0; col < b.columns(); col++) {
-				double val = 0;
-				for (int k = 0; k < a.columns(); k++) {
-					val += a.get(row, k) * b.get(k, col);
-				}
-				r.set(row, col, val);
-			}
-		}
-		return r;
+		return a.multiply(b);
 	}
 
 	/**
@@ -82,7 +71,9 @@ public interface MatrixSolver {
 	default double[] multiply(MatrixReader m, double[] v) {
 		if (m == null || v == null)
 			return null;
-		int cols = Math.min(m.columns(), v.length);
+		if (v.length >= m.columns())
+			return m.multiply(v);
+		int cols = v.length;
 		int rows = m.rows();
 		double[] r = new double[rows];
 		for (int row = 0; row < rows; row++) {
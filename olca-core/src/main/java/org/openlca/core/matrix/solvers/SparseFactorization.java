@@ -7,11 +7,14 @@ public class SparseFactorization implements Factorization {
 
 	private final int n;
 	private final long pointer;
+	private final CSCMatrix matrix;
+	private SparseFactorization transposed;
 	private boolean isDisposed;
 
-	private SparseFactorization(int n, long pointer) {
+	private SparseFactorization(int n, long pointer, CSCMatrix matrix) {
 		this.n = n;
 		this.pointer = pointer;
+		this.matrix = matrix;
 	}
 
 	public static SparseFactorization of(CSCMatrix matrix) {
@@ -20,7 +23,7 @@ public class SparseFactorization implements Factorization {
 				matrix.columnPointers,
 				matrix.rowIndices,
 				matrix.values);
-		return new SparseFactorization(matrix.rows, pointer);
+		return new SparseFactorization(matrix.rows, pointer, matrix);
 	}
 
 	@Override
@@ -35,6 +38,18 @@ public class SparseFactorization implements Factorization {
 		return x;
 	}
 
+	/**
+	 * Solves the transposed system with a factorization of the transposed
+	 * matrix, which is created with the first call of this method.
+	 */
+	@Override
+	public synchronized double[] solveTransposed(double[] b) {
+		if (transposed == null) {
+			transposed = SparseFactorization.of(matrix.transpose());
+		}
+		return transposed.solve(b);
+	}
+
 	@Override
 	public boolean isDisposed() {
 		return isDisposed;
@@ -45,6 +60,9 @@ public class SparseFactorization implements Factorization {
 		if (isDisposed)
 			return;
 		Julia.destroySparseFactorization(pointer);
+		if (transposed != null) {
+			transposed.dispose();
+		}
 		isDisposed = true;
 	}
 }
@@ -0,0 +1,393 @@
+package org.openlca.core.matrix.solvers;
+
+import org.apache.commons.math3.linear.NonSquareMatrixException;
+import org.apache.commons.math3.linear.SingularMatrixException;
+import org.openlca.core.matrix.format.CSCMatrix;
+import org.openlca.core.matrix.format.DenseMatrix;
+import org.openlca.core.matrix.format.HashPointMatrix;
+import org.openlca.core.matrix.format.Matrix;
+import org.openlca.core.matrix.format.MatrixReader;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * A sparse LU factorization in pure Java. It calculates `P * A * Q = L * U`
+ * where `Q` is a fill-reducing column ordering (see {@link SparseOrdering}) and
+ * `P` the row permutation of a threshold partial pivoting. The factorization
+ * is done column by column with a left-looking algorithm (Gilbert-Peierls)
+ * that only touches the non-zero entries of the factors. It follows the
+ * algorithm of `cs_lu` in CSparse (Davis, Direct Methods for Sparse Linear
+ * Systems, SIAM 2006).
+ */
+public class SparseLU implements Factorization {
+
+	/**
+	 * Pivots on the diagonal are preferred if their absolute value is at least
+	 * this fraction of the largest candidate. As we order rows and columns
+	 * symmetrically, keeping the diagonal pivots keeps the ordering intact.
+	 */
+	private static final double PIVOT_TOLERANCE = 0.001;
+
+	private final int n;
+
+	// L in CSC format with a unit diagonal as first entry in each column
+	private final int[] lp;
+	private final int[] li;
+	private final double[] lx;
+
+	// U in CSC format with the diagonal as last entry in each column
+	private final int[] up;
+	private final int[] ui;
+	private final double[] ux;
+
+	/** pinv[i] = k means that row i of A is row k of L*U */
+	private final int[] pinv;
+
+	/** q[k] = j means that column j of A is column k of L*U */
+	private final int[] q;
+
+	private boolean disposed;
+
+	private SparseLU(int n, int[] q, int[] pinv,
+		int[] lp, int[] li, double[] lx,
+		int[] up, int[] ui, double[] ux) {
+		this.n = n;
+		this.q = q;
+		this.pinv = pinv;
+		this.lp = lp;
+		this.li = li;
+		this.lx = lx;
+		this.up = up;
+		this.ui = ui;
+		this.ux = ux;
+	}
+
+	public static SparseLU of(MatrixReader matrix) {
+		if (matrix instanceof CSCMatrix csc)
+			return of(csc);
+		if (matrix instanceof HashPointMatrix hpm)
+			return of(hpm.compress());
+		return of(CSCMatrix.of(matrix));
+	}
+
+	public static SparseLU of(CSCMatrix a) {
+		if (!a.isSquare())
+			throw new NonSquareMatrixException(a.rows, a.columns);
+		return of(a, SparseOrdering.of(a));
+	}
+
+	/**
+	 * Factorizes the matrix using the given column ordering `q` where `q[k]`
+	 * is the index of the column in `A` that is processed in step `k`.
+	 */
+	static SparseLU of(CSCMatrix a, int[] q) {
+		int n = a.columns;
+
+		var pinv = new int[n];
+		var x = new double[n];
+		var xi = new int[n];
+		var stack = new int[n];
+		var marks = new int[n];
+		for (int i = 0; i < n; i++) {
+			pinv[i] = -1;
+		}
+
+		int initialCapacity = 4 * a.values.length + n;
+		var lp = new int[n + 1];
+		var li = new TIntArrayList(initialCapacity);
+		var lx = new TDoubleArrayList(initialCapacity);
+		var up = new int[n + 1];
+		var ui = new TIntArrayList(initialCapacity);
+		var ux = new TDoubleArrayList(initialCapacity);
+
+		for (int k = 0; k < n; k++) {
+			lp[k] = li.size();
+			up[k] = ui.size();
+			int col = q[k];
+
+			// solve the triangular system x = L \ A(:,col); note that the
+			// columns 0..k-1 of L are complete and lp[k] is already set
+			int top = reach(a, col, lp, li, pinv, xi, stack, marks, k + 1);
+			for (int p = top; p < n; p++) {
+				x[xi[p]] = 0;
+			}
+			for (int p = a.columnPointers[col]; p < a.columnPointers[col + 1]; p++) {
+				x[a.rowIndices[p]] = a.values[p];
+			}
+			for (int px = top; px < n; px++) {
+				int j = xi[px];
+				int J = pinv[j];
+				if (J < 0)
+					continue;
+				double xj = x[j];
+				for (int p = lp[J] + 1; p < lp[J + 1]; p++) {
+					x[li.getQuick(p)] -= lx.getQuick(p) * xj;
+				}
+			}
+
+			// find the pivot and store the U part of the column
+			int ipiv = -1;
+			double max = -1;
+			for (int p = top; p < n; p++) {
+				int i = xi[p];
+				if (pinv[i] < 0) {
+					double t = Math.abs(x[i]);
+					if (t > max) {
+						max = t;
+						ipiv = i;
+					}
+				} else {
+					ui.add(pinv[i]);
+					ux.add(x[i]);
+				}
+			}
+			if (ipiv == -1 || max <= 0)
+				throw new SingularMatrixException();
+			if (pinv[col] < 0 && Math.abs(x[col]) >= max * PIVOT_TOLERANCE) {
+				ipiv = col;
+			}
+
+			double pivot = x[ipiv];
+			ui.add(k);
+			ux.add(pivot);
+			pinv[ipiv] = k;
+			li.add(ipiv);
+			lx.add(1);
+			for (int p = top; p < n; p++) {
+				int i = xi[p];
+				if (pinv[i] < 0) {
+					li.add(i);
+					lx.add(x[i] / pivot);
+				}
+				x[i] = 0;
+			}
+		}
+		lp[n] = li.size();
+		up[n] = ui.size();
+
+		// map the row indices of L to the pivot order
+		var lRows = li.toArray();
+		for (int p = 0; p < lRows.length; p++) {
+			lRows[p] = pinv[lRows[p]];
+		}
+
+		return new SparseLU(n, q, pinv,
+			lp, lRows, lx.toArray(),
+			up, ui.toArray(), ux.toArray());
+	}
+
+	/**
+	 * Computes the non-zero pattern of `L \ A(:,col)` via a depth-first search
+	 * in the graph of L. The pattern is stored in `xi[top..n-1]` in
+	 * topological order and `top` is returned. The marks of visited nodes are
+	 * set to `stamp` which must be unique for each call.
+	 */
+	private static int reach(CSCMatrix a, int col,
+		int[] lp, TIntArrayList li, int[] pinv,
+		int[] xi, int[] stack, int[] marks, int stamp) {
+		int n = a.columns;
+		int top = n;
+		for (int p = a.columnPointers[col]; p < a.columnPointers[col + 1]; p++) {
+			int start = a.rowIndices[p];
+			if (marks[start] == stamp)
+				continue;
+
+			// non-recursive depth-first search starting at `start`; xi[0..head]
+			// is used as the recursion stack and `stack` holds the positions
+			// in the columns of L
+			int head = 0;
+			xi[0] = start;
+			while (head >= 0) {
+				int j = xi[head];
+				int J = pinv[j];
+				if (marks[j] != stamp) {
+					marks[j] = stamp;
+					stack[head] = J < 0 ? 0 : lp[J] + 1;
+				}
+				boolean done = true;
+				int end = J < 0 ? 0 : lp[J + 1];
+				for (int pos = stack[head]; pos < end; pos++) {
+					int i = li.getQuick(pos);
+					if (marks[i] == stamp)
+						continue;
+					stack[head] = pos + 1;
+					xi[++head] = i;
+					done = false;
+					break;
+				}
+				if (done) {
+					head--;
+					xi[--top] = j;
+				}
+			}
+		}
+		return top;
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Returns the number of non-zero entries in the factors L and U.
+	 */
+	public long nonZeros() {
+		return (long) lx.length + (long) ux.length;
+	}
+
+	@Override
+	public double[] solve(double[] b) {
+		var x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[pinv[i]] = b[i];
+		}
+		lsolve(x);
+		usolve(x);
+		var result = new double[n];
+		for (int k = 0; k < n; k++) {
+			result[q[k]] = x[k];
+		}
+		return result;
+	}
+
+	/**
+	 * Solves the unit vectors of the given columns in one block. The block is
+	 * stored row-wise so that the updates of the triangular solves run over
+	 * contiguous memory and each entry of the factors is loaded only once for
+	 * all right-hand sides.
+	 */
+	@Override
+	public Matrix solve(int[] columns) {
+		int k = columns.length;
+		var x = new double[n * k];
+		for (int c = 0; c < k; c++) {
+			x[pinv[columns[c]] * k + c] = 1.0;
+		}
+
+		// L * Y = B
+		for (int j = 0; j < n; j++) {
+			int jOff = j * k;
+			if (isZero(x, jOff, k))
+				continue;
+			for (int p = lp[j] + 1; p < lp[j + 1]; p++) {
+				int iOff = li[p] * k;
+				double lij = lx[p];
+				for (int c = 0; c < k; c++) {
+					x[iOff + c] -= lij * x[jOff + c];
+				}
+			}
+		}
+
+		// U * X = Y
+		for (int j = n - 1; j >= 0; j--) {
+			int jOff = j * k;
+			if (isZero(x, jOff, k))
+				continue;
+			double ujj = ux[up[j + 1] - 1];
+			for (int c = 0; c < k; c++) {
+				x[jOff + c] /= ujj;
+			}
+			for (int p = up[j]; p < up[j + 1] - 1; p++) {
+				int iOff = ui[p] * k;
+				double uij = ux[p];
+				for (int c = 0; c < k; c++) {
+					x[iOff + c] -= uij * x[jOff + c];
+				}
+			}
+		}
+
+		var result = new DenseMatrix(n, k);
+		for (int row = 0; row < n; row++) {
+			int rowOff = row * k;
+			int target = q[row];
+			for (int c = 0; c < k; c++) {
+				result.data[c * n + target] = x[rowOff + c];
+			}
+		}
+		return result;
+	}
+
+	private static boolean isZero(double[] x, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			if (x[i] != 0)
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public double[] solveTransposed(double[] b) {
+		// with P * A * Q = L * U we have A^T = Q * U^T * L^T * P
+		var x = new double[n];
+		for (int k = 0; k < n; k++) {
+			x[k] = b[q[k]];
+		}
+		utsolve(x);
+		ltsolve(x);
+		var result = new double[n];
+		for (int i = 0; i < n; i++) {
+			result[i] = x[pinv[i]];
+		}
+		return result;
+	}
+
+	/** Solves `L * x = b` in place; L has a unit diagonal. */
+	private void lsolve(double[] x) {
+		for (int j = 0; j < n; j++) {
+			double xj = x[j];
+			if (xj == 0)
+				continue;
+			for (int p = lp[j] + 1; p < lp[j + 1]; p++) {
+				x[li[p]] -= lx[p] * xj;
+			}
+		}
+	}
+
+	/** Solves `U * x = b` in place. */
+	private void usolve(double[] x) {
+		for (int j = n - 1; j >= 0; j--) {
+			if (x[j] == 0)
+				continue;
+			x[j] /= ux[up[j + 1] - 1];
+			double xj = x[j];
+			for (int p = up[j]; p < up[j + 1] - 1; p++) {
+				x[ui[p]] -= ux[p] * xj;
+			}
+		}
+	}
+
+	/** Solves `L^T * x = b` in place. */
+	private void ltsolve(double[] x) {
+		for (int j = n - 1; j >= 0; j--) {
+			double xj = x[j];
+			for (int p = lp[j] + 1; p < lp[j + 1]; p++) {
+				xj -= lx[p] * x[li[p]];
+			}
+			x[j] = xj;
+		}
+	}
+
+	/** Solves `U^T * x = b` in place. */
+	private void utsolve(double[] x) {
+		for (int j = 0; j < n; j++) {
+			double xj = x[j];
+			int diag = up[j + 1] - 1;
+			for (int p = up[j]; p < diag; p++) {
+				xj -= ux[p] * x[ui[p]];
+			}
+			x[j] = xj / ux[diag];
+		}
+	}
+
+	@Override
+	public void dispose() {
+		disposed = true;
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return disposed;
+	}
+}
@@ -0,0 +1,314 @@
+package org.openlca.core.matrix.solvers;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import org.openlca.core.matrix.format.CSCMatrix;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.hash.TIntHashSet;
+
+/**
+ * Calculates a symmetric, fill-reducing ordering of a square sparse matrix
+ * `A` for the {@link SparseLU} factorization. This is done in two steps:
+ * <ol>
+ * <li>An entry `a[i, j]` of a technology matrix is a link from a consumer `j`
+ * to a provider `i`. The matrix is permuted into a block lower triangular form
+ * by ordering the strongly connected components of this graph (the loops in
+ * the supply chains) topologically, so that the consumers come before their
+ * providers. With this ordering, no fill-in occurs in the columns of the
+ * acyclic parts of the system.</li>
+ * <li>The nodes of a loop, a diagonal block in that form, are then ordered
+ * with an approximate minimum degree heuristic on the graph of `A + A'`. This
+ * is a simplified version of AMD (Amestoy, Davis, Duff 1996) using a quotient
+ * graph with element absorption but without supervariable detection. Dense
+ * nodes (e.g. market processes with a lot of inputs) are moved to the end of
+ * their block.</li>
+ * </ol>
+ */
+final class SparseOrdering {
+
+	private final CSCMatrix a;
+	private final int n;
+	private final int[] order;
+
+	/** Maps the indices of the matrix to the local indices of a block. */
+	private final int[] local;
+
+	private SparseOrdering(CSCMatrix a) {
+		this.a = a;
+		this.n = a.columns;
+		this.order = new int[n];
+		this.local = new int[n];
+		Arrays.fill(local, -1);
+	}
+
+	/**
+	 * Returns the permutation vector `p` of the ordering where `p[k]` is the
+	 * index of the column (and row) that should be eliminated in step `k`.
+	 */
+	static int[] of(CSCMatrix a) {
+		var ordering = new SparseOrdering(a);
+		ordering.blocks();
+		return ordering.order;
+	}
+
+	/**
+	 * Finds the strongly connected components with Tarjan's algorithm (non
+	 * recursive) where an entry `a[i, j]` is an edge from `j` to `i`. The
+	 * components are found in reverse topological order (providers first),
+	 * thus, we fill the blocks from the end of the ordering.
+	 */
+	private void blocks() {
+		var index = new int[n];
+		var low = new int[n];
+		var onStack = new boolean[n];
+		var stack = new int[n];
+		var callStack = new int[n];
+		var callPos = new int[n];
+		int stackTop = 0;
+		int counter = 1;
+		int blockEnd = n;
+
+		for (int root = 0; root < n; root++) {
+			if (index[root] != 0)
+				continue;
+			int head = 0;
+			callStack[0] = root;
+			callPos[0] = a.columnPointers[root];
+			index[root] = low[root] = counter++;
+			stack[stackTop++] = root;
+			onStack[root] = true;
+
+			while (head >= 0) {
+				int v = callStack[head];
+				int end = a.columnPointers[v + 1];
+				boolean descended = false;
+				while (callPos[head] < end) {
+					int w = a.rowIndices[callPos[head]++];
+					if (index[w] == 0) {
+						index[w] = low[w] = counter++;
+						stack[stackTop++] = w;
+						onStack[w] = true;
+						head++;
+						callStack[head] = w;
+						callPos[head] = a.columnPointers[w];
+						descended = true;
+						break;
+					}
+					if (onStack[w] && index[w] < low[v]) {
+						low[v] = index[w];
+					}
+				}
+				if (descended)
+					continue;
+
+				// v is finished; if it is the root of a component, the
+				// component is on the stack
+				if (low[v] == index[v]) {
+					int size = 0;
+					int w;
+					do {
+						w = stack[--stackTop];
+						onStack[w] = false;
+						size++;
+					} while (w != v);
+					blockEnd -= size;
+					System.arraycopy(stack, stackTop, order, blockEnd, size);
+					if (size > 2) {
+						orderBlock(blockEnd, size);
+					}
+				}
+				head--;
+				if (head >= 0) {
+					int parent = callStack[head];
+					if (low[v] < low[parent]) {
+						low[parent] = low[v];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Orders the nodes in `order[offset..offset + size - 1]` with the minimum
+	 * degree heuristic.
+	 */
+	private void orderBlock(int offset, int size) {
+		var nodes = Arrays.copyOfRange(order, offset, offset + size);
+		for (int i = 0; i < size; i++) {
+			local[nodes[i]] = i;
+		}
+
+		// the variable neighbors in the graph of A + A'
+		var adj = new TIntHashSet[size];
+		for (int i = 0; i < size; i++) {
+			adj[i] = new TIntHashSet();
+		}
+		for (int i = 0; i < size; i++) {
+			int col = nodes[i];
+			for (int p = a.columnPointers[col]; p < a.columnPointers[col + 1]; p++) {
+				int r = local[a.rowIndices[p]];
+				if (r < 0 || r == i || a.values[p] == 0)
+					continue;
+				adj[r].add(i);
+				adj[i].add(r);
+			}
+		}
+		for (int node : nodes) {
+			local[node] = -1;
+		}
+
+		// 0: variable; 1: element; 2: absorbed element; 3: dense node
+		var state = new byte[size];
+		var result = new int[size];
+
+		// move dense nodes to the end of the block
+		int denseLimit = Math.max(16, (int) (10 * Math.sqrt(size)));
+		int last = size;
+		for (int i = size - 1; i >= 0; i--) {
+			if (adj[i].size() > denseLimit) {
+				state[i] = 3;
+				result[--last] = i;
+			}
+		}
+
+		// the queue contains pairs of (degree, node); entries with a degree
+		// that does not match the current degree of the node are outdated
+		var queue = new PriorityQueue<long[]>((x, y) -> x[0] != y[0]
+			? Long.compare(x[0], y[0])
+			: Long.compare(x[1], y[1]));
+		var degree = new int[size];
+		var elements = new TIntArrayList[size];
+		var members = new int[size][];
+		var dense = Arrays.copyOfRange(result, last, size);
+		for (int i = 0; i < size; i++) {
+			if (state[i] == 3) {
+				adj[i] = null;
+				continue;
+			}
+			if (dense.length > 0) {
+				adj[i].removeAll(dense);
+			}
+			elements[i] = new TIntArrayList(4);
+			degree[i] = adj[i].size();
+			queue.add(new long[]{degree[i], i});
+		}
+
+		var mark = new int[size];
+		var wMark = new int[size];
+		var w = new int[size];
+		int stamp = 0;
+		int remaining = last;
+		int k = 0;
+		var lp = new TIntArrayList();
+		var obsolete = new TIntArrayList();
+
+		while (k < last) {
+			var entry = queue.poll();
+			if (entry == null)
+				break;
+			int p = (int) entry[1];
+			if (state[p] != 0 || degree[p] != entry[0])
+				continue;
+
+			// the new element p contains the variable neighbors of p and the
+			// variables of the adjacent elements which are absorbed by p
+			stamp++;
+			mark[p] = stamp;
+			lp.resetQuick();
+			var it = adj[p].iterator();
+			while (it.hasNext()) {
+				int v = it.next();
+				if (state[v] == 0 && mark[v] != stamp) {
+					mark[v] = stamp;
+					lp.add(v);
+				}
+			}
+			var pElements = elements[p];
+			for (int ie = 0; ie < pElements.size(); ie++) {
+				int e = pElements.getQuick(ie);
+				if (state[e] != 1)
+					continue;
+				for (int v : members[e]) {
+					if (state[v] == 0 && mark[v] != stamp) {
+						mark[v] = stamp;
+						lp.add(v);
+					}
+				}
+				state[e] = 2;
+				members[e] = null;
+			}
+			state[p] = 1;
+			adj[p] = null;
+			elements[p] = null;
+			members[p] = lp.toArray();
+			result[k++] = p;
+			remaining--;
+
+			// calculate w(e) = |Le \ Lp| for the elements e that are
+			// adjacent to the variables in Lp
+			for (int i : members[p]) {
+				var iElements = elements[i];
+				for (int ie = 0; ie < iElements.size(); ie++) {
+					int e = iElements.getQuick(ie);
+					if (state[e] != 1)
+						continue;
+					if (wMark[e] != stamp) {
+						wMark[e] = stamp;
+						w[e] = members[e].length;
+					}
+					w[e]--;
+				}
+			}
+
+			// update the variables in Lp
+			int lpExt = members[p].length - 1;
+			for (int i : members[p]) {
+
+				// prune the elements; elements that are subsets of Lp are
+				// absorbed by p (aggressive absorption)
+				var iElements = elements[i];
+				int ext = 0;
+				int j = 0;
+				for (int ie = 0; ie < iElements.size(); ie++) {
+					int e = iElements.getQuick(ie);
+					if (state[e] != 1)
+						continue;
+					if (wMark[e] == stamp && w[e] == 0) {
+						state[e] = 2;
+						members[e] = null;
+						continue;
+					}
+					ext += wMark[e] == stamp ? w[e] : members[e].length;
+					iElements.setQuick(j++, e);
+				}
+				iElements.remove(j, iElements.size() - j);
+				iElements.add(p);
+
+				// prune the variable neighbors that are now covered by p
+				var iAdj = adj[i];
+				obsolete.resetQuick();
+				var iter = iAdj.iterator();
+				while (iter.hasNext()) {
+					int v = iter.next();
+					if (mark[v] == stamp || state[v] != 0) {
+						obsolete.add(v);
+					}
+				}
+				for (int ix = 0; ix < obsolete.size(); ix++) {
+					iAdj.remove(obsolete.getQuick(ix));
+				}
+
+				int d = Math.min(remaining - 1, degree[i] + lpExt);
+				d = Math.min(d, iAdj.size() + lpExt + ext);
+				degree[i] = Math.max(d, 0);
+				queue.add(new long[]{degree[i], i});
+			}
+		}
+
+		for (int i = 0; i < size; i++) {
+			order[offset + i] = nodes[result[i]];
+		}
+	}
+}
@@ -1,5 +1,8 @@
 package org.openlca.core.matrix.uncertainties;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
 import org.openlca.core.model.Copyable;
 import org.openlca.core.model.UncertaintyType;
 import org.openlca.expressions.FormulaInterpreter;
@@ -14,9 +17,18 @@ public interface UCell extends Copyable<UCell> {
 	 * Generates the next value of the underlying distribution of this matrix cell.
 	 * If formulas are linked to this cell the injected interpreter should be used
 	 * to evaluate them as possibly values of dependent parameters with uncertainty
-	 * distributions may changed.
+	 * distributions may changed. The random numbers are taken from the random
+	 * number generator of the current thread.
+	 */
+	default double next(FormulaInterpreter interpreter) {
+		return next(interpreter, ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Same as {@link #next(FormulaInterpreter)} but takes the random numbers
+	 * from the given generator.
 	 */
-	double next(FormulaInterpreter interpreter);
+	double next(FormulaInterpreter interpreter, RandomGenerator random);
 
 	/**
 	 * Get the uncertainty distribution type of the cell;
@@ -2,6 +2,7 @@ package org.openlca.core.matrix.uncertainties;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 import org.openlca.core.math.NumberGenerator;
 import org.openlca.core.matrix.CalcAllocationFactor;
@@ -19,8 +20,9 @@ class UExchangeCell implements UCell {
 	List<UCell> overlay;
 
 	/*
-	 * TODO: we have to think about stateless functions here; also with a shared
-	 * instance of Random; see also this issue:
+	 * The cell does not modify the state of the exchange and allocation factor
+	 * when generating values, so that copies of a cell can be used in parallel
+	 * simulations; see also this issue:
 	 * https://github.com/GreenDelta/olca-app/issues/62
 	 */
 	private final NumberGenerator gen;
@@ -34,17 +36,17 @@ class UExchangeCell implements UCell {
 	}
 
 	@Override
-	public double next(FormulaInterpreter interpreter) {
-		if (gen != null) {
-			exchange.amount = gen.next();
-		}
+	public double next(FormulaInterpreter interpreter, RandomGenerator random) {
+		double value = gen != null
+			? gen.next(random)
+			: exchange.amount;
 		double af = allocationFactor != null
 			? allocationFactor.force(interpreter)
 			: 1;
-		double amount = exchange.matrixValue(interpreter, af);
+		double amount = exchange.matrixValue(interpreter, value, af);
 		if (overlay != null) {
 			for (UCell u : overlay) {
-				amount += u.next(interpreter);
+				amount += u.next(interpreter, random);
 			}
 		}
 		return amount;
@@ -1,5 +1,7 @@
 package org.openlca.core.matrix.uncertainties;
 
+import java.util.random.RandomGenerator;
+
 import org.openlca.core.math.NumberGenerator;
 import org.openlca.core.matrix.CalcImpactFactor;
 import org.openlca.core.model.UncertaintyType;
@@ -18,11 +20,11 @@ class UImpactCell implements UCell {
 	}
 
 	@Override
-	public double next(FormulaInterpreter interpreter) {
-		if (gen != null) {
-			factor.amount = gen.next();
-		}
-		return factor.matrixValue(interpreter);
+	public double next(FormulaInterpreter interpreter, RandomGenerator random) {
+		double value = gen != null
+				? gen.next(random)
+				: factor.amount;
+		return factor.matrixValue(interpreter, value);
 	}
 
 	private static NumberGenerator generator(CalcImpactFactor e) {
@@ -1,6 +1,9 @@
 package org.openlca.core.matrix.uncertainties;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 import org.openlca.core.matrix.CalcAllocationFactor;
 import org.openlca.core.matrix.CalcExchange;
@@ -19,6 +22,15 @@ public class UMatrix implements Copyable<UMatrix> {
 
 	private final TIntObjectHashMap<TIntObjectHashMap<UCell>> data;
 
+	/**
+	 * The positions of the cells, sorted by column and row, as pairs of
+	 * `[row, column]`. The values are generated in this order so that the same
+	 * sequence of random numbers results in the same matrix, independent of
+	 * the internal layout of the hash maps (which can be different in copies).
+	 * This is created lazily and reset when a new cell is added.
+	 */
+	private int[][] order;
+
 	public UMatrix() {
 		data = new TIntObjectHashMap<>(
 				Constants.DEFAULT_CAPACITY,
@@ -38,6 +50,7 @@ public class UMatrix implements Copyable<UMatrix> {
 
 		var rowm = getRow(row);
 		rowm.put(col, new UImpactCell(i));
+		order = null;
 	}
 
 	public void add(int row, int col, CalcExchange e) {
@@ -73,6 +86,7 @@ public class UMatrix implements Copyable<UMatrix> {
 		if (!(cell instanceof UExchangeCell)) {
 			cell = new UExchangeCell(e, af);
 			rowm.put(col, cell);
+			order = null;
 			return;
 		}
 
@@ -101,7 +115,40 @@ public class UMatrix implements Copyable<UMatrix> {
 	 * the given matrix.
 	 */
 	public void generate(Matrix m, FormulaInterpreter interpreter) {
-		each((row, col, cell) -> m.set(row, col, cell.next(interpreter)));
+		generate(m, interpreter, ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Same as {@link #generate(Matrix, FormulaInterpreter)} but takes the random
+	 * numbers from the given generator. The cells are visited in a fixed order
+	 * (by column and row), so that the generated matrix only depends on the
+	 * state of the random number generator.
+	 */
+	public void generate(
+		Matrix m, FormulaInterpreter interpreter, RandomGenerator random) {
+		if (order == null) {
+			order = sortedPositions();
+		}
+		for (var pos : order) {
+			int row = pos[0];
+			int col = pos[1];
+			var cell = data.get(row).get(col);
+			m.set(row, col, cell.next(interpreter, random));
+		}
+	}
+
+	private int[][] sortedPositions() {
+		var positions = new ArrayList<int[]>();
+		each((row, col, cell) -> {
+			if (cell != null) {
+				positions.add(new int[]{row, col});
+			}
+		});
+		var array = positions.toArray(new int[0][]);
+		Arrays.sort(array, (a, b) -> a[1] != b[1]
+			? Integer.compare(a[1], b[1])
+			: Integer.compare(a[0], b[0]));
+		return array;
 	}
 
 	/**
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.OptionalInt;
+import java.util.OptionalLong;
 
 import org.openlca.core.math.ReferenceAmount;
 
@@ -26,6 +27,8 @@ public class CalculationSetup extends AbstractEntity
 	private FlowPropertyFactor flowPropertyFactor;
 	private Double amount;
 	private int numberOfRuns = -1;
+	private Long seed;
+	private SamplingMethod sampling = SamplingMethod.RANDOM;
 
 	/**
 	 * Creates a new calculation setup for the given type and calculation target
@@ -171,6 +174,44 @@ public class CalculationSetup extends AbstractEntity
 		return this;
 	}
 
+	/**
+	 * Set the seed of the random number generation in Monte Carlo simulations.
+	 * With a seed, a simulation produces the same results when it is repeated,
+	 * also when its runs are executed in parallel. Without a seed (which is the
+	 * default), each simulation generates different values.
+	 */
+	public CalculationSetup withSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * Get the seed of the random number generation in Monte Carlo simulations
+	 * if it was set.
+	 */
+	public OptionalLong seed() {
+		return seed != null
+				? OptionalLong.of(seed)
+				: OptionalLong.empty();
+	}
+
+	/**
+	 * Set the method for sampling the uncertainty distributions in Monte Carlo
+	 * simulations. By default, plain random sampling is used. For Latin
+	 * hypercube sampling, the number of simulation runs should be set in this
+	 * setup as it defines the number of intervals of the distributions.
+	 */
+	public CalculationSetup withSampling(SamplingMethod sampling) {
+		this.sampling = sampling;
+		return this;
+	}
+
+	public SamplingMethod sampling() {
+		return sampling == null
+				? SamplingMethod.RANDOM
+				: sampling;
+	}
+
 	/**
 	 * Get the target amount of the reference flow in the unit as defined by
 	 * this setup.
@@ -323,6 +364,8 @@ public class CalculationSetup extends AbstractEntity
 		clone.flowPropertyFactor = flowPropertyFactor;
 		clone.amount = amount;
 		clone.numberOfRuns = numberOfRuns;
+		clone.seed = seed;
+		clone.sampling = sampling;
 
 		if (parameters != null) {
 			clone.parameters = new ArrayList<>(parameters.size());
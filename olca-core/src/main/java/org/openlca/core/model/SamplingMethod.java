@@ -0,0 +1,29 @@
+package org.openlca.core.model;
+
+/**
+ * The methods for sampling the uncertainty distributions in Monte Carlo
+ * simulations.
+ */
+public enum SamplingMethod {
+
+	/**
+	 * Plain random sampling where each value is drawn independently from the
+	 * others. This is the default.
+	 */
+	RANDOM,
+
+	/**
+	 * Latin hypercube sampling: the range of each uncertain quantity is
+	 * divided into intervals of equal probability, one for each simulation
+	 * run, and each interval is sampled exactly once in random order.
+	 */
+	LATIN_HYPERCUBE,
+
+	/**
+	 * Quasi-random sampling with a randomly shifted Sobol sequence. The first
+	 * 1000 uncertain quantities are sampled from the Sobol sequence, further
+	 * quantities with Latin hypercube sampling.
+	 */
+	SOBOL
+
+}
@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntToDoubleFunction;
 
 import org.openlca.core.database.IDatabase;
@@ -25,6 +26,8 @@ import org.openlca.core.results.providers.ResultProvider;
 import org.openlca.core.results.providers.ResultProviders;
 import org.openlca.core.results.providers.SolverContext;
 
+import gnu.trove.list.array.TIntArrayList;
+
 /**
  * An LcaResult wraps a result provider and provides more friendly methods for
  * retrieving results from that provider. For getting more low-level results,
@@ -35,6 +38,14 @@ public class LcaResult implements IResult {
 	private final ResultProvider provider;
 	private final Map<TechFlow, LcaResult> subResults;
 
+	/**
+	 * The number of holders of this result: the creator of the result and the
+	 * host results that use it as a sub-result. Sub-results can be shared
+	 * between multiple hosts, thus, the result is only disposed when the last
+	 * holder released it.
+	 */
+	private final AtomicInteger refs = new AtomicInteger(1);
+
 	public LcaResult(ResultProvider provider) {
 		this.provider = Objects.requireNonNull(provider);
 		this.subResults = new HashMap<>();
@@ -61,6 +72,32 @@ public class LcaResult implements IResult {
 		return provider;
 	}
 
+	/**
+	 * Releases this result. When this was the last holder of the result, the
+	 * underlying result provider is disposed and the sub-results are released.
+	 * A sub-result that is shared with other host results is only disposed
+	 * when all of these hosts are disposed. The creator and each host should
+	 * call this method only once; the result should not be used by them
+	 * anymore after this.
+	 */
+	public void dispose() {
+		int before = refs.getAndUpdate(r -> r > 0 ? r - 1 : 0);
+		if (before != 1)
+			return;
+		provider.dispose();
+		for (var sub : subResults.values()) {
+			sub.dispose();
+		}
+	}
+
+	/**
+	 * Returns true if this result was disposed, which is the case when all
+	 * holders of the result released it.
+	 */
+	public boolean isDisposed() {
+		return refs.get() == 0;
+	}
+
 	@Override
 	public Demand demand() {
 		return provider.demand();
@@ -112,7 +149,9 @@ public class LcaResult implements IResult {
 	}
 
 	public List<TechFlowValue> getTotalityFactors() {
-		return techValuesOf((i, techFlow) -> provider.totalFactorOf(i));
+		// the total factors of flows without total requirements are 0
+		var factors = totalFactorsOf(provider.totalRequirements());
+		return techValuesOf((i, techFlow) -> factors[i]);
 	}
 
 	public double getTotalityFactorOf(TechFlow techFlow) {
@@ -177,8 +216,10 @@ public class LcaResult implements IResult {
 		int flowIdx = provider.indexOf(enviFlow);
 		if (flowIdx < 0)
 			return Collections.emptyList();
+		var intensities = provider.totalFlowsOfOneRow(flowIdx);
+		var factors = totalFactorsOf(intensities);
 		return techValuesOf((techIdx, $) -> {
-			double raw = provider.totalFlowOf(flowIdx, techIdx);
+			double raw = factors[techIdx] * intensities[techIdx];
 			return ResultProvider.flowValueView(enviFlow, raw);
 		});
 	}
@@ -262,8 +303,10 @@ public class LcaResult implements IResult {
 		int impactIdx = provider.indexOf(impact);
 		if (impactIdx < 0)
 			return Collections.emptyList();
+		var intensities = provider.totalImpactsOfOneRow(impactIdx);
+		var factors = totalFactorsOf(intensities);
 		return techValuesOf((techIdx, _techFlow) ->
-				provider.totalImpactOf(impactIdx, techIdx));
+				factors[techIdx] * intensities[techIdx]);
 	}
 
 	public List<ImpactValue> getDirectImpactsOf(TechFlow techFlow) {
@@ -388,7 +431,10 @@ public class LcaResult implements IResult {
 	public List<TechFlowValue> getTotalCostValues() {
 		if (!hasCosts())
 			return Collections.emptyList();
-		return techValuesOf((techIdx, $) -> provider.totalCostsOf(techIdx));
+		var intensities = provider.totalCostsOfOneRow();
+		var factors = totalFactorsOf(intensities);
+		return techValuesOf((techIdx, $) ->
+				factors[techIdx] * intensities[techIdx]);
 	}
 
 	public double getDirectCostsOf(TechFlow techFlow) {
@@ -434,8 +480,20 @@ public class LcaResult implements IResult {
 		return new HashMap<>(subResults);
 	}
 
+	/**
+	 * Adds the given sub-result to this result. This result then holds a
+	 * reference to the sub-result, which is released when this result is
+	 * disposed. A sub-result that was registered for the same product before
+	 * is released.
+	 */
 	public void addSubResult(TechFlow product, LcaResult result) {
-		subResults.put(product, result);
+		if (result != null) {
+			result.refs.incrementAndGet();
+		}
+		var old = subResults.put(product, result);
+		if (old != null) {
+			old.dispose();
+		}
 	}
 
 	// endregion
@@ -505,6 +563,27 @@ public class LcaResult implements IResult {
 
 	// region utils
 
+	/**
+	 * Returns the total factors of the tech-flows for the given row of
+	 * intensities. Only the factors of the tech-flows with a non-zero
+	 * intensity are calculated, in one batch of the provider; the others
+	 * are 0.
+	 */
+	private double[] totalFactorsOf(double[] intensities) {
+		var techFlows = new TIntArrayList();
+		for (int i = 0; i < intensities.length; i++) {
+			if (intensities[i] != 0) {
+				techFlows.add(i);
+			}
+		}
+		var factors = provider.totalFactorsOf(techFlows.toArray());
+		var all = new double[intensities.length];
+		for (int k = 0; k < factors.length; k++) {
+			all[techFlows.getQuick(k)] = factors[k];
+		}
+		return all;
+	}
+
 	private List<TechFlowValue> techValuesOf(IxVal<TechFlow> fn) {
 		var list = new ArrayList<TechFlowValue>(techIndex().size());
 		techIndex().each((i, techFlow) -> {
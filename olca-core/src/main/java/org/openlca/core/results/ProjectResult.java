@@ -6,16 +6,16 @@ import java.util.List;
 import java.util.Set;
 
 import org.openlca.core.database.IDatabase;
-import org.openlca.core.math.SystemCalculator;
+import org.openlca.core.math.ProjectCalculator;
 import org.openlca.core.matrix.index.EnviFlow;
-import org.openlca.core.model.CalculationSetup;
 import org.openlca.core.model.Project;
 import org.openlca.core.model.ProjectVariant;
 import org.openlca.core.model.descriptors.ImpactDescriptor;
 
 /**
  * A project result is basically just a collection of contribution results of
- * the projects' variants.
+ * the projects' variants. The results are calculated with a
+ * {@link ProjectCalculator}.
  */
 public class ProjectResult {
 
@@ -25,23 +25,8 @@ public class ProjectResult {
 		var result = new ProjectResult();
 		if (project == null)
 			return result;
-		var calculator = new SystemCalculator(db);
-		for (var v : project.variants) {
-			if (v.isDisabled)
-				continue;
-			var setup = CalculationSetup.of(v.productSystem)
-				.withUnit(v.unit)
-				.withFlowPropertyFactor(v.flowPropertyFactor)
-				.withAmount(v.amount)
-				.withAllocation(v.allocationMethod)
-				.withImpactMethod(project.impactMethod)
-				.withNwSet(project.nwSet)
-				.withParameters(v.parameterRedefs)
-				.withCosts(project.isWithCosts)
-				.withRegionalization(project.isWithRegionalization);
-			var variantResult = calculator.calculate(setup);
-			result.results.put(v, variantResult);
-		}
+		var calculator = new ProjectCalculator(db);
+		result.results.putAll(calculator.calculate(project));
 		return result;
 	}
 
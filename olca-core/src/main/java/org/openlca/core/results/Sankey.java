@@ -207,6 +207,7 @@ public class Sankey<T> {
 		// result references
 		private EnviFlow flow;
 		private ImpactDescriptor impact;
+		private double[] intensities;
 
 		// cutoff rules
 		private double minShare = 0;
@@ -282,18 +283,36 @@ public class Sankey<T> {
 				int flowIdx = result.indexOf(flow);
 				if (flowIdx < 0)
 					return 0;
-				double total = result.totalFlowOf(flowIdx, techIdx);
+				double total = result.hasDirectRows()
+						? result.totalFactorOf(techIdx) * flowRow(flowIdx)[techIdx]
+						: result.totalFlowOf(flowIdx, techIdx);
 				return ResultProvider.flowValueView(flow, total);
 			}
 			if (impact != null) {
 				int impactIdx = result.indexOf(impact);
-				return impactIdx < 0
-						? 0
+				if (impactIdx < 0)
+					return 0;
+				return result.hasDirectRows()
+						? result.totalFactorOf(techIdx) * impactRow(impactIdx)[techIdx]
 						: result.totalImpactOf(impactIdx, techIdx);
 			}
 			return 0;
 		}
 
+		private double[] flowRow(int flowIdx) {
+			if (intensities == null) {
+				intensities = result.totalFlowsOfOneRow(flowIdx);
+			}
+			return intensities;
+		}
+
+		private double[] impactRow(int impactIdx) {
+			if (intensities == null) {
+				intensities = result.totalImpactsOfOneRow(impactIdx);
+			}
+			return intensities;
+		}
+
 		private double getDirect(TechFlow techFlow) {
 			int techIdx = result.indexOf(techFlow);
 			if (techIdx < 0)
@@ -3,11 +3,15 @@ package org.openlca.core.results;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.IntToDoubleFunction;
+import java.util.function.Supplier;
 
 import org.openlca.core.matrix.index.EnviFlow;
 import org.openlca.core.model.descriptors.ImpactDescriptor;
 import org.openlca.core.results.providers.ResultProvider;
 
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+
 /**
  * Maps the upstream results of the product system graph to a tree where the
  * root is the reference process of the product system.
@@ -25,11 +29,19 @@ public class UpstreamTree {
 	private final IntToDoubleFunction intensity;
 	private final ResultProvider r;
 
+	/**
+	 * If true, the solutions of the child nodes are calculated in one batch
+	 * when a node is expanded. This is done when the intensities are not taken
+	 * from a precalculated row but calculated from the solutions of the nodes.
+	 */
+	private final boolean prefetch;
+
 	private UpstreamTree(
 			Object ref, ResultProvider r, double total, IntToDoubleFunction intensity) {
 		this.ref = ref;
 		this.r = r;
 		this.intensity = intensity;
+		this.prefetch = !r.hasDirectRows();
 		root = UpstreamNode.rootOf(r.techIndex(), r.demand());
 		double demand = r.demand().value();
 		root.scaling = demand / r.techValueOf(root.index, root.index);
@@ -40,25 +52,47 @@ public class UpstreamTree {
 	public static UpstreamTree of(ResultProvider provider, EnviFlow flow) {
 		int flowIdx = provider.indexOf(flow);
 		double total = provider.totalFlows()[flowIdx];
-		return new UpstreamTree(flow, provider, total,
-				techIdx -> provider.totalFlowOfOne(flowIdx, techIdx));
+		return new UpstreamTree(flow, provider, total, intensityOf(provider,
+				() -> provider.totalFlowsOfOneRow(flowIdx),
+				techIdx -> provider.totalFlowOfOne(flowIdx, techIdx)));
 	}
 
 	public static UpstreamTree of(ResultProvider provider, ImpactDescriptor impact) {
 		int impactIdx = provider.indexOf(impact);
 		double total = provider.totalImpacts()[impactIdx];
-		return new UpstreamTree(impact, provider, total,
-				techIdx -> provider.totalImpactOfOne(impactIdx, techIdx));
+		return new UpstreamTree(impact, provider, total, intensityOf(provider,
+				() -> provider.totalImpactsOfOneRow(impactIdx),
+				techIdx -> provider.totalImpactOfOne(impactIdx, techIdx)));
 	}
 
 	public static UpstreamTree costsOf(ResultProvider provider) {
 		return new UpstreamTree(null, provider, provider.totalCosts(),
-				provider::totalCostsOfOne);
+				intensityOf(provider,
+						provider::totalCostsOfOneRow,
+						provider::totalCostsOfOne));
 	}
 
 	public static UpstreamTree addedValuesOf(ResultProvider provider) {
+		var costs = intensityOf(provider,
+				provider::totalCostsOfOneRow,
+				provider::totalCostsOfOne);
 		return new UpstreamTree(null, provider, -provider.totalCosts(),
-				techIdx -> -provider.totalCostsOfOne(techIdx));
+				techIdx -> -costs.applyAsDouble(techIdx));
+	}
+
+	/**
+	 * Takes the intensities from the given row when the provider can calculate
+	 * it directly; otherwise, the intensities are calculated for the nodes of
+	 * the tree when they are expanded.
+	 */
+	private static IntToDoubleFunction intensityOf(
+			ResultProvider provider,
+			Supplier<double[]> row,
+			IntToDoubleFunction column) {
+		if (!provider.hasDirectRows())
+			return column;
+		var values = row.get();
+		return techIdx -> values[techIdx];
 	}
 
 	public List<UpstreamNode> childs(UpstreamNode parent) {
@@ -68,14 +102,21 @@ public class UpstreamTree {
 		if (parent.scaling == 0)
 			return parent.childs;
 
-		var requirements = r.techColumnOf(parent.index);
-		for (int i = 0; i < requirements.length; i++) {
-			if (i == parent.index)
-				continue;
-			double aij = requirements[i];
-			if (aij == 0)
-				continue;
-			aij *= parent.scaling;
+		var providers = new TIntArrayList();
+		var requirements = new TDoubleArrayList();
+		r.iterateTechColumn(parent.index, (i, j, aij) -> {
+			if (i != parent.index) {
+				providers.add(i);
+				requirements.add(aij);
+			}
+		});
+		if (prefetch && providers.size() > 1) {
+			r.solutionsOfOne(providers.toArray());
+		}
+
+		for (int k = 0; k < providers.size(); k++) {
+			int i = providers.get(k);
+			double aij = requirements.get(k) * parent.scaling;
 			double aii = r.techValueOf(i, i);
 			double scaling = -aij / aii;
 			double amount = aii * scaling;
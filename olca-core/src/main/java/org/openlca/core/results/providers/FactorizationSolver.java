@@ -1,51 +1,63 @@
 package org.openlca.core.results.providers;
 
+import java.util.Arrays;
+
 import org.openlca.core.matrix.Demand;
 import org.openlca.core.matrix.MatrixData;
+import org.openlca.core.matrix.format.EntryFunction;
 import org.openlca.core.matrix.format.Matrix;
 import org.openlca.core.matrix.index.EnviIndex;
 import org.openlca.core.matrix.index.ImpactIndex;
 import org.openlca.core.matrix.index.TechIndex;
 import org.openlca.core.matrix.solvers.Factorization;
 import org.openlca.core.matrix.solvers.MatrixSolver;
+import org.openlca.core.results.providers.SolutionCache.Kind;
 
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+
 
 public class FactorizationSolver implements ResultProvider {
 
+	/** The maximum number of solutions that are calculated in one batch. */
+	private static final int BLOCK_SIZE = 64;
+
 	private final Demand demand;
 	private final MatrixData data;
 	private final MatrixSolver solver;
 	private final Factorization factorization;
 
+	/**
+	 * Caches the solutions and the columns and rows of the intensity matrices
+	 * that are calculated on demand.
+	 */
+	private final SolutionCache cache;
+
 	private final double[] scalingVector;
 	private double[] totalRequirements;
-	private final TIntObjectHashMap<double[]> solutions;
+	private double[] loopFactors;
 
 	private Matrix directFlows;
 	private final double[] totalFlows;
-	private final TIntObjectHashMap<double[]> totalFlowsOfOne;
 
 	private Matrix directImpacts;
 	private double[] totalImpacts;
-	private final TIntObjectHashMap<double[]> totalImpactsOfOne;
 
 	private final double[] directCosts;
 	private final double totalCosts;
+	private double[] totalCostsRow;
 
 	private FactorizationSolver(SolverContext context) {
 		this.demand = context.demand();
 		this.data = context.data();
 		this.solver = context.solver();
-		this.factorization = solver.factorize(data.techMatrix);
+		var factorizations = context.factorizations();
+		this.factorization = factorizations != null
+			? factorizations.factorize(solver, data.techMatrix)
+			: solver.factorize(data.techMatrix);
 
-		solutions = new TIntObjectHashMap<>();
-		totalFlowsOfOne = hasFlows()
-			? new TIntObjectHashMap<>()
-			: null;
-		totalImpactsOfOne = hasImpacts()
-			? new TIntObjectHashMap<>()
-			: null;
+		this.cache = SolutionCache.of(context.cacheSize());
 
 		// calculate the scaling vector
 		var refIdx = data.techIndex.of(demand.techFlow());
@@ -80,10 +92,31 @@ public class FactorizationSolver implements ResultProvider {
 		}
 	}
 
-	public static ResultProvider solve(SolverContext context) {
+	public static FactorizationSolver solve(SolverContext context) {
 		return new FactorizationSolver(context);
 	}
 
+	/**
+	 * Returns the cache of the vectors that are calculated on demand, e.g. to
+	 * monitor its hits and misses.
+	 */
+	public SolutionCache cache() {
+		return cache;
+	}
+
+	@Override
+	public void dispose() {
+		factorization.dispose();
+		cache.clear();
+	}
+
+	@Override
+	public long byteSize() {
+		return ResultProvider.byteSizeOf(
+				data, scalingVector, totalRequirements, loopFactors, directFlows,
+				totalFlows, directImpacts, totalImpacts, directCosts, totalCostsRow);
+	}
+
 	@Override
 	public Demand demand() {
 		return demand;
@@ -141,6 +174,11 @@ public class FactorizationSolver implements ResultProvider {
 		return data.techMatrix.getColumn(techFlow);
 	}
 
+	@Override
+	public void iterateTechColumn(int techFlow, EntryFunction fn) {
+		data.techMatrix.iterateColumn(techFlow, fn);
+	}
+
 	@Override
 	public double techValueOf(int row, int col) {
 		return data.techMatrix.get(row, col);
@@ -148,19 +186,121 @@ public class FactorizationSolver implements ResultProvider {
 
 	@Override
 	public double[] solutionOfOne(int techFlow) {
-		var s = solutions.get(techFlow);
+		var s = cache.get(Kind.SOLUTION, techFlow);
 		if (s != null)
 			return s;
 		s = factorization.solve(techFlow, 1.0);
-		solutions.put(techFlow, s);
+		cache.put(Kind.SOLUTION, techFlow, s);
 		return s;
 	}
 
+	@Override
+	public double[][] solutionsOfOne(int[] techFlows) {
+		var solutions = new double[techFlows.length][];
+		var missing = new TIntArrayList();
+		var seen = new TIntHashSet();
+		for (int k = 0; k < techFlows.length; k++) {
+			var s = cache.get(Kind.SOLUTION, techFlows[k]);
+			if (s != null) {
+				solutions[k] = s;
+			} else if (seen.add(techFlows[k])) {
+				missing.add(techFlows[k]);
+			}
+		}
+		if (missing.isEmpty())
+			return solutions;
+
+		// solve the missing solutions in blocks
+		var solved = new TIntObjectHashMap<double[]>();
+		for (int offset = 0; offset < missing.size(); offset += BLOCK_SIZE) {
+			int size = Math.min(BLOCK_SIZE, missing.size() - offset);
+			var columns = missing.toArray(offset, size);
+			var block = factorization.solve(columns);
+			for (int c = 0; c < size; c++) {
+				var s = block.getColumn(c);
+				solved.put(columns[c], s);
+				cache.put(Kind.SOLUTION, columns[c], s);
+			}
+		}
+		for (int k = 0; k < techFlows.length; k++) {
+			if (solutions[k] == null) {
+				solutions[k] = solved.get(techFlows[k]);
+			}
+		}
+		return solutions;
+	}
+
 	@Override
 	public double loopFactorOf(int techFlow) {
-		var aii = data.techMatrix.get(techFlow, techFlow);
+		// the loop factors are stored separately, as they would need to be
+		// calculated again when the solutions are evicted from the cache
+		var lf = loopFactors()[techFlow];
+		if (!Double.isNaN(lf))
+			return lf;
 		var eii = solutionOfOne(techFlow)[techFlow];
-		var f = aii * eii;
+		lf = loopFactorOf(techFlow, eii);
+		loopFactors[techFlow] = lf;
+		return lf;
+	}
+
+	/**
+	 * Calculates the missing loop factors of the flows with non-zero total
+	 * requirements from block solutions of the factorization. Only the
+	 * diagonal entries of these solutions are kept, so that the solution
+	 * cache is not filled with the columns of the inverse.
+	 */
+	@Override
+	public double[] totalFactorsOf(int[] techFlows) {
+		var t = totalRequirements();
+		var lfs = loopFactors();
+		var missing = new TIntArrayList();
+		var seen = new TIntHashSet();
+		for (int techFlow : techFlows) {
+			if (t[techFlow] != 0
+					&& Double.isNaN(lfs[techFlow])
+					&& seen.add(techFlow)) {
+				var s = cache.get(Kind.SOLUTION, techFlow);
+				if (s != null) {
+					lfs[techFlow] = loopFactorOf(techFlow, s[techFlow]);
+				} else {
+					missing.add(techFlow);
+				}
+			}
+		}
+		for (int offset = 0; offset < missing.size(); offset += BLOCK_SIZE) {
+			int size = Math.min(BLOCK_SIZE, missing.size() - offset);
+			var columns = missing.toArray(offset, size);
+			var block = factorization.solve(columns);
+			for (int c = 0; c < size; c++) {
+				int j = columns[c];
+				lfs[j] = loopFactorOf(j, block.get(j, c));
+			}
+		}
+
+		var factors = new double[techFlows.length];
+		for (int k = 0; k < techFlows.length; k++) {
+			int j = techFlows[k];
+			factors[k] = t[j] == 0
+				? 0
+				: lfs[j] * t[j];
+		}
+		return factors;
+	}
+
+	private double[] loopFactors() {
+		if (loopFactors == null) {
+			loopFactors = new double[scalingVector.length];
+			Arrays.fill(loopFactors, Double.NaN);
+		}
+		return loopFactors;
+	}
+
+	/**
+	 * Returns the loop factor `1 / (A[j,j] * INV[j,j])` for the given diagonal
+	 * entry `INV[j,j]` of the inverse.
+	 */
+	private double loopFactorOf(int j, double eii) {
+		var f = data.techMatrix.get(j, j) * eii;
 		return f == 0
 			? 0
 			: 1 / f;
@@ -205,17 +345,45 @@ public class FactorizationSolver implements ResultProvider {
 
 	@Override
 	public double[] totalFlowsOfOne(int techFlow) {
-		if (totalFlowsOfOne == null)
+		if (!hasFlows())
 			return EMPTY_VECTOR;
-		var totals = totalFlowsOfOne.get(techFlow);
+		var totals = cache.get(Kind.FLOW_COLUMN, techFlow);
 		if (totals != null)
 			return totals;
 		var s = solutionOfOne(techFlow);
 		totals = solver.multiply(data.enviMatrix, s);
-		totalFlowsOfOne.put(techFlow, totals);
+		cache.put(Kind.FLOW_COLUMN, techFlow, totals);
 		return totals;
 	}
 
+	@Override
+	public boolean hasDirectRows() {
+		return true;
+	}
+
+	@Override
+	public double totalFlowOfOne(int enviFlow, int techFlow) {
+		var row = cache.peek(Kind.FLOW_ROW, enviFlow);
+		if (row != null)
+			return row[techFlow];
+		var totals = totalFlowsOfOne(techFlow);
+		return isEmpty(totals)
+			? 0
+			: totals[enviFlow];
+	}
+
+	@Override
+	public double[] totalFlowsOfOneRow(int enviFlow) {
+		if (!hasFlows() || data.enviMatrix == null)
+			return new double[techIndex().size()];
+		var row = cache.get(Kind.FLOW_ROW, enviFlow);
+		if (row != null)
+			return row;
+		row = factorization.solveTransposed(data.enviMatrix.getRow(enviFlow));
+		cache.put(Kind.FLOW_ROW, enviFlow, row);
+		return row;
+	}
+
 	@Override
 	public double[] totalFlows() {
 		return totalFlows == null
@@ -283,9 +451,9 @@ public class FactorizationSolver implements ResultProvider {
 
 	@Override
 	public double[] totalImpactsOfOne(int techFlow) {
-		if (totalImpactsOfOne == null)
+		if (!hasImpacts())
 			return EMPTY_VECTOR;
-		var h = totalImpactsOfOne.get(techFlow);
+		var h = cache.get(Kind.IMPACT_COLUMN, techFlow);
 		if (h != null)
 			return h;
 		var impactFactors = data.impactMatrix;
@@ -293,10 +461,41 @@ public class FactorizationSolver implements ResultProvider {
 		if (impactFactors == null || g.length == 0)
 			return new double[impactIndex().size()];
 		h = solver.multiply(impactFactors, g);
-		totalImpactsOfOne.put(techFlow, h);
+		cache.put(Kind.IMPACT_COLUMN, techFlow, h);
 		return h;
 	}
 
+	@Override
+	public double totalImpactOfOne(int indicator, int techFlow) {
+		var row = cache.peek(Kind.IMPACT_ROW, indicator);
+		if (row != null)
+			return row[techFlow];
+		var impacts = totalImpactsOfOne(techFlow);
+		return isEmpty(impacts)
+			? 0
+			: impacts[indicator];
+	}
+
+	@Override
+	public double[] totalImpactsOfOneRow(int indicator) {
+		int n = techIndex().size();
+		if (!hasImpacts()
+			|| data.impactMatrix == null
+			|| data.enviMatrix == null)
+			return new double[n];
+		var row = cache.get(Kind.IMPACT_ROW, indicator);
+		if (row != null)
+			return row;
+
+		// w = C[k,:] * B
+		var factors = data.impactMatrix.getRow(indicator);
+		var w = new double[n];
+		data.enviMatrix.iterate((i, j, bij) -> w[j] += factors[i] * bij);
+		row = factorization.solveTransposed(w);
+		cache.put(Kind.IMPACT_ROW, indicator, row);
+		return row;
+	}
+
 	@Override
 	public double[] totalImpacts() {
 		if (totalImpacts != null)
@@ -318,6 +517,8 @@ public class FactorizationSolver implements ResultProvider {
 	public double totalCostsOfOne(int techFlow) {
 		if (data.costVector == null)
 			return 0;
+		if (totalCostsRow != null)
+			return totalCostsRow[techFlow];
 		var s = solutionOfOne(techFlow);
 		double c = 0.0;
 		for (int j = 0; j < s.length; j++) {
@@ -326,6 +527,16 @@ public class FactorizationSolver implements ResultProvider {
 		return c;
 	}
 
+	@Override
+	public double[] totalCostsOfOneRow() {
+		if (totalCostsRow != null)
+			return totalCostsRow;
+		totalCostsRow = data.costVector != null
+			? factorization.solveTransposed(data.costVector)
+			: new double[techIndex().size()];
+		return totalCostsRow;
+	}
+
 	@Override
 	public double totalCosts() {
 		return totalCosts;
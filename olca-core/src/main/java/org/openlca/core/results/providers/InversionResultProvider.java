@@ -1,6 +1,7 @@
 package org.openlca.core.results.providers;
 
 import org.openlca.core.matrix.Demand;
+import org.openlca.core.matrix.format.EntryFunction;
 import org.openlca.core.matrix.index.EnviIndex;
 import org.openlca.core.matrix.index.ImpactIndex;
 import org.openlca.core.matrix.index.TechIndex;
@@ -71,6 +72,11 @@ public class InversionResultProvider implements ResultProvider {
 		return r.data().techMatrix.getColumn(techFlow);
 	}
 
+	@Override
+	public void iterateTechColumn(int techFlow, EntryFunction fn) {
+		r.data().techMatrix.iterateColumn(techFlow, fn);
+	}
+
 	@Override
 	public double techValueOf(int row, int col) {
 		return r.data().techMatrix.get(row, col);
@@ -128,6 +134,18 @@ public class InversionResultProvider implements ResultProvider {
 			: 0;
 	}
 
+	@Override
+	public boolean hasDirectRows() {
+		return true;
+	}
+
+	@Override
+	public double[] totalFlowsOfOneRow(int enviFlow) {
+		return r.flowIntensities() != null
+			? r.flowIntensities().getRow(enviFlow)
+			: new double[techIndex().size()];
+	}
+
 	@Override
 	public double[] totalFlowsOf(int techFlow) {
 		var factor = totalFactorOf(techFlow);
@@ -211,6 +229,13 @@ public class InversionResultProvider implements ResultProvider {
 			: 0;
 	}
 
+	@Override
+	public double[] totalImpactsOfOneRow(int indicator) {
+		return r.impactIntensities() != null
+			? r.impactIntensities().getRow(indicator)
+			: new double[techIndex().size()];
+	}
+
 	@Override
 	public double[] totalImpacts() {
 		return r.totalImpacts() != null
@@ -232,9 +257,24 @@ public class InversionResultProvider implements ResultProvider {
 			: 0;
 	}
 
+	@Override
+	public double[] totalCostsOfOneRow() {
+		return r.costIntensities() != null
+			? r.costIntensities()
+			: new double[techIndex().size()];
+	}
+
 	@Override
 	public double totalCosts() {
 		return r.totalCosts();
 	}
 
+	@Override
+	public long byteSize() {
+		return ResultProvider.byteSizeOf(
+			r.data(), r.inverse(), r.scalingVector(), r.totalRequirements(),
+			r.loopFactors(), r.totalFlows(), r.directFlows(), r.flowIntensities(),
+			r.totalImpacts(), r.directImpacts(), r.impactIntensities(),
+			r.directCosts(), r.costIntensities());
+	}
 }
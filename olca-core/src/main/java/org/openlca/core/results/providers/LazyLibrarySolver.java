@@ -23,6 +23,7 @@ import org.openlca.core.matrix.solvers.MatrixSolver;
 import org.openlca.util.Pair;
 
 import gnu.trove.impl.Constants;
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntObjectHashMap;
 
 public class LazyLibrarySolver implements ResultProvider {
@@ -338,6 +339,25 @@ public class LazyLibrarySolver implements ResultProvider {
 		return put(techFlow, solutions, solution);
 	}
 
+	@Override
+	public double[][] solutionsOfOne(int[] techFlows) {
+		// prefetch the solutions of the foreground system in one batch
+		var idxF = foregroundData.techIndex;
+		var foreground = new TIntArrayList();
+		for (int techFlow : techFlows) {
+			if (solutions.containsKey(techFlow))
+				continue;
+			var start = fullData.techIndex.at(techFlow);
+			if (!start.isFromLibrary()) {
+				foreground.add(idxF.of(start));
+			}
+		}
+		if (foreground.size() > 1) {
+			foregroundSolution.solutionsOfOne(foreground.toArray());
+		}
+		return ResultProvider.super.solutionsOfOne(techFlows);
+	}
+
 	@Override
 	public double loopFactorOf(int techFlow) {
 		var aii = techValueOf(techFlow, techFlow);
@@ -679,4 +699,11 @@ public class LazyLibrarySolver implements ResultProvider {
 	public double totalCosts() {
 		return 0;
 	}
+
+	@Override
+	public long byteSize() {
+		return ResultProvider.byteSizeOf(
+			foregroundData, foregroundSolution, fullData, scalingVector,
+			totalRequirements, totalFlows, totalImpacts, flowImpacts);
+	}
 }
@@ -1,6 +1,5 @@
 package org.openlca.core.results.providers;
 
-import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -12,11 +11,6 @@ import org.openlca.core.matrix.format.MatrixReader;
 import org.openlca.core.matrix.index.EnviIndex;
 import org.openlca.core.matrix.index.ImpactIndex;
 import org.openlca.core.matrix.index.TechIndex;
-import org.openlca.core.matrix.io.NpyMatrix;
-import org.openlca.npy.Array2d;
-
-import gnu.trove.impl.Constants;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import org.openlca.util.Strings;
 
 public class LibraryCache {
@@ -29,7 +23,6 @@ public class LibraryCache {
 	private final HashMap<String, ImpactIndex> impactIndices = new HashMap<>();
 
 	private final HashMap<String, MatrixReader> matrices = new HashMap<>();
-	private final HashMap<String, TIntObjectHashMap<double[]>> columns = new HashMap<>();
 	private final HashMap<String, double[]> diagonals = new HashMap<>();
 	private final HashMap<String, Optional<double[]>> costVectors = new HashMap<>();
 
@@ -109,114 +102,27 @@ public class LibraryCache {
 	}
 
 	public double[] diagonalOf(String libId, LibMatrix matrix) {
-		var key = keyOf(libId, matrix);
-		var diag = diagonals.get(key);
-		if (diag != null)
-			return diag;
-
-		var fullMatrix = matrices.get(key);
-		if (fullMatrix != null) {
-			diag = fullMatrix.diag();
-			diagonals.put(key, diag);
-			return diag;
-		}
-
-		var file = MatrixFile.of(dir, libId, matrix);
-		if (file.isEmpty())
-			return new double[0];
-
-		if (file.isSparse()) {
-			fullMatrix = file.readFull();
-			if (fullMatrix == null)
-				return new double[0];
-			matrices.put(key, fullMatrix);
-			diag = fullMatrix.diag();
-			diagonals.put(key, diag);
-			return diag;
-		}
-
-		diag = Array2d.readDiag(file.file)
-			.asDoubleArray()
-			.data();
-		diagonals.put(key, diag);
-		return diag;
+		return diagonals.computeIfAbsent(keyOf(libId, matrix), key -> {
+			var m = matrixOf(libId, matrix);
+			return m != null
+				? m.diag()
+				: new double[0];
+		});
 	}
 
+	/**
+	 * Returns the column of the given library matrix. As the library matrices
+	 * are mapped into memory, the column is read directly from the mapped
+	 * file and not cached.
+	 */
 	public double[] columnOf(String libId, LibMatrix matrix, int j) {
-		var key = keyOf(libId, matrix);
-
-		var fullMatrix = matrices.get(key);
-		if (fullMatrix != null) {
-			return fullMatrix.getColumn(j);
-		}
-
-		var colCache = columns.get(key);
-		var col = colCache != null
-			? colCache.get(j)
-			: null;
-		if (col != null)
-			return col;
-
-		var file = MatrixFile.of(dir, libId, matrix);
-		if (file.isEmpty())
-			return new double[0];
-
-		if (file.isSparse()) {
-			fullMatrix = file.readFull();
-			if (fullMatrix == null)
-				return new double[0];
-			matrices.put(key, fullMatrix);
-			return fullMatrix.getColumn(j);
-		}
-
-		col = Array2d.readColumn(file.file, j)
-			.asDoubleArray()
-			.data();
-		if (colCache == null) {
-			colCache = new TIntObjectHashMap<>(
-				Constants.DEFAULT_CAPACITY,
-				Constants.DEFAULT_LOAD_FACTOR,
-				-1);
-			columns.put(key, colCache);
-		}
-		colCache.put(j, col);
-		return col;
+		var m = matrixOf(libId, matrix);
+		return m != null
+			? m.getColumn(j)
+			: new double[0];
 	}
 
-
 	private String keyOf(String libId, LibMatrix matrix) {
 		return libId + "::" + matrix.name();
 	}
-
-	private record MatrixFile(File file, boolean isSparse) {
-
-		static MatrixFile of(
-			LibraryDir dir, String libId, LibMatrix matrix) {
-
-			var lib = dir.getLibrary(libId).orElse(null);
-			if (lib == null)
-				return new MatrixFile(null, false);
-
-			var npy = new File(lib.folder(), matrix.name() + ".npy");
-			if (npy.exists()) {
-				return new MatrixFile(npy, false);
-			}
-
-			var npz = new File(lib.folder(), matrix.name() + ".npz");
-			return npz.exists()
-				? new MatrixFile(npz, true)
-				: new MatrixFile(null, false);
-		}
-
-		boolean isEmpty() {
-			return file == null || !file.exists();
-		}
-
-		public MatrixReader readFull() {
-			return isEmpty()
-				? null
-				: NpyMatrix.read(file);
-		}
-	}
-
 }
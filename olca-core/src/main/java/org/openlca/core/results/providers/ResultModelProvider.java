@@ -197,6 +197,11 @@ public class ResultModelProvider implements ResultProvider {
 		return 0;
 	}
 
+	@Override
+	public long byteSize() {
+		return ResultProvider.byteSizeOf(flowResults, impactResults);
+	}
+
 	private record FlowResults(EnviIndex index, double[] results) {
 
 		static FlowResults of(Result model) {
@@ -3,6 +3,9 @@ package org.openlca.core.results.providers;
 import java.util.Arrays;
 
 import org.openlca.core.matrix.Demand;
+import org.openlca.core.matrix.MatrixData;
+import org.openlca.core.matrix.format.EntryFunction;
+import org.openlca.core.matrix.format.MatrixReader;
 import org.openlca.core.matrix.index.EnviFlow;
 import org.openlca.core.matrix.index.ImpactIndex;
 import org.openlca.core.matrix.index.EnviIndex;
@@ -167,6 +170,21 @@ public interface ResultProvider {
 	 */
 	double[] techColumnOf(int techFlow);
 
+	/**
+	 * Iterates over the non-zero values `A[i,j]` of the column `j` of the
+	 * technology matrix `A` for the given technosphere flow `j`. Providers
+	 * with a sparse technology matrix should overwrite this, so that only the
+	 * stored entries of the column are visited.
+	 */
+	default void iterateTechColumn(int techFlow, EntryFunction fn) {
+		var column = techColumnOf(techFlow);
+		for (int i = 0; i < column.length; i++) {
+			if (column[i] != 0) {
+				fn.value(i, techFlow, column[i]);
+			}
+		}
+	}
+
 	/**
 	 * Get the unscaled value `A[i,j]` from the technology matrix `A` for the
 	 * technosphere flows `i` and `j`. For non-zero values, `j` is a process
@@ -196,6 +214,22 @@ public interface ResultProvider {
 	 */
 	double[] solutionOfOne(int techFlow);
 
+	/**
+	 * Returns the solutions `INV[:,j]` for the given technosphere flows, see
+	 * {@link #solutionOfOne(int)}. By default, this calls
+	 * {@link #solutionOfOne(int)} for each flow. Implementations that can
+	 * solve multiple right-hand sides at once should override this, so that
+	 * callers that need the solutions of a set of flows (e.g. the providers
+	 * of a node in an upstream tree) can prefetch them in one batch.
+	 */
+	default double[][] solutionsOfOne(int[] techFlows) {
+		var solutions = new double[techFlows.length][];
+		for (int k = 0; k < techFlows.length; k++) {
+			solutions[k] = solutionOfOne(techFlows[k]);
+		}
+		return solutions;
+	}
+
 	/**
 	 * Get the loop factor for the given technosphere flow. The loop factor `lf[j]`
 	 * describes the faction of the total requirements of a technosphere flow `j`
@@ -274,6 +308,20 @@ public interface ResultProvider {
 		return loop * t;
 	}
 
+	/**
+	 * Returns the total factors of the given technosphere flows, see
+	 * {@link #totalFactorOf(int)}. Implementations that solve the loop factors
+	 * on demand should override this method to calculate the missing loop
+	 * factors of the given flows in a batch.
+	 */
+	default double[] totalFactorsOf(int[] techFlows) {
+		var factors = new double[techFlows.length];
+		for (int k = 0; k < techFlows.length; k++) {
+			factors[k] = totalFactorOf(techFlows[k]);
+		}
+		return factors;
+	}
+
 	/**
 	 * Get the unscaled column `B[:,j]` for the technosphere flow `j` from the
 	 * intervention matrix `B`.
@@ -334,6 +382,35 @@ public interface ResultProvider {
 				: totals[enviFlow];
 	}
 
+	/**
+	 * Returns {@code true} when the rows of the intensity matrices (e.g.
+	 * {@link #totalFlowsOfOneRow(int)}) are calculated directly, e.g. with a
+	 * transposed solve or from a stored matrix. Otherwise, the default
+	 * implementations calculate all columns of the intensity matrices to get
+	 * a row, and callers that only need a few values of a row should get them
+	 * column by column.
+	 */
+	default boolean hasDirectRows() {
+		return false;
+	}
+
+	/**
+	 * Returns the total results (direct + upstream) of the elementary flow `i`
+	 * related to 1 unit of each technosphere flow in the system. This is the
+	 * row `M[i,:]` of the intensity matrix `M`. Implementations based on a
+	 * factorization of `A` can calculate it with a single solve of the
+	 * transposed system `A^T * x = B[i,:]^T` instead of a solve for each
+	 * technosphere flow; thus, this should be preferred when the results of an
+	 * elementary flow are needed for all (or many) technosphere flows.
+	 */
+	default double[] totalFlowsOfOneRow(int enviFlow) {
+		var row = new double[techIndex().size()];
+		for (int j = 0; j < row.length; j++) {
+			row[j] = totalFlowOfOne(enviFlow, j);
+		}
+		return row;
+	}
+
 	/**
 	 * Returns the total flow results (direct + upstream) related to the total
 	 * requirements of the technosphere flow `j` in the system. This is the
@@ -462,6 +539,22 @@ public interface ResultProvider {
 				: impacts[indicator];
 	}
 
+	/**
+	 * Returns the total results (direct + upstream) of the impact category `k`
+	 * related to 1 unit of each technosphere flow in the system. This is the
+	 * row `N[k,:]` of the impact intensity matrix `N`, which can be calculated
+	 * by solving the transposed system `A^T * x = (C * B)[k,:]^T`.
+	 *
+	 * @see #totalFlowsOfOneRow(int)
+	 */
+	default double[] totalImpactsOfOneRow(int indicator) {
+		var row = new double[techIndex().size()];
+		for (int j = 0; j < row.length; j++) {
+			row[j] = totalImpactOfOne(indicator, j);
+		}
+		return row;
+	}
+
 	/**
 	 * Returns the total impact assessment results (direct + upstream) related to
 	 * the total requirements of the technosphere flow `j` in the system. This is
@@ -511,6 +604,22 @@ public interface ResultProvider {
 	 */
 	double totalCostsOfOne(int techFlow);
 
+	/**
+	 * Returns the cost intensity vector `o = k * INV` with the total costs
+	 * (direct + upstream) related to 1 unit of each technosphere flow in the
+	 * system. It can be calculated by solving the transposed system
+	 * `A^T * o^T = k^T`.
+	 *
+	 * @see #totalFlowsOfOneRow(int)
+	 */
+	default double[] totalCostsOfOneRow() {
+		var row = new double[techIndex().size()];
+		for (int j = 0; j < row.length; j++) {
+			row[j] = totalCostsOfOne(j);
+		}
+		return row;
+	}
+
 	/**
 	 * Returns the total cost result (direct + upstream) related to the total
 	 * requirements of the technosphere flow `j` in the system. This is the entry
@@ -572,6 +681,43 @@ public interface ResultProvider {
 				: Arrays.copyOf(values, values.length);
 	}
 
+	/**
+	 * Releases resources of this provider that are not managed by the garbage
+	 * collector, like native or shared factorizations of the technology matrix.
+	 * The provider should not be used anymore after this method was called.
+	 */
+	default void dispose() {
+	}
+
+	/**
+	 * Returns the estimated number of bytes of the matrices and vectors that
+	 * this provider holds on the heap. Native memory, like the memory of a
+	 * factorization, and cached solutions are not included.
+	 */
+	default long byteSize() {
+		return 0;
+	}
+
+	/**
+	 * Returns the sum of the byte sizes of the given matrices, vectors, matrix
+	 * data, and providers. Other values and {@code null} are ignored.
+	 */
+	static long byteSizeOf(Object... values) {
+		long size = 0;
+		for (var value : values) {
+			if (value instanceof double[] vector) {
+				size += 8L * vector.length;
+			} else if (value instanceof MatrixReader matrix) {
+				size += matrix.byteSize();
+			} else if (value instanceof MatrixData data) {
+				size += data.byteSize();
+			} else if (value instanceof ResultProvider provider) {
+				size += provider.byteSize();
+			}
+		}
+		return size;
+	}
+
 	/**
 	 * Switches the sign for input-flows otherwise the value is returned
 	 * unchanged. Internally, values and characterization factors of input-flows
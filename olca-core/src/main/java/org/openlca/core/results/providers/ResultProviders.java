@@ -1,5 +1,6 @@
 package org.openlca.core.results.providers;
 
+import org.openlca.core.matrix.solvers.JavaSparseSolver;
 import org.openlca.core.results.providers.libblocks.LibraryInversionSolver;
 
 public final class ResultProviders {
@@ -26,6 +27,14 @@ public final class ResultProviders {
 		if (data.techMatrix.rows() < smallLimit)
 			return InversionResult.of(context).calculate().provider();
 
+		// without native libraries, large sparse systems are solved with a
+		// sparse LU factorization in pure Java
+		if (!solver.isNative()
+			&& !solver.hasSparseSupport()
+			&& data.techMatrix.isSparse()) {
+			context.solver(new JavaSparseSolver());
+		}
+
 		// solve via factorization by default
 		return FactorizationSolver.solve(context);
 	}
@@ -189,4 +189,10 @@ public class SimpleResultProvider implements ResultProvider {
 	public double totalCosts() {
 		return 0;
 	}
+
+	@Override
+	public long byteSize() {
+		return ResultProvider.byteSizeOf(
+			scalingVector, totalRequirements, totalFlows, totalImpacts);
+	}
 }
@@ -0,0 +1,241 @@
+package org.openlca.core.results.providers;
+
+import java.lang.ref.Cleaner;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache for the result vectors (solutions, columns and rows of intensity
+ * matrices) that are calculated on demand in a result provider. The cache is
+ * bounded by the number of bytes of the cached vectors; when this bound is
+ * exceeded, the least recently used vectors are removed. In addition, all
+ * caches share a total budget of bytes (see {@link #setTotalSize(long)}): when
+ * a vector is put into a cache and the vectors of all caches would exceed
+ * this budget, the least recently used vectors of that cache are removed.
+ * A cache can only release its own vectors; when the vectors of the other
+ * caches leave no space for a new vector, it is not cached. With this,
+ * multiple results that are held at the same time, e.g. on a server, cannot
+ * take more memory than the shared budget. The bytes of a cache are released
+ * from the budget when it is cleared or garbage collected. The cache counts
+ * its hits, misses, evictions, and rejected vectors so that it can be
+ * monitored. Like the result providers that use it, a cache instance is not
+ * thread-safe.
+ */
+public final class SolutionCache {
+
+	/**
+	 * The kind of a cached vector. Vectors of different kinds share the same
+	 * cache but have separate keys.
+	 */
+	public enum Kind {
+
+		/** A column of the inverse of the technology matrix. */
+		SOLUTION,
+
+		/** A column of the flow intensity matrix. */
+		FLOW_COLUMN,
+
+		/** A row of the flow intensity matrix. */
+		FLOW_ROW,
+
+		/** A column of the impact intensity matrix. */
+		IMPACT_COLUMN,
+
+		/** A row of the impact intensity matrix. */
+		IMPACT_ROW,
+	}
+
+	private static final Cleaner cleaner = Cleaner.create();
+	private static final AtomicLong totalBytes = new AtomicLong();
+	private static volatile long maxTotalBytes =
+		Runtime.getRuntime().maxMemory() / 4;
+
+	private final long maxBytes;
+	private final LinkedHashMap<Long, double[]> vectors;
+	private final AtomicLong bytes = new AtomicLong();
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long rejections;
+
+	private SolutionCache(long maxBytes) {
+		this.maxBytes = Math.max(0, maxBytes);
+		this.vectors = new LinkedHashMap<>(16, 0.75f, true);
+		cleaner.register(this, releaseOf(bytes));
+	}
+
+	/**
+	 * The cleaning action must not reference the cache, otherwise it would
+	 * be never garbage collected.
+	 */
+	private static Runnable releaseOf(AtomicLong bytes) {
+		return () -> totalBytes.addAndGet(-bytes.getAndSet(0));
+	}
+
+	/**
+	 * Creates a cache that can hold vectors up to the given number of bytes.
+	 * A value of 0 disables the cache.
+	 */
+	public static SolutionCache of(long maxBytes) {
+		return new SolutionCache(maxBytes);
+	}
+
+	/**
+	 * Returns the default size of a cache in bytes, which is the total budget
+	 * that is shared by all caches.
+	 */
+	public static long defaultSize() {
+		return maxTotalBytes;
+	}
+
+	/**
+	 * Sets the total number of bytes that all caches can hold together. The
+	 * default is a quarter of the maximum heap size of the JVM.
+	 */
+	public static void setTotalSize(long bytes) {
+		maxTotalBytes = Math.max(0, bytes);
+	}
+
+	/**
+	 * Returns the number of bytes that are currently held by all caches.
+	 */
+	public static long totalBytes() {
+		return totalBytes.get();
+	}
+
+	/**
+	 * Returns the cached vector of the given kind and index, or {@code null}
+	 * if it is not cached.
+	 */
+	public double[] get(Kind kind, int index) {
+		var v = vectors.get(keyOf(kind, index));
+		if (v != null) {
+			hits++;
+		} else {
+			misses++;
+		}
+		return v;
+	}
+
+	/**
+	 * Like {@link #get(Kind, int)} but without counting a hit or miss. This
+	 * can be used to check if a vector is already available before another
+	 * way of calculating a value is chosen.
+	 */
+	public double[] peek(Kind kind, int index) {
+		return vectors.get(keyOf(kind, index));
+	}
+
+	/**
+	 * Puts the given vector into the cache and removes the least recently used
+	 * vectors when the cache is full; the new vector is never removed by this.
+	 * Vectors that are larger than the cache or that would not fit into the
+	 * shared budget even if all vectors of this cache were removed are not
+	 * cached.
+	 */
+	public void put(Kind kind, int index, double[] vector) {
+		if (vector == null)
+			return;
+		long size = sizeOf(vector);
+		long key = keyOf(kind, index);
+		long others = totalBytes.get() - bytes.get();
+		if (size > maxBytes || others + size > maxTotalBytes) {
+			rejections++;
+			return;
+		}
+		var old = vectors.remove(key);
+		if (old != null) {
+			add(-sizeOf(old));
+		}
+		var it = vectors.entrySet().iterator();
+		while (!canAdd(size) && it.hasNext()) {
+			var eldest = it.next();
+			add(-sizeOf(eldest.getValue()));
+			it.remove();
+			evictions++;
+		}
+		vectors.put(key, vector);
+		add(size);
+	}
+
+	private boolean canAdd(long size) {
+		return bytes.get() + size <= maxBytes
+			&& totalBytes.get() + size <= maxTotalBytes;
+	}
+
+	private void add(long delta) {
+		bytes.addAndGet(delta);
+		totalBytes.addAndGet(delta);
+	}
+
+	/**
+	 * Removes all vectors from the cache and releases their bytes from the
+	 * shared budget. The counters are not reset.
+	 */
+	public void clear() {
+		vectors.clear();
+		totalBytes.addAndGet(-bytes.getAndSet(0));
+	}
+
+	public long maxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Returns the number of bytes of the currently cached vectors.
+	 */
+	public long bytes() {
+		return bytes.get();
+	}
+
+	/**
+	 * Returns the number of currently cached vectors.
+	 */
+	public int size() {
+		return vectors.size();
+	}
+
+	public long hits() {
+		return hits;
+	}
+
+	public long misses() {
+		return misses;
+	}
+
+	public long evictions() {
+		return evictions;
+	}
+
+	/**
+	 * Returns the number of vectors that were not cached because they did not
+	 * fit into this cache or into the shared budget.
+	 */
+	public long rejections() {
+		return rejections;
+	}
+
+	@Override
+	public String toString() {
+		return "SolutionCache{size=" + size()
+			+ ", bytes=" + bytes.get()
+			+ ", maxBytes=" + maxBytes
+			+ ", hits=" + hits
+			+ ", misses=" + misses
+			+ ", evictions=" + evictions
+			+ ", rejections=" + rejections + "}";
+	}
+
+	private static long keyOf(Kind kind, int index) {
+		return ((long) kind.ordinal() << 32) | (index & 0xffffffffL);
+	}
+
+	/**
+	 * The approximated size of a vector on the heap: an array header of 16
+	 * bytes plus 8 bytes per value.
+	 */
+	private static long sizeOf(double[] vector) {
+		return 16L + 8L * vector.length;
+	}
+}
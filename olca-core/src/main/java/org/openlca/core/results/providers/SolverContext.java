@@ -5,6 +5,7 @@ import org.openlca.core.database.IDatabase;
 import org.openlca.core.library.LibraryDir;
 import org.openlca.core.matrix.Demand;
 import org.openlca.core.matrix.MatrixData;
+import org.openlca.core.matrix.solvers.FactorizationCache;
 import org.openlca.core.matrix.solvers.MatrixSolver;
 
 public class SolverContext {
@@ -14,6 +15,8 @@ public class SolverContext {
 	private LibraryDir libDir;
 	private LibraryCache libraries;
 	private MatrixSolver solver;
+	private FactorizationCache factorizations;
+	private long cacheSize = -1;
 
 	private SolverContext(IDatabase db, MatrixData matrixData) {
 		this.db = db;
@@ -79,4 +82,34 @@ public class SolverContext {
 		}
 		return solver;
 	}
+
+	/**
+	 * Sets a cache from which the factorization of the technology matrix is
+	 * taken when an equal matrix was already factorized with the same solver
+	 * type (see {@link FactorizationCache}).
+	 */
+	public SolverContext factorizations(FactorizationCache cache) {
+		this.factorizations = cache;
+		return this;
+	}
+
+	public FactorizationCache factorizations() {
+		return factorizations;
+	}
+
+	/**
+	 * Sets the maximum number of bytes of the result vectors that a result
+	 * provider caches when they are calculated on demand (see
+	 * {@link SolutionCache}). A value of 0 disables these caches.
+	 */
+	public SolverContext cacheSize(long bytes) {
+		this.cacheSize = bytes;
+		return this;
+	}
+
+	public long cacheSize() {
+		return cacheSize >= 0
+			? cacheSize
+			: SolutionCache.defaultSize();
+	}
 }
@@ -11,6 +11,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.library.LibraryDir;
 import org.openlca.core.math.SystemCalculator;
+import org.openlca.core.matrix.MatrixDataCache;
+import org.openlca.core.matrix.solvers.FactorizationCache;
 import org.openlca.core.model.CalculationSetup;
 import org.openlca.core.results.LcaResult;
 import org.slf4j.LoggerFactory;
@@ -21,6 +23,8 @@ public class CalculationQueue {
 	private final ConcurrentMap<String, ResultState> states;
 	private final ExecutorService threads;
 	private LibraryDir libDir;
+	private MatrixDataCache cache;
+	private FactorizationCache factorizations;
 	private Cleaner cleaner;
 
 	public CalculationQueue(IDatabase db, int threadCount) {
@@ -34,9 +38,32 @@ public class CalculationQueue {
 		return this;
 	}
 
+	/**
+	 * Sets a cache for the matrix data of the calculated setups, so that
+	 * repeated calculations of the same product system, e.g. with different
+	 * LCIA methods, do not need to build the matrices again.
+	 */
+	public CalculationQueue withCache(MatrixDataCache cache) {
+		this.cache = cache;
+		return this;
+	}
+
+	/**
+	 * Sets a cache for the factorizations of technology matrices, so that
+	 * equal matrices are factorized only once. The factorizations are shared
+	 * by the results and released when the results are disposed.
+	 */
+	public CalculationQueue withFactorizations(FactorizationCache cache) {
+		this.factorizations = cache;
+		return this;
+	}
+
 	public static CalculationQueue of(ServerConfig config) {
 		var queue = new CalculationQueue(config.db(), config.threadCount());
 		queue.withLibraryDir(config.dataDir().getLibraryDir());
+		queue.withCache(MatrixDataCache.of(config.db()));
+		queue.withFactorizations(
+				FactorizationCache.of(Math.max(2, config.threadCount())));
 		if (config.timeout() > 0) {
 			queue.withTimeout(config.timeout(), TimeUnit.MINUTES);
 		}
@@ -66,6 +93,12 @@ public class CalculationQueue {
 		if (cleaner != null) {
 			cleaner.halt();
 		}
+		if (cache != null) {
+			cache.dispose();
+		}
+		if (factorizations != null) {
+			factorizations.clear();
+		}
 		threads.shutdown();
 		return threads;
 	}
@@ -87,7 +120,16 @@ public class CalculationQueue {
 	 * was scheduled, it will not be performed.
 	 */
 	public void dispose(String id) {
-		states.remove(id);
+		disposeResultOf(states.remove(id));
+	}
+
+	private static void disposeResultOf(ResultState state) {
+		if (state == null || state.simulator() != null)
+			return;
+		var result = state.result();
+		if (result != null) {
+			result.dispose();
+		}
 	}
 
 	/**
@@ -140,6 +182,8 @@ public class CalculationQueue {
 				} else {
 					result = new SystemCalculator(db)
 							.withLibraryDir(libDir)
+							.withCache(cache)
+							.withFactorizations(factorizations)
 							.calculate(state.setup());
 				}
 				var nextState = state.updateResult(result);
@@ -183,8 +227,9 @@ public class CalculationQueue {
 				long limit = System.currentTimeMillis() - timeout;
 				for (var e : queue.states.entrySet()) {
 					var state = e.getValue();
-					if (state.time() < limit) {
-						queue.states.remove(e.getKey(), e.getValue());
+					if (state.time() < limit
+							&& queue.states.remove(e.getKey(), e.getValue())) {
+						disposeResultOf(state);
 					}
 				}
 			}
@@ -0,0 +1,468 @@
+package org.openlca.core.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import org.openlca.core.results.LcaResult;
+import org.openlca.core.results.providers.ResultProvider;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A thread-safe store of results (or other objects) of a server that are
+ * referenced by an ID. The store can be bounded by the number and the
+ * estimated heap weight of the stored objects. When a bound is exceeded, the
+ * least recently used objects are evicted. With an idle timeout, objects
+ * that were not accessed within that time are removed. The timeout is checked
+ * when the store is accessed, so no extra thread is needed for this. Objects
+ * that the store drops are passed to an optional disposer, e.g. to free the
+ * native memory of results. The IDs of the dropped objects are remembered
+ * for a while, so that a server can tell its clients that a result was
+ * evicted (see {@link #isEvicted(String)}) instead of just not finding it.
+ * <p>
+ * An object that is used by a request thread should be pinned with
+ * {@link #acquire(String)}. When the store drops a pinned object, it is
+ * disposed when the last lease of it is closed.
+ */
+public final class ResultStore<T> {
+
+	private final ConcurrentHashMap<String, Entry<T>> entries;
+	private final AtomicLong weight = new AtomicLong();
+
+	/** A logical clock for the least-recently-used order of the entries. */
+	private final AtomicLong clock = new AtomicLong();
+	private final Object evictionLock = new Object();
+
+	private volatile int maxCount = Integer.MAX_VALUE;
+	private volatile long maxWeight = Long.MAX_VALUE;
+	private volatile ToLongFunction<? super T> weigher = $ -> 0;
+	private volatile long idleTimeout;
+	private volatile Consumer<? super T> disposer = $ -> {};
+	private volatile long lastSweep;
+
+	/**
+	 * The IDs of the evicted objects, in the order of their eviction. Only the
+	 * last {@link #MAX_EVICTED_IDS} IDs are kept.
+	 */
+	private final LinkedHashMap<String, Boolean> evicted;
+	private static final int MAX_EVICTED_IDS = 10_000;
+
+	private ResultStore() {
+		entries = new ConcurrentHashMap<>();
+		evicted = new LinkedHashMap<>() {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> e) {
+				return size() > MAX_EVICTED_IDS;
+			}
+		};
+	}
+
+	/**
+	 * Creates an unbounded store without idle timeout.
+	 */
+	public static <T> ResultStore<T> create() {
+		return new ResultStore<>();
+	}
+
+	/**
+	 * Creates a store with the idle timeout of the given configuration and a
+	 * weight limit of half of the maximum heap size, where the weight of the
+	 * stored objects is estimated with {@link #weightOf(Object)}. Results
+	 * that are dropped by the store are disposed with
+	 * {@link #disposeOf(Object)}.
+	 */
+	public static <T> ResultStore<T> of(ServerConfig config) {
+		var store = new ResultStore<T>()
+				.withMaxWeight(Runtime.getRuntime().maxMemory() / 2,
+						ResultStore::weightOf)
+				.withDisposer(ResultStore::disposeOf);
+		if (config.timeout() > 0) {
+			store.withIdleTimeout(config.timeout(), TimeUnit.MINUTES);
+		}
+		return store;
+	}
+
+	public ResultStore<T> withMaxCount(int maxCount) {
+		this.maxCount = Math.max(0, maxCount);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum weight of the objects in the store (e.g. in bytes). The
+	 * weight of an object is calculated once, when it is added to the store.
+	 */
+	public ResultStore<T> withMaxWeight(
+			long maxWeight, ToLongFunction<? super T> weigher) {
+		this.maxWeight = Math.max(0, maxWeight);
+		this.weigher = weigher;
+		return this;
+	}
+
+	/**
+	 * Sets the time after which objects that were not accessed are removed. A
+	 * value of {@code <= 0} means no timeout.
+	 */
+	public ResultStore<T> withIdleTimeout(long time, TimeUnit unit) {
+		this.idleTimeout = time > 0
+				? unit.toMillis(time)
+				: 0;
+		return this;
+	}
+
+	/**
+	 * Sets a function that is called for each object that the store drops:
+	 * when it is evicted, removed because of the idle timeout, replaced by
+	 * another object with the same ID, disposed with {@link #dispose(String)},
+	 * or when the store is cleared. A pinned object is passed to this function
+	 * when its last lease is closed. It is not called for objects that are
+	 * removed with {@link #remove(String)}, as these are returned to the
+	 * caller.
+	 */
+	public ResultStore<T> withDisposer(Consumer<? super T> disposer) {
+		this.disposer = disposer != null
+				? disposer
+				: $ -> {};
+		return this;
+	}
+
+	/**
+	 * Adds the given object to the store. Returns the ID for chaining. The
+	 * added object is never evicted by this call, even when it exceeds the
+	 * bounds of the store alone.
+	 */
+	public String put(String id, T value) {
+		if (id == null || value == null)
+			return id;
+		sweep();
+		var entry = new Entry<>(
+				value, Math.max(0, weigher.applyAsLong(value)), clock.incrementAndGet());
+		var old = entries.put(id, entry);
+		weight.addAndGet(entry.weight);
+		if (old != null) {
+			weight.addAndGet(-old.weight);
+			if (old.value != value) {
+				release(id, old);
+			}
+		}
+		forgetEvicted(id);
+		evict(entry);
+		return id;
+	}
+
+	/**
+	 * Returns the object with the given ID or {@code null} if there is no
+	 * such object in the store.
+	 */
+	public T get(String id) {
+		if (id == null)
+			return null;
+		sweep();
+		var entry = entries.get(id);
+		if (entry == null)
+			return null;
+		entry.touch(clock.incrementAndGet());
+		return entry.value;
+	}
+
+	/**
+	 * Pins the object with the given ID and returns a lease of it, or
+	 * {@code null} if there is no such object in the store. A pinned object is
+	 * not disposed while the lease is open, also when the store drops it in
+	 * the meantime. The lease must be closed when the object is not used
+	 * anymore, e.g. in a try-with-resources block.
+	 */
+	public Lease<T> acquire(String id) {
+		if (id == null)
+			return null;
+		sweep();
+		var entry = entries.get(id);
+		if (entry == null || !entry.pin())
+			return null;
+		entry.touch(clock.incrementAndGet());
+		return new Lease<>(this, id, entry);
+	}
+
+	/**
+	 * Removes the object with the given ID from the store and returns it.
+	 */
+	public T remove(String id) {
+		if (id == null)
+			return null;
+		var entry = entries.remove(id);
+		forgetEvicted(id);
+		if (entry == null)
+			return null;
+		weight.addAndGet(-entry.weight);
+		return entry.value;
+	}
+
+	/**
+	 * Removes the object with the given ID from the store and passes it to the
+	 * disposer of the store, as soon as it is not pinned anymore. Returns
+	 * {@code false} if there was no such object in the store.
+	 */
+	public boolean dispose(String id) {
+		if (id == null)
+			return false;
+		var entry = entries.remove(id);
+		forgetEvicted(id);
+		if (entry == null)
+			return false;
+		weight.addAndGet(-entry.weight);
+		release(id, entry);
+		return true;
+	}
+
+	public boolean contains(String id) {
+		return id != null && entries.containsKey(id);
+	}
+
+	/**
+	 * Returns true if the object with the given ID was evicted from the store,
+	 * because of its bounds or the idle timeout, and was not added again.
+	 */
+	public boolean isEvicted(String id) {
+		if (id == null)
+			return false;
+		synchronized (evicted) {
+			return evicted.containsKey(id);
+		}
+	}
+
+	/**
+	 * Returns the number of objects that are currently held in memory.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the sum of the weights of the objects in memory.
+	 */
+	public long weight() {
+		return weight.get();
+	}
+
+	/**
+	 * Removes all objects from the store.
+	 */
+	public void clear() {
+		for (var id : entries.keySet()) {
+			dispose(id);
+		}
+		synchronized (evicted) {
+			evicted.clear();
+		}
+	}
+
+	/**
+	 * Removes the objects that were not accessed within the idle timeout.
+	 */
+	public void removeIdle() {
+		long timeout = idleTimeout;
+		if (timeout <= 0)
+			return;
+		long limit = System.currentTimeMillis() - timeout;
+		for (var e : entries.entrySet()) {
+			var entry = e.getValue();
+			if (entry.lastAccess < limit && entries.remove(e.getKey(), entry)) {
+				weight.addAndGet(-entry.weight);
+				drop(e.getKey(), entry);
+			}
+		}
+	}
+
+	/** Removes idle objects at most every half timeout. */
+	private void sweep() {
+		long timeout = idleTimeout;
+		if (timeout <= 0)
+			return;
+		long now = System.currentTimeMillis();
+		if (now - lastSweep < timeout / 2)
+			return;
+		lastSweep = now;
+		removeIdle();
+	}
+
+	/**
+	 * Evicts the least recently used objects, except the given entry that was
+	 * just added, until the store is within its bounds.
+	 */
+	private void evict(Entry<T> added) {
+		if (entries.size() <= maxCount && weight.get() <= maxWeight)
+			return;
+		synchronized (evictionLock) {
+			while (entries.size() > maxCount || weight.get() > maxWeight) {
+				Map.Entry<String, Entry<T>> lru = null;
+				for (var e : entries.entrySet()) {
+					var entry = e.getValue();
+					if (entry == added)
+						continue;
+					if (lru == null || entry.lastUse < lru.getValue().lastUse) {
+						lru = e;
+					}
+				}
+				if (lru == null)
+					return;
+				var id = lru.getKey();
+				var entry = lru.getValue();
+				if (!entries.remove(id, entry))
+					continue;
+				weight.addAndGet(-entry.weight);
+				drop(id, entry);
+			}
+		}
+	}
+
+	/**
+	 * Releases an evicted entry and remembers its ID.
+	 */
+	private void drop(String id, Entry<T> entry) {
+		synchronized (evicted) {
+			evicted.put(id, Boolean.TRUE);
+		}
+		release(id, entry);
+	}
+
+	/**
+	 * Disposes the object of an entry that was removed from the store, or
+	 * defers this to the closing of its last lease when it is pinned.
+	 */
+	private void release(String id, Entry<T> entry) {
+		if (entry.drop()) {
+			runDisposer(id, entry.value);
+		}
+	}
+
+	private void forgetEvicted(String id) {
+		synchronized (evicted) {
+			evicted.remove(id);
+		}
+	}
+
+	private void runDisposer(String id, T value) {
+		try {
+			disposer.accept(value);
+		} catch (Exception e) {
+			var log = LoggerFactory.getLogger(getClass());
+			log.error("failed to dispose object " + id, e);
+		}
+	}
+
+	/**
+	 * Disposes the given object if it is a result, which frees its native
+	 * resources (e.g. factorizations). Other objects are ignored.
+	 */
+	public static void disposeOf(Object obj) {
+		if (obj instanceof LcaResult result) {
+			result.dispose();
+		}
+	}
+
+	/**
+	 * Estimates the heap weight of the given object in bytes. For results,
+	 * this is the storage size of the matrices and vectors of the result
+	 * provider (see {@link ResultProvider#byteSize()}) plus the entries of the
+	 * matrix indices; for other objects, a small constant is returned.
+	 */
+	public static long weightOf(Object obj) {
+		if (!(obj instanceof LcaResult result))
+			return 1024;
+		var provider = result.provider();
+		long n = provider.techIndex().size();
+		long m = provider.hasFlows()
+				? provider.enviIndex().size()
+				: 0;
+		long k = provider.hasImpacts()
+				? provider.impactIndex().size()
+				: 0;
+		return 1024 + 64 * (n + m + k) + provider.byteSize();
+	}
+
+	/**
+	 * A pinned object of the store. Closing the lease unpins the object; when
+	 * the store dropped the object in the meantime and this was its last
+	 * lease, the object is disposed then.
+	 */
+	public static final class Lease<T> implements AutoCloseable {
+
+		private final ResultStore<T> store;
+		private final String id;
+		private final Entry<T> entry;
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		private Lease(ResultStore<T> store, String id, Entry<T> entry) {
+			this.store = store;
+			this.id = id;
+			this.entry = entry;
+		}
+
+		public T value() {
+			return entry.value;
+		}
+
+		@Override
+		public void close() {
+			if (closed.getAndSet(true))
+				return;
+			if (entry.unpin()) {
+				store.runDisposer(id, entry.value);
+			}
+		}
+	}
+
+	private static final class Entry<T> {
+
+		final T value;
+		final long weight;
+
+		/** The time of the last access, for the idle timeout. */
+		volatile long lastAccess;
+
+		/** The logical time of the last access, for the LRU order. */
+		volatile long lastUse;
+
+		// guarded by this entry
+		private int pins;
+		private boolean dropped;
+
+		Entry(T value, long weight, long tick) {
+			this.value = value;
+			this.weight = weight;
+			this.lastAccess = System.currentTimeMillis();
+			this.lastUse = tick;
+		}
+
+		void touch(long tick) {
+			lastAccess = System.currentTimeMillis();
+			lastUse = tick;
+		}
+
+		/** Returns false if the entry was already dropped from the store. */
+		synchronized boolean pin() {
+			if (dropped)
+				return false;
+			pins++;
+			return true;
+		}
+
+		/** Returns true if the value should be disposed now. */
+		synchronized boolean unpin() {
+			pins--;
+			return dropped && pins == 0;
+		}
+
+		/** Marks the entry as dropped and returns true if it is not pinned. */
+		synchronized boolean drop() {
+			if (dropped)
+				return false;
+			dropped = true;
+			return pins == 0;
+		}
+	}
+}
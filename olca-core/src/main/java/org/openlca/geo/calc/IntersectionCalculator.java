@@ -4,13 +4,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
 import org.openlca.geo.geojson.Feature;
 import org.openlca.geo.geojson.FeatureCollection;
 import org.openlca.geo.geojson.Geometry;
 import org.openlca.util.Pair;
 
+import gnu.trove.list.array.TIntArrayList;
+
 /**
  * Calculates the intersections of a geometry $g$ (typically a location in
  * an openLCA database) with a given feature collection $F$ (e.g. features
@@ -33,6 +36,14 @@ public class IntersectionCalculator {
 
 	private final Projection projection;
 
+	/**
+	 * A spatial index of the bounding boxes of the geometries that maps to
+	 * the positions of the geometries in the respective array. The index is
+	 * built when the calculator is created; it is read-only after this and
+	 * can be queried from multiple threads.
+	 */
+	private final STRtree index;
+
 	private IntersectionCalculator(
 			Feature[] features,
 			org.locationtech.jts.geom.Geometry[] geometries,
@@ -40,6 +51,11 @@ public class IntersectionCalculator {
 		this.features = features;
 		this.geometries = geometries;
 		this.projection = projection;
+		this.index = new STRtree();
+		for (int i = 0; i < geometries.length; i++) {
+			index.insert(geometries[i].getEnvelopeInternal(), i);
+		}
+		index.build();
 	}
 
 	public static IntersectionCalculator on(FeatureCollection coll) {
@@ -85,7 +101,12 @@ public class IntersectionCalculator {
 	 * with the given geometry.
 	 */
 	public List<Pair<Feature, Geometry>> calculate(Geometry g) {
-		return jts(g).map(p -> Pair.of(p.first, JTS.toGeoJSON(p.second)))
+		var jts = toJTS(g);
+		if (jts == null)
+			return new ArrayList<>();
+		return intersections(jts, true)
+				.stream()
+				.map(p -> Pair.of(p.first, JTS.toGeoJSON(p.second)))
 				.filter(p -> p.second != null)
 				.collect(Collectors.toList());
 	}
@@ -102,7 +123,35 @@ public class IntersectionCalculator {
 	 * </ol>
 	 */
 	public List<Pair<Feature, Double>> shares(Geometry g) {
-		List<Pair<Feature, org.locationtech.jts.geom.Geometry>> s = jts(g).toList();
+		var jts = toJTS(g);
+		if (jts == null)
+			return new ArrayList<>();
+		return sharesOf(intersections(jts, true));
+	}
+
+	/**
+	 * Calculates the intersection shares of the geometries in F with each of
+	 * the given geometries, see {@link #shares(Geometry)}. The shares of the
+	 * geometry at position i are returned at the same position in the result.
+	 * The geometries are processed in parallel, which is typically faster
+	 * than calling {@link #shares(Geometry)} for each geometry when there are
+	 * many geometries (e.g. the locations of a database).
+	 */
+	public List<List<Pair<Feature, Double>>> shares(List<Geometry> gs) {
+		if (gs == null)
+			return new ArrayList<>();
+		return gs.parallelStream()
+				.map(g -> {
+					var jts = toJTS(g);
+					return jts == null
+							? new ArrayList<Pair<Feature, Double>>()
+							: sharesOf(intersections(jts, false));
+				})
+				.collect(Collectors.toList());
+	}
+
+	private List<Pair<Feature, Double>> sharesOf(
+			List<Pair<Feature, org.locationtech.jts.geom.Geometry>> s) {
 
 		// get the maximum dimension
 		int maxDim = s.stream().reduce(0,
@@ -111,19 +160,18 @@ public class IntersectionCalculator {
 		);
 
 		// calculate the shares
-		List<Pair<Feature, Double>> shares = s
-				.parallelStream()
-				.map(p -> {
-					double a = switch (maxDim) {
-						case 0 -> p.second.getNumGeometries();
-						case 1 -> p.second.getLength();
-						case 2 -> p.second.getArea();
-						default -> 0;
-					};
-					return Pair.of(p.first, a);
-				})
-				.filter(p -> p.second != null && p.second > 0)
-				.collect(Collectors.toList());
+		List<Pair<Feature, Double>> shares = new ArrayList<>();
+		for (var p : s) {
+			double a = switch (maxDim) {
+				case 0 -> p.second.getNumGeometries();
+				case 1 -> p.second.getLength();
+				case 2 -> p.second.getArea();
+				default -> 0;
+			};
+			if (a > 0) {
+				shares.add(Pair.of(p.first, a));
+			}
+		}
 
 		if (shares.isEmpty())
 			return shares;
@@ -141,28 +189,45 @@ public class IntersectionCalculator {
 	}
 
 	/**
-	 * Calculates the intersection geometries based on JTS geometries and
-	 * returns the non-empty intersections.
+	 * Converts the given geometry into a JTS geometry and applies the
+	 * projection of this calculator on it.
 	 */
-	private Stream<Pair<Feature, org.locationtech.jts.geom.Geometry>> jts(
-			Geometry g) {
+	private org.locationtech.jts.geom.Geometry toJTS(Geometry g) {
 		if (g == null)
-			return Stream.empty();
-		org.locationtech.jts.geom.Geometry jts;
-		if (projection == null) {
-			jts = JTS.fromGeoJSON(g);
-		} else {
-			Geometry clone = g.copy();
-			projection.project(clone);
-			jts = JTS.fromGeoJSON(clone);
+			return null;
+		if (projection == null)
+			return JTS.fromGeoJSON(g);
+		Geometry clone = g.copy();
+		projection.project(clone);
+		return JTS.fromGeoJSON(clone);
+	}
+
+	/**
+	 * Calculates the non-empty intersections of the given JTS geometry with
+	 * the geometries of this calculator. Only the geometries of which the
+	 * bounding boxes intersect with the bounding box of the given geometry are
+	 * tested, and the given geometry is prepared for these tests. The
+	 * intersections are returned in the order of the features.
+	 */
+	private List<Pair<Feature, org.locationtech.jts.geom.Geometry>> intersections(
+			org.locationtech.jts.geom.Geometry jts, boolean parallel) {
+		var candidates = new TIntArrayList();
+		index.query(jts.getEnvelopeInternal(),
+				item -> candidates.add((Integer) item));
+		if (candidates.isEmpty())
+			return new ArrayList<>();
+		candidates.sort();
+		var prepared = PreparedGeometryFactory.prepare(jts);
+		var stream = IntStream.of(candidates.toArray());
+		if (parallel) {
+			stream = stream.parallel();
 		}
-		if (jts == null)
-			return Stream.empty();
-		return IntStream.range(0, features.length)
-				.parallel()
+		return stream
+				.filter(i -> prepared.intersects(geometries[i]))
 				.mapToObj(i -> Pair.of(
 						features[i], geometries[i].intersection(jts)))
-				.filter(p -> p.second != null && !p.second.isEmpty());
+				.filter(p -> p.second != null && !p.second.isEmpty())
+				.collect(Collectors.toList());
 	}
 
 }
@@ -0,0 +1,202 @@
+package org.openlca.geo.calc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.precision.GeometryPrecisionReducer;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.geo.geojson.Feature;
+import org.openlca.geo.geojson.GeoJSON;
+import org.openlca.geo.geojson.Geometry;
+import org.openlca.util.Pair;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Contains the decoded geometries of the locations of a database together
+ * with a spatial index of their bounding boxes. The geometries are read and
+ * decoded only once, in parallel, when an instance is created; optionally,
+ * their precision is reduced to a number of decimal places. An instance is a
+ * read-only snapshot of the locations that can be queried from multiple
+ * threads; it is not updated when the locations in the database change.
+ */
+public final class LocationGeometries {
+
+	private final long[] ids;
+	private final Geometry[] geometries;
+	private final PreparedGeometry[] prepared;
+	private final TLongObjectHashMap<Integer> positions;
+	private final STRtree index;
+
+	private LocationGeometries(List<Entry> entries) {
+		int n = entries.size();
+		ids = new long[n];
+		geometries = new Geometry[n];
+		prepared = new PreparedGeometry[n];
+		positions = new TLongObjectHashMap<>(Math.max(n, 10));
+		index = new STRtree();
+		for (int i = 0; i < n; i++) {
+			var e = entries.get(i);
+			ids[i] = e.id;
+			geometries[i] = e.geometry;
+			prepared[i] = e.prepared;
+			positions.put(e.id, i);
+			index.insert(e.prepared.getGeometry().getEnvelopeInternal(), i);
+		}
+		index.build();
+	}
+
+	public static LocationGeometries of(IDatabase db) {
+		return of(db, -1);
+	}
+
+	/**
+	 * Reads the geometries of the locations of the given database. If the
+	 * number of decimal places is {@code >= 0}, the precision of the
+	 * coordinates is reduced to that number of decimal places, like in
+	 * {@link PrecisionReduction}.
+	 */
+	public static LocationGeometries of(IDatabase db, int decimalPlaces) {
+		var ids = new TLongArrayList();
+		var blobs = new ArrayList<byte[]>();
+		var sql = "select id, geodata from tbl_locations";
+		NativeSql.on(db).query(sql, r -> {
+			var data = r.getBytes(2);
+			if (data != null && data.length > 0) {
+				ids.add(r.getLong(1));
+				blobs.add(data);
+			}
+			return true;
+		});
+
+		var reducer = decimalPlaces >= 0
+				? new GeometryPrecisionReducer(
+						new PrecisionModel(Math.pow(10, decimalPlaces)))
+				: null;
+		var entries = IntStream.range(0, ids.size())
+				.parallel()
+				.mapToObj(i -> Entry.of(ids.get(i), blobs.get(i), reducer))
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+		return new LocationGeometries(entries);
+	}
+
+	/**
+	 * Returns the number of locations with a geometry.
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	public boolean contains(long locationId) {
+		return positions.containsKey(locationId);
+	}
+
+	/**
+	 * Returns the GeoJSON geometry of the location with the given ID, or
+	 * {@code null} if the location has no geometry. The returned geometry is
+	 * shared and should not be modified.
+	 */
+	public Geometry geometryOf(long locationId) {
+		var pos = positions.get(locationId);
+		return pos != null
+				? geometries[pos]
+				: null;
+	}
+
+	/**
+	 * Returns the IDs of the locations whose geometries contain the given
+	 * point.
+	 */
+	public long[] locationsAt(double longitude, double latitude) {
+		var point = new GeometryFactory().createPoint(
+				new Coordinate(longitude, latitude));
+		var found = new TLongArrayList();
+		index.query(point.getEnvelopeInternal(), item -> {
+			int i = (Integer) item;
+			if (prepared[i].covers(point)) {
+				found.add(ids[i]);
+			}
+		});
+		found.sort();
+		return found.toArray();
+	}
+
+	/**
+	 * Returns the IDs of the locations whose geometries intersect with the
+	 * given geometry.
+	 */
+	public long[] locationsIntersecting(Geometry g) {
+		var jts = JTS.fromGeoJSON(g);
+		if (jts == null)
+			return new long[0];
+		var found = new TLongArrayList();
+		index.query(jts.getEnvelopeInternal(), item -> {
+			int i = (Integer) item;
+			if (prepared[i].intersects(jts)) {
+				found.add(ids[i]);
+			}
+		});
+		found.sort();
+		return found.toArray();
+	}
+
+	/**
+	 * Calculates the intersection shares of the features of the given
+	 * calculator with the geometries of all locations, in parallel. Only
+	 * locations with at least one intersecting feature are contained in the
+	 * returned map.
+	 */
+	public TLongObjectHashMap<List<Pair<Feature, Double>>> sharesOf(
+			IntersectionCalculator calculator) {
+		var all = calculator.shares(List.of(geometries));
+		var map = new TLongObjectHashMap<List<Pair<Feature, Double>>>();
+		for (int i = 0; i < ids.length; i++) {
+			var shares = all.get(i);
+			if (shares != null && !shares.isEmpty()) {
+				map.put(ids[i], shares);
+			}
+		}
+		return map;
+	}
+
+	private record Entry(long id, Geometry geometry, PreparedGeometry prepared) {
+
+		static Entry of(long id, byte[] data, GeometryPrecisionReducer reducer) {
+			try {
+				var coll = GeoJSON.unpack(data);
+				if (coll == null || coll.isEmpty())
+					return null;
+				var feature = coll.first();
+				if (feature == null || feature.geometry == null)
+					return null;
+				var jts = JTS.fromGeoJSON(feature.geometry);
+				if (jts == null)
+					return null;
+				var geometry = feature.geometry;
+				if (reducer != null) {
+					jts = reducer.reduce(jts);
+					geometry = JTS.toGeoJSON(jts);
+					if (geometry == null)
+						return null;
+				}
+				return new Entry(id, geometry, PreparedGeometryFactory.prepare(jts));
+			} catch (Exception e) {
+				var log = LoggerFactory.getLogger(LocationGeometries.class);
+				log.error("failed to decode geometry of location " + id, e);
+				return null;
+			}
+		}
+	}
+}
@@ -6,7 +6,9 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.openlca.core.database.ProcessWriter;
 import org.openlca.core.model.ModelType;
+import org.openlca.core.model.Process;
 import org.openlca.core.model.RootEntity;
 
 class BatchImport<T extends RootEntity> {
@@ -38,6 +40,7 @@ class BatchImport<T extends RootEntity> {
 	@SuppressWarnings("unchecked")
 	void run() {
 		for (var refId : imp.reader.getRefIds(type)) {
+			imp.advance(type, refId);
 			var item = imp.fetch(clazz, refId);
 			if (item.isVisited() || item.isError())
 				continue;
@@ -93,7 +96,16 @@ class BatchImport<T extends RootEntity> {
 		void insert(List<RootEntity> batch) {
 			next(batch);
 			task = exec.submit(() -> {
-				imp.db().transaction(em -> buffer.forEach(em::persist));
+				if (imp.bulkInsert && clazz == Process.class) {
+					var processes = new ArrayList<Process>(buffer.size());
+					for (var e : buffer) {
+						processes.add((Process) e);
+					}
+					ProcessWriter.on(imp.db()).insert(processes);
+				} else {
+					imp.db().transaction(em -> buffer.forEach(em::persist));
+					buffer.forEach(imp.db().getListeners()::inserted);
+				}
 				buffer.forEach(imp::visited);
 				buffer.clear();
 			});
@@ -103,6 +115,7 @@ class BatchImport<T extends RootEntity> {
 			next(batch);
 			task = exec.submit(() -> {
 				imp.db().transaction(em -> buffer.replaceAll(em::merge));
+				buffer.forEach(imp.db().getListeners()::updated);
 				buffer.forEach(imp::visited);
 				buffer.clear();
 			});
@@ -96,7 +96,7 @@ class ImportCache {
 			}
 		}
 
-		var json = imp.reader.get(modelType, refId);
+		var json = imp.json(modelType, refId);
 		if (json == null) {
 			if (model == null)
 				return ImportItem.error();
@@ -6,8 +6,10 @@ import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
+import com.google.gson.JsonObject;
 import org.openlca.core.database.FileStore;
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.io.CategorySync;
@@ -38,9 +40,24 @@ public class JsonImport implements Runnable, EntityResolver {
 	private final ImportCache cache = new ImportCache(this);
 	private final ExchangeProviderQueue providers;
 
+	/**
+	 * Reading the JSON objects ahead is only possible when the reader has no
+	 * upgrades; upgrades can keep state that is not thread-safe.
+	 */
+	private final boolean canPrefetch;
+	private int threads = 1;
+	private JsonPrefetch prefetch;
+
+	/**
+	 * If true, new processes are inserted in bulk, see
+	 * {@link #setBulkInsert(boolean)}.
+	 */
+	boolean bulkInsert;
+
 	public JsonImport(JsonStoreReader reader, IDatabase db) {
 		this.db = db;
 		this.reader = Upgrades.chain(reader);
+		this.canPrefetch = this.reader == reader;
 		this.providers = ExchangeProviderQueue.create(db);
 		this.categories = CategorySync.of(db);
 		for (var type : ModelType.values()) {
@@ -58,6 +75,29 @@ public class JsonImport implements Runnable, EntityResolver {
 		return this;
 	}
 
+	/**
+	 * Sets the number of threads that read and parse the JSON objects of the
+	 * data set types ahead of the import in {@link #run()}. With a value
+	 * {@code <= 1} (the default), the objects are read in the import thread.
+	 * The objects are still mapped and written in the type order of the
+	 * import, so that references can be resolved.
+	 */
+	public JsonImport setThreads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * If set to true, the exchanges, allocation factors, and parameters of new
+	 * processes are written directly with batched SQL statements instead of
+	 * the entity manager, see {@link org.openlca.core.database.ProcessWriter}.
+	 * This is much faster for large data sets. The default is false.
+	 */
+	public JsonImport setBulkInsert(boolean bulkInsert) {
+		this.bulkInsert = bulkInsert;
+		return this;
+	}
+
 	@Override
 	public IDatabase db() {
 		return db;
@@ -107,17 +147,63 @@ public class JsonImport implements Runnable, EntityResolver {
 				ModelType.RESULT,
 				ModelType.EPD,
 		};
-		for (var type : typeOrder) {
-			var batchSize = BatchImport.batchSizeOf(type);
-			if (batchSize > 1) {
-				var clazz = (Class<? extends RootEntity>) type.getModelClass();
-				new BatchImport<>(this, clazz, batchSize).run();
-			} else {
-				for (var id : reader.getRefIds(type)) {
-					run(type, id);
+		var pool = threads > 1 && canPrefetch
+				? Executors.newFixedThreadPool(threads)
+				: null;
+		try {
+			for (var type : typeOrder) {
+				if (pool != null) {
+					prefetch = JsonPrefetch.of(
+							reader, type, reader.getRefIds(type), pool, 16 * threads);
 				}
+				var batchSize = BatchImport.batchSizeOf(type);
+				if (batchSize > 1) {
+					var clazz = (Class<? extends RootEntity>) type.getModelClass();
+					new BatchImport<>(this, clazz, batchSize).run();
+				} else {
+					for (var id : reader.getRefIds(type)) {
+						advance(type, id);
+						run(type, id);
+					}
+				}
+				if (prefetch != null) {
+					prefetch.close();
+					prefetch = null;
+				}
+			}
+		} finally {
+			if (prefetch != null) {
+				prefetch.close();
+				prefetch = null;
 			}
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Moves the prefetch of the given type to the given ID. This must be called
+	 * by the loops that import all objects of a type, in the order of the IDs
+	 * of the reader.
+	 */
+	void advance(ModelType type, String refId) {
+		if (prefetch != null && prefetch.type() == type) {
+			prefetch.advance(refId);
+		}
+	}
+
+	/**
+	 * Returns the JSON object of the given type and ID. It is taken from the
+	 * prefetch when possible; otherwise it is read directly.
+	 */
+	JsonObject json(ModelType type, String refId) {
+		if (prefetch != null && prefetch.type() == type) {
+			var json = prefetch.take(refId);
+			if (json != null)
+				return json;
 		}
+		return reader.get(type, refId);
 	}
 
 	@Override
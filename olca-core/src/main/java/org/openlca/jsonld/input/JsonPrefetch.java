@@ -0,0 +1,131 @@
+package org.openlca.jsonld.input;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.google.gson.JsonObject;
+import org.openlca.core.model.ModelType;
+import org.openlca.jsonld.JsonStoreReader;
+
+/**
+ * Reads and parses the JSON objects of a type ahead of the import on a thread
+ * pool. The objects are read in the order of the given IDs and at most
+ * {@code window} objects are read ahead, so that the reading waits when the
+ * import cannot keep up. The import iterates over the IDs in the same order
+ * and moves the window with {@link #advance(String)}; objects that it skips
+ * (e.g. because they already exist in the database) are then dropped from the
+ * window. Objects that are requested in a different order (e.g. when they are
+ * referenced from another object) are served from the window if they are in
+ * it; otherwise they need to be read directly. Such requests do not move the
+ * window. Instances of this class must be only used from the import thread.
+ */
+class JsonPrefetch implements AutoCloseable {
+
+	private final JsonStoreReader reader;
+	private final ModelType type;
+	private final List<String> refIds;
+	private final HashMap<String, Integer> positions;
+	private final ExecutorService pool;
+	private final int window;
+
+	private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+	private int next;
+
+	private JsonPrefetch(JsonStoreReader reader, ModelType type,
+			List<String> refIds, ExecutorService pool, int window) {
+		this.reader = reader;
+		this.type = type;
+		this.refIds = refIds;
+		this.pool = pool;
+		this.window = window;
+		this.positions = new HashMap<>(refIds.size());
+		for (int i = 0; i < refIds.size(); i++) {
+			positions.put(refIds.get(i), i);
+		}
+		fill();
+	}
+
+	static JsonPrefetch of(JsonStoreReader reader, ModelType type,
+			List<String> refIds, ExecutorService pool, int window) {
+		return new JsonPrefetch(reader, type, refIds, pool, Math.max(1, window));
+	}
+
+	ModelType type() {
+		return type;
+	}
+
+	/**
+	 * Moves the window of this prefetch to the given ID. This is called by the
+	 * import for each ID in the order of this prefetch; the objects before the
+	 * given ID are dropped from the window.
+	 */
+	void advance(String refId) {
+		var pos = positions.get(refId);
+		if (pos == null)
+			return;
+		while (!queue.isEmpty() && queue.peek().pos < pos) {
+			queue.poll().future.cancel(false);
+		}
+		if (next < pos) {
+			next = pos;
+		}
+		fill();
+	}
+
+	/**
+	 * Returns the prefetched object with the given ID or {@code null} if the
+	 * object is not in the window of this prefetch. Other objects in the
+	 * window are kept, so that objects can be taken out of order.
+	 */
+	JsonObject take(String refId) {
+		var pos = positions.get(refId);
+		if (pos == null || pos >= next)
+			return null;
+		Entry entry = null;
+		for (var it = queue.iterator(); it.hasNext(); ) {
+			var e = it.next();
+			if (e.pos > pos)
+				break;
+			if (e.pos == pos) {
+				it.remove();
+				entry = e;
+				break;
+			}
+		}
+		if (entry == null)
+			return null;
+		fill();
+		try {
+			return entry.future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("interrupted while reading " + refId, e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("failed to read " + refId, e.getCause());
+		}
+	}
+
+	private void fill() {
+		while (queue.size() < window && next < refIds.size()) {
+			int pos = next++;
+			var refId = refIds.get(pos);
+			var future = pool.submit(() -> reader.get(type, refId));
+			queue.add(new Entry(pos, future));
+		}
+	}
+
+	@Override
+	public void close() {
+		for (var e : queue) {
+			e.future.cancel(false);
+		}
+		queue.clear();
+	}
+
+	private record Entry(int pos, Future<JsonObject> future) {
+	}
+}
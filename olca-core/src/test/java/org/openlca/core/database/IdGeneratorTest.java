@@ -3,6 +3,7 @@ package org.openlca.core.database;
 import org.junit.Assert;
 import org.junit.Test;
 import org.openlca.core.Tests;
+import org.openlca.core.model.Actor;
 import org.openlca.core.model.Flow;
 import org.openlca.core.model.FlowPropertyFactor;
 
@@ -42,4 +43,25 @@ public class IdGeneratorTest {
 
 	}
 
+	@Test
+	public void testIdsAfterClear() {
+		IDatabase database = Tests.getDb();
+		database.insert(Actor.of("before clear"));
+		database.clear();
+
+		// the IDs that were pre-allocated before the sequence was reset must
+		// not be used anymore, so the new ID is in the current sequence range
+		Actor actor = database.insert(Actor.of("after clear"));
+		long[] seq = {0L};
+		NativeSql.on(database).query(
+				"SELECT SEQ_COUNT FROM SEQUENCE WHERE SEQ_NAME = 'entity_seq'",
+				r -> {
+					seq[0] = r.getLong(1);
+					return false;
+				});
+		Assert.assertTrue(actor.id <= seq[0]);
+		Assert.assertTrue(actor.id > seq[0] - 150);
+		database.delete(actor);
+	}
+
 }
@@ -0,0 +1,147 @@
+package org.openlca.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.Tests;
+import org.openlca.core.model.AllocationFactor;
+import org.openlca.core.model.AllocationMethod;
+import org.openlca.core.model.Flow;
+import org.openlca.core.model.FlowProperty;
+import org.openlca.core.model.Parameter;
+import org.openlca.core.model.ParameterScope;
+import org.openlca.core.model.Process;
+import org.openlca.core.model.Uncertainty;
+import org.openlca.core.model.UncertaintyType;
+import org.openlca.core.model.UnitGroup;
+
+public class ProcessWriterTest {
+
+	private final IDatabase db = Tests.getDb();
+	private UnitGroup units;
+	private FlowProperty mass;
+	private Flow product;
+	private Flow coProduct;
+	private Flow elem;
+
+	@Before
+	public void setup() {
+		units = UnitGroup.of("Mass units", "kg");
+		mass = FlowProperty.of("Mass", units);
+		product = Flow.product("p", mass);
+		coProduct = Flow.product("q", mass);
+		elem = Flow.elementary("e", mass);
+		db.insert(units, mass, product, coProduct, elem);
+	}
+
+	@After
+	public void tearDown() {
+		db.delete(product, coProduct, elem, mass, units);
+	}
+
+	@Test
+	public void testInsert() {
+		var process = Process.of("P", product);
+		process.output(coProduct, 0.5);
+		var emission = process.output(elem, 2);
+		emission.formula = "2 * a";
+		emission.uncertainty = Uncertainty.logNormal(2, 1.5);
+		emission.dqEntry = "(1;2;3;4;5)";
+		emission.description = "an emission";
+
+		var param = Parameter.process("a", 1);
+		param.uncertainty = Uncertainty.uniform(0.5, 1.5);
+		process.parameters.add(param);
+
+		var factor = new AllocationFactor();
+		factor.method = AllocationMethod.PHYSICAL;
+		factor.productId = coProduct.id;
+		factor.value = 0.25;
+		factor.exchange = emission;
+		process.allocationFactors.add(factor);
+
+		ProcessWriter.on(db).insert(process);
+		assertTrue(process.id > 0);
+		assertTrue(emission.id > 0);
+		assertTrue(param.id > 0);
+		assertTrue(factor.id > 0);
+
+		var copy = db.get(Process.class, process.id);
+		assertNotNull(copy);
+		assertEquals(3, copy.exchanges.size());
+		assertEquals(process.quantitativeReference.id,
+			copy.quantitativeReference.id);
+		assertEquals(product, copy.quantitativeReference.flow);
+
+		var e = copy.exchanges.stream()
+			.filter(ex -> ex.id == emission.id)
+			.findAny()
+			.orElseThrow();
+		assertEquals(elem, e.flow);
+		assertEquals(2, e.amount, 1e-16);
+		assertEquals("2 * a", e.formula);
+		assertEquals("(1;2;3;4;5)", e.dqEntry);
+		assertEquals("an emission", e.description);
+		assertEquals(emission.internalId, e.internalId);
+		assertEquals(UncertaintyType.LOG_NORMAL, e.uncertainty.distributionType);
+		assertEquals(1.5, e.uncertainty.parameter2, 1e-16);
+		assertNull(e.costs);
+		assertNotNull(e.unit);
+		assertNotNull(e.flowPropertyFactor);
+
+		assertEquals(1, copy.parameters.size());
+		var p = copy.parameters.get(0);
+		assertEquals("a", p.name);
+		assertEquals(ParameterScope.PROCESS, p.scope);
+		assertEquals(UncertaintyType.UNIFORM, p.uncertainty.distributionType);
+
+		assertEquals(1, copy.allocationFactors.size());
+		var f = copy.allocationFactors.get(0);
+		assertEquals(AllocationMethod.PHYSICAL, f.method);
+		assertEquals(coProduct.id, f.productId);
+		assertEquals(0.25, f.value, 1e-16);
+		assertEquals(emission.id, f.exchange.id);
+
+		db.delete(copy);
+	}
+
+	@Test
+	public void testIdsDoNotCollide() {
+		var processes = new ArrayList<Process>();
+		for (int i = 0; i < 20; i++) {
+			var process = Process.of("P" + i, product);
+			process.input(elem, i);
+			processes.add(process);
+		}
+		ProcessWriter.on(db).insert(processes);
+
+		// entities inserted by the entity manager afterwards get new IDs
+		var other = db.insert(Process.of("Q", product));
+		var ids = new HashSet<Long>();
+		for (var p : processes) {
+			assertTrue(ids.add(p.id));
+			for (var e : p.exchanges) {
+				assertTrue(ids.add(e.id));
+			}
+		}
+		assertTrue(ids.add(other.id));
+		for (var e : other.exchanges) {
+			assertNotEquals(0, e.id);
+			assertTrue(ids.add(e.id));
+		}
+
+		for (var p : processes) {
+			db.delete(db.get(Process.class, p.id));
+		}
+		db.delete(other);
+	}
+}
@@ -0,0 +1,56 @@
+package org.openlca.core.library;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.matrix.format.DenseMatrix;
+import org.openlca.core.matrix.format.HashPointMatrix;
+import org.openlca.util.Dirs;
+
+public class LibMatrixTest {
+
+	private File dir;
+
+	@Before
+	public void setup() throws Exception {
+		dir = Files.createTempDirectory("_olca_tests").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		Dirs.delete(dir);
+	}
+
+	@Test
+	public void testDenseColumnAndDiagonal() {
+		var lib = Library.of(dir);
+		var matrix = DenseMatrix.of(new double[][]{
+			{1, 2, 3},
+			{4, 5, 6},
+			{7, 8, 9}});
+		LibMatrix.A.write(lib, matrix);
+		assertArrayEquals(new double[]{2, 5, 8},
+			LibMatrix.A.readColumnFrom(lib, 1).orElseThrow(), 1e-16);
+		assertArrayEquals(new double[]{1, 5, 9},
+			LibMatrix.A.readDiagonalFrom(lib).orElseThrow(), 1e-16);
+	}
+
+	@Test
+	public void testSparseColumnAndDiagonal() {
+		var lib = Library.of(dir);
+		var matrix = new HashPointMatrix(3, 3);
+		matrix.set(0, 0, 1);
+		matrix.set(2, 1, 8);
+		matrix.set(1, 1, 5);
+		LibMatrix.B.write(lib, matrix);
+		assertArrayEquals(new double[]{0, 5, 8},
+			LibMatrix.B.readColumnFrom(lib, 1).orElseThrow(), 1e-16);
+		assertArrayEquals(new double[]{1, 5, 0},
+			LibMatrix.B.readDiagonalFrom(lib).orElseThrow(), 1e-16);
+	}
+}
@@ -0,0 +1,81 @@
+package org.openlca.core.library;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.matrix.MatrixData;
+import org.openlca.core.matrix.format.HashPointMatrix;
+import org.openlca.core.matrix.io.NpyMatrix;
+import org.openlca.core.matrix.solvers.JavaSparseSolver;
+import org.openlca.util.Dirs;
+
+public class LibraryExportTest {
+
+	private File dir;
+
+	@Before
+	public void setup() throws Exception {
+		dir = Files.createTempDirectory("_olca_tests").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		Dirs.delete(dir);
+	}
+
+	@Test
+	public void testBlockedPreCalculation() {
+		int n = 7;
+		var data = new MatrixData();
+		var a = new HashPointMatrix(n, n);
+		var b = new HashPointMatrix(2, n);
+		for (int j = 0; j < n; j++) {
+			a.set(j, j, 1.0 + j);
+			if (j > 0) {
+				a.set(j - 1, j, -0.5);
+			}
+			b.set(j % 2, j, 0.5 * j);
+		}
+		data.techMatrix = a;
+		data.enviMatrix = b;
+
+		// the last block has only one column
+		var solver = new JavaSparseSolver();
+		LibraryExport.preCalculate(data, solver, dir, 3);
+
+		var expectedInv = solver.invert(a);
+		var expectedM = b.multiply(expectedInv);
+		var inv = NpyMatrix.read(new File(dir, "INV.npy"));
+		var m = NpyMatrix.read(new File(dir, "M.npy"));
+		assertEquals(n, inv.columns());
+		assertEquals(2, m.rows());
+		assertEquals(n, m.columns());
+		for (int j = 0; j < n; j++) {
+			assertArrayEquals(
+				expectedInv.getColumn(j), inv.getColumn(j), 1e-12);
+			assertArrayEquals(
+				expectedM.getColumn(j), m.getColumn(j), 1e-12);
+		}
+	}
+
+	@Test
+	public void testWithoutInterventions() {
+		var data = new MatrixData();
+		var a = new HashPointMatrix(3, 3);
+		for (int j = 0; j < 3; j++) {
+			a.set(j, j, 2);
+		}
+		data.techMatrix = a;
+		LibraryExport.preCalculate(data, new JavaSparseSolver(), dir, 2);
+		var inv = NpyMatrix.read(new File(dir, "INV.npy"));
+		assertEquals(0.5, inv.get(2, 2), 1e-16);
+		assertFalse(new File(dir, "M.npy").exists());
+	}
+}
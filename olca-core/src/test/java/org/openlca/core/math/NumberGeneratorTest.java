@@ -55,6 +55,23 @@ public class NumberGeneratorTest {
 			assertEquals(5.0, genDiscrete.next(), 1e-16);
 	}
 
+	@Test
+	public void testSeededStreams() {
+		var gen = NumberGenerator.normal(5, 1);
+		var streams = RandomStreams.of(42);
+		for (int run = 0; run < 10; run++) {
+			var r1 = streams.forRun(run);
+			var r2 = RandomStreams.of(42).forRun(run);
+			for (int i = 0; i < 10; i++) {
+				assertEquals(gen.next(r1), gen.next(r2), 0);
+			}
+		}
+		double v1 = gen.next(streams.forRun(0));
+		double v2 = gen.next(streams.forRun(1));
+		double v3 = gen.next(RandomStreams.of(43).forRun(0));
+		assertTrue(v1 != v2 && v1 != v3);
+	}
+
 	private void assertInInterval(double val, double lower, double upper) {
 		assertTrue(val >= lower);
 		assertTrue(val <= upper);
@@ -9,6 +9,7 @@ import org.openlca.core.TestProcess;
 import org.openlca.core.TestSystem;
 import org.openlca.core.Tests;
 import org.openlca.core.matrix.index.EnviFlow;
+import org.openlca.core.model.ParameterRedef;
 import org.openlca.core.model.Process;
 import org.openlca.core.model.Project;
 import org.openlca.core.model.ProjectVariant;
@@ -60,4 +61,56 @@ public class ProjectCalculationTest {
 		}
 		assertEquals(4, icount.get());
 	}
+
+	@Test
+	public void testParameterVariants() {
+		var q = TestProcess
+				.refProduct("pv-q", 1, "kg")
+				.elemOut("pv-e1", 1, "kg")
+				.get();
+		var p = TestProcess
+				.refProduct("pv-p", 1, "kg")
+				.param("x", 2)
+				.prodIn("pv-q", 1, "kg")
+				.elemOut("pv-e2", 1, "kg")
+				.with(process -> {
+					TestProcess.findExchange(process, "pv-q").formula = "x";
+					TestProcess.findExchange(process, "pv-e2").formula = "2 * x";
+				})
+				.get();
+		var system = TestSystem.of(p).link(q).get();
+		var param = p.parameters.get(0);
+
+		// variants with different parameter values and amounts
+		var project = new Project();
+		double[][] variants = {{3, 1}, {5, 2}, {2, 1}, {7, 3}};
+		for (var v : variants) {
+			var variant = new ProjectVariant();
+			variant.productSystem = system;
+			variant.amount = v[1];
+			variant.parameterRedefs.add(ParameterRedef.of(param, p, v[0]));
+			project.variants.add(variant);
+		}
+		var disabled = new ProjectVariant();
+		disabled.productSystem = system;
+		disabled.isDisabled = true;
+		project.variants.add(disabled);
+
+		var results = new ProjectCalculator(Tests.getDb())
+				.withThreads(4)
+				.calculate(project);
+		assertEquals(4, results.size());
+		for (int i = 0; i < variants.length; i++) {
+			double x = variants[i][0];
+			double amount = variants[i][1];
+			var result = results.get(project.variants.get(i));
+			for (var v : result.getTotalFlows()) {
+				double expected = v.flow().name.equals("pv-e1")
+						? x * amount
+						: 2 * x * amount;
+				assertEquals(expected, v.value(), 1e-10);
+			}
+			assertEquals(2, result.getTotalFlows().size());
+		}
+	}
 }
@@ -0,0 +1,94 @@
+package org.openlca.core.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.Process;
+import org.openlca.core.model.SamplingMethod;
+
+public class RandomStreamsTest {
+
+	@Test
+	public void testPermutation() {
+		for (int l : new int[]{1, 2, 7, 64, 1000}) {
+			for (int p : new int[]{0, 42, -17, Integer.MAX_VALUE}) {
+				var seen = new boolean[l];
+				for (int i = 0; i < l; i++) {
+					int j = LatinHypercube.permute(i, l, p);
+					assertTrue(j >= 0 && j < l && !seen[j]);
+					seen[j] = true;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLatinHypercube() {
+		int n = 100;
+		var streams = streamsOf(SamplingMethod.LATIN_HYPERCUBE, n);
+		var gen = NumberGenerator.uniform(0, 1);
+		var strata = new boolean[3][n];
+		for (int run = 0; run < n; run++) {
+			var random = streams.forRun(run);
+			for (int dim = 0; dim < 3; dim++) {
+				int stratum = (int) (gen.next(random) * n);
+				assertTrue(!strata[dim][stratum]);
+				strata[dim][stratum] = true;
+			}
+		}
+	}
+
+	@Test
+	public void testSobolIsReproducible() {
+		var a = streamsOf(SamplingMethod.SOBOL, 64);
+		var b = streamsOf(SamplingMethod.SOBOL, 64);
+		var gen = NumberGenerator.triangular(1, 2, 4);
+		for (int run = 0; run < 64; run++) {
+			var ra = a.forRun(run);
+			var rb = b.forRun(run);
+			for (int dim = 0; dim < 1010; dim++) {
+				double x = gen.next(ra);
+				assertEquals(x, gen.next(rb), 0);
+				assertTrue(x >= 1 && x <= 4);
+			}
+		}
+	}
+
+	@Test
+	public void testStratifiedNormal() {
+		// the stratified samples of a normal distribution should have a
+		// mean that is much closer to the expected value than with plain
+		// random sampling
+		int n = 256;
+		var gen = NumberGenerator.normal(5, 2);
+		for (var method : new SamplingMethod[]{
+			SamplingMethod.LATIN_HYPERCUBE, SamplingMethod.SOBOL}) {
+			var streams = streamsOf(method, n);
+			var values = new double[n];
+			for (int run = 0; run < n; run++) {
+				values[run] = gen.next(streams.forRun(run));
+			}
+			double mean = Arrays.stream(values).average().orElse(0);
+			assertEquals(5, mean, 0.02);
+		}
+	}
+
+	@Test
+	public void testInverseNormal() {
+		assertEquals(0, SamplePoint.inverseNormal(0.5), 1e-12);
+		assertEquals(1.959963984540054, SamplePoint.inverseNormal(0.975), 1e-9);
+		assertEquals(-2.326347874040841, SamplePoint.inverseNormal(0.01), 1e-9);
+	}
+
+	private RandomStreams streamsOf(SamplingMethod method, int runs) {
+		var setup = CalculationSetup.of(new Process())
+			.withSampling(method)
+			.withSimulationRuns(runs)
+			.withSeed(42);
+		return RandomStreams.of(setup);
+	}
+}
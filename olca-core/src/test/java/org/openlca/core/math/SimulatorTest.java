@@ -1,9 +1,16 @@
 package org.openlca.core.math;
 
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.openlca.core.Tests;
 import org.openlca.core.database.IDatabase;
+import org.openlca.core.matrix.index.EnviFlow;
+import org.openlca.core.matrix.format.Matrix;
+import org.openlca.core.matrix.format.MatrixReader;
+import org.openlca.core.matrix.index.TechFlow;
+import org.openlca.core.matrix.solvers.Factorization;
 import org.openlca.core.matrix.solvers.JavaSolver;
 import org.openlca.core.model.CalculationSetup;
 import org.openlca.core.model.Flow;
@@ -13,8 +20,10 @@ import org.openlca.core.model.ImpactMethod;
 import org.openlca.core.model.Parameter;
 import org.openlca.core.model.Process;
 import org.openlca.core.model.ProductSystem;
+import org.openlca.core.model.SamplingMethod;
 import org.openlca.core.model.Uncertainty;
 import org.openlca.core.model.UnitGroup;
+import org.openlca.core.model.descriptors.Descriptor;
 
 public class SimulatorTest {
 
@@ -64,4 +73,171 @@ public class SimulatorTest {
 		db.delete(method, gwp, system, process, p, ch4, mass, units);
 	}
 
+	@Test
+	public void testParallelRuns() {
+
+		// system Q <- process Q <- system P <- process P; the elementary flow
+		// in P and the LCIA factor have uncertainty distributions
+		var units = db.insert(UnitGroup.of("Mass units", "kg"));
+		var mass = db.insert(FlowProperty.of("Mass", units));
+		var e = db.insert(Flow.elementary("e", mass));
+		var p = db.insert(Flow.product("p", mass));
+		var q = db.insert(Flow.product("q", mass));
+
+		var procP = Process.of("P", p);
+		procP.output(e, 2).uncertainty = Uncertainty.uniform(1, 3);
+		db.insert(procP);
+		var sysP = db.insert(ProductSystem.of(procP));
+
+		var procQ = Process.of("Q", q);
+		procQ.input(p, 2.0);
+		db.insert(procQ);
+		var sysQ = ProductSystem.of(procQ);
+		sysQ.link(TechFlow.of(sysP), procQ);
+		db.insert(sysQ);
+
+		var impact = ImpactCategory.of("I");
+		impact.factor(e, 1).uncertainty = Uncertainty.uniform(10, 20);
+		db.insert(impact);
+		var method = ImpactMethod.of("M");
+		method.impactCategories.add(impact);
+		db.insert(method);
+
+		var setup = CalculationSetup.of(sysQ)
+				.withSimulationRuns(200)
+				.withImpactMethod(method);
+		var simulator = Simulator.create(setup, db);
+		var pinned = TechFlow.of(procQ);
+		simulator.pinnedProducts.add(pinned);
+		var result = simulator.run(200, 4);
+
+		var flow = EnviFlow.outputOf(e);
+		var descriptor = Descriptor.of(impact);
+		Assert.assertEquals(200, result.getNumberOfRuns());
+		for (int i = 0; i < 200; i++) {
+			double f = result.get(flow, i);
+			Assert.assertTrue(f >= 2 && f <= 6);
+			double v = result.get(descriptor, i);
+			Assert.assertTrue(v >= 20 && v <= 120);
+			Assert.assertEquals(v, result.getUpstream(pinned, descriptor, i), 1e-10);
+		}
+
+		db.delete(method, impact, sysQ, sysP, procQ, procP, q, p, e, mass, units);
+	}
+
+	@Test
+	public void testSeededRuns() {
+		var units = db.insert(UnitGroup.of("Mass units", "kg"));
+		var mass = db.insert(FlowProperty.of("Mass", units));
+		var e = db.insert(Flow.elementary("e", mass));
+		var p = db.insert(Flow.product("p", mass));
+		var process = Process.of("P", p);
+		process.output(e, 2).uncertainty = Uncertainty.logNormal(2, 1.5);
+		db.insert(process);
+		var system = db.insert(ProductSystem.of(process));
+
+		var flow = EnviFlow.outputOf(e);
+		var seq = Simulator.create(CalculationSetup.of(system).withSeed(42), db)
+				.run(50, 1)
+				.getAll(flow);
+		var par = Simulator.create(CalculationSetup.of(system).withSeed(42), db)
+				.run(50, 4)
+				.getAll(flow);
+		var other = Simulator.create(CalculationSetup.of(system).withSeed(7), db)
+				.run(50, 1)
+				.getAll(flow);
+		Assert.assertArrayEquals(seq, par, 0);
+		Assert.assertNotEquals(seq[0], other[0], 1e-10);
+
+		db.delete(system, process, p, e, mass, units);
+	}
+
+	@Test
+	public void testLatinHypercube() {
+		var units = db.insert(UnitGroup.of("Mass units", "kg"));
+		var mass = db.insert(FlowProperty.of("Mass", units));
+		var e = db.insert(Flow.elementary("e", mass));
+		var p = db.insert(Flow.product("p", mass));
+		var process = Process.of("P", p);
+		process.output(e, 2).uncertainty = Uncertainty.uniform(1, 3);
+		db.insert(process);
+		var system = db.insert(ProductSystem.of(process));
+
+		// each of the 100 intervals of the distribution is sampled once
+		var setup = CalculationSetup.of(system)
+				.withSimulationRuns(100)
+				.withSampling(SamplingMethod.LATIN_HYPERCUBE);
+		var values = Simulator.create(setup, db)
+				.run(100, 2)
+				.getAll(EnviFlow.outputOf(e));
+		Arrays.sort(values);
+		for (int i = 0; i < 100; i++) {
+			Assert.assertTrue(values[i] >= 1 + i * 0.02);
+			Assert.assertTrue(values[i] <= 1 + (i + 1) * 0.02);
+		}
+
+		db.delete(system, process, p, e, mass, units);
+	}
+
+	@Test
+	public void testFailedRun() {
+		var units = db.insert(UnitGroup.of("Mass units", "kg"));
+		var mass = db.insert(FlowProperty.of("Mass", units));
+		var e = db.insert(Flow.elementary("e", mass));
+		var p = db.insert(Flow.product("p", mass));
+		var process = Process.of("P", p);
+		process.quantitativeReference.uncertainty = Uncertainty.uniform(1, 2);
+		process.output(e, 2);
+		db.insert(process);
+		var system = db.insert(ProductSystem.of(process));
+
+		// the runs with a reference amount > 1.5 fail; the results of the
+		// runs before the first failed run are kept at their indices
+		var flow = EnviFlow.outputOf(e);
+		var setup = CalculationSetup.of(system).withSeed(42);
+		int firstFailed = -1;
+		for (int threads : new int[]{1, 4}) {
+			var simulator = Simulator.create(setup, db)
+				.withSolver(new FailingSolver());
+			var result = simulator.getResult();
+			try {
+				simulator.run(50, threads);
+				Assert.fail("a failed run was not reported");
+			} catch (RuntimeException ex) {
+				int failed = result.getNumberOfRuns();
+				Assert.assertEquals(
+					"simulation run " + failed + " failed", ex.getMessage());
+				Assert.assertTrue(failed < 50);
+				if (firstFailed < 0) {
+					firstFailed = failed;
+				}
+				Assert.assertEquals(firstFailed, failed);
+			}
+			for (double v : result.getAll(flow)) {
+				Assert.assertTrue(v >= 2 / 1.5 && v <= 2);
+			}
+		}
+
+		db.delete(system, process, p, e, mass, units);
+	}
+
+	private static class FailingSolver extends JavaSolver {
+
+		@Override
+		public Matrix invert(MatrixReader a) {
+			check(a);
+			return super.invert(a);
+		}
+
+		@Override
+		public Factorization factorize(MatrixReader a) {
+			check(a);
+			return super.factorize(a);
+		}
+
+		private void check(MatrixReader a) {
+			if (a.get(0, 0) > 1.5)
+				throw new IllegalStateException("reference amount > 1.5");
+		}
+	}
 }
@@ -1,6 +1,9 @@
 package org.openlca.core.math;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 import java.util.stream.Stream;
@@ -130,4 +133,75 @@ public class SubResultsTest {
 			prodA, prodB, prodC,
 			co2, mass, units);
 	}
+
+	/**
+	 * A sub-system that is used by two hosts is calculated only once:
+	 * <pre>
+	 * {@code
+	 * 		A -> B -> D
+	 * 		A -> C -> D
+	 * }
+	 * </pre>
+	 */
+	@Test
+	public void testSharedSubSystem() {
+		var units = UnitGroup.of("Mass units", "kg");
+		var mass = FlowProperty.of("Mass", units);
+		var co2 = Flow.elementary("CO2", mass);
+		var prodA = Flow.product("A", mass);
+		var prodB = Flow.product("B", mass);
+		var prodC = Flow.product("C", mass);
+		var prodD = Flow.product("D", mass);
+
+		var procA = Process.of("A", prodA);
+		var procB = Process.of("B", prodB);
+		procB.input(prodA, 1);
+		var procC = Process.of("C", prodC);
+		procC.input(prodA, 1);
+		var procD = Process.of("D", prodD);
+		procD.input(prodB, 1);
+		procD.input(prodC, 1);
+		List.of(procA, procB, procC, procD).forEach(p -> p.output(co2, 1));
+		db.insert(
+			units, mass, co2,
+			prodA, prodB, prodC, prodD,
+			procA, procB, procC, procD);
+
+		var systems = Stream.of(procA, procB, procC, procD)
+			.map(p -> {
+				var linker = new SubSystemLinker(db);
+				var system = new ProductSystemBuilder(linker)
+					.build(p);
+				return db.insert(system);
+			}).toList();
+		var sysA = systems.get(0);
+		var sysD = systems.get(3);
+
+		var result = new SystemCalculator(db)
+			.withThreads(4)
+			.calculate(CalculationSetup.of(sysD));
+		var co2Idx = result.enviIndex().at(0);
+		assertEquals(5, result.getTotalFlowValueOf(co2Idx), 1e-10);
+
+		var resultB = result.subResultOf(TechFlow.of(systems.get(1)));
+		var resultC = result.subResultOf(TechFlow.of(systems.get(2)));
+		assertEquals(2, resultB.getTotalFlowValueOf(co2Idx), 1e-10);
+		assertEquals(2, resultC.getTotalFlowValueOf(co2Idx), 1e-10);
+		var resultA = resultB.subResultOf(TechFlow.of(sysA));
+		assertSame(resultA, resultC.subResultOf(TechFlow.of(sysA)));
+
+		// the shared sub-result is disposed with the last of its hosts
+		assertFalse(resultA.isDisposed());
+		result.dispose();
+		assertTrue(result.isDisposed());
+		assertTrue(resultB.isDisposed());
+		assertTrue(resultC.isDisposed());
+		assertTrue(resultA.isDisposed());
+
+		db.delete(systems.get(3), systems.get(2), systems.get(1), sysA);
+		db.delete(
+			procA, procB, procC, procD,
+			prodA, prodB, prodC, prodD,
+			co2, mass, units);
+	}
 }
@@ -0,0 +1,59 @@
+package org.openlca.core.matrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.openlca.core.TestProcess;
+import org.openlca.core.TestSystem;
+import org.openlca.core.Tests;
+import org.openlca.core.matrix.format.CSCMatrix;
+import org.openlca.core.matrix.index.TechIndex;
+import org.openlca.core.model.ParameterRedef;
+
+public class FormulaCellsTest {
+
+	@Test
+	public void testEvaluateSharedStructure() {
+		var db = Tests.getDb();
+		var q = TestProcess
+				.refProduct("fc-q", 1, "kg")
+				.elemOut("fc-e", 1, "kg")
+				.get();
+		var p = TestProcess
+				.refProduct("fc-p", 1, "kg")
+				.param("x", 2)
+				.prodIn("fc-q", 1, "kg")
+				.prodIn("fc-q", 0.5, "kg")
+				.with(process -> process.exchanges.get(1).formula = "x")
+				.get();
+		var system = TestSystem.of(p).link(q).get();
+		var techIndex = TechIndex.of(db, system);
+		var data = MatrixData.of(db, techIndex)
+				.withFormulaCells(true)
+				.build();
+		assertEquals(1, data.formulaCells.size());
+
+		// the two inputs are added to the same cell: -(2 + 0.5)
+		data.techMatrix = CSCMatrix.of(data.techMatrix);
+		int row = techIndex.of(techIndex.getProviders(q.id).get(0));
+		int col = techIndex.of(techIndex.getProviders(p.id).get(0));
+		assertEquals(-2.5, data.techMatrix.get(row, col), 1e-16);
+
+		var redef = ParameterRedef.of(p.parameters.get(0), p, 4);
+		var interpreter = ParameterTable.of(db, new HashSet<>(List.of(p.id, q.id)))
+				.interpreter(List.of(redef));
+		var next = data.formulaCells.evaluate(data, interpreter);
+		assertEquals(-4.5, next.techMatrix.get(row, col), 1e-16);
+		assertEquals(-2.5, data.techMatrix.get(row, col), 1e-16);
+		assertSame(data.techIndex, next.techIndex);
+		assertSame(data.enviMatrix, next.enviMatrix);
+		var csc = (CSCMatrix) data.techMatrix;
+		var nextCsc = (CSCMatrix) next.techMatrix;
+		assertSame(csc.columnPointers, nextCsc.columnPointers);
+		assertSame(csc.rowIndices, nextCsc.rowIndices);
+	}
+}
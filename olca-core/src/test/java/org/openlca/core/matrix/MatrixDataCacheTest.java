@@ -0,0 +1,154 @@
+package org.openlca.core.matrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.Tests;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.math.SystemCalculator;
+import org.openlca.core.model.CalculationSetup;
+import org.openlca.core.model.Flow;
+import org.openlca.core.model.FlowProperty;
+import org.openlca.core.model.ImpactCategory;
+import org.openlca.core.model.ImpactMethod;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.Process;
+import org.openlca.core.model.ProductSystem;
+import org.openlca.core.model.UnitGroup;
+
+public class MatrixDataCacheTest {
+
+	private final IDatabase db = Tests.getDb();
+	private MatrixDataCache cache;
+	private Flow e;
+	private Process process;
+	private ProductSystem system;
+
+	@Before
+	public void setup() {
+		var units = db.insert(UnitGroup.of("Units of mass", "kg"));
+		var mass = db.insert(FlowProperty.of("Mass", units));
+		e = db.insert(Flow.elementary("e", mass));
+		var p = db.insert(Flow.product("p", mass));
+		process = Process.of("process", p);
+		process.output(e, 2);
+		process = db.insert(process);
+		system = db.insert(ProductSystem.of(process));
+		cache = MatrixDataCache.of(db);
+	}
+
+	@After
+	public void tearDown() {
+		cache.dispose();
+		db.clear();
+	}
+
+	@Test
+	public void testReuseWithOtherMethod() {
+		var m1 = method(2);
+		var m2 = method(3);
+		var calculator = new SystemCalculator(db).withCache(cache);
+
+		var setup = CalculationSetup.of(system).withImpactMethod(m1);
+		var r1 = calculator.calculate(setup);
+		assertEquals(1, cache.size());
+		assertEquals(4, r1.getTotalImpacts().get(0).value(), 1e-10);
+
+		var data = cache.get(CalculationSetup.of(system)
+			.withImpactMethod(m2)
+			.withAmount(2))
+			.orElseThrow();
+		assertEquals(2, data.demand.value(), 1e-10);
+		assertEquals(1, data.impactIndex.size());
+
+		var r2 = calculator.calculate(
+			CalculationSetup.of(system).withImpactMethod(m2));
+		assertEquals(1, cache.size());
+		assertEquals(6, r2.getTotalImpacts().get(0).value(), 1e-10);
+
+		// other flags result in another entry
+		calculator.calculate(CalculationSetup.of(system).withCosts(true));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testSharedViews() {
+		var setup = CalculationSetup.of(system).withImpactMethod(method(2));
+		new SystemCalculator(db).withCache(cache).calculate(setup);
+		var d1 = cache.get(setup).orElseThrow();
+		var d2 = cache.get(setup.withAmount(2)).orElseThrow();
+		assertSame(d1.techMatrix, d2.techMatrix);
+		assertSame(d1.enviMatrix, d2.enviMatrix);
+		assertSame(d1.impactMatrix, d2.impactMatrix);
+		assertNotSame(d1.demand, d2.demand);
+		assertEquals(2, d2.demand.value(), 1e-10);
+	}
+
+	@Test
+	public void testInvalidateOnChange() {
+		var calculator = new SystemCalculator(db).withCache(cache);
+		var setup = CalculationSetup.of(system).withImpactMethod(method(2));
+		calculator.calculate(setup);
+		assertEquals(1, cache.size());
+
+		process.exchanges.stream()
+			.filter(ex -> ex.flow.equals(e))
+			.forEach(ex -> ex.amount = 3);
+		process = db.update(process);
+		assertEquals(0, cache.size());
+		assertTrue(cache.get(setup).isEmpty());
+
+		var r = calculator.calculate(setup);
+		assertEquals(6, r.getTotalImpacts().get(0).value(), 1e-10);
+	}
+
+	@Test
+	public void testInvalidateOnNativeUpdate() {
+		var calculator = new SystemCalculator(db).withCache(cache);
+		var setup = CalculationSetup.of(system).withImpactMethod(method(2));
+		calculator.calculate(setup);
+		assertEquals(1, cache.size());
+
+		NativeSql.on(db).runUpdate("update tbl_exchanges set"
+			+ " resulting_amount_value = 3 where f_flow = " + e.id);
+		assertEquals(0, cache.size());
+		var r = calculator.calculate(setup);
+		assertEquals(6, r.getTotalImpacts().get(0).value(), 1e-10);
+	}
+
+	@Test
+	public void testInvalidateOnBulkChange() {
+		var calculator = new SystemCalculator(db).withCache(cache);
+		var setup = CalculationSetup.of(system).withImpactMethod(method(2));
+		calculator.calculate(setup);
+		assertEquals(1, cache.size());
+
+		// changes of other types are ignored
+		db.getListeners().changed(ModelType.ACTOR, ModelType.SOURCE);
+		assertEquals(1, cache.size());
+
+		db.transaction(em -> {
+			var p = em.find(Process.class, process.id);
+			p.exchanges.stream()
+				.filter(ex -> ex.flow.equals(e))
+				.forEach(ex -> ex.amount = 4);
+		});
+		db.getListeners().changed(ModelType.PROCESS);
+		assertEquals(0, cache.size());
+		var r = calculator.calculate(setup);
+		assertEquals(8, r.getTotalImpacts().get(0).value(), 1e-10);
+	}
+
+	private ImpactMethod method(double factor) {
+		var impact = ImpactCategory.of("impact " + factor);
+		impact.factor(e, factor);
+		impact = db.insert(impact);
+		return db.insert(ImpactMethod.of("method " + factor).add(impact));
+	}
+}
@@ -0,0 +1,184 @@
+package org.openlca.core.matrix.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.Tests;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.NativeSql;
+import org.openlca.core.matrix.CalcExchange;
+import org.openlca.core.model.Currency;
+import org.openlca.core.model.Flow;
+import org.openlca.core.model.FlowProperty;
+import org.openlca.core.model.Process;
+import org.openlca.core.model.Uncertainty;
+import org.openlca.core.model.UnitGroup;
+
+public class ExchangeSnapshotTest {
+
+	private final IDatabase db = Tests.getDb();
+	private UnitGroup units;
+	private FlowProperty mass;
+	private Currency currency;
+	private Flow product;
+	private Flow elem;
+	private Process process;
+
+	@Before
+	public void setup() {
+		units = UnitGroup.of("Mass units", "kg");
+		mass = FlowProperty.of("Mass", units);
+		currency = new Currency();
+		currency.name = "EUR";
+		currency.conversionFactor = 1;
+		product = Flow.product("p", mass);
+		elem = Flow.elementary("e", mass);
+		db.insert(units, mass, currency, product, elem);
+
+		process = Process.of("P", product);
+		var qRef = process.quantitativeReference;
+		qRef.costs = 42.0;
+		qRef.costFormula = "21 * 2";
+		qRef.currency = currency;
+		var emission = process.output(elem, 2);
+		emission.formula = "1 + 1";
+		emission.uncertainty = Uncertainty.logNormal(2, 1.5);
+		process = db.insert(process);
+	}
+
+	@After
+	public void tearDown() {
+		ExchangeSnapshot.delete(db);
+		db.delete(process, product, elem, currency, mass, units);
+	}
+
+	@Test
+	public void testSameAsDatabase() {
+		var expected = exchanges();
+		ExchangeSnapshot.create(db);
+		assertTrue(ExchangeSnapshot.exists(db));
+		var actual = exchanges();
+		assertEquals(expected.size(), actual.size());
+		for (var e : expected.values()) {
+			var a = actual.get(e.exchangeId);
+			assertNotNull(a);
+			assertEquals(e.processId, a.processId);
+			assertEquals(e.flowId, a.flowId);
+			assertEquals(e.flowType, a.flowType);
+			assertEquals(e.isInput, a.isInput);
+			assertEquals(e.isAvoided, a.isAvoided);
+			assertEquals(e.amount, a.amount, 1e-16);
+			assertEquals(e.formula, a.formula);
+			assertEquals(e.conversionFactor, a.conversionFactor, 1e-16);
+			assertEquals(e.defaultProviderId, a.defaultProviderId);
+			assertEquals(e.locationId, a.locationId);
+			assertEquals(e.costValue, a.costValue, 1e-16);
+			assertEquals(e.costFormula, a.costFormula);
+			assertEquals(e.currencyFactor, a.currencyFactor, 1e-16);
+			assertEquals(e.uncertaintyType, a.uncertaintyType);
+			assertEquals(e.parameter1, a.parameter1, 1e-16);
+			assertEquals(e.parameter2, a.parameter2, 1e-16);
+			assertEquals(e.parameter3, a.parameter3, 1e-16);
+		}
+
+		ExchangeSnapshot.delete(db);
+		assertFalse(ExchangeSnapshot.exists(db));
+		assertTrue(ExchangeSnapshot.of(db).isEmpty());
+	}
+
+	@Test
+	public void testUpdateOnProcessChange() {
+		var snapshot = ExchangeSnapshot.create(db);
+		assertTrue(snapshot.hasProcess(process.id));
+		assertTrue(snapshot.isCurrent(process.id));
+		var emission = process.exchanges.stream()
+			.filter(e -> e.flow.equals(elem))
+			.findAny()
+			.orElseThrow();
+		emission.amount = 4;
+		process.version++;
+		process = db.update(process);
+
+		// the changed process is read from the database
+		assertFalse(snapshot.isCurrent(process.id));
+		assertFalse(snapshot.isStale());
+		assertTrue(snapshot.changedProcesses().contains(process.id));
+		assertEquals(4, exchanges().get(emission.id).amount, 1e-16);
+
+		var updated = ExchangeSnapshot.create(db);
+		assertNotSame(snapshot, updated);
+		assertTrue(updated.isCurrent(process.id));
+		assertFalse(snapshot.isCurrent(process.id));
+		assertEquals(4, updated.exchangesOf(process.id,
+			ConversionTable.create(db), FlowTable.create(db)::type)
+			.stream()
+			.filter(ex -> ex.exchangeId == emission.id)
+			.findAny()
+			.orElseThrow()
+			.amount, 1e-16);
+	}
+
+	@Test
+	public void testUpdateOnNativeChange() {
+		var snapshot = ExchangeSnapshot.create(db);
+		var files = snapshotFiles();
+		assertEquals(1, files.length);
+
+		// no version update of the process
+		var emission = process.exchanges.stream()
+			.filter(e -> e.flow.equals(elem))
+			.findAny()
+			.orElseThrow();
+		NativeSql.on(db).runUpdate("update tbl_exchanges set"
+			+ " resulting_amount_value = 5 where id = " + emission.id);
+		assertTrue(snapshot.isStale());
+		assertFalse(snapshot.isCurrent(process.id));
+		assertEquals(5, exchanges().get(emission.id).amount, 1e-16);
+
+		var updated = ExchangeSnapshot.create(db);
+		assertNotSame(snapshot, updated);
+		assertFalse(updated.isStale());
+		var e = updated.exchangesOf(process.id,
+				ConversionTable.create(db), FlowTable.create(db)::type)
+			.stream()
+			.filter(ex -> ex.exchangeId == emission.id)
+			.findAny()
+			.orElseThrow();
+		assertEquals(5, e.amount, 1e-16);
+
+		// a new file was written and the old one deleted
+		var next = snapshotFiles();
+		assertEquals(1, next.length);
+		assertNotEquals(files[0].getName(), next[0].getName());
+		assertSame(updated, ExchangeSnapshot.of(db).orElseThrow());
+	}
+
+	private File[] snapshotFiles() {
+		var files = db.getFileStorageLocation().listFiles(
+			f -> f.getName().startsWith("exchanges.")
+				&& f.getName().endsWith(".snapshot"));
+		assertNotNull(files);
+		return files;
+	}
+
+	private HashMap<Long, CalcExchange> exchanges() {
+		var map = new HashMap<Long, CalcExchange>();
+		new ExchangeTable(db).each(e -> {
+			if (e.processId == process.id) {
+				map.put(e.exchangeId, e);
+			}
+		});
+		return map;
+	}
+}
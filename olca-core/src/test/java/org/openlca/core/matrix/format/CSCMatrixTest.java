@@ -164,6 +164,18 @@ public class CSCMatrixTest {
 		return vals;
 	}
 
+	@Test
+	public void testByteSize() {
+		var hpm = new HashPointMatrix(1000, 1000);
+		for (int i = 0; i < 1000; i++) {
+			hpm.set(i, i, 1);
+		}
+		var csc = CSCMatrix.of(hpm);
+		// 1000 values and row indices and 1001 column pointers
+		assertEquals(8 * 1000 + 4 * (1000 + 1001), csc.byteSize());
+		assertEquals(8L * 1000 * 1000, new DenseMatrix(1000, 1000).byteSize());
+	}
+
 	private int[] v(int... vals) {
 		return vals;
 	}
@@ -0,0 +1,84 @@
+package org.openlca.core.matrix.format;
+
+import static org.junit.Assert.*;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public record ColumnOperationsTest(MatrixReader matrix) {
+
+	private static final double[][] data = {
+		{1, 0, 4},
+		{0, 3, 0},
+		{2, 0, 5}
+	};
+
+	@Parameterized.Parameters
+	public static Collection<MatrixReader> setup() {
+		return List.of(
+			DenseMatrix.of(data),
+			HashPointMatrix.of(data),
+			CSCMatrix.of(data),
+			JavaMatrix.of(data));
+	}
+
+	@Test
+	public void testIterateColumn() {
+		for (int j = 0; j < 3; j++) {
+			var column = new double[3];
+			int col = j;
+			matrix.iterateColumn(j, (row, c, val) -> {
+				assertEquals(col, c);
+				assertNotEquals(0, val, 1e-16);
+				column[row] = val;
+			});
+			assertArrayEquals(matrix.getColumn(j), column, 1e-16);
+		}
+	}
+
+	@Test
+	public void testScaleColumn() {
+		var m = matrix.copy();
+		if (m instanceof CSCMatrix csc) {
+			csc.scaleColumn(2, 0.5);
+		} else if (m instanceof Matrix mutable) {
+			mutable.scaleColumn(2, 0.5);
+		} else {
+			fail("unexpected matrix type: " + m.getClass());
+		}
+		assertArrayEquals(new double[]{1, 0, 2}, m.getColumn(0), 1e-16);
+		assertArrayEquals(new double[]{2, 0, 2.5}, m.getColumn(2), 1e-16);
+	}
+
+	@Test
+	public void testMultiplyVector() {
+		var v = matrix.multiply(new double[]{1, 2, 3});
+		assertArrayEquals(new double[]{13, 6, 17}, v, 1e-16);
+	}
+
+	@Test
+	public void testMultiplyMatrix() {
+		var expected = DenseMatrix.of(new double[][]{
+			{9, 0, 24},
+			{0, 9, 0},
+			{12, 0, 33}
+		});
+		for (var b : setup()) {
+			var c = matrix.multiply(b);
+			assertEquals(matrix.isSparse() && b.isSparse(), c.isSparse());
+			for (int j = 0; j < 3; j++) {
+				assertArrayEquals(expected.getColumn(j), c.getColumn(j), 1e-16);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMultiplyMismatch() {
+		matrix.multiply(new DenseMatrix(2, 3));
+	}
+}
@@ -0,0 +1,50 @@
+package org.openlca.core.matrix.io.npy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.matrix.format.DenseMatrix;
+import org.openlca.core.matrix.io.NpyColumnWriter;
+import org.openlca.core.matrix.io.NpyMatrix;
+import org.openlca.util.Dirs;
+
+public class NpyColumnWriterTest {
+
+	private File dir;
+
+	@Before
+	public void setup() throws Exception {
+		dir = Files.createTempDirectory("_olca_tests").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		Dirs.delete(dir);
+	}
+
+	@Test
+	public void testWriteBlocks() {
+		var matrix = DenseMatrix.of(new double[][]{
+			{1, 2, 3, 4, 5},
+			{6, 7, 8, 9, 10},
+		});
+		var file = new File(dir, "M.npy");
+		try (var writer = NpyColumnWriter.of(file, 2, 5)) {
+			// write the blocks in reverse order
+			writer.write(3, DenseMatrix.of(new double[][]{{4, 5}, {9, 10}}));
+			writer.write(0, DenseMatrix.of(new double[][]{{1, 2, 3}, {6, 7, 8}}));
+		}
+		var read = NpyMatrix.read(file);
+		assertEquals(2, read.rows());
+		assertEquals(5, read.columns());
+		for (int j = 0; j < 5; j++) {
+			assertArrayEquals(matrix.getColumn(j), read.getColumn(j), 1e-16);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package org.openlca.core.matrix.io.npy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.matrix.format.CSCMatrix;
+import org.openlca.core.matrix.format.DenseMatrix;
+import org.openlca.core.matrix.format.HashPointMatrix;
+import org.openlca.core.matrix.format.MatrixReader;
+import org.openlca.core.matrix.io.NpyMatrix;
+import org.openlca.util.Dirs;
+
+public class NpyMappingTest {
+
+	private final double[][] data = {
+		{1, 0, 3, 0},
+		{0, 5, 0, 7},
+		{8, 0, 9, 0},
+	};
+
+	private File dir;
+
+	@Before
+	public void setup() throws Exception {
+		dir = Files.createTempDirectory("_olca_tests").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		Dirs.delete(dir);
+	}
+
+	@Test
+	public void testMapDense() {
+		var file = NpyMatrix.write(dir, "M", DenseMatrix.of(data));
+		var mapped = NpyMatrix.map(file);
+		assertFalse(mapped instanceof DenseMatrix);
+		assertFalse(mapped.isSparse());
+		check(mapped);
+	}
+
+	@Test
+	public void testMapSparse() {
+		var file = NpyMatrix.write(dir, "A", HashPointMatrix.of(data));
+		assertTrue(file.getName().endsWith(".npz"));
+		var mapped = NpyMatrix.map(file);
+		assertFalse(mapped instanceof CSCMatrix);
+		assertTrue(mapped.isSparse());
+		check(mapped);
+
+		// the uncompressed npz file can be still read into the heap
+		check(NpyMatrix.read(file));
+	}
+
+	@Test
+	public void testMapByName() {
+		NpyMatrix.write(dir, "A", HashPointMatrix.of(data));
+		NpyMatrix.write(dir, "M", DenseMatrix.of(data));
+		check(NpyMatrix.map(dir, "A").orElseThrow());
+		check(NpyMatrix.map(dir, "M").orElseThrow());
+		assertTrue(NpyMatrix.map(dir, "B").isEmpty());
+	}
+
+	private void check(MatrixReader m) {
+		assertEquals(3, m.rows());
+		assertEquals(4, m.columns());
+		for (int row = 0; row < 3; row++) {
+			assertArrayEquals(data[row], m.getRow(row), 1e-16);
+			for (int col = 0; col < 4; col++) {
+				assertEquals(data[row][col], m.get(row, col), 1e-16);
+			}
+		}
+		assertArrayEquals(new double[]{0, 5, 0}, m.getColumn(1), 1e-16);
+		assertArrayEquals(new double[]{1, 5, 9}, m.diag(), 1e-16);
+		assertArrayEquals(
+			new double[]{4, 19, 17}, m.multiply(new double[]{1, 1, 1, 2}), 1e-16);
+		var copy = m.copy();
+		for (int col = 0; col < 4; col++) {
+			assertArrayEquals(m.getColumn(col), copy.getColumn(col), 1e-16);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package org.openlca.core.matrix.linking;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+import org.openlca.core.TestProcess;
+import org.openlca.core.Tests;
+import org.openlca.core.matrix.cache.MatrixCache;
+import org.openlca.core.matrix.index.TechFlow;
+import org.openlca.core.matrix.index.TechIndex;
+
+public class TechIndexBuilderTest {
+
+	@Test
+	public void testParallelLinking() {
+		// p -> q_i -> r -> s, with 8 providers q_i in the first block
+		var s = TestProcess.refProduct("tib-s", 1, "kg").get();
+		var r = TestProcess.refProduct("tib-r", 1, "kg")
+				.prodIn("tib-s", 0.5, "kg")
+				.get();
+		var p = TestProcess.refProduct("tib-p", 1, "kg");
+		for (int i = 0; i < 8; i++) {
+			TestProcess.refProduct("tib-q" + i, 1, "kg")
+					.prodIn("tib-r", 1, "kg")
+					.get();
+			p.prodIn("tib-q" + i, 1, "kg");
+		}
+		var process = p.get();
+
+		var ref = TechFlow.of(process);
+		var sequential = build(ref, 1);
+		var parallel = build(ref, 4);
+
+		// 1 + 8 + 1 + 1 providers and 8 + 8 + 1 links
+		assertEquals(11, sequential.size());
+		assertEquals(17, sequential.getLinkedExchanges().size());
+		assertEquals(sequential.size(), parallel.size());
+		for (int i = 0; i < sequential.size(); i++) {
+			assertEquals(sequential.at(i), parallel.at(i));
+		}
+		assertEquals(new ArrayList<>(sequential.getLinkedExchanges()),
+				new ArrayList<>(parallel.getLinkedExchanges()));
+		assertEquals(r.id, sequential.at(9).providerId());
+		assertEquals(s.id, sequential.at(10).providerId());
+	}
+
+	private TechIndex build(TechFlow ref, int threads) {
+		var cache = MatrixCache.createLazy(Tests.getDb());
+		var config = new LinkingConfig().threads(threads);
+		return new TechIndexBuilder(cache, null, config).build(ref);
+	}
+}
@@ -0,0 +1,82 @@
+package org.openlca.core.matrix.solvers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.openlca.core.matrix.format.DenseMatrix;
+import org.openlca.core.matrix.format.MatrixReader;
+
+public class FactorizationCacheTest {
+
+	@Test
+	public void testShareEqualMatrices() {
+		var solver = new TrackingSolver();
+		var cache = FactorizationCache.of(2);
+		var f1 = cache.factorize(solver, matrix(2));
+		var f2 = cache.factorize(solver, matrix(2));
+		assertEquals(1, solver.factorizations.size());
+		assertEquals(1, cache.size());
+		assertArrayEquals(new double[]{0.5, 0.5}, f1.solve(0, 1), 1e-10);
+		assertArrayEquals(new double[]{0.5, 0.5}, f2.solve(0, 1), 1e-10);
+
+		// another matrix or solver type gives another factorization
+		cache.factorize(solver, matrix(3));
+		cache.factorize(new JavaSolver(), matrix(2));
+		assertEquals(2, solver.factorizations.size());
+	}
+
+	@Test
+	public void testReferenceCounting() {
+		var solver = new TrackingSolver();
+		var cache = FactorizationCache.of(1);
+		var f1 = cache.factorize(solver, matrix(2));
+		var f2 = cache.factorize(solver, matrix(2));
+		var shared = solver.factorizations.get(0);
+
+		f1.dispose();
+		f1.dispose(); // releases the reference only once
+		assertTrue(f1.isDisposed());
+		assertFalse(shared.isDisposed());
+
+		// evicts the first factorization from the cache
+		cache.factorize(solver, matrix(3));
+		assertEquals(1, cache.size());
+		assertFalse(shared.isDisposed());
+
+		// the last reference is released
+		f2.dispose();
+		assertTrue(shared.isDisposed());
+
+		// a new factorization is created for an evicted matrix
+		cache.factorize(solver, matrix(2));
+		assertEquals(3, solver.factorizations.size());
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	private MatrixReader matrix(double diag) {
+		var m = new DenseMatrix(2, 2);
+		m.set(0, 0, diag);
+		m.set(1, 1, 1);
+		m.set(1, 0, -1);
+		return m;
+	}
+
+	private static class TrackingSolver extends JavaSolver {
+
+		final List<Factorization> factorizations = new ArrayList<>();
+
+		@Override
+		public Factorization factorize(MatrixReader matrix) {
+			var f = super.factorize(matrix);
+			factorizations.add(f);
+			return f;
+		}
+	}
+}
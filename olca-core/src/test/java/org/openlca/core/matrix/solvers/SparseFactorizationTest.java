@@ -54,6 +54,24 @@ public class SparseFactorizationTest {
 		assertTrue(f.isDisposed());
 	}
 
+	@Test
+	public void testTransposedSolve() {
+		var m = HashPointMatrix.of(new double[][] {
+				{ 2.0, 3.0, 0.0, 0.0, 0.0 },
+				{ 3.0, 0.0, 4.0, 0.0, 6.0 },
+				{ 0.0, -1.0, -3.0, 2.0, 0.0 },
+				{ 0.0, 0.0, 1.0, 0.0, 0.0 },
+				{ 0.0, 4.0, 2.0, 0.0, 1.0 } });
+		var f = SparseFactorization.of(CSCMatrix.of(m));
+		// b = A^T * [1, 2, 3, 4, 5]
+		double[] b = { 8., 20., 13., 6., 17. };
+		double[] x = f.solveTransposed(b);
+		assertArrayEquals(
+				new double[] { 1d, 2d, 3d, 4d, 5d }, x, 1e-8);
+		f.dispose();
+		assertTrue(f.isDisposed());
+	}
+
 	@Test
 	public void testIdentity() {
 		var hashPoints = new HashPointMatrix(100, 100);
@@ -0,0 +1,183 @@
+package org.openlca.core.matrix.solvers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.math3.linear.SingularMatrixException;
+import org.junit.Test;
+import org.openlca.core.matrix.format.CSCMatrix;
+import org.openlca.core.matrix.format.DenseMatrix;
+import org.openlca.core.matrix.format.HashPointMatrix;
+
+public class SparseLUTest {
+
+	@Test
+	public void testSingleSolution() {
+		var m = HashPointMatrix.of(new double[][]{
+			{2.0, 3.0, 0.0, 0.0, 0.0},
+			{3.0, 0.0, 4.0, 0.0, 6.0},
+			{0.0, -1.0, -3.0, 2.0, 0.0},
+			{0.0, 0.0, 1.0, 0.0, 0.0},
+			{0.0, 4.0, 2.0, 0.0, 1.0}});
+		var lu = SparseLU.of(CSCMatrix.of(m));
+		double[] b = {8., 45., -3., 3., 19.};
+		double[] x = lu.solve(b);
+		assertArrayEquals(
+			new double[]{1d, 2d, 3d, 4d, 5d}, x, 1e-8);
+		lu.dispose();
+		assertTrue(lu.isDisposed());
+	}
+
+	@Test
+	public void testIdentity() {
+		var m = new HashPointMatrix(100, 100);
+		for (int i = 0; i < 100; i++) {
+			m.set(i, i, 1.0);
+		}
+		var lu = SparseLU.of(m);
+		for (int i = 0; i < 100; i++) {
+			var b = new double[100];
+			b[i] = 1.0;
+			assertArrayEquals(b, lu.solve(b), 1e-10);
+		}
+	}
+
+	@Test
+	public void testRandomSystems() {
+		var rand = new Random(42);
+		for (int n : new int[]{1, 2, 10, 50, 200}) {
+			var a = randomTechMatrix(rand, n);
+			var lu = SparseLU.of(a);
+			var dense = new JavaSolver().factorize(DenseMatrix.of(a));
+			for (int j = 0; j < n; j += Math.max(1, n / 10)) {
+				var expected = dense.solve(j, 1.0);
+				var x = lu.solve(j, 1.0);
+				assertArrayEquals(expected, x, 1e-9);
+				// check the residual
+				var r = a.multiply(x);
+				for (int i = 0; i < n; i++) {
+					assertEquals(i == j ? 1.0 : 0.0, r[i], 1e-9);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testOffDiagonalPivots() {
+		// a permutation matrix has only zeros on the diagonal
+		var a = HashPointMatrix.of(new double[][]{
+			{0, 0, 2},
+			{3, 0, 0},
+			{0, 4, 0}});
+		var x = SparseLU.of(a).solve(new double[]{2, 3, 4});
+		assertArrayEquals(new double[]{1, 1, 1}, x, 1e-12);
+	}
+
+	@Test(expected = SingularMatrixException.class)
+	public void testSingular() {
+		var a = HashPointMatrix.of(new double[][]{
+			{1, 2},
+			{2, 4}});
+		SparseLU.of(a);
+	}
+
+	@Test
+	public void testSolverDefaults() {
+		var solver = new JavaSparseSolver();
+		assertTrue(solver.hasSparseSupport());
+		var a = randomTechMatrix(new Random(7), 30);
+		var s = solver.solve(a, 3, 2.0);
+		var r = a.multiply(s);
+		for (int i = 0; i < 30; i++) {
+			assertEquals(i == 3 ? 2.0 : 0.0, r[i], 1e-9);
+		}
+
+		var inv = solver.invert(a);
+		var expected = new JavaSolver().invert(DenseMatrix.of(a));
+		for (int j = 0; j < 30; j++) {
+			assertArrayEquals(expected.getColumn(j), inv.getColumn(j), 1e-9);
+		}
+
+		var b = randomTechMatrix(new Random(8), 30);
+		var c = solver.multiply(a, b);
+		var cExpected = new JavaSolver().multiply(
+			DenseMatrix.of(a), DenseMatrix.of(b));
+		for (int j = 0; j < 30; j++) {
+			assertArrayEquals(cExpected.getColumn(j), c.getColumn(j), 1e-9);
+		}
+	}
+
+	@Test
+	public void testBlockSolve() {
+		var rand = new Random(21);
+		for (int n : new int[]{1, 5, 40}) {
+			var a = randomTechMatrix(rand, n);
+			var sparse = SparseLU.of(a);
+			var dense = new JavaSolver().factorize(DenseMatrix.of(a));
+			var columns = new int[Math.min(n, 7)];
+			for (int k = 0; k < columns.length; k++) {
+				columns[k] = rand.nextInt(n);
+			}
+			var block = sparse.solve(columns);
+			var denseBlock = dense.solve(columns);
+			assertEquals(n, block.rows());
+			assertEquals(columns.length, block.columns());
+			for (int k = 0; k < columns.length; k++) {
+				var expected = sparse.solve(columns[k], 1.0);
+				assertArrayEquals(expected, block.getColumn(k), 1e-12);
+				assertArrayEquals(expected, denseBlock.getColumn(k), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testTransposedSolve() {
+		var rand = new Random(13);
+		for (int n : new int[]{1, 2, 10, 50}) {
+			var a = randomTechMatrix(rand, n);
+			var b = new double[n];
+			for (int i = 0; i < n; i++) {
+				b[i] = rand.nextDouble();
+			}
+			var sparse = SparseLU.of(a);
+			var dense = new JavaSolver().factorize(DenseMatrix.of(a));
+			var fallback = new JavaSparseSolver().factorize(
+				CSCMatrix.of(a).transpose());
+
+			var x = sparse.solveTransposed(b);
+			assertArrayEquals(dense.solveTransposed(b), x, 1e-9);
+			assertArrayEquals(fallback.solve(b), x, 1e-9);
+
+			// check the residual of A^T * x = b
+			for (int j = 0; j < n; j++) {
+				double r = 0;
+				for (int i = 0; i < n; i++) {
+					r += a.get(i, j) * x[i];
+				}
+				assertEquals(b[j], r, 1e-9);
+			}
+		}
+	}
+
+	/**
+	 * Creates a random, sparse technology matrix with positive outputs on the
+	 * diagonal and a few negative inputs (including some loops).
+	 */
+	private HashPointMatrix randomTechMatrix(Random rand, int n) {
+		var m = new HashPointMatrix(n, n);
+		for (int j = 0; j < n; j++) {
+			m.set(j, j, 1 + rand.nextDouble());
+			int inputs = rand.nextInt(Math.min(n, 5));
+			for (int k = 0; k < inputs; k++) {
+				int i = rand.nextInt(n);
+				if (i != j) {
+					m.set(i, j, -0.5 * rand.nextDouble());
+				}
+			}
+		}
+		return m;
+	}
+}
@@ -0,0 +1,207 @@
+package org.openlca.core.results.providers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.openlca.core.matrix.Demand;
+import org.openlca.core.matrix.MatrixData;
+import org.openlca.core.matrix.format.HashPointMatrix;
+import org.openlca.core.matrix.format.JavaMatrix;
+import org.openlca.core.matrix.index.EnviFlow;
+import org.openlca.core.matrix.index.EnviIndex;
+import org.openlca.core.matrix.index.ImpactIndex;
+import org.openlca.core.matrix.index.TechFlow;
+import org.openlca.core.matrix.index.TechIndex;
+import org.openlca.core.matrix.solvers.JavaSolver;
+import org.openlca.core.matrix.solvers.JavaSparseSolver;
+import org.openlca.core.matrix.solvers.MatrixSolver;
+import org.openlca.core.model.FlowType;
+import org.openlca.core.model.descriptors.FlowDescriptor;
+import org.openlca.core.model.descriptors.ImpactDescriptor;
+import org.openlca.core.model.descriptors.ProcessDescriptor;
+
+public class FactorizationSolverTest {
+
+	@Test
+	public void testRowsOfSparseSystem() {
+		checkRows(new JavaSparseSolver());
+	}
+
+	@Test
+	public void testRowsOfDenseSystem() {
+		checkRows(new JavaSolver());
+	}
+
+	@Test
+	public void testBoundedCache() {
+		var data = data(true);
+		var full = FactorizationSolver.solve(SolverContext.of(data)
+			.solver(new JavaSparseSolver()));
+		// space for one vector with 3 values
+		var bounded = FactorizationSolver.solve(SolverContext.of(data)
+			.solver(new JavaSparseSolver())
+			.cacheSize(40));
+		for (int round = 0; round < 2; round++) {
+			for (int j = 0; j < 3; j++) {
+				assertArrayEquals(full.solutionOfOne(j), bounded.solutionOfOne(j), 0);
+				assertArrayEquals(
+					full.totalImpactsOfOne(j), bounded.totalImpactsOfOne(j), 0);
+				assertEquals(full.loopFactorOf(j), bounded.loopFactorOf(j), 0);
+			}
+		}
+		var cache = bounded.cache();
+		// the last cached vector is the impact column with 2 values
+		assertEquals(1, cache.size());
+		assertEquals(32, cache.bytes());
+		assertTrue(cache.evictions() > 0);
+		assertTrue(cache.misses() > 0);
+		assertTrue(full.cache().hits() > 0);
+	}
+
+	@Test
+	public void testBatchSolutions() {
+		var data = data(true);
+		var r = FactorizationSolver.solve(SolverContext.of(data)
+			.solver(new JavaSparseSolver()));
+		var expected = new double[3][];
+		for (int j = 0; j < 3; j++) {
+			expected[j] = new JavaSparseSolver().solve(data.techMatrix, j, 1.0);
+		}
+		var solutions = r.solutionsOfOne(new int[]{2, 1, 2, 0});
+		assertArrayEquals(expected[2], solutions[0], 1e-12);
+		assertArrayEquals(expected[1], solutions[1], 1e-12);
+		assertArrayEquals(expected[2], solutions[2], 1e-12);
+		assertArrayEquals(expected[0], solutions[3], 1e-12);
+
+		// the solutions are now cached
+		long hits = r.cache().hits();
+		r.solutionOfOne(1);
+		assertEquals(hits + 1, r.cache().hits());
+	}
+
+	@Test
+	public void testBatchTotalFactors() {
+		var data = data(true);
+		var expected = InversionResult.of(new JavaSparseSolver(), data)
+			.calculate()
+			.provider();
+		var r = FactorizationSolver.solve(SolverContext.of(data)
+			.solver(new JavaSparseSolver()));
+		long cached = r.cache().size();
+		var factors = r.totalFactorsOf(new int[]{2, 0, 1, 2});
+		assertEquals(expected.totalFactorOf(2), factors[0], 1e-12);
+		assertEquals(expected.totalFactorOf(0), factors[1], 1e-12);
+		assertEquals(expected.totalFactorOf(1), factors[2], 1e-12);
+		assertEquals(expected.totalFactorOf(2), factors[3], 1e-12);
+
+		// the loop factors are derived from block solutions; no single
+		// solutions are calculated and cached for them
+		assertEquals(cached, r.cache().size());
+		for (int j = 0; j < 3; j++) {
+			assertEquals(expected.loopFactorOf(j), r.loopFactorOf(j), 1e-12);
+		}
+		assertEquals(cached, r.cache().size());
+	}
+
+	/**
+	 * The rows of the intensity matrices that are calculated with transposed
+	 * solves must be equal to the values of the respective columns.
+	 */
+	private void checkRows(MatrixSolver solver) {
+		var data = data(solver.hasSparseSupport());
+		var r = FactorizationSolver.solve(SolverContext.of(data).solver(solver));
+		var n = data.techIndex.size();
+
+		for (int i = 0; i < data.enviIndex.size(); i++) {
+			var expected = new double[n];
+			for (int j = 0; j < n; j++) {
+				expected[j] = r.totalFlowsOfOne(j)[i];
+			}
+			assertArrayEquals(expected, r.totalFlowsOfOneRow(i), 1e-12);
+		}
+
+		for (int k = 0; k < data.impactIndex.size(); k++) {
+			var expected = new double[n];
+			for (int j = 0; j < n; j++) {
+				expected[j] = r.totalImpactsOfOne(j)[k];
+			}
+			assertArrayEquals(expected, r.totalImpactsOfOneRow(k), 1e-12);
+		}
+
+		var costs = r.totalCostsOfOneRow();
+		for (int j = 0; j < n; j++) {
+			double expected = 0;
+			var s = r.solutionOfOne(j);
+			for (int i = 0; i < n; i++) {
+				expected += data.costVector[i] * s[i];
+			}
+			assertEquals(expected, costs[j], 1e-12);
+			assertEquals(expected, r.totalCostsOfOne(j), 1e-12);
+		}
+	}
+
+	private MatrixData data(boolean sparse) {
+		var data = new MatrixData();
+		data.techIndex = new TechIndex(product("p1"));
+		data.techIndex.add(product("p2"));
+		data.techIndex.add(product("p3"));
+		data.demand = Demand.of(data.techIndex.at(0), 2.0);
+		data.enviIndex = EnviIndex.create();
+		data.enviIndex.add(EnviFlow.inputOf(flow("r")));
+		data.enviIndex.add(EnviFlow.outputOf(flow("e")));
+		data.impactIndex = new ImpactIndex();
+		data.impactIndex.add(impact("i1"));
+		data.impactIndex.add(impact("i2"));
+
+		double[][] a = {
+			{1.0, -0.5, 0.0},
+			{-0.2, 1.0, -0.4},
+			{0.0, -0.1, 2.0}};
+		data.techMatrix = sparse
+			? HashPointMatrix.of(a)
+			: JavaMatrix.of(a);
+		data.enviMatrix = JavaMatrix.of(new double[][]{
+			{-1.0, -2.0, 0.0},
+			{0.5, 0.0, 3.0}});
+		data.impactMatrix = JavaMatrix.of(new double[][]{
+			{-1.0, 2.0},
+			{0.0, 4.0}});
+		data.costVector = new double[]{1.0, 2.5, -0.5};
+		return data;
+	}
+
+	private TechFlow product(String name) {
+		var flow = new FlowDescriptor();
+		flow.id = id();
+		flow.name = name;
+		flow.flowType = FlowType.PRODUCT_FLOW;
+		var process = new ProcessDescriptor();
+		process.id = id();
+		process.name = name;
+		return TechFlow.of(process, flow);
+	}
+
+	private FlowDescriptor flow(String name) {
+		var flow = new FlowDescriptor();
+		flow.id = id();
+		flow.name = name;
+		flow.flowType = FlowType.ELEMENTARY_FLOW;
+		return flow;
+	}
+
+	private ImpactDescriptor impact(String name) {
+		var impact = new ImpactDescriptor();
+		impact.id = id();
+		impact.name = name;
+		return impact;
+	}
+
+	private long id() {
+		return ThreadLocalRandom.current()
+			.nextInt(1, Integer.MAX_VALUE);
+	}
+}
@@ -0,0 +1,120 @@
+package org.openlca.core.results.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.openlca.core.results.providers.SolutionCache.Kind;
+
+public class SolutionCacheTest {
+
+	@Test
+	public void testLeastRecentlyUsed() {
+		// space for two vectors with 10 values
+		var cache = SolutionCache.of(2 * (16 + 80));
+		cache.put(Kind.SOLUTION, 1, new double[10]);
+		cache.put(Kind.SOLUTION, 2, new double[10]);
+		assertNotNull(cache.get(Kind.SOLUTION, 1));
+
+		// 2 is now the least recently used vector
+		cache.put(Kind.FLOW_COLUMN, 1, new double[10]);
+		assertNull(cache.get(Kind.SOLUTION, 2));
+		assertNotNull(cache.get(Kind.SOLUTION, 1));
+		assertNotNull(cache.get(Kind.FLOW_COLUMN, 1));
+
+		assertEquals(2, cache.size());
+		assertEquals(2 * (16 + 80), cache.bytes());
+		assertEquals(3, cache.hits());
+		assertEquals(1, cache.misses());
+		assertEquals(1, cache.evictions());
+	}
+
+	@Test
+	public void testLargeVectors() {
+		var cache = SolutionCache.of(100);
+		cache.put(Kind.SOLUTION, 1, new double[5]);
+		cache.put(Kind.SOLUTION, 2, new double[100]);
+		assertNull(cache.peek(Kind.SOLUTION, 2));
+		assertNotNull(cache.peek(Kind.SOLUTION, 1));
+
+		// replacing a vector updates the size
+		cache.put(Kind.SOLUTION, 1, new double[10]);
+		assertEquals(1, cache.size());
+		assertEquals(96, cache.bytes());
+		assertEquals(0, cache.hits() + cache.misses());
+	}
+
+	@Test
+	public void testDisabled() {
+		var cache = SolutionCache.of(0);
+		cache.put(Kind.SOLUTION, 1, new double[1]);
+		assertNull(cache.get(Kind.SOLUTION, 1));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.misses());
+	}
+
+	@Test
+	public void testSharedBudget() {
+		var defaultSize = SolutionCache.defaultSize();
+		var a = SolutionCache.of(1000);
+		var b = SolutionCache.of(1000);
+		try {
+			// space for two vectors with 10 values in all caches
+			SolutionCache.setTotalSize(
+				SolutionCache.totalBytes() + 2 * (16 + 80));
+			a.put(Kind.SOLUTION, 1, new double[10]);
+			b.put(Kind.SOLUTION, 1, new double[10]);
+			assertEquals(1, a.size());
+			assertEquals(1, b.size());
+
+			// b has to evict its own vectors to stay in the budget
+			b.put(Kind.SOLUTION, 2, new double[10]);
+			assertEquals(1, a.size());
+			assertEquals(1, b.size());
+			assertNotNull(b.peek(Kind.SOLUTION, 2));
+
+			// clearing a cache releases its bytes
+			a.clear();
+			b.put(Kind.SOLUTION, 3, new double[10]);
+			assertEquals(2, b.size());
+		} finally {
+			a.clear();
+			b.clear();
+			SolutionCache.setTotalSize(defaultSize);
+		}
+	}
+
+	@Test
+	public void testKeepInsertedVector() {
+		var defaultSize = SolutionCache.defaultSize();
+		var a = SolutionCache.of(1000);
+		var b = SolutionCache.of(1000);
+		try {
+			// space for two vectors with 10 values in all caches
+			SolutionCache.setTotalSize(
+				SolutionCache.totalBytes() + 2 * (16 + 80));
+			a.put(Kind.SOLUTION, 1, new double[10]);
+			b.put(Kind.SOLUTION, 1, new double[10]);
+
+			// the budget forces an eviction in b; the new vector is kept
+			b.put(Kind.SOLUTION, 2, new double[10]);
+			assertNotNull(b.peek(Kind.SOLUTION, 2));
+			assertNull(b.peek(Kind.SOLUTION, 1));
+			assertEquals(1, b.evictions());
+
+			// the vectors of a leave no space for a larger vector in b; it
+			// is rejected and b keeps its vectors
+			b.put(Kind.SOLUTION, 3, new double[20]);
+			assertNull(b.peek(Kind.SOLUTION, 3));
+			assertNotNull(b.peek(Kind.SOLUTION, 2));
+			assertEquals(1, b.rejections());
+			assertEquals(1, b.evictions());
+			assertEquals(1, a.size());
+		} finally {
+			a.clear();
+			b.clear();
+			SolutionCache.setTotalSize(defaultSize);
+		}
+	}
+}
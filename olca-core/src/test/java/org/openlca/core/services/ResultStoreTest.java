@@ -0,0 +1,157 @@
+package org.openlca.core.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ResultStoreTest {
+
+	@Test
+	public void testMaxCount() {
+		var store = ResultStore.<String>create().withMaxCount(2);
+		store.put("a", "A");
+		store.put("b", "B");
+		store.get("a"); // b is now the least recently used
+		store.put("c", "C");
+		assertEquals(2, store.size());
+		assertEquals("A", store.get("a"));
+		assertNull(store.get("b"));
+		assertEquals("C", store.get("c"));
+	}
+
+	@Test
+	public void testMaxWeight() {
+		var store = ResultStore.<String>create()
+				.withMaxWeight(10, String::length);
+		store.put("a", "12345");
+		store.put("b", "12345");
+		assertEquals(10, store.weight());
+		store.put("c", "123");
+		assertEquals(2, store.size());
+		assertEquals(8, store.weight());
+		assertEquals("123", store.remove("c"));
+		assertEquals(5, store.weight());
+	}
+
+	@Test
+	public void testIdleTimeout() throws Exception {
+		var store = ResultStore.<String>create()
+				.withIdleTimeout(20, TimeUnit.MILLISECONDS);
+		store.put("a", "A");
+		Thread.sleep(40);
+		store.removeIdle();
+		assertNull(store.get("a"));
+		assertEquals(0, store.size());
+	}
+
+	@Test
+	public void testDisposer() throws Exception {
+		var disposed = new ArrayList<String>();
+		var store = ResultStore.<String>create()
+				.withMaxCount(1)
+				.withIdleTimeout(20, TimeUnit.MILLISECONDS)
+				.withDisposer(disposed::add);
+		store.put("a", "A");
+		store.put("b", "B"); // evicts A
+		assertEquals(List.of("A"), disposed);
+
+		// removed objects are returned and not disposed
+		assertEquals("B", store.remove("b"));
+		assertEquals(List.of("A"), disposed);
+
+		store.put("c", "C");
+		store.put("c", "C2"); // replaces C
+		Thread.sleep(40);
+		store.removeIdle();
+		assertEquals(List.of("A", "C", "C2"), disposed);
+	}
+
+	@Test
+	public void testEvictedIds() {
+		var store = ResultStore.<String>create().withMaxCount(1);
+		store.put("a", "A");
+		store.put("b", "B");
+		assertFalse(store.contains("a"));
+		assertTrue(store.isEvicted("a"));
+		assertFalse(store.isEvicted("b"));
+		assertFalse(store.isEvicted("c"));
+
+		// adding or removing an object forgets the eviction
+		store.put("a", "A");
+		assertFalse(store.isEvicted("a"));
+		assertTrue(store.isEvicted("b"));
+		store.remove("b");
+		assertFalse(store.isEvicted("b"));
+	}
+
+	@Test
+	public void testKeepAdded() {
+		var disposed = new ArrayList<String>();
+		var store = ResultStore.<String>create()
+				.withMaxWeight(4, String::length)
+				.withDisposer(disposed::add);
+		store.put("a", "123");
+		store.put("b", "12345"); // exceeds the bounds alone
+		assertEquals("12345", store.get("b"));
+		assertNull(store.get("a"));
+		assertEquals(List.of("123"), disposed);
+	}
+
+	@Test
+	public void testPinnedDisposal() {
+		var disposed = new ArrayList<String>();
+		var store = ResultStore.<String>create()
+				.withMaxCount(1)
+				.withDisposer(disposed::add);
+		store.put("a", "A");
+		try (var lease = store.acquire("a")) {
+			assertEquals("A", lease.value());
+			store.put("b", "B"); // evicts A while it is used
+			assertTrue(store.isEvicted("a"));
+			assertTrue(disposed.isEmpty());
+		}
+		assertEquals(List.of("A"), disposed);
+		assertNull(store.acquire("a"));
+
+		// disposing a pinned object is deferred too
+		var lease = store.acquire("b");
+		assertTrue(store.dispose("b"));
+		assertFalse(store.contains("b"));
+		assertEquals(List.of("A"), disposed);
+		lease.close();
+		lease.close();
+		assertEquals(List.of("A", "B"), disposed);
+	}
+
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		var store = ResultStore.<Integer>create()
+				.withMaxWeight(100, i -> 1);
+		var pool = Executors.newFixedThreadPool(4);
+		for (int t = 0; t < 4; t++) {
+			int thread = t;
+			pool.submit(() -> {
+				for (int i = 0; i < 1000; i++) {
+					var id = thread + "/" + i;
+					store.put(id, i);
+					store.get(id);
+					if (i % 3 == 0) {
+						store.remove(id);
+					}
+				}
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+		assertTrue(store.size() <= 100);
+		assertEquals(store.size(), store.weight());
+	}
+}
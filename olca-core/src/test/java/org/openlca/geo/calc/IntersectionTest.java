@@ -1,5 +1,6 @@
 package org.openlca.geo.calc;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Assert;
@@ -9,6 +10,7 @@ import org.openlca.geo.geojson.FeatureCollection;
 import org.openlca.geo.geojson.Geometry;
 import org.openlca.geo.geojson.LineString;
 import org.openlca.geo.geojson.Point;
+import org.openlca.geo.geojson.Polygon;
 import org.openlca.util.Pair;
 
 public class IntersectionTest {
@@ -48,6 +50,58 @@ public class IntersectionTest {
 		Assert.assertTrue(r.isEmpty());
 	}
 
+	@Test
+	public void testBatchShares() {
+		// a grid of 10 x 10 unit squares
+		var coll = new FeatureCollection();
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 10; y++) {
+				var f = new Feature();
+				f.geometry = square(x, y, 1);
+				coll.features.add(f);
+			}
+		}
+		var calc = IntersectionCalculator.on(coll, Projection.identity());
+
+		// a square that covers 4 cells completely, one that covers 4 cells
+		// partially, one outside of the grid, and no geometry
+		var locations = new ArrayList<Geometry>();
+		locations.add(square(2, 2, 2));
+		locations.add(square(4.5, 4.5, 1));
+		locations.add(square(20, 20, 1));
+		locations.add(null);
+
+		var batch = calc.shares(locations);
+		Assert.assertEquals(4, batch.size());
+		Assert.assertEquals(4, batch.get(0).size());
+		Assert.assertEquals(4, batch.get(1).size());
+		Assert.assertTrue(batch.get(2).isEmpty());
+		Assert.assertTrue(batch.get(3).isEmpty());
+		for (int i = 0; i < 2; i++) {
+			var single = calc.shares(locations.get(i));
+			Assert.assertEquals(single.size(), batch.get(i).size());
+			for (int k = 0; k < single.size(); k++) {
+				var expected = single.get(k);
+				var actual = batch.get(i).get(k);
+				Assert.assertSame(expected.first, actual.first);
+				Assert.assertEquals(1.0, actual.second, 1e-10);
+				Assert.assertEquals(expected.second, actual.second, 1e-10);
+			}
+		}
+	}
+
+	private Polygon square(double x, double y, double size) {
+		var ring = new LineString();
+		ring.points.add(new Point(x, y));
+		ring.points.add(new Point(x + size, y));
+		ring.points.add(new Point(x + size, y + size));
+		ring.points.add(new Point(x, y + size));
+		ring.points.add(new Point(x, y));
+		var polygon = new Polygon();
+		polygon.rings.add(ring);
+		return polygon;
+	}
+
 	@Test
 	public void testLineProjection() {
 
@@ -0,0 +1,111 @@
+package org.openlca.geo.calc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.Tests;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Location;
+import org.openlca.geo.geojson.Feature;
+import org.openlca.geo.geojson.FeatureCollection;
+import org.openlca.geo.geojson.GeoJSON;
+import org.openlca.geo.geojson.LineString;
+import org.openlca.geo.geojson.Point;
+import org.openlca.geo.geojson.Polygon;
+
+public class LocationGeometriesTest {
+
+	private final IDatabase db = Tests.getDb();
+	private final List<Location> locations = new ArrayList<>();
+
+	@Before
+	public void setup() {
+		// two overlapping squares and a location without geometry
+		locations.add(location("A", square(0, 0, 2)));
+		locations.add(location("B", square(1, 1, 2)));
+		locations.add(db.insert(Location.of("C")));
+	}
+
+	@After
+	public void tearDown() {
+		for (var loc : locations) {
+			db.delete(loc);
+		}
+	}
+
+	@Test
+	public void testLookups() {
+		var a = locations.get(0).id;
+		var b = locations.get(1).id;
+		var c = locations.get(2).id;
+		var geos = LocationGeometries.of(db, 6);
+		assertFalse(geos.contains(c));
+		assertNull(geos.geometryOf(c));
+		assertNotNull(geos.geometryOf(a));
+
+		assertArrayEquals(new long[]{a}, only(geos.locationsAt(0.5, 0.5)));
+		assertArrayEquals(sorted(a, b), only(geos.locationsAt(1.5, 1.5)));
+		assertArrayEquals(new long[0], only(geos.locationsAt(5, 5)));
+		assertArrayEquals(new long[]{b},
+			only(geos.locationsIntersecting(square(2.5, 2.5, 1))));
+	}
+
+	@Test
+	public void testBatchShares() {
+		var a = locations.get(0).id;
+		var b = locations.get(1).id;
+		var feature = new Feature();
+		feature.geometry = square(0, 0, 0.5);
+		var calc = IntersectionCalculator.on(
+			FeatureCollection.of(feature), Projection.identity());
+		var shares = LocationGeometries.of(db).sharesOf(calc);
+		assertNotNull(shares.get(a));
+		assertEquals(1, shares.get(a).size());
+		assertEquals(1.0, shares.get(a).get(0).second, 1e-10);
+		assertNull(shares.get(b));
+	}
+
+	/**
+	 * Filters the given location IDs to the locations of this test, as the
+	 * database can contain other locations.
+	 */
+	private long[] only(long[] ids) {
+		return Arrays.stream(ids)
+			.filter(id -> locations.stream().anyMatch(loc -> loc.id == id))
+			.toArray();
+	}
+
+	private long[] sorted(long... ids) {
+		var copy = ids.clone();
+		Arrays.sort(copy);
+		return copy;
+	}
+
+	private Location location(String name, Polygon polygon) {
+		var loc = Location.of(name);
+		loc.geodata = GeoJSON.pack(FeatureCollection.of(polygon));
+		return db.insert(loc);
+	}
+
+	private Polygon square(double x, double y, double size) {
+		var ring = new LineString();
+		ring.points.add(new Point(x, y));
+		ring.points.add(new Point(x + size, y));
+		ring.points.add(new Point(x + size, y + size));
+		ring.points.add(new Point(x, y + size));
+		ring.points.add(new Point(x, y));
+		var polygon = new Polygon();
+		polygon.rings.add(ring);
+		return polygon;
+	}
+}
@@ -0,0 +1,94 @@
+package org.openlca.jsonld.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+
+import com.google.gson.JsonObject;
+import org.junit.After;
+import org.junit.Test;
+import org.openlca.core.Tests;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Actor;
+import org.openlca.core.model.ModelType;
+import org.openlca.core.model.Source;
+import org.openlca.jsonld.MemStore;
+import org.openlca.jsonld.PackageInfo;
+
+public class PrefetchImportTest {
+
+	private final IDatabase db = Tests.getDb();
+
+	@After
+	public void tearDown() {
+		db.clear();
+	}
+
+	@Test
+	public void testImportWithThreads() {
+		var store = new MemStore();
+		PackageInfo.create().writeTo(store);
+		for (int i = 0; i < 500; i++) {
+			store.put(ModelType.ACTOR, objectOf("Actor", "pf-actor-" + i));
+			store.put(ModelType.SOURCE, objectOf("Source", "pf-source-" + i));
+		}
+		new JsonImport(store, db).setThreads(4).run();
+		for (int i = 0; i < 500; i++) {
+			var actor = db.get(Actor.class, "pf-actor-" + i);
+			assertNotNull(actor);
+			assertEquals("pf-actor-" + i, actor.name);
+			assertNotNull(db.get(Source.class, "pf-source-" + i));
+		}
+	}
+
+	@Test
+	public void testSkipAndOutOfOrder() {
+		var store = new MemStore();
+		var ids = new ArrayList<String>();
+		for (int i = 0; i < 10; i++) {
+			var id = "pf-" + i;
+			ids.add(id);
+			store.put(ModelType.ACTOR, objectOf("Actor", id));
+		}
+		var pool = Executors.newFixedThreadPool(2);
+		try (var prefetch = JsonPrefetch.of(store, ModelType.ACTOR, ids, pool, 3)) {
+			prefetch.advance("pf-0");
+			assertEquals("pf-0", idOf(prefetch.take("pf-0")));
+
+			// out of order requests do not move the window
+			assertEquals("pf-2", idOf(prefetch.take("pf-2")));
+			assertNull(prefetch.take("pf-8"));
+			prefetch.advance("pf-1");
+			assertEquals("pf-1", idOf(prefetch.take("pf-1")));
+
+			// skip 3 and 4; 5 is out of the window but taken in order
+			prefetch.advance("pf-5");
+			assertEquals("pf-5", idOf(prefetch.take("pf-5")));
+
+			// already passed or unknown IDs are not served
+			assertNull(prefetch.take("pf-3"));
+			assertNull(prefetch.take("unknown"));
+			prefetch.advance("pf-6");
+			assertEquals("pf-6", idOf(prefetch.take("pf-6")));
+			prefetch.advance("pf-9");
+			assertEquals("pf-9", idOf(prefetch.take("pf-9")));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private JsonObject objectOf(String type, String id) {
+		var obj = new JsonObject();
+		obj.addProperty("@type", type);
+		obj.addProperty("@id", id);
+		obj.addProperty("name", id);
+		return obj;
+	}
+
+	private String idOf(JsonObject obj) {
+		return obj.get("@id").getAsString();
+	}
+}
@@ -77,6 +77,15 @@ public class ProviderTest {
 		check();
 	}
 
+	@Test
+	public void testResolveWithBulkInsert() {
+		db.clear();
+		new JsonImport(store, db)
+			.setBulkInsert(true)
+			.run();
+		check();
+	}
+
 	private void check() {
 		var p1 = db.get(Process.class, proc1.refId);
 		var p2 = db.get(Process.class, proc2.refId);
@@ -0,0 +1,107 @@
+package org.openlca.expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A formula that was parsed and checked once and that can be evaluated
+ * repeatedly in its scope. The variables of the formula are linked directly
+ * to the variables of the scope (or its parents), thus, a new value of a
+ * variable is used in the next evaluation without compiling the formula again.
+ * The links are only updated when new variable names are bound in the scopes
+ * of the interpreter. The evaluation is done on primitive values without
+ * allocations (except of custom functions that do not support compilation,
+ * see {@link Expression#compile(CompiledNode[])}).
+ * <p>
+ * Compiled formulas are not thread-safe; they are created via
+ * {@link Scope#compile(String)} or {@link FormulaInterpreter#compile(String)}.
+ */
+public final class CompiledFormula {
+
+	private final String expression;
+	private final Scope scope;
+	private final Expression ast;
+
+	private CompiledNode root;
+	private int linkedVersion;
+
+	/** The variables to which this formula is linked. */
+	private final List<Scope.Variable> dependencies = new ArrayList<>();
+
+	CompiledFormula(String expression, Scope scope, Expression ast) {
+		this.expression = expression;
+		this.scope = scope;
+		this.ast = ast;
+	}
+
+	/**
+	 * Returns the source expression of this formula.
+	 */
+	public String expression() {
+		return expression;
+	}
+
+	/**
+	 * Evaluates the formula in its scope. This is the same as calling
+	 * {@link Scope#eval(String)} with the expression of this formula.
+	 */
+	public double eval() throws InterpreterException {
+		try {
+			return evalRaw();
+		} catch (Throwable e) {
+			throw new InterpreterException("Evaluation of expression "
+					+ expression + " failed: " + e.getMessage(), e);
+		}
+	}
+
+	double evalRaw() throws Exception {
+		if (root == null || linkedVersion != scope.version()) {
+			link();
+		}
+		return root.eval();
+	}
+
+	private void link() throws InterpreterException {
+		if (ast.getResultType() == Boolean.class
+				|| (ast instanceof VariableFunction v
+				&& scope.isBooleanConstant(v.getVariableName())))
+			throw new InterpreterException("The expression " + expression
+					+ " does not evaluate to a number.");
+		dependencies.clear();
+		root = compile(ast);
+		linkedVersion = scope.version();
+	}
+
+	/**
+	 * Returns the variables to which this formula is currently linked.
+	 */
+	List<Scope.Variable> dependencies() {
+		return dependencies;
+	}
+
+	private CompiledNode compile(Expression e) {
+		if (e instanceof VariableFunction ref)
+			return scope.link(ref, dependencies);
+
+		CompiledNode[] args;
+		if (e instanceof AbstractExpression ae) {
+			args = new CompiledNode[ae.arguments.size()];
+			for (int i = 0; i < args.length; i++) {
+				args[i] = compile(ae.arguments.get(i));
+			}
+		} else {
+			args = new CompiledNode[0];
+		}
+		var node = e.compile(args);
+		if (node != null)
+			return node;
+
+		// fall back to the evaluation of the syntax tree
+		return () -> {
+			var value = e.evaluate(scope);
+			return value instanceof Boolean b
+					? CompiledNode.of(b)
+					: (Double) value;
+		};
+	}
+}
@@ -0,0 +1,26 @@
+package org.openlca.expressions;
+
+/**
+ * A node of a compiled expression that is evaluated on primitive values.
+ * Boolean values are encoded as `1` (true) and `0` (false).
+ */
+@FunctionalInterface
+public interface CompiledNode {
+
+	double eval() throws ExpressionException;
+
+	static CompiledNode constant(double value) {
+		return () -> value;
+	}
+
+	static CompiledNode constant(boolean value) {
+		return value
+				? () -> 1
+				: () -> 0;
+	}
+
+	static double of(boolean b) {
+		return b ? 1 : 0;
+	}
+
+}
@@ -53,6 +53,11 @@ class DecimalConstantFunction implements Expression {
 		this.column = column;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		return CompiledNode.constant(value);
+	}
+
 	@Override
 	public String getName() {
 		return "Constant";
@@ -19,4 +19,13 @@ public interface Expression {
 	public void setPosition(int line, int column);
 
 	public String getName();
+
+	/**
+	 * Compiles this expression into a node that evaluates it on primitive
+	 * values, using the given compiled arguments. Returns `null` if this is not
+	 * supported; the expression is then evaluated via `evaluate`.
+	 */
+	public default CompiledNode compile(CompiledNode[] args) {
+		return null;
+	}
 }
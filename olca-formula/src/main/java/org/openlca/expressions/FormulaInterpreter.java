@@ -28,6 +28,15 @@ public class FormulaInterpreter {
 		return globalScope.eval(expression);
 	}
 
+	/**
+	 * Compiles the given expression in the global scope of the interpreter. See
+	 * {@link Scope#compile(String)}.
+	 */
+	public CompiledFormula compile(String expression)
+			throws InterpreterException {
+		return globalScope.compile(expression);
+	}
+
 	/**
 	 * Binds the given variable to the given expression in the global scope of the
 	 * interpreter.
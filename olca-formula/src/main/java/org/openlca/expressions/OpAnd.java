@@ -31,6 +31,17 @@ class OpAnd extends AbstractExpression {
 		return Boolean.class;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		return () -> {
+			for (var arg : args) {
+				if (arg.eval() == 0)
+					return 0;
+			}
+			return 1;
+		};
+	}
+
 	@Override
 	public String getName() {
 		return "And function";
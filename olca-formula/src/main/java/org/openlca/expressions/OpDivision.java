@@ -15,6 +15,20 @@ class OpDivision extends AbstractNumericOperator {
 		return result;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		return () -> {
+			double result = args[0].eval();
+			for (int i = 1; i < args.length; i++) {
+				double denom = args[i].eval();
+				if (denom == 0)
+					throw new ExpressionException("Cannot divide by 0");
+				result = result / denom;
+			}
+			return result;
+		};
+	}
+
 	@Override
 	public String getName() {
 		return "/";
@@ -14,6 +14,13 @@ public class OpExponentiation extends AbstractExpression {
 		return Double.class;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		var a = args[0];
+		var b = args[1];
+		return () -> Math.pow(a.eval(), b.eval());
+	}
+
 	@Override
 	public String getName() {
 		return "^";
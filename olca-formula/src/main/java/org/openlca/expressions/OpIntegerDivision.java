@@ -13,6 +13,22 @@ class OpIntegerDivision extends AbstractNumericOperator {
 		return result;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		if (args.length == 2) {
+			var a = args[0];
+			var b = args[1];
+			return () -> (double) (Math.round(a.eval()) / Math.round(b.eval()));
+		}
+		return () -> {
+			double result = args[0].eval();
+			for (int i = 1; i < args.length; i++) {
+				result = (double) (Math.round(result) / Math.round(args[i].eval()));
+			}
+			return result;
+		};
+	}
+
 	@Override
 	public String getName() {
 		return "div";
@@ -13,6 +13,13 @@ class OpLessThan extends AbstractComparisonExpression {
 		return Boolean.FALSE;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		var a = args[0];
+		var b = args[1];
+		return () -> CompiledNode.of(Double.compare(a.eval(), b.eval()) < 0);
+	}
+
 	@Override
 	public String getName() {
 		return "<";
@@ -30,6 +30,17 @@ class OpOr extends AbstractExpression {
 		return Boolean.class;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		return () -> {
+			for (var arg : args) {
+				if (arg.eval() != 0)
+					return 1;
+			}
+			return 0;
+		};
+	}
+
 	@Override
 	public String getName() {
 		return "||";
@@ -12,6 +12,22 @@ class OpSubstraction extends AbstractNumericOperator {
 		return result;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		if (args.length == 2) {
+			var a = args[0];
+			var b = args[1];
+			return () -> a.eval() - b.eval();
+		}
+		return () -> {
+			double result = args[0].eval();
+			for (int i = 1; i < args.length; i++) {
+				result = result - args[i].eval();
+			}
+			return result;
+		};
+	}
+
 	@Override
 	public String getName() {
 		return "-";
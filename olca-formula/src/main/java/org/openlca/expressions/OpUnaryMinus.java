@@ -25,6 +25,12 @@ class OpUnaryMinus extends AbstractExpression {
 					getColumn());
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		var a = args[0];
+		return () -> -a.eval();
+	}
+
 	@Override
 	public String getName() {
 		return "-";
@@ -14,6 +14,13 @@ class OpXor extends AbstractExpression {
 		return Boolean.class;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		var a = args[0];
+		var b = args[1];
+		return () -> CompiledNode.of((a.eval() != 0) != (b.eval() != 0));
+	}
+
 	@Override
 	public String getName() {
 		return "xor";
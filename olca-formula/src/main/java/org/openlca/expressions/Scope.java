@@ -2,18 +2,58 @@ package org.openlca.expressions;
 
 import java.io.StringReader;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A scope contains bindings of variable names to expressions. Each scope has a
  * reference to a parent scope except of the global scope. An expression can be
  * evaluated in a scope.
- *
+ * <p>
+ * Expressions are compiled when they are evaluated the first time in a scope
+ * (see {@link #compile(String)}) and the compiled formulas are cached, so that
+ * repeated evaluations of the same expression do not need to parse it again.
+ * <p>
+ * The values of variables that are bound to expressions are cached. The
+ * variables form a dependency graph over all scopes of an interpreter: when a
+ * variable is evaluated, it is registered as dependent of the variables that
+ * its expression references. When a variable is bound to a new value or
+ * expression, only its (transitive) dependents are invalidated and evaluated
+ * again when they are needed next. As the evaluation is done on demand in
+ * depth-first order, the dependencies of a variable are always evaluated
+ * before the variable. When new variable names are bound or variables are
+ * removed, all cached values are invalidated as the references of the
+ * expressions may resolve to other variables then.
  */
 public final class Scope {
 
+	/** The maximum number of compiled formulas that are cached in a scope. */
+	private static final int MAX_CACHED_FORMULAS = 1000;
+
 	private final Scope parent;
+	private final Scope global;
 	private final HashMap<String, Variable> variables = new HashMap<>();
-	private final HashMap<String, Integer> evaluationCalls = new HashMap<>();
+
+	private final Map<String, CompiledFormula> formulas = new LinkedHashMap<>(
+			16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<String, CompiledFormula> eldest) {
+			return size() > MAX_CACHED_FORMULAS;
+		}
+	};
+
+	/**
+	 * The version of the variable names in the global scope and its child
+	 * scopes. It is increased when a new variable name is bound or variables
+	 * are removed, as this can change the variables to which the compiled
+	 * formulas are linked. Cached values of variables that were evaluated in
+	 * an older version are invalid. Only the value of the global scope is
+	 * used.
+	 */
+	private int version;
 
 	Scope() {
 		this(null);
@@ -21,6 +61,9 @@ public final class Scope {
 
 	Scope(Scope parent) {
 		this.parent = parent;
+		this.global = parent == null
+				? this
+				: parent.global;
 	}
 
 	/**
@@ -29,9 +72,16 @@ public final class Scope {
 	public void bind(String variable, double value) {
 		if (variable == null)
 			return;
-		var symbol = variable.toLowerCase().trim();
-		var v = new Variable(symbol, value);
-		variables.put(symbol, v);
+		var v = variableOf(variable);
+		if (v.expression == null
+				&& v.evaluated
+				&& Double.compare(v.value, value) == 0)
+			return;
+		v.expression = null;
+		v.formula = null;
+		v.value = value;
+		v.evaluated = true;
+		v.invalidateDependents();
 	}
 
 	/**
@@ -40,9 +90,29 @@ public final class Scope {
 	public void bind(String variable, String expression) {
 		if (variable == null || expression == null)
 			return;
-		var symbol = variable.toLowerCase().trim();
-		var v = new Variable(symbol, expression);
+		var v = variableOf(variable);
+		if (expression.equals(v.expression))
+			return;
+		v.expression = expression;
+		v.formula = null;
+		v.evaluated = false;
+		v.invalidateDependents();
+	}
+
+	/**
+	 * Returns the variable with the given name of this scope. The variables
+	 * are updated in place when they are bound again so that the links of
+	 * compiled formulas to them stay valid.
+	 */
+	private Variable variableOf(String name) {
+		var symbol = name.toLowerCase().trim();
+		var v = variables.get(symbol);
+		if (v != null)
+			return v;
+		v = new Variable(symbol);
 		variables.put(symbol, v);
+		global.version++;
+		return v;
 	}
 
 	/**
@@ -50,39 +120,92 @@ public final class Scope {
 	 */
 	public void clear() {
 		variables.clear();
-		evaluationCalls.clear();
+		formulas.clear();
+		global.version++;
 	}
 
 	/**
 	 * Evaluates the given expression in this scope.
 	 */
 	public double eval(String expression) throws InterpreterException {
-		// reset the evaluation calls and values for variables
-		evaluationCalls.clear();
-		for (Variable variable : variables.values()) {
-			if (variable.expression != null) {
-				variable.value = null;
-			}
-		}
 		try {
-			return tryEval(expression);
+			return formulaOf(expression).evalRaw();
 		} catch (Throwable e) {
 			throw new InterpreterException("Evaluation of expression "
 					+ expression + " failed: " + e.getMessage(), e);
 		}
 	}
 
-	private double tryEval(String expression) throws Exception {
-		var reader = new StringReader(expression.toLowerCase());
-		var parser = new FormulaParser(reader);
+	/**
+	 * Compiles the given expression in this scope. The variables of the
+	 * expression are resolved once and the compiled formula can be evaluated
+	 * repeatedly on primitive values, also when the values of the variables
+	 * change. Compiled formulas are cached in the scope. Note that, like the
+	 * scope, compiled formulas are not thread-safe.
+	 */
+	public CompiledFormula compile(String expression)
+			throws InterpreterException {
+		try {
+			return formulaOf(expression);
+		} catch (Throwable e) {
+			throw new InterpreterException("Compilation of expression "
+					+ expression + " failed: " + e.getMessage(), e);
+		}
+	}
+
+	private CompiledFormula formulaOf(String expression) throws Exception {
+		var formula = formulas.get(expression);
+		if (formula != null)
+			return formula;
+		var parser = new FormulaParser(
+				new StringReader(expression.toLowerCase()));
 		parser.parse();
 		var e = parser.getExpression();
 		e.check();
-		var result = e.evaluate(this);
-		if (result instanceof Double)
-			return (Double) result;
-		throw new InterpreterException("The expression " + expression
-				+ " does not evaluate to a number.");
+		formula = new CompiledFormula(expression, this, e);
+		formulas.put(expression, formula);
+		return formula;
+	}
+
+	int version() {
+		return global.version;
+	}
+
+	/**
+	 * Links the given variable reference of an expression to the respective
+	 * variable of this scope or its parents, or to a constant.
+	 */
+	CompiledNode link(VariableFunction ref, List<Variable> deps) {
+		var symbol = ref.getVariableName().trim().toLowerCase();
+		for (var scope = this; scope != null; scope = scope.parent) {
+			var v = scope.variables.get(symbol);
+			if (v != null) {
+				deps.add(v);
+				return v::value;
+			}
+		}
+		var constant = Constants.get(symbol);
+		if (constant instanceof Double d)
+			return CompiledNode.constant(d);
+		if (constant instanceof Boolean b)
+			return CompiledNode.constant(b);
+		return () -> {
+			throw new ExpressionException("Unknown variable "
+					+ ref.getVariableName(), ref.getLine(), ref.getColumn());
+		};
+	}
+
+	/**
+	 * Returns true if the given name is not bound to a variable in this scope
+	 * or its parents but to a boolean constant.
+	 */
+	boolean isBooleanConstant(String name) {
+		var symbol = name.trim().toLowerCase();
+		for (var scope = this; scope != null; scope = scope.parent) {
+			if (scope.variables.containsKey(symbol))
+				return false;
+		}
+		return Constants.get(symbol) instanceof Boolean;
 	}
 
 	public Object resolveVariable(String name) throws InterpreterException {
@@ -92,9 +215,11 @@ public final class Scope {
 		var v = variables.get(symbol);
 		if (v != null) {
 			// variable is bound in this scope
-			return v.isEvaluated()
-					? v.value
-					: eval(v);
+			try {
+				return v.value();
+			} catch (ExpressionException e) {
+				throw new InterpreterException(e.getMessage(), e);
+			}
 		}
 		// search in parent scope or constants
 		return parent != null
@@ -102,42 +227,77 @@ public final class Scope {
 				: Constants.get(name);
 	}
 
-	private Object eval(Variable var) throws InterpreterException {
-		Integer call = evaluationCalls.get(var.name);
-		if (call != null && call > 0)
-			throw new InterpreterException(
-					"Second evaluation call on variable "
-							+ var.name + ". Cyclic dependencies?");
-		evaluationCalls.put(var.name, 1);
-		try {
-			var.value = tryEval(var.expression);
-			return var.value;
-		} catch (Throwable e) {
-			throw new InterpreterException("Evaluation of variable "
-					+ var.name + " failed: " + e.getMessage(), e);
-		}
-	}
-
-	private class Variable {
+	final class Variable {
 
 		final String name;
-		final String expression;
+		String expression;
+		CompiledFormula formula;
+
+		double value;
+		boolean evaluated;
+		boolean evaluating;
+
+		/** The version in which the value of the expression was evaluated. */
+		int evaluatedVersion;
 
-		private Double value;
+		/**
+		 * The variables with expressions that reference this variable. This
+		 * can contain variables that do not reference this variable anymore,
+		 * which only means that they are invalidated without need.
+		 */
+		HashSet<Variable> dependents;
 
-		Variable(String name, String expression) {
+		Variable(String name) {
 			this.name = name;
-			this.expression = expression;
 		}
 
-		Variable(String name, double value) {
-			this.name = name;
-			this.value = value;
-			this.expression = null;
+		double value() throws ExpressionException {
+			if (evaluated
+					&& (expression == null || evaluatedVersion == version()))
+				return value;
+			if (evaluating)
+				throw new ExpressionException(
+						"Second evaluation call on variable "
+								+ name + ". Cyclic dependencies?");
+			evaluating = true;
+			try {
+				if (formula == null) {
+					formula = formulaOf(expression);
+				}
+				value = formula.evalRaw();
+				for (var dep : formula.dependencies()) {
+					if (dep.dependents == null) {
+						dep.dependents = new HashSet<>();
+					}
+					dep.dependents.add(this);
+				}
+				evaluated = true;
+				evaluatedVersion = version();
+				return value;
+			} catch (Exception e) {
+				throw new ExpressionException("Evaluation of variable "
+						+ name + " failed: " + e.getMessage());
+			} finally {
+				evaluating = false;
+			}
 		}
 
-		public boolean isEvaluated() {
-			return value != null;
+		/**
+		 * Invalidates the values of the variables that depend directly or
+		 * indirectly on this variable. Dependents that are already invalid
+		 * are skipped: when such a dependent was evaluated the last time,
+		 * its own dependents were either invalidated together with it or they
+		 * did not use its value.
+		 */
+		void invalidateDependents() {
+			if (dependents == null)
+				return;
+			for (var d : dependents) {
+				if (d.evaluated) {
+					d.evaluated = false;
+					d.invalidateDependents();
+				}
+			}
 		}
 	}
 }
@@ -1,6 +1,7 @@
 package org.openlca.expressions.functions;
 
 import org.openlca.expressions.AbstractExpression;
+import org.openlca.expressions.CompiledNode;
 import org.openlca.expressions.ExpressionException;
 import org.openlca.expressions.Scope;
 
@@ -21,4 +22,8 @@ class False extends AbstractExpression {
 		return "false()";
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		return CompiledNode.constant(false);
+	}
 }
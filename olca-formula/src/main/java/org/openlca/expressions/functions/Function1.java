@@ -1,6 +1,7 @@
 package org.openlca.expressions.functions;
 
 import org.openlca.expressions.AbstractExpression;
+import org.openlca.expressions.CompiledNode;
 import org.openlca.expressions.ExpressionException;
 import org.openlca.expressions.Scope;
 
@@ -24,4 +25,9 @@ abstract class Function1 extends AbstractExpression {
 		checkArguments(new Class<?>[] { Double.class });
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		var arg = args[0];
+		return () -> eval(arg.eval());
+	}
 }
@@ -1,6 +1,7 @@
 package org.openlca.expressions.functions;
 
 import org.openlca.expressions.AbstractExpression;
+import org.openlca.expressions.CompiledNode;
 import org.openlca.expressions.ExpressionException;
 import org.openlca.expressions.Scope;
 
@@ -25,4 +26,10 @@ abstract class Function2 extends AbstractExpression {
 		checkArguments(new Class<?>[] { Double.class, Double.class });
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		var arg1 = args[0];
+		var arg2 = args[1];
+		return () -> eval(arg1.eval(), arg2.eval());
+	}
 }
@@ -1,6 +1,7 @@
 package org.openlca.expressions.functions;
 
 import org.openlca.expressions.AbstractExpression;
+import org.openlca.expressions.CompiledNode;
 import org.openlca.expressions.ExpressionException;
 import org.openlca.expressions.Scope;
 
@@ -35,4 +36,22 @@ abstract class FunctionN extends AbstractExpression {
 		checkArgumentsOfSameType(Double.class);
 	}
 
+	/**
+	 * Note that the compiled node reuses an argument buffer and is thus not
+	 * thread-safe (as the scopes of an interpreter in general).
+	 */
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		if (args.length == 0) {
+			double d = getDefault();
+			return () -> d;
+		}
+		var buffer = new double[args.length];
+		return () -> {
+			for (int i = 0; i < buffer.length; i++) {
+				buffer[i] = args[i].eval();
+			}
+			return eval(buffer);
+		};
+	}
 }
@@ -1,6 +1,7 @@
 package org.openlca.expressions.functions;
 
 import org.openlca.expressions.AbstractExpression;
+import org.openlca.expressions.CompiledNode;
 import org.openlca.expressions.ExpressionException;
 import org.openlca.expressions.Scope;
 
@@ -30,4 +31,14 @@ public class If extends AbstractExpression {
 	public String getName() {
 		return "if";
 	}
+
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		var condition = args[0];
+		var then = args[1];
+		var otherwise = args[2];
+		return () -> condition.eval() != 0
+				? then.eval()
+				: otherwise.eval();
+	}
 }
@@ -1,6 +1,7 @@
 package org.openlca.expressions.functions;
 
 import org.openlca.expressions.AbstractExpression;
+import org.openlca.expressions.CompiledNode;
 import org.openlca.expressions.ExpressionException;
 import org.openlca.expressions.Scope;
 
@@ -34,4 +35,11 @@ class Not extends AbstractExpression {
 		return "not";
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		if (args.length == 0)
+			return CompiledNode.constant(false);
+		var arg = args[0];
+		return () -> CompiledNode.of(arg.eval() == 0);
+	}
 }
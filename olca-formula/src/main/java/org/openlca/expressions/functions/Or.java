@@ -3,6 +3,7 @@ package org.openlca.expressions.functions;
 import java.util.Iterator;
 
 import org.openlca.expressions.AbstractExpression;
+import org.openlca.expressions.CompiledNode;
 import org.openlca.expressions.Expression;
 import org.openlca.expressions.ExpressionException;
 import org.openlca.expressions.Scope;
@@ -36,4 +37,14 @@ public class Or extends AbstractExpression {
 		return Boolean.class;
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		return () -> {
+			for (var arg : args) {
+				if (arg.eval() != 0)
+					return 1;
+			}
+			return 0;
+		};
+	}
 }
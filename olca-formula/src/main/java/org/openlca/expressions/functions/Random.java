@@ -1,6 +1,7 @@
 package org.openlca.expressions.functions;
 
 import org.openlca.expressions.AbstractExpression;
+import org.openlca.expressions.CompiledNode;
 import org.openlca.expressions.ExpressionException;
 import org.openlca.expressions.Scope;
 
@@ -26,4 +27,8 @@ class Random extends AbstractExpression {
 		return "rand";
 	}
 
+	@Override
+	public CompiledNode compile(CompiledNode[] args) {
+		return Math::random;
+	}
 }
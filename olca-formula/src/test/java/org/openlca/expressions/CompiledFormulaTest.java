@@ -0,0 +1,93 @@
+package org.openlca.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class CompiledFormulaTest {
+
+	@Test
+	public void testRebind() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		interpreter.bind("a", 2);
+		interpreter.bind("b", "a * 3");
+		var f = interpreter.compile("if(b > 5; b + 1; b - 1)");
+		assertEquals(7, f.eval(), 1e-16);
+		interpreter.bind("a", 1);
+		assertEquals(2, f.eval(), 1e-16);
+		interpreter.bind("b", "a * 10");
+		assertEquals(11, f.eval(), 1e-16);
+	}
+
+	@Test
+	public void testShadowing() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		interpreter.bind("a", 2);
+		var local = interpreter.createScope(1);
+		var f = local.compile("a * pi");
+		assertEquals(2 * Math.PI, f.eval(), 1e-15);
+		local.bind("a", 3);
+		assertEquals(3 * Math.PI, f.eval(), 1e-15);
+		local.bind("pi", 1);
+		assertEquals(3, f.eval(), 1e-15);
+	}
+
+	@Test
+	public void testCache() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		var f = interpreter.compile("1 + 2");
+		assertSame(f, interpreter.compile("1 + 2"));
+		assertEquals(3, interpreter.eval("1 + 2"), 1e-16);
+	}
+
+	@Test
+	public void testFunctions() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		interpreter.bind("x", 4);
+		String[] expressions = {
+				"sqrt(x) + sqr(x) - abs(-x)",
+				"sum(x; 1; 2) * avg(x; 2) / max(1; x)",
+				"ipower(x; 2) + pow(x; 0.5) + x^2",
+				"if(and(x > 1; not(x == 2)); 1; 0) + if(or(false; x < 0); 5; 6)",
+				"round(x / 3) + int(7 / x) + x mod 3 + 9 div x",
+				"ln(exp(x)) + log(100) + 5 / 2" };
+		double[] expected = { 14, 5.25, 34, 7, 5, 8.5 };
+		for (int i = 0; i < expressions.length; i++) {
+			var f = interpreter.compile(expressions[i]);
+			assertEquals(expected[i], f.eval(), 1e-12);
+		}
+	}
+
+	@Test
+	public void testLazyBranches() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		var f = interpreter.compile("if(1 < 2; 42; unknown_var)");
+		assertEquals(42, f.eval(), 1e-16);
+		interpreter.bind("x", 0);
+		var g = interpreter.compile("if(x > 0; 1 / x; 0)");
+		assertEquals(0, g.eval(), 1e-16);
+	}
+
+	@Test
+	public void testErrors() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		interpreter.bind("a", "b");
+		interpreter.bind("b", "a");
+		for (var expr : new String[]{"a", "1 / 0", "1 < 2", "true", "x"}) {
+			try {
+				interpreter.compile(expr).eval();
+				fail(expr + " should fail");
+			} catch (InterpreterException e) {
+				// expected
+			}
+		}
+		try {
+			interpreter.compile("1 +");
+			fail("syntax error expected");
+		} catch (InterpreterException e) {
+			// expected
+		}
+	}
+}
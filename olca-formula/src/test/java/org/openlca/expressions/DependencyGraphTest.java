@@ -0,0 +1,76 @@
+package org.openlca.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public class DependencyGraphTest {
+
+	@Test
+	public void testOnlyDependentsAreEvaluated() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		interpreter.bind("a", 1);
+		interpreter.bind("b", 2);
+		// the random part shows whether a variable was evaluated again
+		interpreter.bind("x", "a + rand()");
+		interpreter.bind("y", "b * 2");
+		double x = interpreter.eval("x");
+		assertEquals(x, interpreter.eval("x"), 0);
+
+		interpreter.bind("b", 3);
+		assertEquals(6, interpreter.eval("y"), 1e-16);
+		assertEquals(x, interpreter.eval("x"), 0);
+
+		interpreter.bind("a", 2);
+		assertNotEquals(x, interpreter.eval("x"), 0);
+	}
+
+	@Test
+	public void testTransitiveDependents() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		interpreter.bind("a", 1);
+		interpreter.bind("b", "a + 1");
+		interpreter.bind("c", "b * 2");
+		interpreter.bind("d", "c + b");
+		assertEquals(6, interpreter.eval("d"), 1e-16);
+		interpreter.bind("a", 2);
+		assertEquals(9, interpreter.eval("d"), 1e-16);
+		interpreter.bind("b", "a * 10");
+		assertEquals(60, interpreter.eval("d"), 1e-16);
+	}
+
+	@Test
+	public void testGlobalChangeInLocalScope() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		interpreter.bind("g", 2);
+		interpreter.bind("h", "g * 2");
+		var local = interpreter.createScope(1);
+		local.bind("l", "h + 1");
+		assertEquals(5, local.eval("l"), 1e-16);
+		interpreter.bind("g", 3);
+		assertEquals(7, local.eval("l"), 1e-16);
+
+		// a new local variable shadows the global one
+		local.bind("h", 10);
+		assertEquals(11, local.eval("l"), 1e-16);
+		assertEquals(6, interpreter.eval("h"), 1e-16);
+	}
+
+	@Test
+	public void testCycleAfterRebind() throws Exception {
+		var interpreter = new FormulaInterpreter();
+		interpreter.bind("a", 1);
+		interpreter.bind("b", "a + 1");
+		assertEquals(2, interpreter.eval("b"), 1e-16);
+		interpreter.bind("a", "b + 1");
+		try {
+			interpreter.eval("b");
+			throw new AssertionError("cycle not detected");
+		} catch (InterpreterException e) {
+			// expected
+		}
+		interpreter.bind("a", 5);
+		assertEquals(6, interpreter.eval("b"), 1e-16);
+	}
+}
@@ -3,8 +3,11 @@ package org.openlca.ilcd.io;
 import java.io.Closeable;
 import java.io.File;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.openlca.ilcd.commons.IDataSet;
 import org.openlca.ilcd.sources.Source;
@@ -19,6 +22,17 @@ public interface DataStore extends Closeable {
 
 	void put(IDataSet ds);
 
+	/**
+	 * Stores the given data set of which the XML was already written into the
+	 * given bytes with {@link XmlBinder#toByteArray(Object)}, e.g. on another
+	 * thread. Stores that save data sets as XML files write the bytes directly.
+	 * The default implementation ignores the bytes and stores the data set
+	 * with {@link #put(IDataSet)}.
+	 */
+	default void put(IDataSet ds, byte[] xml) {
+		put(ds);
+	}
+
 	void put(Source source, File[] files);
 
 	<T extends IDataSet> boolean delete(Class<T> type, String id);
@@ -27,6 +41,19 @@ public interface DataStore extends Closeable {
 
 	<T extends IDataSet> boolean contains(Class<T> type, String id);
 
+	/**
+	 * Returns a reader for each data set of the given type in this store, in
+	 * the order of the iterator. A reader reads and parses its data set only
+	 * when it is called and the readers can be called in parallel from
+	 * multiple threads. A reader returns {@code null} or throws an exception
+	 * when its data set cannot be read. Stores that cannot read their data
+	 * sets independently from each other return an empty list, which is the
+	 * default; the data sets then need to be read with the iterator.
+	 */
+	default <T extends IDataSet> List<Supplier<T>> readers(Class<T> type) {
+		return Collections.emptyList();
+	}
+
 	default <T extends IDataSet> void each(Class<T> type, Consumer<T> fn) {
 		try {
 			Iterator<T> it = iterator(type);
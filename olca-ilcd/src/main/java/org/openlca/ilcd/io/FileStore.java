@@ -5,7 +5,11 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
 
 import org.openlca.ilcd.commons.IDataSet;
 import org.openlca.ilcd.commons.Ref;
@@ -19,7 +23,7 @@ public class FileStore implements DataStore {
 
 	private File rootDir;
 	private Logger log = LoggerFactory.getLogger(this.getClass());
-	private XmlBinder binder = new XmlBinder();
+	private final XmlBinder binder = new XmlBinder();
 
 	public FileStore(String pathToFolder) {
 		this(new File(pathToFolder));
@@ -120,6 +124,25 @@ public class FileStore implements DataStore {
 		}
 	}
 
+	@Override
+	public void put(IDataSet ds, byte[] xml) {
+		if (ds == null)
+			return;
+		if (xml == null) {
+			put(ds);
+			return;
+		}
+		log.trace("Store {} in file.", ds);
+		try {
+			File file = newFile(ds.getClass(), ds.getUUID());
+			Files.write(file.toPath(), xml);
+		} catch (Exception e) {
+			String message = "Cannot store in file";
+			log.error(message, e);
+			throw new RuntimeException(message);
+		}
+	}
+
 	public void put(Source source, File[] files) {
 		log.trace("Store source {} with files", source);
 		put(source);
@@ -159,6 +182,25 @@ public class FileStore implements DataStore {
 		return new FileIterator<>(type, folder);
 	}
 
+	@Override
+	public <T extends IDataSet> List<Supplier<T>> readers(Class<T> type) {
+		File[] files = getFolder(type).listFiles();
+		if (files == null)
+			return Collections.emptyList();
+		var readers = new ArrayList<Supplier<T>>(files.length);
+		for (File file : files) {
+			readers.add(() -> {
+				try {
+					return binder.fromFile(type, file);
+				} catch (Exception e) {
+					throw new RuntimeException(
+							"failed to unmarshal XML file " + file, e);
+				}
+			});
+		}
+		return readers;
+	}
+
 	@Override
 	public <T extends IDataSet> boolean contains(Class<T> type, String id) {
 		log.trace("Contains file for class {} with id {}", type, id);
@@ -253,7 +295,6 @@ public class FileStore implements DataStore {
 			try {
 				File file = files[idx];
 				idx++;
-				XmlBinder binder = new XmlBinder();
 				return binder.fromFile(type, file);
 			} catch (Exception e) {
 				throw new RuntimeException("failed to load unmarshal XML file",
@@ -7,7 +7,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.xml.namespace.QName;
 import javax.xml.transform.stream.StreamSource;
@@ -32,17 +35,24 @@ import jakarta.xml.bind.Unmarshaller;
 /**
  * A helper class for reading and writing ILCD types from / to XML. Uses the
  * standard JAXB mechanisms but in combination with some ILCD specific things.
- * The binder can be used for multiple IO-operations, the marshalers and
- * un-marshalers for the class types are cached.
+ * <p>
+ * The binder is thread-safe and can be shared: all binders share one JAXB
+ * context per package of the ILCD types and a pool of marshallers and
+ * un-marshallers per context. A marshaller or un-marshaller is taken from the
+ * pool for a single IO-operation and returned after it, so that concurrent
+ * operations never use the same instance.
  */
 public class XmlBinder {
 
-	private HashMap<Class<?>, Marshaller> marshallers = new HashMap<>();
-	private HashMap<Class<?>, Unmarshaller> unmarshallers = new HashMap<>();
+	private static final ConcurrentHashMap<String, Binding> bindings =
+			new ConcurrentHashMap<>();
 
 	/** Writes the given ILCD object to a file. */
 	public void toFile(Object ilcdObject, File file) throws JAXBException {
-		getMarshaller(ilcdObject).marshal(toElement(ilcdObject), file);
+		var binding = bindingOf(ilcdObject.getClass());
+		var marshaller = binding.marshaller();
+		marshaller.marshal(toElement(ilcdObject), file);
+		binding.release(marshaller);
 	}
 
 	/**
@@ -51,7 +61,10 @@ public class XmlBinder {
 	 */
 	public void toStream(Object ilcdObject, OutputStream stream)
 			throws JAXBException, IOException {
-		getMarshaller(ilcdObject).marshal(toElement(ilcdObject), stream);
+		var binding = bindingOf(ilcdObject.getClass());
+		var marshaller = binding.marshaller();
+		marshaller.marshal(toElement(ilcdObject), stream);
+		binding.release(marshaller);
 		stream.flush();
 		stream.close();
 	}
@@ -62,7 +75,10 @@ public class XmlBinder {
 	 */
 	public void toWriter(Object ilcdObject, Writer writer)
 			throws JAXBException, IOException {
-		getMarshaller(ilcdObject).marshal(toElement(ilcdObject), writer);
+		var binding = bindingOf(ilcdObject.getClass());
+		var marshaller = binding.marshaller();
+		marshaller.marshal(toElement(ilcdObject), writer);
+		binding.release(marshaller);
 		writer.flush();
 		writer.close();
 	}
@@ -74,23 +90,6 @@ public class XmlBinder {
 		return os.toByteArray();
 	}
 
-	private Marshaller getMarshaller(Object ilcdObject) throws JAXBException {
-		Class<?> clazz = ilcdObject.getClass();
-		Marshaller marshaller = marshallers.get(clazz);
-		if (marshaller != null)
-			return marshaller;
-		marshaller = createMarshaller(ilcdObject);
-		marshallers.put(clazz, marshaller);
-		return marshaller;
-	}
-
-	private Marshaller createMarshaller(Object ilcdObject) throws JAXBException {
-		JAXBContext context = JAXBContext.newInstance(ilcdObject.getClass());
-		Marshaller marshaller = context.createMarshaller();
-		marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-		return marshaller;
-	}
-
 	/** Reads an ILCD object of the given type from the given file. */
 	public <T> T fromFile(Class<T> clazz, File file) throws JAXBException {
 		StreamSource source = new StreamSource(file);
@@ -123,25 +122,82 @@ public class XmlBinder {
 
 	private <T> T unmarshal(Class<T> clazz, StreamSource source)
 			throws JAXBException {
-		Unmarshaller unmarshaller = getUnmarshaller(clazz);
+		var binding = bindingOf(clazz);
+		var unmarshaller = binding.unmarshaller();
 		JAXBElement<T> elem = unmarshaller.unmarshal(source, clazz);
+		binding.release(unmarshaller);
 		return elem.getValue();
 	}
 
-	private Unmarshaller getUnmarshaller(Class<?> clazz) throws JAXBException {
-		Unmarshaller unmarshaller = unmarshallers.get(clazz);
-		if (unmarshaller != null)
-			return unmarshaller;
-		unmarshaller = createUnmarshaller(clazz);
-		unmarshallers.put(clazz, unmarshaller);
-		return unmarshaller;
+	/**
+	 * Returns the binding of the package of the given class. The JAXB context
+	 * of a package is created for all classes of that package that were bound
+	 * so far; when a class of the package is bound for the first time, the
+	 * context is created again, including that class.
+	 */
+	private static Binding bindingOf(Class<?> clazz) throws JAXBException {
+		var pack = clazz.getPackageName();
+		var binding = bindings.get(pack);
+		if (binding != null && binding.classes.contains(clazz))
+			return binding;
+		synchronized (bindings) {
+			binding = bindings.get(pack);
+			if (binding != null && binding.classes.contains(clazz))
+				return binding;
+			var classes = new HashSet<Class<?>>();
+			if (binding != null) {
+				classes.addAll(binding.classes);
+			}
+			classes.add(clazz);
+			binding = new Binding(classes);
+			bindings.put(pack, binding);
+			return binding;
+		}
 	}
 
-	private Unmarshaller createUnmarshaller(Class<?> clazz)
-			throws JAXBException {
-		JAXBContext context = JAXBContext.newInstance(clazz);
-		Unmarshaller unmarshaller = context.createUnmarshaller();
-		return unmarshaller;
+	/**
+	 * The JAXB context of a package and the pooled marshallers and
+	 * un-marshallers of that context. A marshaller or un-marshaller that fails
+	 * in an operation is not returned to the pool.
+	 */
+	private static class Binding {
+
+		final Set<Class<?>> classes;
+		final JAXBContext context;
+		final ConcurrentLinkedQueue<Marshaller> marshallers =
+				new ConcurrentLinkedQueue<>();
+		final ConcurrentLinkedQueue<Unmarshaller> unmarshallers =
+				new ConcurrentLinkedQueue<>();
+
+		Binding(Set<Class<?>> classes) throws JAXBException {
+			this.classes = Set.copyOf(classes);
+			this.context = JAXBContext.newInstance(
+					classes.toArray(new Class<?>[0]));
+		}
+
+		Marshaller marshaller() throws JAXBException {
+			var marshaller = marshallers.poll();
+			if (marshaller != null)
+				return marshaller;
+			marshaller = context.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+			return marshaller;
+		}
+
+		Unmarshaller unmarshaller() throws JAXBException {
+			var unmarshaller = unmarshallers.poll();
+			return unmarshaller != null
+					? unmarshaller
+					: context.createUnmarshaller();
+		}
+
+		void release(Marshaller marshaller) {
+			marshallers.offer(marshaller);
+		}
+
+		void release(Unmarshaller unmarshaller) {
+			unmarshallers.offer(unmarshaller);
+		}
 	}
 
 	/**
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.openlca.ilcd.commons.IDataSet;
 import org.openlca.ilcd.sources.Source;
@@ -93,6 +94,25 @@ public class ZipStore implements DataStore {
 		log.trace("Store {} in zip.", ds);
 		if (ds == null)
 			return;
+		put(ds, os -> binder.toStream(ds, os));
+	}
+
+	@Override
+	public void put(IDataSet ds, byte[] xml) {
+		log.trace("Store {} in zip.", ds);
+		if (ds == null)
+			return;
+		if (xml == null) {
+			put(ds);
+			return;
+		}
+		put(ds, os -> {
+			os.write(xml);
+			os.close();
+		});
+	}
+
+	private void put(IDataSet ds, Writer writer) {
 		String dir = Dir.get(ds.getClass());
 		String entryName = "ILCD" + "/" + dir + "/" + ds.getUUID() + ".xml";
 		try {
@@ -101,7 +121,7 @@ public class ZipStore implements DataStore {
 			if (parent != null && !Files.exists(parent))
 				Files.createDirectories(parent);
 			OutputStream os = Files.newOutputStream(entry);
-			binder.toStream(ds, os);
+			writer.write(os);
 			List<Path> list = getEntries(dir);
 			list.add(entry);
 			var ids = addedContent.computeIfAbsent(
@@ -188,6 +208,17 @@ public class ZipStore implements DataStore {
 		return new ZipEntryIterator<>(this, type);
 	}
 
+	@Override
+	public <T extends IDataSet> List<Supplier<T>> readers(Class<T> type) {
+		var readers = new ArrayList<Supplier<T>>();
+		for (Path entry : getEntries(Dir.get(type))) {
+			if (Util.isXml(entry)) {
+				readers.add(() -> unmarshal(type, entry));
+			}
+		}
+		return readers;
+	}
+
 	@Override
 	public <T extends IDataSet> boolean contains(Class<T> type, String id) {
 		Set<String> ids = addedContent.get(type);
@@ -217,6 +248,11 @@ public class ZipStore implements DataStore {
 		}
 	}
 
+	@FunctionalInterface
+	private interface Writer {
+		void write(OutputStream os) throws Exception;
+	}
+
 	private static class FileVisitor extends SimpleFileVisitor<Path> {
 
 		private final Consumer<Path> fn;
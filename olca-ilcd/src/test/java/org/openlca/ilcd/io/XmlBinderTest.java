@@ -3,6 +3,7 @@ package org.openlca.ilcd.io;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -11,6 +12,8 @@ import java.io.FileWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -78,6 +81,29 @@ public class XmlBinderTest {
 		});
 	}
 
+	@Test
+	public void testConcurrentIO() throws Exception {
+		var pool = Executors.newFixedThreadPool(4);
+		try {
+			var futures = new ArrayList<Future<Process>>();
+			for (int i = 0; i < 100; i++) {
+				futures.add(pool.submit(() -> {
+					var process = makeProcess();
+					var bytes = binder.toByteArray(process);
+					var copy = binder.fromStream(
+							Process.class, new ByteArrayInputStream(bytes));
+					assertEquals(process.getUUID(), copy.getUUID());
+					return copy;
+				}));
+			}
+			for (var future : futures) {
+				assertEquals(Process.class, future.get().getClass());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 	private void runTests(Fun fun) throws Exception {
 		for (Object orig : instances) {
 			File file = makeFile();
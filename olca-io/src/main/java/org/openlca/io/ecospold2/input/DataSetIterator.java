@@ -8,38 +8,69 @@ import spold2.EcoSpold2;
 
 import java.io.Closeable;
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+/**
+ * Iterates over the data sets in a set of SPOLD files or zip files with SPOLD
+ * files. When a thread pool is given, the files are parsed on that pool: at
+ * most {@code window} files are parsed ahead of the current position. The data
+ * sets are always returned in the order of the files and zip entries. Files
+ * that cannot be parsed are skipped.
+ */
 class DataSetIterator implements Iterator<DataSet>, Closeable {
 
 	private final Logger log = LoggerFactory.getLogger(getClass());
-	private DataSet next;
-	private File[] files;
-	private int currentFile;
+	private final ExecutorService pool;
+	private final int window;
 
-	private ZipFile zipFile;
-	private int currentZipEntry;
-	private ZipEntry[] zipEntries;
+	private final List<ZipFile> zips = new ArrayList<>();
+	private final List<Source> sources = new ArrayList<>();
+	private final ArrayDeque<Future<DataSet>> queue = new ArrayDeque<>();
+	private int nextSource;
+	private DataSet next;
 
 	public DataSetIterator(File[] files) {
+		this(files, null, 1);
+	}
+
+	public DataSetIterator(File[] files, ExecutorService pool, int window) {
 		log.trace("initialize data set iterator");
-		this.files = files;
-		currentFile = 0;
+		this.pool = pool;
+		this.window = Math.max(1, window);
+		if (files != null) {
+			for (var file : files) {
+				collectSources(file);
+			}
+		}
 		moveNext();
 	}
 
 	@Override
 	public void close() {
 		next = null;
-		files = null;
-		closeZip();
-	}
-
-	@Override
-	public void remove() {
+		for (var future : queue) {
+			future.cancel(true);
+		}
+		queue.clear();
+		nextSource = sources.size();
+		for (var zip : zips) {
+			try {
+				zip.close();
+			} catch (Exception e) {
+				log.error("failed to close zip file " + zip.getName(), e);
+			}
+		}
+		zips.clear();
 	}
 
 	@Override
@@ -49,95 +80,83 @@ class DataSetIterator implements Iterator<DataSet>, Closeable {
 
 	@Override
 	public DataSet next() {
+		if (next == null)
+			throw new NoSuchElementException();
 		DataSet current = next;
 		moveNext();
 		return current;
 	}
 
 	private void moveNext() {
-		if (zipFile != null) {
-			moveNextInZip();
-			return;
-		}
 		next = null;
-		if (files == null || currentFile >= files.length) {
-			log.trace("no more files");
-			return;
+		while (next == null) {
+			fill();
+			var future = queue.poll();
+			if (future == null)
+				return;
+			try {
+				next = future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				return;
+			} catch (ExecutionException e) {
+				log.error("failed to read data set", e.getCause());
+			}
 		}
-		log.trace("move data set pointer in files");
-		File file = files[currentFile];
-		currentFile++;
-		if (isSpoldFile(file.getName()))
-			nextSpold(file);
-		else if (isZip(file)) {
-			openZip(file);
-			moveNextInZip();
-		} else {
-			log.trace("ignore file {}", file);
-			moveNext();
+	}
+
+	private void fill() {
+		while (queue.size() < window && nextSource < sources.size()) {
+			var source = sources.get(nextSource++);
+			if (pool == null) {
+				var ds = read(source);
+				queue.add(CompletableFuture.completedFuture(ds));
+			} else {
+				queue.add(pool.submit(() -> read(source)));
+			}
 		}
 	}
 
-	private void nextSpold(File file) {
+	private DataSet read(Source source) {
 		try {
-			next = EcoSpold2.read(file).activity();
+			if (source.zip == null)
+				return EcoSpold2.read(source.file).activity();
+			try (var stream = source.zip.getInputStream(source.entry)) {
+				return EcoSpold2.read(stream).activity();
+			}
 		} catch (Exception e) {
-			log.error("failed to read spold file " + file, e);
-			moveNext();
+			log.error("failed to read data set " + source, e);
+			return null;
 		}
 	}
 
-	private void openZip(File file) {
+	private void collectSources(File file) {
+		if (file == null)
+			return;
+		if (isSpoldFile(file.getName())) {
+			sources.add(new Source(file, null, null));
+			return;
+		}
+		if (!isZip(file)) {
+			log.trace("ignore file {}", file);
+			return;
+		}
 		log.trace("open zip file {}", file);
 		try {
-			currentZipEntry = 0;
-			zipFile = ZipFiles.open(file);
-			var entries = zipFile.entries();
-			var spoldEntries = new ArrayList<ZipEntry>();
+			var zip = ZipFiles.open(file);
+			zips.add(zip);
+			var entries = zip.entries();
 			while (entries.hasMoreElements()) {
 				var entry = entries.nextElement();
 				if (entry.isDirectory())
 					continue;
-				if (isSpoldFile(entry.getName()))
-					spoldEntries.add(entry);
+				if (isSpoldFile(entry.getName())) {
+					sources.add(new Source(file, zip, entry));
+				}
 			}
-			this.zipEntries = spoldEntries.toArray(new ZipEntry[0]);
 		} catch (Exception e) {
 			log.error("failed to open Zip file " + file, e);
-			closeZip();
-		}
-	}
-
-	private void moveNextInZip() {
-		next = null;
-		if (zipFile == null || zipEntries == null
-				|| currentZipEntry >= zipEntries.length) {
-			log.trace("no  more zip entries");
-			moveNext();
-		}
-		log.trace("move data set pointer in zip entries");
-		ZipEntry entry = zipEntries[currentZipEntry];
-		currentZipEntry++;
-		try {
-			next = EcoSpold2.read(zipFile.getInputStream(entry)).activity();
-			if (currentZipEntry >= zipEntries.length)
-				closeZip();
-		} catch (Exception e) {
-			log.error("failed to open zip entry", e);
-		}
-	}
-
-	private void closeZip() {
-		if (zipFile == null)
-			return;
-		try {
-			zipFile.close();
-		} catch (Exception e) {
-			log.error("failed to close zip file " + zipFile, e);
-		} finally {
-			zipFile = null;
-			zipEntries = null;
-			currentZipEntry = 0;
 		}
 	}
 
@@ -153,4 +172,17 @@ class DataSetIterator implements Iterator<DataSet>, Closeable {
 		return file.getName().toLowerCase().endsWith(".zip");
 	}
 
+	/**
+	 * A SPOLD file or an entry in a zip file with SPOLD files.
+	 */
+	private record Source(File file, ZipFile zip, ZipEntry entry) {
+
+		@Override
+		public String toString() {
+			return entry == null
+				? file.getName()
+				: file.getName() + "/" + entry.getName();
+		}
+	}
+
 }
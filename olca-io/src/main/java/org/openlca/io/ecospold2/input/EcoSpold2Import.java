@@ -5,6 +5,7 @@ import org.openlca.core.model.ModelType;
 import org.openlca.io.Import;
 
 import java.io.File;
+import java.util.concurrent.Executors;
 
 /**
  * The import of data sets in the EcoSpold v2 format. The import expects a set
@@ -48,8 +49,7 @@ public class EcoSpold2Import implements Import {
 			log.info("files is null, nothing to do");
 			return;
 		}
-		RefDataIndex index = importRefData(files);
-		importProcesses(files, index);
+		importDataSets(files);
 
 		// expand ISIC category trees
 		log.info("expand ISIC categories");
@@ -61,30 +61,41 @@ public class EcoSpold2Import implements Import {
 		config.db.getEntityFactory().getCache().evictAll();
 	}
 
-	private RefDataIndex importRefData(File[] files) {
-		log.info("import reference data");
-		var imp = new RefDataImport(config);
-		try (var it = new DataSetIterator(files)) {
+	/**
+	 * Reads each data set once and imports its reference data and process.
+	 * The reference data are synchronized sequentially so that they are not
+	 * created twice; the parsing of the files and the conversion of the
+	 * processes run on a thread pool when more than one thread is configured.
+	 */
+	private void importDataSets(File[] files) {
+		log.info("import reference data and processes");
+		var pool = config.threads > 1
+			? Executors.newFixedThreadPool(config.threads)
+			: null;
+		int window = 4 * Math.max(1, config.threads);
+		ProcessImport processes = null;
+		try (var it = new DataSetIterator(files, pool, window)) {
+			var refData = new RefDataImport(config);
+			processes = new ProcessImport(refData.getIndex(), config, pool);
 			while (!canceled && it.hasNext()) {
 				var dataSet = it.next();
-				imp.importDataSet(dataSet);
+				refData.importDataSet(dataSet);
+				processes.importDataSet(dataSet);
 			}
 		} catch (Exception e) {
-			log.error("reference data import failed", e);
-		}
-		return imp.getIndex();
-	}
-
-	private void importProcesses(File[] files, RefDataIndex index) {
-		log.info("import processes");
-		var imp = new ProcessImport(index, config);
-		try (var it = new DataSetIterator(files)) {
-			while (!canceled && it.hasNext()) {
-				var dataSet = it.next();
-				imp.importDataSet(dataSet);
+			log.error("data set import failed", e);
+		} finally {
+			// write the processes that are still pending or in the last batch
+			if (processes != null) {
+				try {
+					processes.finish();
+				} catch (Exception e) {
+					log.error("failed to write the last processes", e);
+				}
+			}
+			if (pool != null) {
+				pool.shutdownNow();
 			}
-		} catch (Exception e) {
-			log.error("process import failed", e);
 		}
 	}
 }
@@ -36,6 +36,20 @@ public class ImportConfig {
 	 */
 	public boolean checkFormulas = false;
 
+	/**
+	 * The number of threads that are used for parsing the data sets and
+	 * converting them into processes. With a value of 1, the import runs
+	 * in a single thread.
+	 */
+	public int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * If true, the exchanges and parameters of the imported processes are
+	 * written directly with batched SQL statements instead of the entity
+	 * manager (see {@link org.openlca.core.database.ProcessWriter}).
+	 */
+	public boolean bulkInsert = false;
+
 	public final IDatabase db;
 	private final ImportLog log = new ImportLog();
 	private Map<String, FlowMapEntry> flowMap;
@@ -1,22 +1,29 @@
 package org.openlca.io.ecospold2.input;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.openlca.core.database.ExchangeDao;
 import org.openlca.core.database.ParameterDao;
 import org.openlca.core.database.ProcessDao;
+import org.openlca.core.database.ProcessWriter;
 import org.openlca.core.io.ImportLog;
 import org.openlca.core.model.Category;
 import org.openlca.core.model.DQSystem;
 import org.openlca.core.model.Exchange;
 import org.openlca.core.model.Flow;
 import org.openlca.core.model.FlowProperty;
+import org.openlca.core.model.ModelType;
 import org.openlca.core.model.Parameter;
 import org.openlca.core.model.ParameterScope;
 import org.openlca.core.model.Process;
@@ -37,24 +44,47 @@ import spold2.Representativeness;
 import spold2.RichText;
 import spold2.Spold2;
 
+/**
+ * Imports the processes of EcoSpold 02 data sets. The data sets are converted
+ * to openLCA processes on the given thread pool (if any) and the converted
+ * processes are written in batches, in the order in which the data sets were
+ * passed to this import. Everything that touches the database (the
+ * documentation with its actors and sources, global parameters, and the
+ * default providers) is done on the thread that calls the import. The
+ * reference data of a data set need to be synchronized with the index before
+ * the data set is passed to this import.
+ */
 class ProcessImport {
 
+	private static final int BATCH_SIZE = 50;
+
 	private final ImportLog log;
 	private final RefDataIndex index;
 	private final ProcessDao dao;
 	private final PriceMapper prices;
 	private final ImportConfig config;
 	private final DQSystem dqSystem;
+	private final ExecutorService pool;
+	private final int window;
 
 	/**
 	 * Exchanges that wait for a default provider: provider-id -> exchanges.
 	 */
 	private final HashMap<String, List<Exchange>> linkQueue = new HashMap<>();
 
-	ProcessImport(RefDataIndex index, ImportConfig config) {
+	private final Set<String> handled = new HashSet<>();
+	private final ArrayDeque<Future<Conversion>> pending = new ArrayDeque<>();
+	private final List<Conversion> batch = new ArrayList<>();
+	private Set<String> globals;
+
+	ProcessImport(RefDataIndex index, ImportConfig config, ExecutorService pool) {
 		this.log = config.log();
 		this.index = index;
 		this.config = config;
+		this.pool = pool;
+		this.window = pool != null
+			? 4 * Math.max(1, config.threads)
+			: 0;
 		dao = new ProcessDao(config.db);
 		prices = new PriceMapper(config.db);
 		dqSystem = DQSystems.ecoinvent(config.db);
@@ -80,18 +110,52 @@ class ProcessImport {
 		Activity activity = Spold2.getActivity(ds);
 		try {
 			String refId = RefId.forProcess(ds);
-			boolean contains = dao.contains(refId);
-			if (contains) {
+			if (!handled.add(refId) || dao.contains(refId)) {
 				log.info("process '" + activity.id + "' is already in the database");
 				return;
 			}
 			log.info("import process: " + activity.name);
-			runImport(ds, refId);
+			submit(ds, refId);
 		} catch (Exception e) {
 			log.error("Failed to import process", e);
 		}
 	}
 
+	/**
+	 * Writes the processes that are still converted or waiting in the current
+	 * batch. This method must be called at the end of the import.
+	 */
+	void finish() {
+		while (!pending.isEmpty()) {
+			collect(pending.poll());
+		}
+		writeBatch();
+	}
+
+	private void submit(DataSet ds, String refId) {
+		var future = pool != null
+			? pool.submit(() -> convert(ds, refId))
+			: CompletableFuture.completedFuture(convert(ds, refId));
+		pending.add(future);
+		while (pending.size() > window) {
+			collect(pending.poll());
+		}
+	}
+
+	private void collect(Future<Conversion> future) {
+		try {
+			batch.add(future.get());
+			if (batch.size() >= BATCH_SIZE) {
+				writeBatch();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.error("process import was interrupted", e);
+		} catch (ExecutionException e) {
+			log.error("Failed to import process", e.getCause());
+		}
+	}
+
 	private boolean valid(DataSet ds) {
 		Activity activity = Spold2.getActivity(ds);
 		if (activity.id == null || activity.name == null)
@@ -111,9 +175,14 @@ class ProcessImport {
 		return refFlow != null;
 	}
 
-	private void runImport(DataSet ds, String refId) {
+	/**
+	 * Converts the given data set into a process. This method is called on
+	 * the threads of the pool and must not write to the database.
+	 */
+	private Conversion convert(DataSet ds, String refId) {
 		Activity activity = Spold2.getActivity(ds);
 		Process p = new Process();
+		var conversion = new Conversion(ds, p);
 
 		// map meta data
 		p.refId = refId;
@@ -145,57 +214,132 @@ class ProcessImport {
 		}
 
 		if (config.withParameters) {
-			handleParameters(ds, p);
+			handleParameters(conversion);
 		}
 
 		// create inputs and outputs
-		createProductExchanges(ds, p);
+		createProductExchanges(conversion);
 		createElementaryExchanges(ds, p);
 
 		p.exchangeDqSystem = dqSystem;
-		new DocImportMapper(config.db).map(ds, p);
-		new ProcessDao(config.db).insert(p);
-		index.putProcessId(refId, p.id);
-		flushLinkQueue(p);
+		return conversion;
 	}
 
-	private void handleParameters(DataSet dataSet, Process process) {
-		List<Parameter> list = Parameters.fetch(dataSet, config);
-		List<Parameter> newGlobals = new ArrayList<>();
+	private void handleParameters(Conversion conversion) {
+		List<Parameter> list = Parameters.fetch(conversion.dataSet, config);
 		for (Parameter p : list) {
 			if (p.scope == ParameterScope.PROCESS)
-				process.parameters.add(p);
+				conversion.process.parameters.add(p);
 			else if (p.scope == ParameterScope.GLOBAL)
-				newGlobals.add(p);
-		}
-		ParameterDao dao = new ParameterDao(config.db);
-		Map<String, Boolean> map = new HashMap<>();
-		for (Parameter p : dao.getGlobalParameters())
-			map.put(p.name, Boolean.TRUE);
-		for (Parameter newGlobal : newGlobals) {
-			Boolean exists = map.get(newGlobal.name);
-			if (exists == null) {
-				dao.insert(newGlobal);
-				map.put(newGlobal.name, Boolean.TRUE);
-			}
+				conversion.globals.add(p);
 		}
 	}
 
-	private void flushLinkQueue(Process process) {
-		List<Exchange> exchanges = linkQueue.remove(process.refId);
-		if (exchanges == null || process.id == 0)
+	/**
+	 * Writes the converted processes of the current batch in a single
+	 * transaction. The documentation, global parameters, and links to default
+	 * providers are synchronized with the database before. When the batch
+	 * cannot be written, its processes are inserted one by one so that only
+	 * the failing processes are lost.
+	 */
+	private void writeBatch() {
+		if (batch.isEmpty())
 			return;
+		for (var c : batch) {
+			insertGlobals(c.globals);
+			new DocImportMapper(config.db).map(c.dataSet, c.process);
+			for (var link : c.links) {
+				Long providerId = index.getProcessId(link.providerId);
+				if (providerId != null) {
+					link.exchange.defaultProviderId = providerId;
+				} else {
+					linkQueue.computeIfAbsent(link.providerId, k -> new ArrayList<>())
+						.add(link.exchange);
+				}
+			}
+		}
+
 		try {
-			ExchangeDao dao = new ExchangeDao(config.db);
-			for (Exchange exchange : exchanges) {
-				exchange.defaultProviderId = process.id;
-				dao.update(exchange);
+			insert(batch);
+		} catch (Exception e) {
+			log.warn("Failed to insert a batch of " + batch.size()
+				+ " processes; insert them one by one: " + e.getMessage());
+			var inserted = new ArrayList<Conversion>(batch.size());
+			for (var c : batch) {
+				try {
+					insert(List.of(c));
+					inserted.add(c);
+				} catch (Exception ex) {
+					log.error("Failed to insert process " + c.process.refId
+						+ " " + c.process.name, ex);
+				}
+			}
+			batch.clear();
+			batch.addAll(inserted);
+		}
+
+		for (var c : batch) {
+			index.putProcessId(c.process.refId, c.process.id);
+		}
+		var linked = new ArrayList<Exchange>();
+		for (var c : batch) {
+			var exchanges = linkQueue.remove(c.process.refId);
+			if (exchanges == null)
+				continue;
+			for (var exchange : exchanges) {
+				if (exchange.id == 0)
+					continue;
+				exchange.defaultProviderId = c.process.id;
+				linked.add(exchange);
 			}
+		}
+		batch.clear();
+		if (linked.isEmpty())
+			return;
+		try {
+			config.db.transaction(em -> linked.forEach(em::merge));
+			config.db.getListeners().changed(ModelType.PROCESS);
 		} catch (Exception e) {
 			log.error("failed to update default provider", e);
 		}
 	}
 
+	private void insert(List<Conversion> conversions) {
+		if (config.bulkInsert) {
+			var processes = new ArrayList<Process>(conversions.size());
+			for (var c : conversions) {
+				processes.add(c.process);
+			}
+			ProcessWriter.on(config.db).insert(processes);
+			return;
+		}
+		config.db.transaction(em -> {
+			for (var c : conversions) {
+				em.persist(c.process);
+			}
+		});
+		for (var c : conversions) {
+			config.db.getListeners().inserted(c.process);
+		}
+	}
+
+	private void insertGlobals(List<Parameter> newGlobals) {
+		if (newGlobals.isEmpty())
+			return;
+		ParameterDao dao = new ParameterDao(config.db);
+		if (globals == null) {
+			globals = new HashSet<>();
+			for (Parameter p : dao.getGlobalParameters()) {
+				globals.add(p.name);
+			}
+		}
+		for (Parameter newGlobal : newGlobals) {
+			if (globals.add(newGlobal.name)) {
+				dao.insert(newGlobal);
+			}
+		}
+	}
+
 	private void createElementaryExchanges(DataSet ds, Process process) {
 		for (ElementaryExchange e : Spold2.getElemFlows(ds)) {
 			if (e.amount == 0 && config.skipNullExchanges)
@@ -209,7 +353,9 @@ class ProcessImport {
 		}
 	}
 
-	private void createProductExchanges(DataSet ds, Process p) {
+	private void createProductExchanges(Conversion conversion) {
+		var ds = conversion.dataSet;
+		var p = conversion.process;
 		for (IntermediateExchange ie : Spold2.getProducts(ds)) {
 			if (ie.amount == 0 && config.skipNullExchanges)
 				continue;
@@ -228,7 +374,7 @@ class ProcessImport {
 				e.isAvoided = true;
 			}
 			if (ie.activityLinkId != null) {
-				addActivityLink(ie, e);
+				conversion.links.add(new Link(RefId.linkID(ie), e));
 			}
 			if (isRefFlow) {
 				p.quantitativeReference = e;
@@ -315,22 +461,6 @@ class ProcessImport {
 			exchange.formula = factor + " * (" + formula + ")";
 	}
 
-	private void addActivityLink(IntermediateExchange input,
-															 Exchange exchange) {
-		String refId = RefId.linkID(input);
-		Long processId = index.getProcessId(refId);
-		if (processId != null) {
-			exchange.defaultProviderId = processId;
-			return;
-		}
-		List<Exchange> exchanges = linkQueue.get(refId);
-		if (exchanges == null) {
-			exchanges = new ArrayList<>();
-			linkQueue.put(refId, exchanges);
-		}
-		exchanges.add(exchange);
-	}
-
 	/**
 	 * The name of the process has the following pattern:
 	 * <p>
@@ -381,4 +511,27 @@ class ProcessImport {
 		return name;
 	}
 
+	/**
+	 * A data set with the process that was converted from it.
+	 */
+	private static class Conversion {
+
+		final DataSet dataSet;
+		final Process process;
+		final List<Parameter> globals = new ArrayList<>();
+		final List<Link> links = new ArrayList<>();
+
+		Conversion(DataSet dataSet, Process process) {
+			this.dataSet = dataSet;
+			this.process = process;
+		}
+	}
+
+	/**
+	 * An exchange that should be linked to the default provider with the
+	 * given reference ID.
+	 */
+	private record Link(String providerId, Exchange exchange) {
+	}
+
 }
@@ -1,7 +1,7 @@
 package org.openlca.io.ecospold2.input;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openlca.core.model.Category;
 import org.openlca.core.model.Flow;
@@ -10,42 +10,45 @@ import org.openlca.core.model.Location;
 import org.openlca.core.model.Unit;
 
 /**
- * An index with cached reference data for an EcoSpold 02 import.
+ * An index with cached reference data for an EcoSpold 02 import. The index is
+ * filled by the reference data import and read by the process conversions that
+ * run in parallel; thus, it is backed by concurrent maps. A `null` key is
+ * never stored and returns `null` for all getters.
  */
 class RefDataIndex {
 
-	private final Map<String, Long> processIds = new HashMap<>();
-	private final Map<String, Category> processCategories = new HashMap<>();
-	private final Map<String, Category> compartments = new HashMap<>();
-	private final Map<String, Location> locations = new HashMap<>();
-	private final Map<String, Unit> units = new HashMap<>();
-	private final Map<String, FlowProperty> flowProperties = new HashMap<>();
-	private final Map<String, Flow> flows = new HashMap<>();
-	private final Map<String, Boolean> mappedFlow = new HashMap<>();
-	private final Map<String, Double> flowFactor = new HashMap<>();
+	private final Map<String, Long> processIds = new ConcurrentHashMap<>();
+	private final Map<String, Category> processCategories = new ConcurrentHashMap<>();
+	private final Map<String, Category> compartments = new ConcurrentHashMap<>();
+	private final Map<String, Location> locations = new ConcurrentHashMap<>();
+	private final Map<String, Unit> units = new ConcurrentHashMap<>();
+	private final Map<String, FlowProperty> flowProperties = new ConcurrentHashMap<>();
+	private final Map<String, Flow> flows = new ConcurrentHashMap<>();
+	private final Map<String, Boolean> mappedFlow = new ConcurrentHashMap<>();
+	private final Map<String, Double> flowFactor = new ConcurrentHashMap<>();
 
 	public Category getProcessCategory(String key) {
-		return processCategories.get(key);
+		return get(processCategories, key);
 	}
 
 	public void putProcessCategory(String key, Category category) {
-		processCategories.put(key, category);
+		put(processCategories, key, category);
 	}
 
 	public Location getLocation(String key) {
-		return locations.get(key);
+		return get(locations, key);
 	}
 
 	public void putLocation(String key, Location location) {
-		locations.put(key, location);
+		put(locations, key, location);
 	}
 
 	public Unit getUnit(String key) {
-		return units.get(key);
+		return get(units, key);
 	}
 
 	public void putUnit(String key, Unit unit) {
-		units.put(key, unit);
+		put(units, key, unit);
 	}
 
 	/**
@@ -53,7 +56,7 @@ class RefDataIndex {
 	 * not have the concept of flow properties).
 	 */
 	public FlowProperty getFlowProperty(String unitID) {
-		return flowProperties.get(unitID);
+		return get(flowProperties, unitID);
 	}
 
 	/**
@@ -61,31 +64,31 @@ class RefDataIndex {
 	 * EcoSpold 2 does not have the concept of flow properties).
 	 */
 	public void putFlowProperty(String unitID, FlowProperty property) {
-		flowProperties.put(unitID, property);
+		put(flowProperties, unitID, property);
 	}
 
 	public Category getCompartment(String key) {
-		return compartments.get(key);
+		return get(compartments, key);
 	}
 
 	public void putCompartment(String key, Category category) {
-		compartments.put(key, category);
+		put(compartments, key, category);
 	}
 
 	public Flow getFlow(String key) {
-		return flows.get(key);
+		return get(flows, key);
 	}
 
 	public void putFlow(String key, Flow flow) {
-		flows.put(key, flow);
+		put(flows, key, flow);
 	}
 
 	public void putProcessId(String key, long id) {
-		processIds.put(key, id);
+		put(processIds, key, id);
 	}
 
 	public Long getProcessId(String key) {
-		return processIds.get(key);
+		return get(processIds, key);
 	}
 
 	/**
@@ -93,8 +96,8 @@ class RefDataIndex {
 	 * given conversion factor.
 	 */
 	public void putMappedFlow(String key, double factor) {
-		mappedFlow.put(key, Boolean.TRUE);
-		flowFactor.put(key, factor);
+		put(mappedFlow, key, Boolean.TRUE);
+		put(flowFactor, key, factor);
 	}
 
 	/**
@@ -102,7 +105,7 @@ class RefDataIndex {
 	 * reference flow.
 	 */
 	public boolean isMappedFlow(String key) {
-		Boolean b = mappedFlow.get(key);
+		Boolean b = get(mappedFlow, key);
 		if (b == null)
 			return false;
 		return b;
@@ -113,10 +116,22 @@ class RefDataIndex {
 	 * if the flow with the given key is a mapped flow.
 	 */
 	public double getMappedFlowFactor(String key) {
-		Double factor = flowFactor.get(key);
+		Double factor = get(flowFactor, key);
 		if (factor == null)
 			return 1;
 		return factor;
 	}
 
+	private static <T> T get(Map<String, T> map, String key) {
+		return key != null
+			? map.get(key)
+			: null;
+	}
+
+	private static <T> void put(Map<String, T> map, String key, T value) {
+		if (key == null || value == null)
+			return;
+		map.put(key, value);
+	}
+
 }
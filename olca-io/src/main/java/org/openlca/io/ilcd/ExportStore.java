@@ -0,0 +1,194 @@
+package org.openlca.io.ilcd;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openlca.core.model.RootEntity;
+import org.openlca.ilcd.commons.IDataSet;
+import org.openlca.ilcd.io.DataStore;
+import org.openlca.ilcd.io.XmlBinder;
+import org.openlca.ilcd.sources.Source;
+
+/**
+ * The data store of the parallel ILCD export. The models are converted on
+ * multiple threads and the conversions put their data sets into this store.
+ * A data set is marshalled to XML on the thread that puts it and buffered for
+ * the export task of that thread. The buffered data sets of the tasks are
+ * then written into the underlying store on a single thread, in the order of
+ * the tasks. Data sets that are referenced by multiple models, like flows or
+ * units, are only buffered by the first task that puts them. The access to
+ * the underlying store is synchronized.
+ */
+class ExportStore implements DataStore {
+
+	private final DataStore store;
+	private final XmlBinder binder = new XmlBinder();
+
+	/** The data sets that are buffered but not written yet. */
+	private final ConcurrentHashMap<String, IDataSet> pending =
+		new ConcurrentHashMap<>();
+
+	/** The data sets that are known to be in the underlying store. */
+	private final Set<String> written = ConcurrentHashMap.newKeySet();
+
+	private final ThreadLocal<List<Entry>> buffer = new ThreadLocal<>();
+
+	ExportStore(DataStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * A data set that was put into the store by an export task, with its XML
+	 * and the external files of a source.
+	 */
+	record Entry(String key, IDataSet dataSet, byte[] xml, File[] files) {
+	}
+
+	/**
+	 * The data sets that an export task put into the store and the error
+	 * of the task if it failed. The data sets of a failed task are still
+	 * written, as they can be referenced by other tasks.
+	 */
+	record Batch(RootEntity model, List<Entry> entries, Exception error) {
+	}
+
+	/**
+	 * Runs the given export task of the given model and buffers the data sets
+	 * that it puts into this store.
+	 */
+	Batch record(RootEntity model, Task task) {
+		var entries = new ArrayList<Entry>();
+		buffer.set(entries);
+		try {
+			task.run();
+			return new Batch(model, entries, null);
+		} catch (Exception e) {
+			return new Batch(model, entries, e);
+		} finally {
+			buffer.remove();
+		}
+	}
+
+	/**
+	 * Writes the buffered data sets of the given batch into the underlying
+	 * store. This method should be only called from a single thread.
+	 */
+	void write(Batch batch) {
+		for (var e : batch.entries) {
+			synchronized (store) {
+				if (e.files != null) {
+					store.put((Source) e.dataSet, e.files);
+				} else {
+					store.put(e.dataSet, e.xml);
+				}
+			}
+			written.add(e.key);
+			pending.remove(e.key);
+		}
+	}
+
+	@Override
+	public <T extends IDataSet> T get(Class<T> type, String id) {
+		var ds = pending.get(keyOf(type, id));
+		if (type.isInstance(ds))
+			return type.cast(ds);
+		synchronized (store) {
+			return store.get(type, id);
+		}
+	}
+
+	@Override
+	public InputStream getExternalDocument(String sourceId, String fileName) {
+		synchronized (store) {
+			return store.getExternalDocument(sourceId, fileName);
+		}
+	}
+
+	@Override
+	public void put(IDataSet ds) {
+		buffer(ds, null);
+	}
+
+	@Override
+	public void put(Source source, File[] files) {
+		buffer(source, files);
+	}
+
+	private void buffer(IDataSet ds, File[] files) {
+		if (ds == null)
+			return;
+		var key = keyOf(ds.getClass(), ds.getUUID());
+		var entries = buffer.get();
+		if (entries == null) {
+			// not called from an export task
+			synchronized (store) {
+				if (files != null) {
+					store.put((Source) ds, files);
+				} else {
+					store.put(ds);
+				}
+			}
+			written.add(key);
+			return;
+		}
+		if (written.contains(key) || pending.putIfAbsent(key, ds) != null)
+			return;
+		try {
+			var xml = files == null
+				? binder.toByteArray(ds)
+				: null;
+			entries.add(new Entry(key, ds, xml, files));
+		} catch (Exception e) {
+			pending.remove(key);
+			throw new RuntimeException("failed to marshal data set " + ds, e);
+		}
+	}
+
+	@Override
+	public <T extends IDataSet> boolean delete(Class<T> type, String id) {
+		synchronized (store) {
+			return store.delete(type, id);
+		}
+	}
+
+	@Override
+	public <T extends IDataSet> Iterator<T> iterator(Class<T> type) {
+		return store.iterator(type);
+	}
+
+	@Override
+	public <T extends IDataSet> boolean contains(Class<T> type, String id) {
+		var key = keyOf(type, id);
+		if (written.contains(key) || pending.containsKey(key))
+			return true;
+		boolean b;
+		synchronized (store) {
+			b = store.contains(type, id);
+		}
+		if (b) {
+			written.add(key);
+		}
+		return b;
+	}
+
+	/**
+	 * Does nothing; the underlying store is closed by the export.
+	 */
+	@Override
+	public void close() {
+	}
+
+	private static String keyOf(Class<?> type, String id) {
+		return type.getName() + "/" + id;
+	}
+
+	@FunctionalInterface
+	interface Task {
+		void run() throws Exception;
+	}
+}
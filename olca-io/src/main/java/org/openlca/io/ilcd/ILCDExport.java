@@ -1,5 +1,11 @@
 package org.openlca.io.ilcd;
 
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.openlca.core.model.Actor;
 import org.openlca.core.model.RootEntity;
 import org.openlca.core.model.Flow;
@@ -42,14 +48,77 @@ public class ILCDExport {
 		if (errorNo > 10) // stop exporting after 10 errors
 			return;
 		try {
-			tryExport(component);
+			tryExport(component, config);
 		} catch (Exception e) {
 			errorNo++;
 			log.error("Export of component " + component + " failed", e);
 		}
 	}
 
-	private void tryExport(RootEntity component) throws Exception {
+	/**
+	 * Exports the given models. With more than one thread in the export
+	 * configuration, the models are converted to ILCD data sets and marshalled
+	 * to XML on a thread pool, and the data sets are written into the store on
+	 * the calling thread, in the order of the models. Data sets that are
+	 * shared by multiple models, like flows or unit groups, are written only
+	 * once. At most {@code 16 * threads} models are converted ahead of the
+	 * writes. As in {@link #export(RootEntity)}, the export stops after 10
+	 * errors.
+	 */
+	public void exportAll(List<? extends RootEntity> components) {
+		if (components == null || config.db == null)
+			throw new IllegalArgumentException(
+					"Components and database cannot be NULL.");
+		if (config.threads() <= 1) {
+			for (var component : components) {
+				if (component != null) {
+					export(component);
+				}
+			}
+			return;
+		}
+
+		var store = new ExportStore(config.store);
+		var taskConfig = new ExportConfig(config.db, store);
+		taskConfig.lang = config.lang;
+		var pool = Executors.newFixedThreadPool(config.threads());
+		int window = 16 * config.threads();
+		var queue = new ArrayDeque<Future<ExportStore.Batch>>(window);
+		int next = 0;
+		try {
+			while (errorNo <= 10) {
+				while (queue.size() < window && next < components.size()) {
+					var component = components.get(next++);
+					if (component == null)
+						continue;
+					queue.add(pool.submit(() -> store.record(
+							component, () -> tryExport(component, taskConfig))));
+				}
+				var future = queue.poll();
+				if (future == null)
+					break;
+				var batch = future.get();
+				store.write(batch);
+				if (batch.error() != null) {
+					errorNo++;
+					log.error("Export of component " + batch.model()
+							+ " failed", batch.error());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			log.error("ILCD export failed", e.getCause());
+		} finally {
+			for (var future : queue) {
+				future.cancel(true);
+			}
+			pool.shutdownNow();
+		}
+	}
+
+	private void tryExport(RootEntity component, ExportConfig config)
+			throws Exception {
 		if (component instanceof ImpactMethod) {
 			ImpactMethodExport export = new ImpactMethodExport(config);
 			export.run((ImpactMethod) component);
@@ -1,5 +1,13 @@
 package org.openlca.io.ilcd;
 
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
 import org.openlca.core.io.ImportLog;
 import org.openlca.ilcd.commons.IDataSet;
 import org.openlca.ilcd.commons.ProcessType;
@@ -28,6 +36,7 @@ public class ILCDImport implements Import {
 
 	private volatile boolean canceled = false;
 	private final ImportConfig config;
+	private ExecutorService pool;
 
 	public ILCDImport(ImportConfig config) {
 		this.config = config;
@@ -53,22 +62,39 @@ public class ILCDImport implements Import {
 	public void run() {
 		if (canceled)
 			return;
-		importAll(Contact.class);
-		importAll(Source.class);
-		importAll(UnitGroup.class);
-		importAll(FlowProperty.class);
-		if (config.withAllFlows()) {
-			importAll(Flow.class);
+		pool = config.threads() > 1
+			? Executors.newFixedThreadPool(config.threads())
+			: null;
+		try {
+			importAll(Contact.class);
+			importAll(Source.class);
+			importAll(UnitGroup.class);
+			importAll(FlowProperty.class);
+			if (config.withAllFlows()) {
+				importAll(Flow.class);
+			}
+			importAll(Process.class);
+			importAll(LCIAMethod.class);
+			importAll(Model.class);
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+				pool = null;
+			}
 		}
-		importAll(Process.class);
-		importAll(LCIAMethod.class);
-		importAll(Model.class);
 	}
 
 	private <T extends IDataSet> void importAll(Class<T> type) {
 		if (canceled)
 			return;
 		try {
+			if (pool != null) {
+				var readers = config.store().readers(type);
+				if (!readers.isEmpty()) {
+					importAll(readers);
+					return;
+				}
+			}
 			var it = config.store().iterator(type);
 			while (!canceled && it.hasNext()) {
 				importOf(it.next());
@@ -79,6 +105,40 @@ public class ILCDImport implements Import {
 		}
 	}
 
+	/**
+	 * Reads the data sets with the given readers on the thread pool and
+	 * imports them in the order of the readers. At most {@code 16 * threads}
+	 * data sets are read ahead, so that the readers wait when the import
+	 * cannot keep up.
+	 */
+	private <T extends IDataSet> void importAll(List<Supplier<T>> readers) {
+		int window = 16 * config.threads();
+		var queue = new ArrayDeque<Future<T>>(window);
+		int next = 0;
+		try {
+			while (!canceled) {
+				while (queue.size() < window && next < readers.size()) {
+					queue.add(pool.submit(readers.get(next++)::get));
+				}
+				var future = queue.poll();
+				if (future == null)
+					break;
+				try {
+					importOf(future.get());
+				} catch (ExecutionException e) {
+					config.log().error("failed to read data set", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancel();
+		} finally {
+			for (var future : queue) {
+				future.cancel(true);
+			}
+		}
+	}
+
 	private <T extends IDataSet> void importOf(T dataSet) {
 		if (dataSet == null)
 			return;
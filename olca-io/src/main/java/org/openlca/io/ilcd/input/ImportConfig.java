@@ -30,6 +30,7 @@ public class ImportConfig {
 
 	private boolean allFlows;
 	private boolean withGabiGraphs = false;
+	private int threads = 1;
 	private String[] langOrder = {"en"};
 	private ExchangeProviderQueue providers;
 	private Map<String, ImpactMethodDescriptor> methods;
@@ -73,6 +74,22 @@ public class ImportConfig {
 		return withGabiGraphs;
 	}
 
+	/**
+	 * Set the number of threads that are used for reading the data sets. With
+	 * more than one thread, the data sets of a type are parsed ahead of the
+	 * import on a thread pool, when the data store supports this. They are
+	 * still converted and written in the order of the store. The default is
+	 * one thread, which reads the data sets sequentially.
+	 */
+	public ImportConfig withThreads(int threads) {
+		this.threads = Math.max(1, threads);
+		return this;
+	}
+
+	public int threads() {
+		return threads;
+	}
+
 	/**
 	 * Define the order in which a multi-language string should be evaluated. It
 	 * first checks if there is a string for the first language of this list, then
@@ -15,6 +15,7 @@ public class ExportConfig {
 	public final IDatabase db;
 	public final DataStore store;
 	public String lang = "en";
+	private int threads = 1;
 
 	public ExportConfig(IDatabase database, File zip) {
 		DataStore store = null;
@@ -32,4 +33,20 @@ public class ExportConfig {
 		this.store = store;
 	}
 
+	/**
+	 * Set the number of threads that are used in
+	 * {@link org.openlca.io.ilcd.ILCDExport#exportAll(java.util.List)}. With
+	 * more than one thread, the models are converted and marshalled on a
+	 * thread pool and the data sets are written in the order of the models.
+	 * The default is one thread, which exports the models sequentially.
+	 */
+	public ExportConfig withThreads(int threads) {
+		this.threads = Math.max(1, threads);
+		return this;
+	}
+
+	public int threads() {
+		return threads;
+	}
+
 }
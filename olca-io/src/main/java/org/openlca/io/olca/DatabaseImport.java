@@ -27,12 +27,23 @@ public class DatabaseImport implements Import {
 	private final ImportLog log;
 	private final Config conf;
 	private volatile boolean cancelled;
+	private boolean bulkInsert;
 
 	public DatabaseImport(IDatabase source, IDatabase target) {
 		conf = Config.of(source, target);
 		log = conf.log();
 	}
 
+	/**
+	 * If set to true, the exchanges, allocation factors, and parameters of the
+	 * copied processes are written directly with batched SQL statements, see
+	 * {@link org.openlca.core.database.ProcessWriter}. The default is false.
+	 */
+	public DatabaseImport setBulkInsert(boolean bulkInsert) {
+		this.bulkInsert = bulkInsert;
+		return this;
+	}
+
 	public ImportLog log() {
 		return log;
 	}
@@ -102,7 +113,7 @@ public class DatabaseImport implements Import {
 			return copy;
 		});
 
-		ProcessImport.run(conf);
+		ProcessImport.run(conf, bulkInsert);
 		ProductSystemImport.run(conf);
 		copyImpactCategories();
 		ImpactMethodImport.run(conf);
@@ -8,6 +8,7 @@ import gnu.trove.list.array.TLongArrayList;
 import gnu.trove.map.hash.TLongLongHashMap;
 import org.openlca.core.database.NativeSql;
 import org.openlca.core.database.ProcessDao;
+import org.openlca.core.database.ProcessWriter;
 import org.openlca.core.io.ImportLog;
 import org.openlca.core.model.Exchange;
 import org.openlca.core.model.Process;
@@ -20,6 +21,7 @@ class ProcessImport {
 	private final ProcessDao srcDao;
 	private final ProcessDao destDao;
 	private final RefSwitcher refs;
+	private final boolean bulkInsert;
 
 	// Required for translating the default provider links: we import exchanges
 	// with possible links to processes that are not yet imported
@@ -29,16 +31,17 @@ class ProcessImport {
 	// updated after the import.
 	private final TLongLongHashMap oldExchangeProviders = new TLongLongHashMap();
 
-	private ProcessImport(Config config) {
+	private ProcessImport(Config config, boolean bulkInsert) {
 		this.conf = config;
+		this.bulkInsert = bulkInsert;
 		this.log = config.log();
 		this.srcDao = new ProcessDao(config.source());
 		this.destDao = new ProcessDao(config.target());
 		this.refs = new RefSwitcher(conf);
 	}
 
-	static void run(Config conf) {
-		new ProcessImport(conf).run();
+	static void run(Config conf, boolean bulkInsert) {
+		new ProcessImport(conf, bulkInsert).run();
 	}
 
 	private void run() {
@@ -81,7 +84,11 @@ class ProcessImport {
 			a.source = conf.swap(a.source);
 		}
 
-		copy = destDao.insert(copy);
+		if (bulkInsert) {
+			ProcessWriter.on(conf.target()).insert(copy);
+		} else {
+			copy = destDao.insert(copy);
+		}
 		conf.seq().put(Seq.PROCESS, process.refId, copy.id);
 		providerMap.put(process.id, copy.id);
 
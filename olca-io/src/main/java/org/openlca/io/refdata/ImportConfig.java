@@ -104,6 +104,7 @@ class ImportConfig {
 				}
 			}
 		});
+		entities.forEach(db.getListeners()::inserted);
 	}
 
 	void update(RootEntity e) {
@@ -0,0 +1,172 @@
+package org.openlca.io.ecospold2.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.database.FlowPropertyDao;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.database.ProcessDao;
+import org.openlca.core.database.UnitGroupDao;
+import org.openlca.core.model.FlowProperty;
+import org.openlca.core.model.Unit;
+import org.openlca.core.model.UnitGroup;
+import org.openlca.io.Tests;
+import org.openlca.util.KeyGen;
+
+public class ParallelImportTest {
+
+	private static final String ACTIVITY_ID = "08a78e38-fdbe-4ea8-869f-7735b41ecf85";
+	private static final String PRODUCT_ID = "d3a29af5-314a-4659-a574-6bfd53a6bde0";
+
+	private final IDatabase db = Tests.getDb();
+	private File zip;
+
+	@Before
+	public void setUp() {
+		db.clear();
+		createUnit("20aadc24-a391-41cf-b340-3e4529f44bde",
+				"93a60a56-a3c8-11da-a746-0800200b9a66", "kg");
+		createUnit("ee5f2241-18af-4444-b457-b275660e5a20",
+				"441238a3-ba09-46ec-b35b-c30cfba746d1", "km");
+	}
+
+	@After
+	public void tearDown() {
+		if (zip != null) {
+			zip.delete();
+		}
+		db.clear();
+	}
+
+	@Test
+	public void testImportZip() throws Exception {
+		runImport(false);
+	}
+
+	@Test
+	public void testBulkInsert() throws Exception {
+		runImport(true);
+	}
+
+	@Test
+	public void testSkipFailedProcess() throws Exception {
+		runImportWithFailure(false);
+	}
+
+	@Test
+	public void testSkipFailedBulkProcess() throws Exception {
+		runImportWithFailure(true);
+	}
+
+	private void runImport(boolean bulk) throws Exception {
+		var ids = new ArrayList<String>();
+		for (int i = 0; i < 60; i++) {
+			ids.add(UUID.randomUUID().toString());
+		}
+		zip = zipOf(ids, null);
+		var config = new ImportConfig(db);
+		config.threads = 4;
+		config.bulkInsert = bulk;
+		var imp = new EcoSpold2Import(config);
+		imp.setFiles(new File[]{zip});
+		imp.run();
+
+		var dao = new ProcessDao(db);
+		assertEquals(ids.size(), dao.getAll().size());
+		for (var id : ids) {
+			var process = dao.getForRefId(KeyGen.get(id, PRODUCT_ID));
+			assertNotNull(process);
+			assertNotNull(process.quantitativeReference);
+			assertEquals("p", process.quantitativeReference.formula);
+			assertEquals(3, process.parameters.size());
+		}
+	}
+
+	/**
+	 * Imports a data set with a name that is too long for the database in the
+	 * first batch. Only this process should be lost.
+	 */
+	private void runImportWithFailure(boolean bulk) throws Exception {
+		var ids = new ArrayList<String>();
+		for (int i = 0; i < 60; i++) {
+			ids.add(UUID.randomUUID().toString());
+		}
+		var failing = ids.get(10);
+		zip = zipOf(ids, failing);
+		var config = new ImportConfig(db);
+		config.threads = 4;
+		config.bulkInsert = bulk;
+		var imp = new EcoSpold2Import(config);
+		imp.setFiles(new File[]{zip});
+		imp.run();
+
+		var dao = new ProcessDao(db);
+		assertEquals(ids.size() - 1, dao.getAll().size());
+		for (var id : ids) {
+			var process = dao.getForRefId(KeyGen.get(id, PRODUCT_ID));
+			if (id.equals(failing)) {
+				assertNull(process);
+			} else {
+				assertNotNull(process);
+			}
+		}
+	}
+
+	private File zipOf(List<String> activityIds, String failing)
+			throws Exception {
+		var stream = getClass().getResourceAsStream("sample_ecospold2.xml");
+		assertNotNull(stream);
+		String xml;
+		try (stream) {
+			xml = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		var file = Files.createTempFile("_olca_", ".zip").toFile();
+		try (var out = new ZipOutputStream(new FileOutputStream(file))) {
+			for (var id : activityIds) {
+				var ds = xml.replace(ACTIVITY_ID, id);
+				if (id.equals(failing)) {
+					ds = ds.replace(
+							"<activityName xml:lang=\"en\">Sample</activityName>",
+							"<activityName xml:lang=\"en\">"
+									+ "x".repeat(3000) + "</activityName>");
+				}
+				out.putNextEntry(new ZipEntry(id + ".spold"));
+				out.write(ds.getBytes(StandardCharsets.UTF_8));
+				out.closeEntry();
+			}
+		}
+		return file;
+	}
+
+	private void createUnit(String unitRefId, String propertyRefId, String name) {
+		Unit unit = new Unit();
+		unit.name = name;
+		unit.refId = unitRefId;
+		UnitGroup group = new UnitGroup();
+		group.refId = UUID.randomUUID().toString();
+		group.referenceUnit = unit;
+		group.units.add(unit);
+		group = new UnitGroupDao(db).insert(group);
+		FlowProperty prop = new FlowProperty();
+		prop.unitGroup = group;
+		prop.name = "property for " + name;
+		prop.refId = propertyRefId;
+		prop = new FlowPropertyDao(db).insert(prop);
+		group.defaultFlowProperty = prop;
+		new UnitGroupDao(db).update(group);
+	}
+}
@@ -0,0 +1,78 @@
+package org.openlca.io.ilcd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Actor;
+import org.openlca.core.model.Flow;
+import org.openlca.core.model.FlowProperty;
+import org.openlca.core.model.RootEntity;
+import org.openlca.core.model.UnitGroup;
+import org.openlca.ilcd.contacts.Contact;
+import org.openlca.ilcd.io.ZipStore;
+import org.openlca.io.Tests;
+import org.openlca.io.ilcd.output.ExportConfig;
+
+public class ParallelExportTest {
+
+	private final IDatabase db = Tests.getDb();
+	private File zip;
+
+	@Before
+	public void setup() throws Exception {
+		zip = Files.createTempFile("_olca_ilcd_parallel_test", ".zip").toFile();
+		assertTrue(zip.delete());
+	}
+
+	@After
+	public void tearDown() {
+		db.clear();
+		assertTrue(zip.delete());
+	}
+
+	@Test
+	public void testExportAll() throws Exception {
+		var units = db.insert(UnitGroup.of("Mass units", "kg"));
+		var mass = db.insert(FlowProperty.of("Mass", units));
+		var models = new ArrayList<RootEntity>();
+		for (int i = 0; i < 50; i++) {
+			models.add(db.insert(Flow.product("flow " + i, mass)));
+			models.add(db.insert(Actor.of("actor " + i)));
+		}
+
+		try (var store = new ZipStore(zip)) {
+			var config = new ExportConfig(db, store).withThreads(4);
+			var export = new ILCDExport(config);
+			export.exportAll(models);
+			assertEquals(0, export.errorNo);
+		}
+
+		try (var store = new ZipStore(zip)) {
+			for (var model : models) {
+				var type = model instanceof Flow
+					? org.openlca.ilcd.flows.Flow.class
+					: Contact.class;
+				var ds = store.get(type, model.refId);
+				assertNotNull(ds);
+				assertEquals(model.refId, ds.getUUID());
+			}
+
+			// the shared dependencies are written once
+			assertEquals(1, store.getEntries(
+				org.openlca.ilcd.flowproperties.FlowProperty.class).size());
+			assertEquals(1, store.getEntries(
+				org.openlca.ilcd.units.UnitGroup.class).size());
+			assertNotNull(store.get(
+				org.openlca.ilcd.units.UnitGroup.class, units.refId));
+		}
+	}
+}
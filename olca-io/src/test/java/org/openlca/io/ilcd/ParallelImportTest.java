@@ -0,0 +1,86 @@
+package org.openlca.io.ilcd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlca.core.database.IDatabase;
+import org.openlca.core.model.Actor;
+import org.openlca.ilcd.commons.LangString;
+import org.openlca.ilcd.contacts.Contact;
+import org.openlca.ilcd.contacts.ContactInfo;
+import org.openlca.ilcd.contacts.DataSetInfo;
+import org.openlca.ilcd.io.ZipStore;
+import org.openlca.io.Tests;
+import org.openlca.io.ilcd.input.ImportConfig;
+
+public class ParallelImportTest {
+
+	private final IDatabase db = Tests.getDb();
+	private File zip;
+
+	@Before
+	public void setup() throws Exception {
+		zip = Files.createTempFile("_olca_ilcd_parallel_test", ".zip").toFile();
+		assertTrue(zip.delete());
+		try (var store = new ZipStore(zip)) {
+			for (int i = 0; i < 50; i++) {
+				store.put(contact("contact " + i));
+			}
+		}
+	}
+
+	@After
+	public void tearDown() {
+		db.clear();
+		assertTrue(zip.delete());
+	}
+
+	@Test
+	public void testImportInStoreOrder() throws Exception {
+		try (var store = new ZipStore(zip)) {
+			var ids = new ArrayList<String>();
+			for (var reader : store.readers(Contact.class)) {
+				ids.add(reader.get().getUUID());
+			}
+			assertEquals(50, ids.size());
+
+			var config = new ImportConfig(store, db).withThreads(4);
+			new ILCDImport(config).run();
+
+			// the actors are written in the order of the store
+			var actors = new ArrayList<Actor>();
+			for (var id : ids) {
+				var actor = db.get(Actor.class, id);
+				assertNotNull(actor);
+				actors.add(actor);
+			}
+			assertAscending(actors);
+		}
+	}
+
+	private void assertAscending(List<Actor> actors) {
+		for (int i = 1; i < actors.size(); i++) {
+			assertTrue(actors.get(i - 1).id < actors.get(i).id);
+		}
+	}
+
+	private Contact contact(String name) {
+		var contact = new Contact();
+		contact.contactInfo = new ContactInfo();
+		var info = new DataSetInfo();
+		contact.contactInfo.dataSetInfo = info;
+		info.uuid = UUID.randomUUID().toString();
+		LangString.set(info.name, name, "en");
+		return contact;
+	}
+}
@@ -1,21 +1,38 @@
 package org.openlca.ipc;
 
-import java.util.HashMap;
+import org.openlca.core.services.ResultStore;
 
+/**
+ * The cache of the IPC server for objects that are referenced by an ID in
+ * the requests of the clients. It is backed by a thread-safe
+ * {@link ResultStore} which can be bounded, so that objects that are not
+ * disposed by the clients do not fill up the memory.
+ */
 public class Cache {
 
-	private final HashMap<String, Object> cache = new HashMap<>();
+	private final ResultStore<Object> store;
+
+	public Cache() {
+		this(ResultStore.create());
+	}
+
+	public Cache(ResultStore<Object> store) {
+		this.store = store;
+	}
 
 	public Object get(String id) {
-		return cache.get(id);
+		return store.get(id);
 	}
 
 	public void put(String id, Object obj) {
-		cache.put(id, obj);
+		store.put(id, obj);
 	}
 
 	public Object remove(String id) {
-		return cache.remove(id);
+		return store.remove(id);
 	}
 
+	public ResultStore<Object> store() {
+		return store;
+	}
 }
@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import org.openlca.core.services.JsonResultService;
+import org.openlca.core.services.ResultStore;
 import org.openlca.core.services.ServerConfig;
 import org.openlca.ipc.handlers.DataHandler;
 import org.openlca.ipc.handlers.ExportHandler;
@@ -43,7 +44,7 @@ public class Server {
 
 	public Server withDefaultHandlers() {
 		log.info("Register default handlers");
-		var cache = new Cache();
+		var cache = new Cache(ResultStore.of(config));
 		var results = JsonResultService.of(config);
 		var context = new HandlerContext(this, config, results, cache);
 		register(new DataHandler(context));
@@ -91,6 +91,7 @@ class BatchImport<T extends RootEntity> {
 			next(batch);
 			task = exec.submit(() -> {
 				imp.db().transaction(em -> buffer.forEach(em::persist));
+				buffer.forEach(imp.db().getListeners()::inserted);
 				buffer.forEach(imp::visited);
 				buffer.clear();
 			});
@@ -100,6 +101,7 @@ class BatchImport<T extends RootEntity> {
 			next(batch);
 			task = exec.submit(() -> {
 				imp.db().transaction(em -> buffer.replaceAll(em::merge));
+				buffer.forEach(imp.db().getListeners()::updated);
 				buffer.forEach(imp::visited);
 				buffer.clear();
 			});
@@ -1,15 +1,16 @@
 package org.openlca.proto.io.server;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 import org.openlca.core.database.IDatabase;
 import org.openlca.core.io.DbEntityResolver;
 import org.openlca.core.library.LibraryDir;
 import org.openlca.core.math.SystemCalculator;
+import org.openlca.core.matrix.MatrixDataCache;
+import org.openlca.core.matrix.solvers.FactorizationCache;
 import org.openlca.core.results.LcaResult;
 import org.openlca.core.results.providers.ResultProvider;
+import org.openlca.core.services.ResultStore;
 import org.openlca.core.services.ServerConfig;
 import org.openlca.proto.ProtoRef;
 import org.openlca.proto.grpc.ImpactFactorRequest;
@@ -33,11 +34,27 @@ class ResultService extends ResultServiceGrpc.ResultServiceImplBase {
 
 	final IDatabase db;
 	private final LibraryDir libDir;
-	final Map<String, LcaResult> results = new HashMap<>();
+	private final MatrixDataCache cache;
+	private final FactorizationCache factorizations;
+	final ResultStore<LcaResult> results;
 
 	ResultService(ServerConfig config) {
 		this.db = config.db();
 		this.libDir = config.dataDir().getLibraryDir();
+		this.cache = MatrixDataCache.of(db);
+		this.factorizations = FactorizationCache.of(4);
+		this.results = ResultStore.of(config);
+	}
+
+	/**
+	 * Releases the caches of this service and disposes the stored results.
+	 * This also removes the matrix data cache from the listeners of the
+	 * database. The service should not be used anymore after this.
+	 */
+	void dispose() {
+		cache.dispose();
+		factorizations.clear();
+		results.clear();
 	}
 
 	@Override
@@ -54,6 +71,8 @@ class ResultService extends ResultServiceGrpc.ResultServiceImplBase {
 
 		var result = new SystemCalculator(db)
 			.withLibraryDir(libDir)
+			.withCache(cache)
+			.withFactorizations(factorizations)
 			.calculate(setup);
 		var key = UUID.randomUUID().toString();
 		results.put(key, result);
@@ -67,54 +86,60 @@ class ResultService extends ResultServiceGrpc.ResultServiceImplBase {
 	@Override
 	public void getTechFlows(
 		ProtoResultRef req, StreamObserver<ProtoTechFlow> resp) {
-		var result = results.get(req.getId());
-		if (result == null) {
-			Response.notFound(resp, "Result does not exist: " + req.getId());
-			return;
-		}
-		var refData = Refs.dataOf(db);
-		for (var product : result.techIndex()) {
-			resp.onNext(Results.toProto(product, refData));
+		try (var lease = results.acquire(req.getId())) {
+			if (lease == null) {
+				Response.notFound(resp, missing(req.getId()));
+				return;
+			}
+			var result = lease.value();
+			var refData = Refs.dataOf(db);
+			for (var product : result.techIndex()) {
+				resp.onNext(Results.toProto(product, refData));
+			}
+			resp.onCompleted();
 		}
-		resp.onCompleted();
 	}
 
 	@Override
 	public void getEnviFlows(
 		ProtoResultRef req, StreamObserver<ProtoEnviFlow> resp) {
-		var result = results.get(req.getId());
-		if (result == null) {
-			Response.notFound(resp, "Result does not exist: " + req.getId());
-			return;
-		}
-		var flows = result.enviIndex();
-		if (flows == null) {
+		try (var lease = results.acquire(req.getId())) {
+			if (lease == null) {
+				Response.notFound(resp, missing(req.getId()));
+				return;
+			}
+			var result = lease.value();
+			var flows = result.enviIndex();
+			if (flows == null) {
+				resp.onCompleted();
+				return;
+			}
+			var refData = Refs.dataOf(db);
+			for (var flow : flows) {
+				resp.onNext(Results.toProto(flow, refData));
+			}
 			resp.onCompleted();
-			return;
-		}
-		var refData = Refs.dataOf(db);
-		for (var flow : flows) {
-			resp.onNext(Results.toProto(flow, refData));
 		}
-		resp.onCompleted();
 	}
 
 	@Override
 	public void getImpactCategories(
 		ProtoResultRef req, StreamObserver<ProtoRef> resp) {
-		var result = results.get(req.getId());
-		if (result == null) {
-			Response.notFound(resp, "Result does not exist: " + req.getId());
-			return;
-		}
-		var impacts = result.impactIndex();
-		if (impacts == null)
-			return;
-		var refData = Refs.dataOf(db);
-		for (var impact : impacts) {
-			resp.onNext(Refs.refOf(impact, refData).build());
+		try (var lease = results.acquire(req.getId())) {
+			if (lease == null) {
+				Response.notFound(resp, missing(req.getId()));
+				return;
+			}
+			var result = lease.value();
+			var impacts = result.impactIndex();
+			if (impacts == null)
+				return;
+			var refData = Refs.dataOf(db);
+			for (var impact : impacts) {
+				resp.onNext(Refs.refOf(impact, refData).build());
+			}
+			resp.onCompleted();
 		}
-		resp.onCompleted();
 	}
 
 	@Override
@@ -122,25 +147,27 @@ class ResultService extends ResultServiceGrpc.ResultServiceImplBase {
 		ProtoResultRef req, StreamObserver<ResultValue> resp) {
 
 		// TODO maybe wrap with `withResult`
-		var result = results.get(req.getId());
-		if (result == null) {
-			Response.notFound(resp, "Result does not exist: " + req.getId());
-			return;
-		}
-		var flows = result.enviIndex();
-		if (flows == null) {
-			resp.onCompleted();
-			return;
-		}
+		try (var lease = results.acquire(req.getId())) {
+			if (lease == null) {
+				Response.notFound(resp, missing(req.getId()));
+				return;
+			}
+			var result = lease.value();
+			var flows = result.enviIndex();
+			if (flows == null) {
+				resp.onCompleted();
+				return;
+			}
 
-		var refData = Refs.dataOf(db);
-		for (var flow : flows) {
-			var value = result.getTotalFlowValueOf(flow);
-			if (value == 0)
-				continue;
-			resp.onNext(Results.toProtoResult(flow, refData, value));
+			var refData = Refs.dataOf(db);
+			for (var flow : flows) {
+				var value = result.getTotalFlowValueOf(flow);
+				if (value == 0)
+					continue;
+				resp.onNext(Results.toProtoResult(flow, refData, value));
+			}
+			resp.onCompleted();
 		}
-		resp.onCompleted();
 	}
 
 	@Override
@@ -148,27 +175,33 @@ class ResultService extends ResultServiceGrpc.ResultServiceImplBase {
 		ProtoResultRef req, StreamObserver<ResultValue> resp) {
 
 		// get the impact results
-		var result = results.get(req.getId());
-		if (result == null) {
-			resp.onCompleted();
-			return;
-		}
-		var impacts = result.impactIndex();
-		if (impacts == null) {
-			resp.onCompleted();
-			return;
-		}
+		try (var lease = results.acquire(req.getId())) {
+			if (lease == null) {
+				if (results.isEvicted(req.getId())) {
+					Response.notFound(resp, missing(req.getId()));
+				} else {
+					resp.onCompleted();
+				}
+				return;
+			}
+			var result = lease.value();
+			var impacts = result.impactIndex();
+			if (impacts == null) {
+				resp.onCompleted();
+				return;
+			}
 
-		var refData = Refs.dataOf(db);
-		for (var impact : impacts) {
-			var value = result.getTotalImpactValueOf(impact);
-			var proto = ResultValue.newBuilder()
-				.setImpact(Refs.refOf(impact, refData))
-				.setValue(value)
-				.build();
-			resp.onNext(proto);
+			var refData = Refs.dataOf(db);
+			for (var impact : impacts) {
+				var value = result.getTotalImpactValueOf(impact);
+				var proto = ResultValue.newBuilder()
+					.setImpact(Refs.refOf(impact, refData))
+					.setValue(value)
+					.build();
+				resp.onNext(proto);
+			}
+			resp.onCompleted();
 		}
-		resp.onCompleted();
 	}
 
 	@Override
@@ -176,67 +209,72 @@ class ResultService extends ResultServiceGrpc.ResultServiceImplBase {
 		ImpactFactorRequest req, StreamObserver<ImpactFactorResponse> resp) {
 
 		// check that we have a result with  flows and impacts
-		var result = results.get(req.getResult().getId());
-		if (result == null) {
-			resp.onError(Status.INVALID_ARGUMENT
-				.withDescription("Invalid result ID")
-				.asException());
-			return;
-		}
-		var flowIndex = result.enviIndex();
-		var impactIndex = result.impactIndex();
-		if (flowIndex == null || impactIndex == null) {
-			resp.onCompleted();
-			return;
-		}
+		try (var lease = results.acquire(req.getResult().getId())) {
+			if (lease == null) {
+				var id = req.getResult().getId();
+				resp.onError(Status.INVALID_ARGUMENT
+					.withDescription(results.isEvicted(id)
+						? missing(id)
+						: "Invalid result ID")
+					.asException());
+				return;
+			}
+			var result = lease.value();
+			var flowIndex = result.enviIndex();
+			var impactIndex = result.impactIndex();
+			if (flowIndex == null || impactIndex == null) {
+				resp.onCompleted();
+				return;
+			}
 
-		// check that we have at least an indicator or flow
-		var indicator = Results.findImpact(result, req.getIndicator());
-		var flow = Results.findFlow(result, req.getFlow());
-		if (flow == null && indicator == null) {
-			resp.onCompleted();
-			return;
-		}
+			// check that we have at least an indicator or flow
+			var indicator = Results.findImpact(result, req.getIndicator());
+			var flow = Results.findFlow(result, req.getFlow());
+			if (flow == null && indicator == null) {
+				resp.onCompleted();
+				return;
+			}
 
-		var refData = Refs.dataOf(db);
+			var refData = Refs.dataOf(db);
 
-		// get one specific factor of an indicator and flow
-		if (indicator != null && flow != null) {
-			var factor = ImpactFactorResponse.newBuilder()
-				.setIndicator(Refs.refOf(indicator))
-				.setFlow(Results.toProto(flow, refData))
-				.setValue(result.getImpactFactorOf(indicator, flow));
-			resp.onNext(factor.build());
-			resp.onCompleted();
-			return;
-		}
+			// get one specific factor of an indicator and flow
+			if (indicator != null && flow != null) {
+				var factor = ImpactFactorResponse.newBuilder()
+					.setIndicator(Refs.refOf(indicator))
+					.setFlow(Results.toProto(flow, refData))
+					.setValue(result.getImpactFactorOf(indicator, flow));
+				resp.onNext(factor.build());
+				resp.onCompleted();
+				return;
+			}
 
-		// get non-zero factors of an indicator
-		if (flow == null) {
-			var indicatorRef = Refs.refOf(indicator);
-			for (var iFlow : flowIndex) {
-				var value = result.getImpactFactorOf(indicator, iFlow);
-				if (value == 0)
-					continue;
+			// get non-zero factors of an indicator
+			if (flow == null) {
+				var indicatorRef = Refs.refOf(indicator);
+				for (var iFlow : flowIndex) {
+					var value = result.getImpactFactorOf(indicator, iFlow);
+					if (value == 0)
+						continue;
+					var factor = ImpactFactorResponse.newBuilder()
+						.setIndicator(indicatorRef)
+						.setFlow(Results.toProto(iFlow, refData))
+						.setValue(value);
+					resp.onNext(factor.build());
+				}
+				resp.onCompleted();
+				return;
+			}
+
+			// get all impact factors of a flow
+			for (var impact : impactIndex) {
 				var factor = ImpactFactorResponse.newBuilder()
-					.setIndicator(indicatorRef)
-					.setFlow(Results.toProto(iFlow, refData))
-					.setValue(value);
+					.setIndicator(Refs.refOf(impact))
+					.setFlow(Results.toProto(flow, refData))
+					.setValue(result.getImpactFactorOf(impact, flow));
 				resp.onNext(factor.build());
 			}
 			resp.onCompleted();
-			return;
 		}
-
-		// get all impact factors of a flow
-		for (var impact : impactIndex) {
-			var factor = ImpactFactorResponse.newBuilder()
-				.setIndicator(Refs.refOf(impact))
-				.setFlow(Results.toProto(flow, refData))
-				.setValue(result.getImpactFactorOf(impact, flow));
-			resp.onNext(factor.build());
-		}
-		resp.onCompleted();
 	}
 
 	@Override
@@ -286,10 +324,19 @@ class ResultService extends ResultServiceGrpc.ResultServiceImplBase {
 
 	@Override
 	public void dispose(ProtoResultRef req, StreamObserver<Empty> resp) {
-		results.remove(req.getId());
+		// the result is disposed when it is not used by other requests
+		results.dispose(req.getId());
 		// we always return ok, even when the result does not exist
 		resp.onNext(Empty.newBuilder().build());
 		resp.onCompleted();
 	}
 
+	/**
+	 * Returns the error message for a result that is not in the store.
+	 */
+	String missing(String id) {
+		return results.isEvicted(id)
+			? "Result was evicted from the server: " + id
+			: "Result does not exist: " + id;
+	}
 }
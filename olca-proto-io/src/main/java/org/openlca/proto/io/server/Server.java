@@ -12,16 +12,18 @@ public class Server {
 
 	private final ServerConfig config;
 	private final io.grpc.Server server;
+	private final ResultService results;
 
 	public Server(ServerConfig config) {
 		this.config = Objects.requireNonNull(config);
 		var db = config.db();
+		this.results = new ResultService(config);
 		this.server = ServerBuilder.forPort(config.port())
 			.maxInboundMessageSize(1024 * 1024 * 1024)
 			.addService(new DataFetchService(db))
 			.addService(new DataUpdateService(db))
 			.addService(new FlowMapService(db))
-			.addService(new ResultService(config))
+			.addService(results)
 			.addService(new AboutService(db))
 			.build();
 	}
@@ -42,6 +44,7 @@ public class Server {
 		try {
 			if (!server.isShutdown()) {
 				server.shutdown().awaitTermination(5, TimeUnit.MINUTES);
+				results.dispose();
 			}
 		} catch (Exception e) {
 			throw new RuntimeException("failed to stop server", e);
@@ -1,11 +1,13 @@
 package org.openlca.proto.io.server;
 
+import java.util.function.DoubleSupplier;
 import java.util.function.ToDoubleBiFunction;
 
 import org.openlca.core.matrix.index.EnviFlow;
 import org.openlca.core.matrix.index.TechFlow;
 import org.openlca.core.model.descriptors.ImpactDescriptor;
 import org.openlca.core.results.LcaResult;
+import org.openlca.core.services.ResultStore;
 import org.openlca.proto.grpc.ResultValue;
 import org.openlca.proto.grpc.TechFlowContributionRequest;
 import org.openlca.proto.io.output.Refs;
@@ -17,6 +19,7 @@ class TechFlowContribution {
 	private final StreamObserver<ResultValue> resp;
 	private final ResultService service;
 
+	private ResultStore.Lease<LcaResult> lease;
 	private LcaResult result;
 	private TechFlow product;
 	private ImpactDescriptor impact;
@@ -36,9 +39,11 @@ class TechFlowContribution {
 			return resolved.error(
 				"A valid result and tech-flow are required");
 		var resultId = req.getResult().getId();
-		var result = service.results.get(resultId);
-		if (result == null)
-			return resolved.error("The result does not exist: " + resultId);
+		var lease = service.results.acquire(resultId);
+		if (lease == null)
+			return resolved.error(service.missing(resultId));
+		resolved.lease = lease;
+		var result = lease.value();
 		resolved.result = result;
 
 		// also, the product is required
@@ -69,7 +74,7 @@ class TechFlowContribution {
 		ToDoubleTriFunction<LcaResult, ImpactDescriptor, TechFlow> fn) {
 		if (isClosed || impact == null)
 			return this;
-		closeWith(fn.applyAsDouble(result, impact, product));
+		closeWith(() -> fn.applyAsDouble(result, impact, product));
 		return this;
 	}
 
@@ -77,7 +82,7 @@ class TechFlowContribution {
 		ToDoubleTriFunction<LcaResult, EnviFlow, TechFlow> fn) {
 		if (isClosed || flow == null)
 			return this;
-		closeWith(fn.applyAsDouble(result, flow, product));
+		closeWith(() -> fn.applyAsDouble(result, flow, product));
 		return this;
 	}
 
@@ -85,33 +90,50 @@ class TechFlowContribution {
 		ToDoubleBiFunction<LcaResult, TechFlow> fn) {
 		if (isClosed || !forCosts)
 			return this;
-		closeWith(fn.applyAsDouble(result, product));
+		closeWith(() -> fn.applyAsDouble(result, product));
 		return this;
 	}
 
-	private void closeWith(double value) {
+	/**
+	 * Computes the value with the given function and sends it. The pinned
+	 * result is released in any case, also when the function fails.
+	 */
+	private void closeWith(DoubleSupplier fn) {
 		if (isClosed)
 			return;
-		var refData = Refs.dataOf(service.db);
-		var proto = ResultValue.newBuilder()
-			.setTechFlow(Results.toProto(product, refData))
-			.setValue(value)
-			.build();
-		resp.onNext(proto);
-		resp.onCompleted();
 		isClosed = true;
+		try {
+			var value = fn.getAsDouble();
+			var refData = Refs.dataOf(service.db);
+			var proto = ResultValue.newBuilder()
+				.setTechFlow(Results.toProto(product, refData))
+				.setValue(value)
+				.build();
+			resp.onNext(proto);
+			resp.onCompleted();
+		} finally {
+			release();
+		}
 	}
 
 	private TechFlowContribution error(String message) {
 		Response.invalidArg(resp, message);
 		isClosed = true;
+		release();
 		return this;
 	}
 
 	void close() {
 		if (isClosed)
 			return;
-		closeWith(0);
+		closeWith(() -> 0);
+	}
+
+	private void release() {
+		if (lease != null) {
+			lease.close();
+			lease = null;
+		}
 	}
 
 	@FunctionalInterface